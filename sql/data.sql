@@ -48,3 +48,23 @@ VALUES (1, 2, 160000, 8000, 0, 0, 85000, 25000, 0, 0, 5000, 0, 5000, '', false),
        (3, 3, 30000, 1500, 0, 0, 0, 0, 0, 0, 0, 0, 1000, '', false),
        (4, 2, 50000, 2500, 0, 0, 20000, 7000, 0, 0, 0, 0, 1000, '', false),
        (5, 3, 700000, 14000, 0, 0, 350000, 40000, 0, 0, 5000, 0, 4000, '', false);
+
+-- 不動産収支集計（上記の不動産情報から集計します。以降は不動産情報の登録・更新・削除時に差分更新されます）
+INSERT INTO portfolio_summary (user_id, building_type, building_structure, project_count, financed_count,
+                               total_price, monthly_rent, monthly_operating_expenses, monthly_debt_service)
+SELECT pj.user_id,
+       COALESCE(bu.building_type, ''),
+       COALESCE(bu.building_structure, ''),
+       COUNT(*),
+       COALESCE(SUM(CASE WHEN ie.principal > 0 OR ie.interest > 0 THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(COALESCE(pa.parcel_price, 0) + COALESCE(bu.building_price, 0)), 0),
+       COALESCE(SUM(ie.rent), 0),
+       COALESCE(SUM(ie.maintenance_cost + ie.repair_fund + ie.management_fee + ie.tax
+         + ie.water_bill + ie.electric_bill + ie.gas_bill + ie.fire_insurance), 0),
+       COALESCE(SUM(ie.principal + ie.interest), 0)
+FROM projects AS pj
+LEFT JOIN parcels AS pa ON pj.id = pa.project_id
+LEFT JOIN buildings AS bu ON pj.id = bu.project_id
+LEFT JOIN income_and_expenses AS ie ON pj.id = ie.project_id
+WHERE pj.is_deleted = false
+GROUP BY pj.user_id, COALESCE(bu.building_type, ''), COALESCE(bu.building_structure, '');
@@ -10,6 +10,10 @@ CREATE TABLE projects (
     is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ'
 ) COMMENT = 'プロジェクト情報テーブル';
 
+-- 土地・建物・収支テーブルはプロジェクトの削除に合わせて削除されるよう、プロジェクトIDに外部キー（ON DELETE CASCADE）を設定します。
+-- 利用者の削除操作はprojectsテーブルの論理削除（is_deleted = true）のみで、物理削除はRealestatePurgeJobがprojectsテーブルへの
+-- DELETEで行い、土地・建物・収支情報は外部キーにより合わせて削除されます。
+
 -- 2. 土地テーブル
 CREATE TABLE parcels (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -20,7 +24,8 @@ CREATE TABLE parcels (
     parcel_category VARCHAR(50) COMMENT '土地カテゴリ',
     parcel_size DOUBLE COMMENT '土地面積',
     parcel_remark VARCHAR(100) COMMENT '土地備考',
-    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ'
+    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ',
+    CONSTRAINT fk_parcels_project_id FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE
 ) COMMENT = '土地情報テーブル';
 
 -- 3. 建物テーブル
@@ -34,7 +39,8 @@ CREATE TABLE buildings (
     building_size DOUBLE COMMENT '建物面積',
     building_date DATE COMMENT '建築年月日',
     building_remark VARCHAR(100) COMMENT '建物備考',
-    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ'
+    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ',
+    CONSTRAINT fk_buildings_project_id FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE
 ) COMMENT = '建物情報テーブル';
 
 -- 4. 収支テーブル
@@ -54,7 +60,8 @@ CREATE TABLE income_and_expenses (
     gas_bill INT COMMENT 'ガス代',
     fire_insurance INT COMMENT '火災保険',
     other VARCHAR(100) COMMENT 'その他',
-    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ'
+    is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ',
+    CONSTRAINT fk_income_expenses_project_id FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE
 ) COMMENT = '収支情報テーブル';
 
 -- 5. ユーザーテーブル
@@ -72,20 +79,60 @@ CREATE TABLE users (
     password_changed_at TIMESTAMP NULL COMMENT 'パスワード変更日時',
     login_failed_attempts INT DEFAULT 0 COMMENT 'ログイン失敗回数',
     account_locked_until TIMESTAMP DEFAULT NULL COMMENT 'アカウントロック期限',
+    token_version BIGINT NOT NULL DEFAULT 0 COMMENT 'トークンバージョン（失効時刻のエポックミリ秒。これより小さいバージョンのトークンは失効済み）',
     is_deleted BOOLEAN NOT NULL DEFAULT false COMMENT '論理削除フラグ'
 ) COMMENT = 'ユーザー情報テーブル';
 
+-- 6. 一括登録進捗テーブル
+CREATE TABLE import_progress (
+    user_id INT NOT NULL COMMENT 'ユーザーID',
+    import_id VARCHAR(64) NOT NULL COMMENT '一括登録ID（クライアントが指定）',
+    committed_rows INT NOT NULL DEFAULT 0 COMMENT '登録済みの行番号（この行までは再開時に読み飛ばします）',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '最終更新日時',
+    PRIMARY KEY (user_id, import_id)
+) COMMENT = '一括登録進捗テーブル';
+
+-- 7. 不動産収支集計テーブル
+-- ユーザー・建物種別・建物構造ごとの集計値を、不動産情報の登録・更新・削除と同じトランザクション内で差分更新します。
+-- 収支サマリーの取得はこのテーブルの数行を読み込むだけのため、プロジェクト数によらず一定の時間で取得できます。
+-- 集計値はRealestateSummaryService.rebuild()（管理者API）でプロジェクト・土地・建物・収支テーブルから再計算できます。
+CREATE TABLE portfolio_summary (
+    user_id INT NOT NULL COMMENT 'ユーザーID',
+    building_type VARCHAR(50) NOT NULL DEFAULT '' COMMENT '建物種別（未入力の場合は空文字）',
+    building_structure VARCHAR(50) NOT NULL DEFAULT '' COMMENT '建物構造（未入力の場合は空文字）',
+    project_count INT NOT NULL DEFAULT 0 COMMENT 'プロジェクト数',
+    financed_count INT NOT NULL DEFAULT 0 COMMENT 'ローン返済（元金または利息）があるプロジェクト数',
+    total_price BIGINT NOT NULL DEFAULT 0 COMMENT '取得価格（土地価格と建物価格）の合計',
+    monthly_rent BIGINT NOT NULL DEFAULT 0 COMMENT '月収入の合計',
+    monthly_operating_expenses BIGINT NOT NULL DEFAULT 0 COMMENT '月経費（ローン返済を除く）の合計',
+    monthly_debt_service BIGINT NOT NULL DEFAULT 0 COMMENT 'ローン月返済（元金と利息）の合計',
+    PRIMARY KEY (user_id, building_type, building_structure)
+) COMMENT = '不動産収支集計テーブル';
+
 -- ============================================
 -- インデックス作成
 -- ============================================
 
--- プロジェクトテーブル
-CREATE INDEX idx_projects_user_id ON projects(user_id);
+-- プロジェクトテーブル（不動産検索のキーセットページング用に並び替え項目、プロジェクトIDの順で複合インデックスを作成）
+-- 検索は論理削除されていない行（is_deleted = false）のみが対象のため、ユーザーIDの次に論理削除フラグを含めます。
+CREATE INDEX idx_projects_user_id_is_deleted_id ON projects(user_id, is_deleted, id);
+-- プロジェクト名はNULLを空文字として並び替え・比較するため、検索と同じ式（関数インデックス）でインデックスを作成します。
+CREATE INDEX idx_projects_user_id_is_deleted_project_name
+    ON projects(user_id, is_deleted, (COALESCE(project_name, '')), id);
+-- 論理削除済みプロジェクトの物理削除（RealestatePurgeJob）用
+CREATE INDEX idx_projects_is_deleted_id ON projects(is_deleted, id);
 
 -- 土地テーブル
 CREATE INDEX idx_parcels_project_id ON parcels(project_id);
 CREATE INDEX idx_parcels_user_id ON parcels(user_id);
 
+-- 全文検索インデックス（プロジェクト名、土地住所の2文字以上の検索語で使用）
+-- 日本語を分かち書きせずに検索するためngramパーサー（ngram_token_size=2：既定値）を使用します。
+-- 英字を含む語（例：「AP」）がストップワードにより除外されないよう、ストップワードを無効にして作成します。
+SET SESSION innodb_ft_enable_stopword = OFF;
+CREATE FULLTEXT INDEX ft_projects_project_name ON projects(project_name) WITH PARSER ngram;
+CREATE FULLTEXT INDEX ft_parcels_parcel_address ON parcels(parcel_address) WITH PARSER ngram;
+
 -- 建物テーブル
 CREATE INDEX idx_buildings_project_id ON buildings(project_id);
 CREATE INDEX idx_buildings_user_id ON buildings(user_id);
@@ -0,0 +1,199 @@
+package com.katok09.realestate.management.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ログイン成功1回あたりのDB処理のスループット（ログイン数/秒）を比較する負荷テスト
+ * <p>
+ * legacyLogin は従来の処理（ロック期限切れ確認のSELECT、認証のSELECT、失敗回数リセットのUPDATE、最終ログイン日時のUPDATE。
+ * 前半2つの処理はそれぞれトランザクションの開始・コミットを伴います）、currentLogin は現在の処理（SELECTと1回のUPDATE）です。
+ * パスワードの照合（BCrypt）はどちらも同じため計測対象外です。スレッドごとに1接続を使用し、4スレッドで並行にログインします。
+ * <p>
+ * benchmark.jdbc.urlを指定しない場合はH2をTCPサーバーとして起動して接続します（ループバックのDB往復を計測します）。
+ * MySQLで計測する場合は接続先を指定してください。検証用テーブル（bench_login_users）を作成し、終了時に削除します。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="LoginRoundTripBenchmark -jvmArgsAppend
+ * -Dbenchmark.jdbc.url=jdbc:mysql://localhost:3306/realestate_bench
+ * -Dbenchmark.jdbc.username=root -Dbenchmark.jdbc.password=secret"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoginRoundTripBenchmark {
+
+  private static final int USERS = 1000;
+
+  private static final String SELECT_USER = "SELECT id, password, login_failed_attempts,"
+      + " account_locked_until, enabled FROM bench_login_users WHERE username = ?"
+      + " AND is_deleted = false";
+  private static final String RESET_LOCK = "UPDATE bench_login_users"
+      + " SET login_failed_attempts = 0, account_locked_until = NULL,"
+      + " updated_at = CURRENT_TIMESTAMP WHERE id = ? AND is_deleted = false";
+  private static final String UPDATE_LAST_LOGIN = "UPDATE bench_login_users"
+      + " SET last_login_at = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND is_deleted = false";
+  private static final String LOGIN_SUCCEEDED = "UPDATE bench_login_users"
+      + " SET login_failed_attempts = 0, account_locked_until = NULL, last_login_at = ?,"
+      + " updated_at = CURRENT_TIMESTAMP WHERE id = ? AND is_deleted = false";
+
+  private Object server;
+  private String url;
+  private String username;
+  private String password;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    url = System.getProperty("benchmark.jdbc.url");
+    username = System.getProperty("benchmark.jdbc.username", "root");
+    password = System.getProperty("benchmark.jdbc.password", "");
+    if (url == null) {
+      // TCP接続ではDBを作成できないため、同じプロセス内で先にインメモリDBを作成します。
+      DriverManager.getConnection("jdbc:h2:mem:login_bench;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "")
+          .close();
+      // H2はjmhの実行時クラスパスのみにあるため、リフレクションで起動します。
+      Class<?> serverClass = Class.forName("org.h2.tools.Server");
+      server = serverClass.getMethod("createTcpServer", String[].class)
+          .invoke(null, (Object) new String[]{"-tcpPort", "0"});
+      serverClass.getMethod("start").invoke(server);
+      int port = (int) serverClass.getMethod("getPort").invoke(server);
+      url = "jdbc:h2:tcp://localhost:" + port + "/mem:login_bench;MODE=MySQL;DB_CLOSE_DELAY=-1";
+      username = "sa";
+      password = "";
+    }
+
+    try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS bench_login_users");
+      statement.execute("CREATE TABLE bench_login_users (id INT AUTO_INCREMENT PRIMARY KEY,"
+          + " username VARCHAR(50) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL,"
+          + " enabled BOOLEAN NOT NULL DEFAULT TRUE, login_failed_attempts INT NOT NULL DEFAULT 0,"
+          + " account_locked_until TIMESTAMP NULL, last_login_at TIMESTAMP NULL,"
+          + " updated_at TIMESTAMP NULL, is_deleted BOOLEAN NOT NULL DEFAULT FALSE)");
+      try (PreparedStatement insert = connection.prepareStatement(
+          "INSERT INTO bench_login_users(username, password) VALUES (?, ?)")) {
+        for (int i = 0; i < USERS; i++) {
+          insert.setString(1, "user" + i);
+          insert.setString(2, "$2a$10$7imSMTO8x43cBc9LdoeRTOPLsNvxUaxElB9dDzEv5RhoYdY6x8ve6");
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS bench_login_users");
+    }
+    if (server != null) {
+      server.getClass().getMethod("stop").invoke(server);
+    }
+  }
+
+  private Connection connect() throws SQLException {
+    return DriverManager.getConnection(url, username, password);
+  }
+
+  /**
+   * スレッドごとの接続（コネクションプールの接続と同様に自動コミットが有効な状態で使用します）
+   */
+  @State(Scope.Thread)
+  public static class Session {
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Connection connection;
+    private PreparedStatement selectUser;
+    private PreparedStatement resetLock;
+    private PreparedStatement updateLastLogin;
+    private PreparedStatement loginSucceeded;
+
+    @Setup(Level.Trial)
+    public void setup(LoginRoundTripBenchmark benchmark) throws SQLException {
+      connection = benchmark.connect();
+      selectUser = connection.prepareStatement(SELECT_USER);
+      resetLock = connection.prepareStatement(RESET_LOCK);
+      updateLastLogin = connection.prepareStatement(UPDATE_LAST_LOGIN);
+      loginSucceeded = connection.prepareStatement(LOGIN_SUCCEEDED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+      connection.close();
+    }
+
+    String nextUsername() {
+      return "user" + random.nextInt(USERS);
+    }
+  }
+
+  /**
+   * 従来の処理：ロック期限切れ確認（トランザクション内のSELECT）、認証（SELECT）、失敗回数のリセット（トランザクション内の
+   * UPDATE）、最終ログイン日時の更新（UPDATE）
+   */
+  @Benchmark
+  public int legacyLogin(Session session) throws SQLException {
+    String name = session.nextUsername();
+    Connection connection = session.connection;
+
+    connection.setAutoCommit(false);
+    selectUser(session.selectUser, name);
+    connection.commit();
+    connection.setAutoCommit(true);
+
+    int id = selectUser(session.selectUser, name);
+
+    connection.setAutoCommit(false);
+    session.resetLock.setInt(1, id);
+    session.resetLock.executeUpdate();
+    connection.commit();
+    connection.setAutoCommit(true);
+
+    session.updateLastLogin.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+    session.updateLastLogin.setInt(2, id);
+    return session.updateLastLogin.executeUpdate();
+  }
+
+  /**
+   * 現在の処理：ユーザー情報の読み込み（SELECT）とログイン成功の記録（1回のUPDATE）
+   */
+  @Benchmark
+  public int currentLogin(Session session) throws SQLException {
+    int id = selectUser(session.selectUser, session.nextUsername());
+
+    session.loginSucceeded.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+    session.loginSucceeded.setInt(2, id);
+    return session.loginSucceeded.executeUpdate();
+  }
+
+  private static int selectUser(PreparedStatement statement, String name) throws SQLException {
+    statement.setString(1, name);
+    try (ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+}
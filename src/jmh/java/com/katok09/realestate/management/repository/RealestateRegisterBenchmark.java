@@ -0,0 +1,169 @@
+package com.katok09.realestate.management.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 不動産登録1件あたりのレイテンシを比較するベンチマーク
+ * <p>
+ * sequential* は現在の処理（プロジェクト・土地・建物・収支情報を1件ずつ登録する4往復）、multiStatement* は土地・建物・収支情報を
+ * 1回の呼び出しで登録する場合（2往復）です。いずれも1件ごとにコミットします。
+ * <p>
+ * 複数文の実行にはJDBC URLのallowMultiQueries=trueが必要で、ドライバのSQLインジェクション対策を緩めることになるため、
+ * アプリケーションでは採用していません。multiStatement* は採用した場合の短縮幅を確認するためのものです。
+ * <p>
+ * MySQL互換のDBが必要です。検証用テーブル（bench_register_*）を作成し、終了時に削除します。JDBC URLにはallowMultiQueries=trueを指定してください。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="RealestateRegisterBenchmark -jvmArgsAppend
+ * -Dbenchmark.jdbc.url=jdbc:mysql://localhost:3306/realestate_bench?allowMultiQueries=true
+ * -Dbenchmark.jdbc.username=root -Dbenchmark.jdbc.password=secret"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RealestateRegisterBenchmark {
+
+  private static final String PROJECT_INSERT =
+      "INSERT INTO bench_register_projects(user_id, project_name) VALUES (?, ?)";
+  private static final String PARCEL_INSERT =
+      "INSERT INTO bench_register_parcels(project_id, user_id, parcel_address) VALUES (?, ?, ?)";
+  private static final String BUILDING_INSERT =
+      "INSERT INTO bench_register_buildings(project_id, user_id, building_type) VALUES (?, ?, ?)";
+  private static final String INCOME_INSERT =
+      "INSERT INTO bench_register_income_and_expenses(project_id, user_id, rent) VALUES (?, ?, ?)";
+
+  private Connection connection;
+  private PreparedStatement projectInsert;
+  private PreparedStatement parcelInsert;
+  private PreparedStatement buildingInsert;
+  private PreparedStatement incomeInsert;
+  private PreparedStatement detailsInsert;
+
+  @Setup(Level.Trial)
+  public void setup() throws SQLException {
+    String url = System.getProperty("benchmark.jdbc.url");
+    if (url == null) {
+      throw new IllegalStateException("benchmark.jdbc.urlにMySQLの接続先を指定してください。");
+    }
+    connection = DriverManager.getConnection(url,
+        System.getProperty("benchmark.jdbc.username", "root"),
+        System.getProperty("benchmark.jdbc.password", ""));
+
+    try (Statement statement = connection.createStatement()) {
+      dropTables(statement);
+      statement.execute("CREATE TABLE bench_register_projects (id INT AUTO_INCREMENT PRIMARY KEY,"
+          + " user_id INT NOT NULL, project_name VARCHAR(255) NOT NULL)");
+      for (String table : new String[]{"parcels", "buildings", "income_and_expenses"}) {
+        String column = switch (table) {
+          case "parcels" -> "parcel_address VARCHAR(255)";
+          case "buildings" -> "building_type VARCHAR(255)";
+          default -> "rent INT";
+        };
+        statement.execute("CREATE TABLE bench_register_" + table
+            + " (id INT AUTO_INCREMENT PRIMARY KEY, project_id INT NOT NULL,"
+            + " user_id INT NOT NULL, " + column + ", INDEX (project_id))");
+      }
+    }
+
+    connection.setAutoCommit(false);
+    projectInsert = connection.prepareStatement(PROJECT_INSERT, Statement.RETURN_GENERATED_KEYS);
+    parcelInsert = connection.prepareStatement(PARCEL_INSERT, Statement.RETURN_GENERATED_KEYS);
+    buildingInsert = connection.prepareStatement(BUILDING_INSERT, Statement.RETURN_GENERATED_KEYS);
+    incomeInsert = connection.prepareStatement(INCOME_INSERT, Statement.RETURN_GENERATED_KEYS);
+    detailsInsert = connection.prepareStatement(
+        PARCEL_INSERT + ";" + BUILDING_INSERT + ";" + INCOME_INSERT);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.setAutoCommit(true);
+    try (Statement statement = connection.createStatement()) {
+      dropTables(statement);
+    }
+    connection.close();
+  }
+
+  /**
+   * 現在の処理：4件のINSERTをそれぞれ実行し、各INSERTで自動採番値を取得します。
+   */
+  @Benchmark
+  public int sequentialRegister() throws SQLException {
+    int projectId = insertProject();
+
+    bindChild(parcelInsert, 1, projectId, "新潟県三条市東三条");
+    executeWithKey(parcelInsert);
+    bindChild(buildingInsert, 1, projectId, "アパート");
+    executeWithKey(buildingInsert);
+    incomeInsert.setInt(1, projectId);
+    incomeInsert.setInt(2, 1);
+    incomeInsert.setInt(3, 50000);
+    executeWithKey(incomeInsert);
+
+    connection.commit();
+    return projectId;
+  }
+
+  /**
+   * 複数文の場合：プロジェクト登録後、土地・建物・収支情報の3件のINSERTを1回の呼び出しで実行します。
+   */
+  @Benchmark
+  public int multiStatementRegister() throws SQLException {
+    int projectId = insertProject();
+
+    bindChild(detailsInsert, 1, projectId, "新潟県三条市東三条");
+    bindChild(detailsInsert, 4, projectId, "アパート");
+    detailsInsert.setInt(7, projectId);
+    detailsInsert.setInt(8, 1);
+    detailsInsert.setInt(9, 50000);
+    detailsInsert.execute();
+
+    connection.commit();
+    return projectId;
+  }
+
+  private int insertProject() throws SQLException {
+    projectInsert.setInt(1, 1);
+    projectInsert.setString(2, "東三条AP");
+    return executeWithKey(projectInsert);
+  }
+
+  private static void bindChild(PreparedStatement statement, int offset, int projectId,
+      String value) throws SQLException {
+    statement.setInt(offset, projectId);
+    statement.setInt(offset + 1, 1);
+    statement.setString(offset + 2, value);
+  }
+
+  private static int executeWithKey(PreparedStatement statement) throws SQLException {
+    statement.executeUpdate();
+    try (ResultSet keys = statement.getGeneratedKeys()) {
+      keys.next();
+      return keys.getInt(1);
+    }
+  }
+
+  private static void dropTables(Statement statement) throws SQLException {
+    statement.execute("DROP TABLE IF EXISTS bench_register_projects, bench_register_parcels,"
+        + " bench_register_buildings, bench_register_income_and_expenses");
+  }
+}
@@ -0,0 +1,200 @@
+package com.katok09.realestate.management.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * プロジェクト名・土地住所の部分一致検索（LIKE）と全文検索（ngram FULLTEXT）のレイテンシを比較するベンチマーク
+ * <p>
+ * MySQLが必要です。初回実行時に検証用テーブル（bench_projects_*、bench_parcels_*）を作成し、rows件のデータを生成します
+ * （同じrows・usersで再実行した場合は生成済みのデータを再利用します）。検索はアプリケーションと同様にユーザーIDで絞り込み、
+ * プロジェクトID順に1ページ分（51件）を取得します。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="RealestateSearchBenchmark -jvmArgsAppend
+ * -Dbenchmark.jdbc.url=jdbc:mysql://localhost:3306/realestate_bench?rewriteBatchedStatements=true
+ * -Dbenchmark.jdbc.username=root -Dbenchmark.jdbc.password=secret"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RealestateSearchBenchmark {
+
+  private static final int PAGE_SIZE = 51;
+  private static final int INSERT_BATCH_SIZE = 5000;
+
+  private static final String[] CITIES = {"新潟市中央区", "新潟市東区", "長岡市", "三条市", "燕市",
+      "村上市", "上越市", "新発田市", "柏崎市", "見附市"};
+  private static final String[] TOWNS = {"東三条", "西三条", "南四日町", "寿町", "本町", "東裏館",
+      "旭町", "栄町", "緑町", "幸町", "昭和町", "大島", "荒町", "四日町", "上須頃", "月岡"};
+  private static final String[] SUFFIXES = {"AP", "戸建", "マンション", "ハイツ", "コーポ", "ボロ戸建"};
+
+  // 生成するプロジェクト件数
+  @Param({"1000000"})
+  private int rows;
+
+  // データを保有するユーザー数（1ユーザーあたりのプロジェクト件数はrows / users）
+  @Param({"1000", "1"})
+  private int users;
+
+  @Param({"like", "fulltext"})
+  private String mode;
+
+  // 頻出する語、一部に出現する語、存在しない語
+  @Param({"三条", "裏館", "該当なし"})
+  private String term;
+
+  private Connection connection;
+  private PreparedStatement projectNameQuery;
+  private PreparedStatement parcelAddressQuery;
+  private int userId;
+
+  @Setup(Level.Trial)
+  public void setup() throws SQLException {
+    String url = System.getProperty("benchmark.jdbc.url");
+    if (url == null) {
+      throw new IllegalStateException("benchmark.jdbc.urlにMySQLの接続先を指定してください。");
+    }
+    connection = DriverManager.getConnection(url,
+        System.getProperty("benchmark.jdbc.username", "root"),
+        System.getProperty("benchmark.jdbc.password", ""));
+
+    String suffix = "_" + rows + "_" + users;
+    String projects = "bench_projects" + suffix;
+    String parcels = "bench_parcels" + suffix;
+    if (!exists(projects)) {
+      createTables(projects, parcels);
+      generate(projects, parcels);
+    }
+
+    projectNameQuery = connection.prepareStatement(query(projects, parcels, "pj.project_name"));
+    parcelAddressQuery = connection.prepareStatement(query(projects, parcels, "pa.parcel_address"));
+    // データ件数が中程度のユーザーを検索対象とします。
+    userId = users / 2 + 1;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public int searchProjectName() throws SQLException {
+    return execute(projectNameQuery);
+  }
+
+  @Benchmark
+  public int searchParcelAddress() throws SQLException {
+    return execute(parcelAddressQuery);
+  }
+
+  private int execute(PreparedStatement statement) throws SQLException {
+    statement.setInt(1, userId);
+    statement.setString(2, term);
+    int count = 0;
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * マッパーXMLのsearchRealestateと同じ条件式で検索クエリを組み立てます。
+   */
+  private String query(String projects, String parcels, String column) {
+    String condition = "fulltext".equals(mode)
+        ? "MATCH(" + column + ") AGAINST(CONCAT('\"', REPLACE(?, '\"', ''), '\"') IN BOOLEAN MODE)"
+        : column + " LIKE CONCAT('%', ?, '%')";
+    return "SELECT pj.id, pj.project_name, pa.parcel_address FROM " + projects + " pj"
+        + " LEFT JOIN " + parcels + " pa ON pj.id = pa.project_id"
+        + " WHERE pj.user_id = ? AND " + condition
+        + " ORDER BY pj.id LIMIT " + PAGE_SIZE;
+  }
+
+  private boolean exists(String table) throws SQLException {
+    try (ResultSet resultSet = connection.getMetaData()
+        .getTables(connection.getCatalog(), null, table, null)) {
+      return resultSet.next();
+    }
+  }
+
+  private void createTables(String projects, String parcels) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE " + projects + " ("
+          + "id INT PRIMARY KEY, user_id INT NOT NULL, project_name VARCHAR(255) NOT NULL)");
+      statement.execute("CREATE TABLE " + parcels + " ("
+          + "id INT PRIMARY KEY, project_id INT NOT NULL, user_id INT NOT NULL,"
+          + " parcel_address VARCHAR(255))");
+    }
+  }
+
+  private void generate(String projects, String parcels) throws SQLException {
+    Random random = new Random(42);
+    connection.setAutoCommit(false);
+    try (PreparedStatement projectInsert = connection.prepareStatement(
+        "INSERT INTO " + projects + " (id, user_id, project_name) VALUES (?, ?, ?)");
+        PreparedStatement parcelInsert = connection.prepareStatement(
+            "INSERT INTO " + parcels + " (id, project_id, user_id, parcel_address)"
+                + " VALUES (?, ?, ?, ?)")) {
+      for (int id = 1; id <= rows; id++) {
+        int owner = (id - 1) % users + 1;
+        String town = TOWNS[random.nextInt(TOWNS.length)];
+
+        projectInsert.setInt(1, id);
+        projectInsert.setInt(2, owner);
+        projectInsert.setString(3, town + SUFFIXES[random.nextInt(SUFFIXES.length)] + id);
+        projectInsert.addBatch();
+
+        parcelInsert.setInt(1, id);
+        parcelInsert.setInt(2, id);
+        parcelInsert.setInt(3, owner);
+        parcelInsert.setString(4, "新潟県" + CITIES[random.nextInt(CITIES.length)] + town
+            + (random.nextInt(9) + 1) + "丁目" + (random.nextInt(30) + 1) + "-"
+            + (random.nextInt(20) + 1));
+        parcelInsert.addBatch();
+
+        if (id % INSERT_BATCH_SIZE == 0 || id == rows) {
+          projectInsert.executeBatch();
+          parcelInsert.executeBatch();
+          connection.commit();
+        }
+      }
+    } finally {
+      connection.setAutoCommit(true);
+    }
+
+    // データ投入後にインデックスを作成します（schema.sqlと同じ構成）。
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE INDEX idx_user_id_id ON " + projects + "(user_id, id)");
+      statement.execute("CREATE INDEX idx_project_id ON " + parcels + "(project_id)");
+      statement.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+      statement.execute("CREATE FULLTEXT INDEX ft_project_name ON " + projects
+          + "(project_name) WITH PARSER ngram");
+      statement.execute("CREATE FULLTEXT INDEX ft_parcel_address ON " + parcels
+          + "(parcel_address) WITH PARSER ngram");
+    }
+  }
+}
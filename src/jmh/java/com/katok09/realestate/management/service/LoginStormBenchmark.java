@@ -0,0 +1,126 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.YieldRanking;
+import com.katok09.realestate.management.exception.LoginOverloadedException;
+import com.katok09.realestate.management.util.YieldSnapshot;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * ログインの集中時に、他のAPIの処理時間がパスワード照合（既定強度のBCrypt）の影響を受けるかを比較するベンチマーク
+ * <p>
+ * storm件のログインを別スレッドで連続して実行しながら、1万物件の利回りランキング（検索APIと同じくCPUで処理する短いリクエスト
+ * の代わり）の処理時間の分布を計測します。noneはログインなし、directはリクエスト処理スレッドで照合した場合（変更前）、
+ * executorはPasswordVerifierの専用スレッドプールで照合した場合です（拒否されたログインは10ms後に再試行します）。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="LoginStormBenchmark"
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginStormBenchmark {
+
+  @Param({"none", "direct", "executor"})
+  private String mode;
+
+  // 同時にログインするクライアント数
+  @Param("32")
+  private int storm;
+
+  private final List<Thread> clients = new ArrayList<>();
+  private volatile boolean running;
+  private PasswordVerifier verifier;
+  private YieldSnapshot snapshot;
+  private RankingParams params;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(1);
+    List<RealestateDetail> details = new ArrayList<>();
+    for (int i = 1; i <= 10000; i++) {
+      Project project = new Project();
+      project.setId(i);
+      Parcel parcel = new Parcel();
+      parcel.setParcelPrice(random.nextLong(1000000L, 50000000L));
+      Building building = new Building();
+      building.setBuildingPrice(random.nextLong(1000000L, 50000000L));
+      IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+      incomeAndExpenses.setRent(random.nextInt(30000, 500000));
+      details.add(new RealestateDetail(project, parcel, building, incomeAndExpenses));
+    }
+    snapshot = YieldSnapshot.of(details);
+    params = new RankingParams();
+
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    String hash = encoder.encode("password123");
+    verifier = new PasswordVerifier(encoder, 0, 32);
+    running = true;
+    int clientCount = mode.equals("none") ? 0 : storm;
+    for (int i = 0; i < clientCount; i++) {
+      Thread client = new Thread(() -> {
+        while (running) {
+          if (mode.equals("direct")) {
+            encoder.matches("password123", hash);
+            continue;
+          }
+          try {
+            verifier.matches("password123", hash);
+          } catch (LoginOverloadedException e) {
+            sleep();
+          }
+        }
+      });
+      client.setDaemon(true);
+      client.start();
+      clients.add(client);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    running = false;
+    for (Thread client : clients) {
+      client.join();
+    }
+    System.out.printf("%nlogins verified=%d rejected=%d%n", verifier.getVerifiedCount(),
+        verifier.getRejectedCount());
+    verifier.shutdown();
+  }
+
+  @Benchmark
+  public YieldRanking search() {
+    return snapshot.rank(params);
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(10);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
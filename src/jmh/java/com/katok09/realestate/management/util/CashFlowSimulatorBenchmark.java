@@ -0,0 +1,75 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CashFlowSimulatorの1回のシミュレーション（物件数×試行回数×35年）の処理時間を計測するベンチマーク
+ * <p>
+ * 既定の1,000物件×10,000試行（3.5億回の物件・年ごとの計算）で1秒未満となることを確認します。
+ * 並列数は実行環境のCPUコア数です。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="CashFlowSimulatorBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CashFlowSimulatorBenchmark {
+
+  @Param("1000")
+  private int properties;
+
+  @Param("10000")
+  private int paths;
+
+  private ForkJoinPool pool;
+  private CashFlowSimulator simulator;
+  private long[] annualRents;
+  private SimulationParams params;
+
+  @Setup
+  public void setup() {
+    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    simulator = new CashFlowSimulator(pool);
+
+    // 月3万～20万円の家賃の物件
+    SplittableRandom random = new SplittableRandom(1);
+    annualRents = new long[properties];
+    for (int i = 0; i < properties; i++) {
+      annualRents[i] = random.nextInt(30000, 200000) * 12L;
+    }
+
+    params = new SimulationParams();
+    params.setPaths(paths);
+    params.setSeed(12345L);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public SimulationResult simulate() {
+    return simulator.simulate(annualRents, properties * 5000 * 12.0, properties * 20000 * 12.0,
+        properties * 8000 * 12.0, params);
+  }
+}
@@ -0,0 +1,135 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.data.User;
+import com.katok09.realestate.management.service.UserDetailsServiceImpl.CustomUserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JwtUtilのトークン検証スループット（tokens verified/sec）を計測するベンチマーク
+ * <p>
+ * legacy* は秘密鍵・パーサーをトークンごとに生成していた従来の処理、cached* は起動時に生成した秘密鍵・パーサーを再利用する現在の処理です。
+ * *RequestPipeline はリクエスト1件あたりのトークン処理（フィルターでの認証からサービスでのユーザーID取得まで）を比較します。
+ * concurrent* は複数スレッドから同じトークンを検証し、検証済みトークンのキャッシュのヒット時と、キャッシュを無効にした署名検証を比較します。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+  private static final String SECRET = "0d23a3165a573697c6b07e432ea358c4fa099b143d442c1a0e40e9ac6bc0368e";
+
+  private JwtUtil jwtUtil;
+  private JwtUtil tokenCachedJwtUtil;
+  private String token;
+  private CustomUserPrincipal userDetails;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    jwtUtil = new JwtUtil();
+    setField(jwtUtil, "secret", SECRET);
+    setField(jwtUtil, "expirationInSeconds", 86400L);
+    jwtUtil.init();
+
+    tokenCachedJwtUtil = new JwtUtil();
+    setField(tokenCachedJwtUtil, "secret", SECRET);
+    setField(tokenCachedJwtUtil, "expirationInSeconds", 86400L);
+    setField(tokenCachedJwtUtil, "tokenCacheMaxSize", 10000);
+    tokenCachedJwtUtil.init();
+
+    token = jwtUtil.generateToken("DummyUser", "USER", 1);
+
+    User user = new User();
+    user.setUsername("DummyUser");
+    userDetails = new CustomUserPrincipal(user);
+  }
+
+  /**
+   * 従来の処理：トークン検証ごとに秘密鍵とパーサーを生成します。
+   */
+  @Benchmark
+  public Claims legacyVerify() {
+    return legacyParse(token);
+  }
+
+  /**
+   * 現在の処理：生成済みの秘密鍵とパーサーでトークンを検証します。
+   */
+  @Benchmark
+  public VerifiedClaims cachedVerify() {
+    return jwtUtil.parseToken(token);
+  }
+
+  /**
+   * 従来のリクエスト1件分の処理：フィルターでのユーザー名取得、validateTokenでの2回の解析、サービスでのユーザーID取得で計4回解析します。
+   */
+  @Benchmark
+  public int legacyRequestPipeline() {
+    String username = legacyParse(token).getSubject();
+    boolean valid = username.equals(userDetails.getUsername())
+        && legacyParse(token).getSubject() != null
+        && legacyParse(token).getExpiration() != null;
+    int userId = (Integer) legacyParse(token).get("userId");
+    return valid ? userId : -1;
+  }
+
+  /**
+   * 現在のリクエスト1件分の処理：フィルターで1度だけ解析し、以降は検証済みクレームを参照します。
+   */
+  @Benchmark
+  public int parseOnceRequestPipeline() {
+    VerifiedClaims claims = jwtUtil.parseToken(token);
+    boolean valid = jwtUtil.validateToken(claims, userDetails);
+    return valid ? claims.getUserId() : -1;
+  }
+
+  /**
+   * 4スレッドから同じトークンを検証します（検証済みトークンのキャッシュにヒットします）。
+   */
+  @Benchmark
+  @Threads(4)
+  public VerifiedClaims concurrentCachedVerify() {
+    return tokenCachedJwtUtil.parseToken(token);
+  }
+
+  /**
+   * 4スレッドから同じトークンを、キャッシュを使用せずに署名検証します。
+   */
+  @Benchmark
+  @Threads(4)
+  public VerifiedClaims concurrentUncachedVerify() {
+    return jwtUtil.parseToken(token);
+  }
+
+  private static Claims legacyParse(String token) {
+    return Jwts.parser()
+        .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+
+  private static void setField(Object target, String name, Object value)
+      throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+}
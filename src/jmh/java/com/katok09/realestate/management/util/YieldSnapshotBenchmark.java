@@ -0,0 +1,113 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.YieldRanking;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 利回りランキング（建物種別で絞り込んだ実質利回りの上位10件）の処理時間を、列指向のスナップショットと不動産情報のオブジェクトの
+ * リスト（検索結果をストリームで絞り込み・並べ替え）で比較するベンチマーク
+ * <p>
+ * snapshotはスナップショットの構築時間で、スナップショットは登録・更新・削除の後の初回のランキング取得時に構築されます。
+ * <p>
+ * 実行例: gradle jmh -PjmhArgs="YieldSnapshotBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class YieldSnapshotBenchmark {
+
+  private static final String[] BUILDING_TYPES = {"マンション", "アパート", "戸建て", "店舗", "事務所"};
+
+  @Param({"1000", "100000"})
+  private int properties;
+
+  private List<RealestateDetail> details;
+  private YieldSnapshot snapshot;
+  private RankingParams params;
+
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(1);
+    details = new ArrayList<>(properties);
+    for (int i = 1; i <= properties; i++) {
+      Project project = new Project();
+      project.setId(i);
+      project.setProjectName("Project" + i);
+      Parcel parcel = new Parcel();
+      parcel.setParcelPrice(random.nextLong(1000000L, 50000000L));
+      Building building = new Building();
+      building.setBuildingPrice(random.nextLong(1000000L, 50000000L));
+      building.setBuildingType(BUILDING_TYPES[random.nextInt(BUILDING_TYPES.length)]);
+      building.setBuildingStructure("木造");
+      IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+      incomeAndExpenses.setRent(random.nextInt(30000, 500000));
+      incomeAndExpenses.setMaintenanceCost(random.nextInt(0, 30000));
+      incomeAndExpenses.setTax(random.nextInt(0, 20000));
+      details.add(new RealestateDetail(project, parcel, building, incomeAndExpenses));
+    }
+    snapshot = YieldSnapshot.of(details);
+
+    params = new RankingParams();
+    params.setSort("netYield");
+    params.setBuildingType("アパート");
+  }
+
+  @Benchmark
+  public YieldRanking columnar() {
+    return snapshot.rank(params);
+  }
+
+  @Benchmark
+  public List<RealestateDetail> objectGraph() {
+    return details.stream()
+        .filter(detail -> "アパート".equals(detail.getBuilding().getBuildingType()))
+        .filter(detail -> totalPrice(detail) > 0)
+        .sorted(Comparator.comparingDouble(YieldSnapshotBenchmark::netYield).reversed()
+            .thenComparingInt(detail -> detail.getProject().getId()))
+        .limit(params.getLimit())
+        .toList();
+  }
+
+  @Benchmark
+  public YieldSnapshot snapshot() {
+    return YieldSnapshot.of(details);
+  }
+
+  private static long totalPrice(RealestateDetail detail) {
+    return detail.getParcel().getParcelPrice() + detail.getBuilding().getBuildingPrice();
+  }
+
+  private static double netYield(RealestateDetail detail) {
+    IncomeAndExpenses incomeAndExpenses = detail.getIncomeAndExpenses();
+    int operatingExpenses = incomeAndExpenses.getMaintenanceCost()
+        + incomeAndExpenses.getRepairFund() + incomeAndExpenses.getManagementFee()
+        + incomeAndExpenses.getTax() + incomeAndExpenses.getWaterBill()
+        + incomeAndExpenses.getElectricBill() + incomeAndExpenses.getGasBill()
+        + incomeAndExpenses.getFireInsurance();
+    return (incomeAndExpenses.getRent() - operatingExpenses) * 1200.0 / totalPrice(detail);
+  }
+}
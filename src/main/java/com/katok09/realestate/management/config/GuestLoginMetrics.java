@@ -0,0 +1,38 @@
+package com.katok09.realestate.management.config;
+
+import com.katok09.realestate.management.service.GuestLoginService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * ゲストログインで発行したトークン数・レート制限で拒否したリクエスト数をActuatorのメトリクス（/actuator/metrics）として公開します。
+ */
+@Component
+public class GuestLoginMetrics implements MeterBinder {
+
+  private final GuestLoginService guestLoginService;
+
+  public GuestLoginMetrics(GuestLoginService guestLoginService) {
+    this.guestLoginService = guestLoginService;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("auth.guest.tokens.issued", guestLoginService,
+            service -> service.getIssuedCount() - service.getFastPathCount())
+        .tag("path", "password")
+        .description("ログイン処理（パスワード照合）を行い発行したゲストトークン数")
+        .register(registry);
+    FunctionCounter.builder("auth.guest.tokens.issued", guestLoginService,
+            GuestLoginService::getFastPathCount)
+        .tag("path", "cached")
+        .description("照合済みのゲストユーザー情報から発行したゲストトークン数")
+        .register(registry);
+    FunctionCounter.builder("auth.guest.rate-limited", guestLoginService,
+            GuestLoginService::getRateLimitedCount)
+        .description("レート制限により拒否したゲストログイン数")
+        .register(registry);
+  }
+}
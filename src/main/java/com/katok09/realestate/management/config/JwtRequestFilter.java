@@ -1,13 +1,18 @@
 package com.katok09.realestate.management.config;
 
+import com.katok09.realestate.management.service.TokenRevocationRegistry;
 import com.katok09.realestate.management.service.UserDetailsServiceImpl;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -16,16 +21,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
  * Jwt認証フィルター リクエストがある度に実行されます。
+ * <p>
+ * security.auth.claims-trusted=trueの場合はクレーム信頼モードとなり、DBを参照せず署名検証済みクレームのロールから認証情報を生成します。
+ * このモードではユーザーの無効化・ロック等はTokenRevocationRegistryのトークンバージョンにより反映されます。
  */
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
   private final UserDetailsServiceImpl userDetailsService;
   private final JwtUtil jwtUtil;
+  private final TokenRevocationRegistry revocationRegistry;
+  private final boolean claimsTrusted;
 
-  public JwtRequestFilter(UserDetailsServiceImpl userDetailsService, JwtUtil jwtUtil) {
+  public JwtRequestFilter(UserDetailsServiceImpl userDetailsService, JwtUtil jwtUtil,
+      TokenRevocationRegistry revocationRegistry,
+      @Value("${security.auth.claims-trusted:false}") boolean claimsTrusted) {
     this.userDetailsService = userDetailsService;
     this.jwtUtil = jwtUtil;
+    this.revocationRegistry = revocationRegistry;
+    this.claimsTrusted = claimsTrusted;
   }
 
   /**
@@ -44,13 +58,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     final String requestTokenHeader = request.getHeader("Authorization");
 
-    String username = null;
-    String jwtToken = null;
+    VerifiedClaims claims = null;
 
     if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-      jwtToken = requestTokenHeader.substring(7);
+      String jwtToken = requestTokenHeader.substring(7);
       try {
-        username = jwtUtil.getUsernameFromToken(jwtToken);
+        // 署名検証とクレームの解析はリクエストごとにここで1度だけ行います。
+        claims = jwtUtil.parseToken(jwtToken);
       } catch (RuntimeException e) {
         logger.warn("JWTトークンの解析に失敗しました: " + e.getMessage());
       }
@@ -58,22 +72,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
       logger.debug("JWTトークンが存在しないか、Bearer形式ではありません");
     }
 
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+    if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      String username = claims.getUsername();
+      UsernamePasswordAuthenticationToken authToken = claimsTrusted
+          ? authenticateByClaims(claims)
+          : authenticateByDatabase(claims);
 
-      if (jwtUtil.validateToken(jwtToken, userDetails)) {
-
-        UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(
-                userDetails,
-                null,
-                userDetails.getAuthorities()
-            );
+      if (authToken != null) {
 
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
+        // 解析済みクレームをリクエスト属性に格納し、コントローラーでの再解析を不要にします。
+        request.setAttribute(VerifiedClaims.REQUEST_ATTRIBUTE, claims);
+
         logger.debug("ユーザー認証成功: " + username);
       } else {
         logger.warn("JWTトークン検証に失敗しました: " + username);
@@ -83,6 +96,42 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
   }
 
+  /**
+   * DBから取得したユーザー詳細情報を使用して認証情報を生成します。
+   *
+   * @param claims 署名検証済みのクレーム情報
+   * @return 認証情報 トークンが無効な場合はnullが返ります。
+   */
+  private UsernamePasswordAuthenticationToken authenticateByDatabase(VerifiedClaims claims) {
+    UserDetails userDetails = userDetailsService.loadUserByUsernameCached(claims.getUsername());
+    if (!jwtUtil.validateToken(claims, userDetails)) {
+      return null;
+    }
+    return new UsernamePasswordAuthenticationToken(
+        userDetails,
+        null,
+        userDetails.getAuthorities()
+    );
+  }
+
+  /**
+   * 署名検証済みクレームのロールから認証情報を生成します（クレーム信頼モード）。
+   *
+   * @param claims 署名検証済みのクレーム情報
+   * @return 認証情報 トークンが期限切れ・失効済み、またはロールを持たない場合はnullが返ります。
+   */
+  private UsernamePasswordAuthenticationToken authenticateByClaims(VerifiedClaims claims) {
+    if (claims.isExpired() || claims.getRole() == null
+        || revocationRegistry.isRevoked(claims.getUserId(), claims.getTokenVersion())) {
+      return null;
+    }
+    return new UsernamePasswordAuthenticationToken(
+        claims.getUsername(),
+        null,
+        List.of(new SimpleGrantedAuthority("ROLE_" + claims.getRole()))
+    );
+  }
+
   /**
    * 認証が不要なエンドポイントのフィルター除外 doFilterInternalが実行される前にこちらでフィルター処理必要有無をチェックします。
    *
@@ -0,0 +1,28 @@
+package com.katok09.realestate.management.config;
+
+import java.util.Properties;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatisの設定クラス
+ * <p>
+ * 接続先のDB製品名からdatabaseId（mysql、h2）を判定し、マッパーXMLで_databaseIdとして参照できるようにします。
+ * MySQLでは全文検索（MATCH ... AGAINST）、H2（テスト環境）ではLIKE検索のように、DB固有の構文を切り替えるために使用します。
+ */
+@Configuration
+public class MyBatisConfig {
+
+  @Bean
+  public DatabaseIdProvider databaseIdProvider() {
+    Properties properties = new Properties();
+    properties.setProperty("MySQL", "mysql");
+    properties.setProperty("H2", "h2");
+
+    VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
+    databaseIdProvider.setProperties(properties);
+    return databaseIdProvider;
+  }
+}
@@ -0,0 +1,50 @@
+package com.katok09.realestate.management.config;
+
+import com.katok09.realestate.management.service.PasswordVerifier;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * ログイン時のパスワード照合用スレッドプールの照合時間・待ち時間・実行数・待ち行列の件数・拒否数を
+ * Actuatorのメトリクス（/actuator/metrics）として公開します。
+ * <p>
+ * APIごとの応答時間はhttp.server.requests（uriタグ）で確認できます。
+ */
+@Component
+public class PasswordVerifierMetrics implements MeterBinder {
+
+  private final PasswordVerifier passwordVerifier;
+
+  public PasswordVerifierMetrics(PasswordVerifier passwordVerifier) {
+    this.passwordVerifier = passwordVerifier;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionTimer.builder("auth.password.verify", passwordVerifier,
+            PasswordVerifier::getVerifiedCount, PasswordVerifier::getTotalVerifyNanos,
+            TimeUnit.NANOSECONDS)
+        .description("パスワードの照合・再ハッシュ化の処理時間")
+        .register(registry);
+    FunctionTimer.builder("auth.password.queue.wait", passwordVerifier,
+            PasswordVerifier::getVerifiedCount, PasswordVerifier::getTotalWaitNanos,
+            TimeUnit.NANOSECONDS)
+        .description("パスワードの照合・再ハッシュ化の開始までの待ち時間")
+        .register(registry);
+    FunctionCounter.builder("auth.password.rejected", passwordVerifier,
+            PasswordVerifier::getRejectedCount)
+        .description("待ち行列が上限に達したため拒否したログイン数")
+        .register(registry);
+    Gauge.builder("auth.password.active", passwordVerifier, PasswordVerifier::getActiveCount)
+        .description("照合中のパスワード数")
+        .register(registry);
+    Gauge.builder("auth.password.queue.size", passwordVerifier, PasswordVerifier::getQueueSize)
+        .description("照合待ちのパスワード数")
+        .register(registry);
+  }
+}
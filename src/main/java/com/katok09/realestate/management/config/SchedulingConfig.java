@@ -0,0 +1,15 @@
+package com.katok09.realestate.management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定期実行処理の設定クラス
+ * <p>
+ * 論理削除済みの不動産情報の物理削除（RealestatePurgeJob）などの@Scheduledを有効にします。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
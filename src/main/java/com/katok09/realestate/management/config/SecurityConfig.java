@@ -1,6 +1,11 @@
 package com.katok09.realestate.management.config;
 
+import com.katok09.realestate.management.util.BCryptStrengthCalibrator;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +15,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -24,6 +30,13 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableWebSecurity
 public class SecurityConfig {
 
+  private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+  // パスワードのハッシュ化アルゴリズムのID（ハッシュの先頭に{bcrypt}として保存されます）
+  private static final String PASSWORD_ENCODING_ID = "bcrypt";
+  // BCryptの強度の下限（Spring Securityの既定値）と上限
+  private static final int MIN_BCRYPT_STRENGTH = 10;
+  private static final int MAX_BCRYPT_STRENGTH = 16;
 
   private final String[] allowedOrigins;
   private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
@@ -39,12 +52,29 @@ public class SecurityConfig {
 
   /**
    * パスワードエンコーダーのBean定義
+   * <p>
+   * ハッシュはアルゴリズムのIDを先頭に付けて保存し（{bcrypt}$2a$強度$...）、IDの無い従来のハッシュもBCryptとして照合します。
+   * BCryptの強度は、指定が無い場合は起動時に計測し、1回のハッシュ化が目標時間に収まる最大の強度（下限10）とします。
+   * 保存されているハッシュのアルゴリズム・強度が古い場合は、ログイン成功時に再ハッシュ化します（AuthService）。
    *
-   * @return BCryptPasswordEncoderインスタンス
+   * @param strength     BCryptの強度（0：起動時に計測して決定）
+   * @param targetMillis 起動時に計測する場合の1回のハッシュ化の目標時間（ms）
+   * @return DelegatingPasswordEncoderインスタンス
    */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${security.password.bcrypt-strength:0}") int strength,
+      @Value("${security.password.target-millis:100}") long targetMillis) {
+    if (strength <= 0) {
+      strength = BCryptStrengthCalibrator.calibrate(targetMillis, MIN_BCRYPT_STRENGTH,
+          MAX_BCRYPT_STRENGTH);
+      logger.info("BCryptの強度を{}に設定しました（目標時間: {}ms）", strength, targetMillis);
+    }
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+    DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(PASSWORD_ENCODING_ID,
+        Map.of(PASSWORD_ENCODING_ID, bcrypt));
+    encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return encoder;
   }
 
   /**
@@ -72,6 +102,8 @@ public class SecurityConfig {
     http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
         .csrf(csrf -> csrf.disable())
         .authorizeHttpRequests(authz -> authz
+            // ストリーミングレスポンス完了時の非同期ディスパッチ（元のリクエストで認可済み）
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             // 認証不要のエンドポイント
             .requestMatchers("/api/auth/login", "/api/auth/guest-login", "/api/auth/register")
             .permitAll()
@@ -82,6 +114,9 @@ public class SecurityConfig {
 
             // Actuator（詳細情報）は認証必要
             .requestMatchers("/actuator/info").authenticated()
+
+            // Actuator（メトリクス）は管理者のみ
+            .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
             .requestMatchers("/actuator/**").denyAll() // その他のactuatorは拒否
 
             // 管理者専用のエンドポイント
@@ -92,7 +127,7 @@ public class SecurityConfig {
             // 不動産管理API（認証が必要）
             .requestMatchers("/api/searchRealestate", "/api/registerRealestate",
                 "/api/updateRealestate",
-                "/api/deleteRealestate/**").authenticated()
+                "/api/deleteRealestate/**", "/api/realestate/**").authenticated()
             // その他は認証が必要
             .anyRequest().authenticated()
         )
@@ -0,0 +1,49 @@
+package com.katok09.realestate.management.config;
+
+import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 検証済みトークンキャッシュのヒット数・ミス数・破棄数をActuatorのメトリクス（/actuator/metrics）として公開します。
+ */
+@Component
+public class TokenCacheMetrics implements MeterBinder {
+
+  private final JwtUtil jwtUtil;
+
+  public TokenCacheMetrics(JwtUtil jwtUtil) {
+    this.jwtUtil = jwtUtil;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    VerifiedTokenCache cache = jwtUtil.getTokenCache();
+
+    FunctionCounter.builder("jwt.token.cache.requests", cache, VerifiedTokenCache::getHitCount)
+        .tag("result", "hit")
+        .description("検証済みトークンキャッシュのヒット数")
+        .register(registry);
+    FunctionCounter.builder("jwt.token.cache.requests", cache, VerifiedTokenCache::getMissCount)
+        .tag("result", "miss")
+        .description("検証済みトークンキャッシュのミス数")
+        .register(registry);
+    FunctionCounter.builder("jwt.token.cache.evictions", cache,
+            VerifiedTokenCache::getSizeEvictionCount)
+        .tag("cause", "size")
+        .description("最大件数超過により破棄されたエントリ数")
+        .register(registry);
+    FunctionCounter.builder("jwt.token.cache.evictions", cache,
+            VerifiedTokenCache::getExpiredEvictionCount)
+        .tag("cause", "expired")
+        .description("トークンの有効期限切れにより破棄されたエントリ数")
+        .register(registry);
+    Gauge.builder("jwt.token.cache.size", cache, VerifiedTokenCache::size)
+        .description("検証済みトークンキャッシュの保持件数")
+        .register(registry);
+  }
+}
@@ -3,11 +3,12 @@ package com.katok09.realestate.management.controller;
 import com.katok09.realestate.management.data.User;
 import com.katok09.realestate.management.dto.StatusRequest;
 import com.katok09.realestate.management.service.AdminService;
+import com.katok09.realestate.management.service.RealestateSummaryService;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.List;
@@ -18,7 +19,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -35,10 +38,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
   private final AdminService adminService;
+  private final RealestateSummaryService summaryService;
   private final JwtUtil jwtUtil;
 
-  public AdminController(AdminService adminService, JwtUtil jwtUtil) {
+  public AdminController(AdminService adminService, RealestateSummaryService summaryService,
+      JwtUtil jwtUtil) {
     this.adminService = adminService;
+    this.summaryService = summaryService;
     this.jwtUtil = jwtUtil;
   }
 
@@ -61,22 +67,22 @@ public class AdminController {
    *
    * @param userId        更新対象のユーザーID
    * @param statusRequest ステータスリクエストDTO
-   * @param httpRequest   httpリクエスト
+   * @param claims        JwtRequestFilterで検証済みのクレーム情報
    * @return 結果のレスポンス
    */
   @PutMapping("/users/{userId}/updateStatus")
   @Operation(summary = "指定ユーザーのステータス変更", description = "指定ユーザーのrole、enabled、login_failed_attempts、account_locked_untilを変更")
   public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable int userId,
-      @Valid @RequestBody StatusRequest statusRequest, HttpServletRequest httpRequest) {
+      @Valid @RequestBody StatusRequest statusRequest,
+      @RequestAttribute(name = VerifiedClaims.REQUEST_ATTRIBUTE, required = false)
+      VerifiedClaims claims) {
 
-    String token = jwtUtil.extractTokenFromRequest(httpRequest);
-
-    if (token == null) {
+    if (claims == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(jwtUtil.createErrorResponse("MISSING_TOKEN",
               "Authorization ヘッダーが見つかりません"));
     }
-    int selfUserId = jwtUtil.getUserIdFromToken(token);
+    int selfUserId = claims.getUserId();
 
     adminService.updateStatus(userId, selfUserId, statusRequest);
 
@@ -95,4 +101,23 @@ public class AdminController {
 
   }
 
+  /**
+   * 全ユーザーの不動産収支集計を再計算します。
+   *
+   * @return 結果のレスポンス
+   */
+  @PostMapping("/portfolio-summary/rebuild")
+  @Operation(summary = "不動産収支集計の再計算", description = "全ユーザーの不動産収支集計をプロジェクト・土地・建物・収支情報から再計算")
+  public ResponseEntity<Map<String, Object>> rebuildPortfolioSummary() {
+
+    int rebuiltUsers = summaryService.rebuild();
+
+    Map<String, Object> response = new HashMap<>();
+    response.put("success", true);
+    response.put("rebuiltUsers", rebuiltUsers);
+    response.put("message", "不動産収支集計を再計算しました。（" + rebuiltUsers + "ユーザー）");
+    return ResponseEntity.ok(response);
+
+  }
+
 }
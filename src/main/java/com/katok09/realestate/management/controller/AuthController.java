@@ -6,7 +6,9 @@ import com.katok09.realestate.management.dto.RegisterRequest;
 import com.katok09.realestate.management.dto.UpdateRequest;
 import com.katok09.realestate.management.dto.UserInfo;
 import com.katok09.realestate.management.service.AuthService;
+import com.katok09.realestate.management.service.GuestLoginService;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,10 +37,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
   private final AuthService authService;
+  private final GuestLoginService guestLoginService;
   private final JwtUtil jwtUtil;
 
-  public AuthController(AuthService authService, JwtUtil jwtUtil) {
+  public AuthController(AuthService authService, GuestLoginService guestLoginService,
+      JwtUtil jwtUtil) {
     this.authService = authService;
+    this.guestLoginService = guestLoginService;
     this.jwtUtil = jwtUtil;
   }
 
@@ -59,15 +65,16 @@ public class AuthController {
   /**
    * ゲストユーザーログイン
    *
+   * @param request HTTPリクエスト（レート制限に使用するクライアントのIPアドレス。プロキシ経由の場合はX-Forwarded-Forのアドレス）
    * @return ログインレスポンス（JWTトークン、ユーザー情報）
    */
   @PostMapping("/guest-login")
   @Operation(summary = "ゲストユーザーログイン", description = "ゲストユーザーでログインします")
-  public ResponseEntity<?> guestLogin() {
+  public ResponseEntity<?> guestLogin(HttpServletRequest request) {
 
-    LoginRequest loginRequest = new LoginRequest("guest", "guest123");
+    LoginResponse loginResponse = guestLoginService.login(request.getRemoteAddr());
 
-    return login(loginRequest);
+    return ResponseEntity.ok(loginResponse);
   }
 
   /**
@@ -92,22 +99,22 @@ public class AuthController {
   /**
    * JWTトークンの有効性確認
    *
-   * @param request HTTPリクエスト
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
    * @return トークンの有効性とユーザー情報
    */
   @GetMapping("/validate")
   @Operation(summary = "トークン有効性確認", description = "JWTトークンの有効性を確認し、ユーザー情報を取得します")
-  public ResponseEntity<?> validateToken(HttpServletRequest request) {
-
-    String token = jwtUtil.extractTokenFromRequest(request);
+  public ResponseEntity<?> validateToken(
+      @RequestAttribute(name = VerifiedClaims.REQUEST_ATTRIBUTE, required = false)
+      VerifiedClaims claims) {
 
-    if (token == null) {
+    if (claims == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(jwtUtil.createErrorResponse("MISSING_TOKEN",
               "Authorization ヘッダーが見つかりません"));
     }
 
-    UserInfo userInfo = authService.validateToken(token);
+    UserInfo userInfo = authService.validateToken(claims);
 
     if (userInfo == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -117,7 +124,7 @@ public class AuthController {
     Map<String, Object> response = new HashMap<>();
     response.put("valid", true);
     response.put("userInfo", userInfo);
-    response.put("remainingMinutes", jwtUtil.getRemainingTimeInMinutes(token));
+    response.put("remainingMinutes", claims.getRemainingTimeInMinutes());
 
     return ResponseEntity.ok(response);
   }
@@ -125,22 +132,22 @@ public class AuthController {
   /**
    * 現在のユーザー情報取得
    *
-   * @param request HTTPリクエスト
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
    * @return ユーザー情報
    */
   @GetMapping("/me")
   @Operation(summary = "現在のユーザー情報取得", description = "JWTトークンから現在のユーザー情報を取得します")
-  public ResponseEntity<?> getCurrentUser(HttpServletRequest request) {
-
-    String token = jwtUtil.extractTokenFromRequest(request);
+  public ResponseEntity<?> getCurrentUser(
+      @RequestAttribute(name = VerifiedClaims.REQUEST_ATTRIBUTE, required = false)
+      VerifiedClaims claims) {
 
-    if (token == null) {
+    if (claims == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(jwtUtil.createErrorResponse("MISSING_TOKEN",
               "Authorization ヘッダーが見つかりません"));
     }
 
-    int userId = jwtUtil.getUserIdFromToken(token);
+    int userId = claims.getUserId();
     UserInfo userInfo = authService.getUserInfo(userId);
 
     return ResponseEntity.ok(userInfo);
@@ -149,24 +156,24 @@ public class AuthController {
   /**
    * ユーザー情報更新
    *
-   * @param request       HTTPリクエスト
+   * @param claims        JwtRequestFilterで検証済みのクレーム情報
    * @param updateRequest ユーザー情報更新DTO
    * @return ユーザー情報更新成功レスポンス
    */
   @PutMapping("/updateUserInfo")
   @Operation(summary = "ユーザー情報変更", description = "現在のユーザー情報を変更します")
-  public ResponseEntity<?> updateUserInfo(HttpServletRequest request,
+  public ResponseEntity<?> updateUserInfo(
+      @RequestAttribute(name = VerifiedClaims.REQUEST_ATTRIBUTE, required = false)
+      VerifiedClaims claims,
       @Valid @RequestBody UpdateRequest updateRequest) {
 
-    String token = jwtUtil.extractTokenFromRequest(request);
-
-    if (token == null) {
+    if (claims == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(jwtUtil.createErrorResponse("MISSING_TOKEN",
               "Authorization ヘッダーが見つかりません"));
     }
 
-    int userId = jwtUtil.getUserIdFromToken(token);
+    int userId = claims.getUserId();
 
     authService.updateUserInfo(userId, updateRequest);
 
@@ -213,22 +220,22 @@ public class AuthController {
   /**
    * ユーザー削除
    *
-   * @param request HTTPリクエスト
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
    * @return ユーザー削除成功レスポンス
    */
   @DeleteMapping("/deleteUser")
   @Operation(summary = "ユーザー削除", description = "ユーザーを削除します")
-  public ResponseEntity<Map<String, Object>> deleteUser(HttpServletRequest request) {
-
-    String token = jwtUtil.extractTokenFromRequest(request);
+  public ResponseEntity<Map<String, Object>> deleteUser(
+      @RequestAttribute(name = VerifiedClaims.REQUEST_ATTRIBUTE, required = false)
+      VerifiedClaims claims) {
 
-    if (token == null) {
+    if (claims == null) {
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
           .body(jwtUtil.createErrorResponse("MISSING_TOKEN",
               "Authorization ヘッダーが見つかりません"));
     }
 
-    int userId = jwtUtil.getUserIdFromToken(token);
+    int userId = claims.getUserId();
 
     authService.deleteUser(userId);
 
@@ -1,11 +1,30 @@
 package com.katok09.realestate.management.controller;
 
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.BulkDeleteRequest;
+import com.katok09.realestate.management.dto.BulkUpdateRequest;
+import com.katok09.realestate.management.dto.ImportProgress;
+import com.katok09.realestate.management.dto.ImportResult;
+import com.katok09.realestate.management.dto.PortfolioSummary;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.RealestatePage;
 import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import com.katok09.realestate.management.dto.YieldRanking;
+import com.katok09.realestate.management.service.CashFlowSimulationService;
+import com.katok09.realestate.management.service.RealestateBulkService;
+import com.katok09.realestate.management.service.RealestateExportService;
+import com.katok09.realestate.management.service.RealestateImportService;
+import com.katok09.realestate.management.service.RealestateRankingService;
 import com.katok09.realestate.management.service.RealestateService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import jakarta.validation.Valid;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,9 +33,13 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * 不動産関係のREST APIエンドポイントを提供するコントローラー
@@ -26,38 +49,98 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 public class RealestateController {
 
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
   private final RealestateService service;
+  private final RealestateExportService exportService;
+  private final RealestateImportService importService;
+  private final RealestateBulkService bulkService;
+  private final CashFlowSimulationService simulationService;
+  private final RealestateRankingService rankingService;
 
-  public RealestateController(RealestateService service) {
+  public RealestateController(RealestateService service, RealestateExportService exportService,
+      RealestateImportService importService, RealestateBulkService bulkService,
+      CashFlowSimulationService simulationService, RealestateRankingService rankingService) {
     this.service = service;
+    this.exportService = exportService;
+    this.importService = importService;
+    this.bulkService = bulkService;
+    this.simulationService = simulationService;
+    this.rankingService = rankingService;
   }
 
   /**
-   * 不動産情報の一覧表示・検索を行います。
+   * 不動産情報の一覧表示・検索を行います。結果は1ページ分ずつ返され、nextCursorを次のリクエストのcursorに指定すると続きを取得できます。
    *
    * @param searchParams 不動産検索パラメーターDTO。各フィールドがnullの場合はそのフィールドでの検索は行われません。
-   * @return エラーが発生しなければ200 OKとともに不動産情報のリストを返します。
+   * @param claims       JwtRequestFilterで検証済みのクレーム情報
+   * @return エラーが発生しなければ200 OKとともに不動産情報のリストと次ページ取得用カーソルを返します。
    */
   @GetMapping("/searchRealestate")
-  public ResponseEntity<List<RealestateDetail>> searchRealestate(
-      @Valid @ModelAttribute SearchParams searchParams, HttpServletRequest request) {
+  public ResponseEntity<RealestatePage> searchRealestate(
+      @Valid @ModelAttribute SearchParams searchParams,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
 
-    List<RealestateDetail> result = service.searchRealestate(searchParams, request);
+    RealestatePage result = service.searchRealestate(searchParams, claims.getUserId());
 
     return ResponseEntity.ok(result);
   }
 
+  /**
+   * ユーザーの不動産収支サマリー（全体・建物種別ごと・建物構造ごとの月キャッシュフロー、利回り）を取得します。
+   *
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに不動産収支サマリーを返します。
+   */
+  @GetMapping("/realestate/summary")
+  public ResponseEntity<PortfolioSummary> getSummary(
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    return ResponseEntity.ok(service.getSummary(claims.getUserId()));
+  }
+
+  /**
+   * ユーザーの全物件のキャッシュフロー（家賃・経費・ローン返済）を、空室率・家賃下落・金利変動のシナリオでモンテカルロシミュレーションします。
+   *
+   * @param params シナリオパラメーター。指定されなかった項目は既定値でシミュレーションします。
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに年ごとの年間・累計キャッシュフローのパーセンタイルを返します。
+   */
+  @GetMapping("/realestate/simulation")
+  public ResponseEntity<SimulationResult> simulateCashFlow(
+      @Valid @ModelAttribute SimulationParams params,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    return ResponseEntity.ok(simulationService.simulate(params, claims.getUserId()));
+  }
+
+  /**
+   * ユーザーの物件を表面利回り・実質利回りの順に並べたランキングを取得します。建物種別・建物構造・融資有無・利回りの下限で絞り込めます。
+   *
+   * @param params ランキングの取得パラメーター
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに絞り込み条件に該当した物件数と上位の物件を返します。
+   */
+  @GetMapping("/realestate/ranking")
+  public ResponseEntity<YieldRanking> getRanking(@Valid @ModelAttribute RankingParams params,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    return ResponseEntity.ok(rankingService.rank(params, claims.getUserId()));
+  }
+
   /**
    * 不動産情報の登録を行います。
    *
    * @param request 不動産登録情報
+   * @param claims  JwtRequestFilterで検証済みのクレーム情報
    * @return 登録成功のメッセージ
    */
   @PostMapping("/registerRealestate")
   public ResponseEntity<String> createProject(@Valid @RequestBody RealestateDetail request,
-      HttpServletRequest request_token) {
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
 
-    service.registerRealestate(request, request_token);
+    service.registerRealestate(request, claims.getUserId());
 
     return ResponseEntity.ok("登録成功");
   }
@@ -66,13 +149,14 @@ public class RealestateController {
    * 不動産登録の更新を行います。
    *
    * @param request 不動産更新情報
+   * @param claims  JwtRequestFilterで検証済みのクレーム情報
    * @return 更新成功のメッセージ
    */
   @PutMapping("/updateRealestate")
   public ResponseEntity<String> updateRealestate(@Valid @RequestBody RealestateDetail request,
-      HttpServletRequest request_token) {
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
 
-    service.updateRealestate(request, request_token);
+    service.updateRealestate(request, claims.getUserId());
 
     return ResponseEntity.ok("更新成功");
   }
@@ -80,15 +164,155 @@ public class RealestateController {
   /**
    * 不動産情報の削除を行います。
    *
-   * @param id 不動産情報のID
+   * @param id     不動産情報のID
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
    * @return 削除成功のメッセージ
    */
   @DeleteMapping("/deleteRealestate/{id}")
   public ResponseEntity<String> deleteRealestate(@PathVariable int id,
-      HttpServletRequest request_token) {
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    service.deleteRealestate(id, claims.getUserId());
+
+    return ResponseEntity.ok("削除成功");
+  }
+
+  /**
+   * 不動産情報の一括更新を行います。全件を1つのトランザクションで更新し、1件でも更新できない場合は全件が更新されません。
+   *
+   * @param request 不動産情報一括更新リクエスト
+   * @param claims  JwtRequestFilterで検証済みのクレーム情報
+   * @return 更新成功のメッセージ
+   */
+  @PutMapping("/realestate/bulk/update")
+  public ResponseEntity<String> updateRealestateBulk(@Valid @RequestBody BulkUpdateRequest request,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    bulkService.updateRealestate(request.getDetails(), claims.getUserId());
+
+    return ResponseEntity.ok("更新成功");
+  }
+
+  /**
+   * 不動産情報の一括削除を行います。全件を1つのトランザクションで削除し、1件でも削除できない場合は全件が削除されません。
+   *
+   * @param request 不動産情報一括削除リクエスト
+   * @param claims  JwtRequestFilterで検証済みのクレーム情報
+   * @return 削除成功のメッセージ
+   */
+  @PostMapping("/realestate/bulk/delete")
+  public ResponseEntity<String> deleteRealestateBulk(@Valid @RequestBody BulkDeleteRequest request,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
 
-    service.deleteRealestate(id, request_token);
+    bulkService.deleteRealestate(request.getProjectIds(), claims.getUserId());
 
     return ResponseEntity.ok("削除成功");
   }
+
+  /**
+   * 不動産情報の一括登録を行います。リクエストボディは不動産詳細情報のJSON配列、または1行1件の改行区切りJSON（NDJSON）です。
+   * 検証エラーの行は登録されず、エラー行として結果に含まれます。
+   *
+   * @param body   リクエストボディ
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに登録件数・エラー行・処理時間などの一括登録結果を返します。
+   * @throws IOException リクエストボディの読み込みに失敗した場合
+   */
+  @PostMapping(value = "/realestate/import",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+  public ResponseEntity<ImportResult> importRealestate(InputStream body,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims)
+      throws IOException {
+
+    ImportResult result = importService.importRealestate(body, claims.getUserId());
+
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * CSV形式の不動産情報の一括登録を行います。列・見出しはCSVエクスポートと同じ形式です。
+   * 一括登録IDを指定した場合、中断後に同じ一括登録IDで同じファイルを再度登録すると登録済みの行を読み飛ばして続きから登録します。
+   *
+   * @param body     リクエストボディ（UTF-8のCSV）
+   * @param importId 一括登録ID（任意 64文字以内の英数字・ハイフン・アンダースコア）
+   * @param claims   JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに登録件数・エラー行・処理時間などの一括登録結果を返します。
+   * @throws IOException リクエストボディの読み込みに失敗した場合
+   */
+  @PostMapping(value = "/realestate/import/csv", consumes = "text/csv")
+  public ResponseEntity<ImportResult> importRealestateCsv(InputStream body,
+      @RequestParam(required = false) String importId,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims)
+      throws IOException {
+
+    ImportResult result = importService.importCsv(body, claims.getUserId(), importId);
+
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * 一括登録の進捗（登録済みの行番号）を取得します。
+   *
+   * @param importId 一括登録ID
+   * @param claims   JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに一括登録の進捗を返します。
+   */
+  @GetMapping("/realestate/import/{importId}/progress")
+  public ResponseEntity<ImportProgress> getImportProgress(@PathVariable String importId,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    return ResponseEntity.ok(importService.getProgress(claims.getUserId(), importId));
+  }
+
+  /**
+   * ユーザーの全ての不動産情報を改行区切りJSON（NDJSON）でエクスポートします。
+   * 結果はDBから1件ずつ読み込みながらレスポンスへ直接書き込まれます。
+   *
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
+   * @return 200 OKとともに1行1件の不動産詳細情報を返します。
+   */
+  @GetMapping("/realestate/export")
+  public ResponseEntity<StreamingResponseBody> exportRealestate(
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims) {
+
+    int userId = claims.getUserId();
+    StreamingResponseBody body = out -> exportService.exportNdjson(userId, out);
+
+    return ResponseEntity.ok()
+        .contentType(NDJSON)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("realestate-export.ndjson").build()
+                .toString())
+        .body(body);
+  }
+
+  /**
+   * 検索条件に一致する不動産情報をCSV形式（UTF-8 BOM付き）でエクスポートします。
+   * リクエストのAccept-Encodingにgzipが含まれる場合はgzip圧縮して返します。
+   *
+   * @param searchParams   不動産検索パラメーターDTO。並び替え・ページング指定は無視されます。
+   * @param claims         JwtRequestFilterで検証済みのクレーム情報
+   * @param acceptEncoding リクエストのAccept-Encodingヘッダー
+   * @return 200 OKとともにCSVを返します。
+   */
+  @GetMapping("/realestate/export/csv")
+  public ResponseEntity<StreamingResponseBody> exportRealestateCsv(
+      @Valid @ModelAttribute SearchParams searchParams,
+      @RequestAttribute(VerifiedClaims.REQUEST_ATTRIBUTE) VerifiedClaims claims,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+    int userId = claims.getUserId();
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+    StreamingResponseBody body = out -> exportService.exportCsv(searchParams, userId, out, gzip);
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(CSV)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("realestate-export.csv").build().toString())
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
 }
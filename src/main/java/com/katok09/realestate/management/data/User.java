@@ -36,6 +36,8 @@ public class User {
   private int loginFailedAttempts;
   @Schema(description = "アカウントロック終了時間")
   private LocalDateTime accountLockedUntil;
+  @Schema(description = "トークンバージョン（これより小さいバージョンのトークンは失効済み）")
+  private long tokenVersion;
   @Schema(description = "削除フラグ", example = "false")
   private boolean isDeleted;
 
@@ -0,0 +1,24 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "不動産情報一括削除リクエスト")
+public class BulkDeleteRequest {
+
+  @Schema(description = "削除する不動産プロジェクト情報のIDリスト", example = "[1, 2, 3]")
+  @NotEmpty(message = "削除するプロジェクトIDを指定してください。")
+  @Size(max = 1000, message = "一度に削除できるのは1000件までです。")
+  private List<@NotNull Integer> projectIds;
+}
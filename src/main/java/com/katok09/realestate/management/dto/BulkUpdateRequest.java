@@ -0,0 +1,27 @@
+package com.katok09.realestate.management.dto;
+
+import com.katok09.realestate.management.domain.RealestateDetail;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "不動産情報一括更新リクエスト")
+public class BulkUpdateRequest {
+
+  @Schema(description = "更新する不動産詳細情報のリスト")
+  @NotEmpty(message = "更新する不動産情報を指定してください。")
+  @Size(max = 1000, message = "一度に更新できるのは1000件までです。")
+  @Valid
+  private List<@NotNull RealestateDetail> details;
+}
@@ -0,0 +1,29 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "1年分のキャッシュフローのパーセンタイル（全試行の分布）")
+public class CashFlowBand {
+
+  @Schema(description = "経過年数（1始まり）", example = "1")
+  private int year;
+  @Schema(description = "5パーセンタイル", example = "350000")
+  private long p5;
+  @Schema(description = "25パーセンタイル", example = "420000")
+  private long p25;
+  @Schema(description = "中央値", example = "460000")
+  private long p50;
+  @Schema(description = "75パーセンタイル", example = "500000")
+  private long p75;
+  @Schema(description = "95パーセンタイル", example = "560000")
+  private long p95;
+
+}
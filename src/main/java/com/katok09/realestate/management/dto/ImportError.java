@@ -0,0 +1,21 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "一括登録のエラー行")
+public class ImportError {
+
+  @Schema(description = "行番号 1始まり")
+  private int row;
+  @Schema(description = "エラーメッセージ")
+  private String message;
+
+}
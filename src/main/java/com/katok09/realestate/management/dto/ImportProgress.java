@@ -0,0 +1,21 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "一括登録の進捗")
+public class ImportProgress {
+
+  @Schema(description = "一括登録ID")
+  private String importId;
+  @Schema(description = "登録済みの行番号 同じ一括登録IDで再度登録した場合はこの行まで読み飛ばします。")
+  private int committedRows;
+
+}
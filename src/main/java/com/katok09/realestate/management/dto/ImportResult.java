@@ -0,0 +1,34 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "一括登録結果")
+public class ImportResult {
+
+  @Schema(description = "読み込み件数")
+  private int total;
+  @Schema(description = "登録件数")
+  private int imported;
+  @Schema(description = "読み飛ばし件数 前回までに登録済みの行を再開時に読み飛ばした件数です。")
+  private int skipped;
+  @Schema(description = "エラー件数")
+  private int failed;
+  @Schema(description = "完了フラグ 登録の失敗などで途中で中断した場合はfalseとなります。")
+  private boolean completed;
+  @Schema(description = "処理時間（ミリ秒）")
+  private long elapsedMillis;
+  @Schema(description = "1秒あたりの登録件数")
+  private double rowsPerSecond;
+  @Schema(description = "エラー行リスト")
+  private List<ImportError> errors;
+
+}
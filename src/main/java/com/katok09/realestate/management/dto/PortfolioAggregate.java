@@ -0,0 +1,31 @@
+package com.katok09.realestate.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 建物種別・建物構造ごとに集計した不動産収支の集計行
+ * <p>
+ * 金額は全て月額（収支情報）または合計（価格）です。
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioAggregate {
+
+  private String buildingType;
+  private String buildingStructure;
+  private int projectCount;
+  // ローン返済（元金または利息）があるプロジェクト数
+  private int financedCount;
+  // 土地価格と建物価格の合計
+  private long totalPrice;
+  private long monthlyRent;
+  // 管理費・修繕積立金・管理委託費・税金・水道光熱費・火災保険料の合計
+  private long monthlyOperatingExpenses;
+  // ローン元金と利息の月返済額の合計
+  private long monthlyDebtService;
+}
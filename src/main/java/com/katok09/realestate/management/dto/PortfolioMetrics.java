@@ -0,0 +1,40 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "不動産収支の集計値")
+public class PortfolioMetrics {
+
+  @Schema(description = "集計区分（建物種別・建物構造） 全体の集計値の場合はnullとなります。", example = "アパート")
+  private String label;
+  @Schema(description = "プロジェクト数", example = "2")
+  private int projectCount;
+  @Schema(description = "ローン返済（元金または利息）があるプロジェクト数", example = "0")
+  private int financedCount;
+  @Schema(description = "取得価格（土地価格と建物価格の合計）", example = "1850000")
+  private long totalPrice;
+  @Schema(description = "月収入", example = "60000")
+  private long monthlyRent;
+  @Schema(description = "月経費（ローン返済を除く）", example = "19800")
+  private long monthlyOperatingExpenses;
+  @Schema(description = "ローン月返済（元金と利息）", example = "0")
+  private long monthlyDebtService;
+  @Schema(description = "月キャッシュフロー（月収入から月経費とローン月返済を引いた額）", example = "40200")
+  private long monthlyCashFlow;
+  @Schema(description = "年間キャッシュフロー", example = "482400")
+  private long annualCashFlow;
+  @Schema(description = "表面利回り（%） 取得価格が0円の場合はnullとなります。", example = "38.92")
+  private Double grossYield;
+  @Schema(description = "実質利回り（%） 月収入から月経費を引いた年額の取得価格に対する割合です。取得価格が0円の場合はnullとなります。",
+      example = "26.08")
+  private Double netYield;
+
+}
@@ -0,0 +1,24 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "ユーザーの不動産収支サマリー")
+public class PortfolioSummary {
+
+  @Schema(description = "全体の集計値")
+  private PortfolioMetrics total;
+  @Schema(description = "建物種別ごとの集計値")
+  private List<PortfolioMetrics> byBuildingType;
+  @Schema(description = "建物構造ごとの集計値")
+  private List<PortfolioMetrics> byBuildingStructure;
+
+}
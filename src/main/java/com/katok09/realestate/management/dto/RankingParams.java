@@ -0,0 +1,50 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 利回りランキングの取得パラメーター
+ * <p>
+ * 絞り込み条件が未指定（null・空文字）の項目では絞り込みを行いません。建物種別・建物構造は完全一致で絞り込みます。
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Schema(description = "利回りランキングの取得パラメーター")
+public class RankingParams {
+
+  @Schema(description = "並び替え項目（grossYield：表面利回り順、netYield：実質利回り順）", example = "grossYield")
+  @Pattern(regexp = "^(|grossYield|netYield)$", message = "並び替え項目はgrossYieldまたはnetYieldを指定してください。")
+  private String sort;
+  @Schema(description = "並び順（desc：高い順、asc：低い順）", example = "desc")
+  @Pattern(regexp = "^(|asc|desc)$", message = "並び順はascまたはdescを指定してください。")
+  private String order;
+  @Schema(description = "取得件数", example = "10")
+  @Min(value = 1, message = "取得件数は1～100で指定してください。")
+  @Max(value = 100, message = "取得件数は1～100で指定してください。")
+  private int limit = 10;
+  @Schema(description = "建物種別", example = "アパート")
+  @Pattern(regexp = "^(|マンション|アパート|戸建て|店舗|事務所|その他)$", message = "建物種別は指定された選択肢から選んでください。")
+  private String buildingType;
+  @Schema(description = "建物構造", example = "鉄筋コンクリート造")
+  @Pattern(regexp = "^(|鉄筋コンクリート造|鉄骨造|木造|軽量鉄骨造|その他)$", message = "建物構造は指定された選択肢から選んでください。")
+  private String buildingStructure;
+  @Schema(description = "融資の有無", example = "true")
+  private Boolean financing;
+  @Schema(description = "並び替え項目の利回りの下限（%） この値以上の物件のみ対象とします。", example = "5.0")
+  private Double minYield;
+
+  public boolean isSortByNetYield() {
+    return "netYield".equals(sort);
+  }
+
+  public boolean isAscending() {
+    return "asc".equals(order);
+  }
+}
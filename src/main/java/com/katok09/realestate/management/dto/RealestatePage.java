@@ -0,0 +1,23 @@
+package com.katok09.realestate.management.dto;
+
+import com.katok09.realestate.management.domain.RealestateDetail;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "不動産検索結果（1ページ分）")
+public class RealestatePage {
+
+  @Schema(description = "不動産詳細情報リスト")
+  private List<RealestateDetail> items;
+  @Schema(description = "次ページ取得用カーソル 最終ページの場合はnullとなります。")
+  private String nextCursor;
+
+}
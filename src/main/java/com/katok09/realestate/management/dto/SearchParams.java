@@ -1,9 +1,9 @@
 package com.katok09.realestate.management.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,7 +11,6 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "不動産検索パラメーター")
 public class SearchParams {
 
@@ -31,5 +30,38 @@ public class SearchParams {
   private String searchBuildingStructure;
   @Schema(description = "融資の有無", example = "true")
   private Boolean searchFinancing;
+  @Schema(description = "並び替え項目（id：プロジェクトID順、projectName：プロジェクト名順）", example = "id")
+  @Pattern(regexp = "^(|id|projectName)$", message = "並び替え項目はidまたはprojectNameを指定してください。")
+  private String sort;
+  @Schema(description = "並び順（asc：昇順、desc：降順）", example = "asc")
+  @Pattern(regexp = "^(|asc|desc)$", message = "並び順はascまたはdescを指定してください。")
+  private String order;
+  @Schema(description = "1ページの取得件数（上限を超える値は上限件数に切り詰められます）", example = "50")
+  @Min(value = 1, message = "取得件数は1以上を指定してください。")
+  private Integer size;
+  @Schema(description = "次ページ取得用カーソル（前ページのレスポンスのnextCursorを指定します）")
+  @Size(max = 512, message = "カーソルが不正です。")
+  private String cursor;
 
+  // 以下はサービスで設定されるリポジトリ用の値です（リクエストの値は上書きされます）
+  @Schema(hidden = true)
+  private boolean descending;
+  @Schema(hidden = true)
+  private boolean sortByProjectName;
+  @Schema(hidden = true)
+  private Integer cursorId;
+  @Schema(hidden = true)
+  private String cursorValue;
+  @Schema(hidden = true)
+  private Integer limit;
+
+  public SearchParams(int userId, String searchProjectName, String searchParcelAddress,
+      String searchBuildingType, String searchBuildingStructure, Boolean searchFinancing) {
+    this.userId = userId;
+    this.searchProjectName = searchProjectName;
+    this.searchParcelAddress = searchParcelAddress;
+    this.searchBuildingType = searchBuildingType;
+    this.searchBuildingStructure = searchBuildingStructure;
+    this.searchFinancing = searchFinancing;
+  }
 }
@@ -0,0 +1,58 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * キャッシュフローシミュレーションのシナリオパラメーター
+ * <p>
+ * 率は全て年率で、0.05は5%を表します。指定されなかった項目は既定値でシミュレーションします。
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Schema(description = "キャッシュフローシミュレーションのシナリオパラメーター")
+public class SimulationParams {
+
+  @Schema(description = "シミュレーション年数", example = "35")
+  @Min(value = 1, message = "シミュレーション年数は1～50で指定してください。")
+  @Max(value = 50, message = "シミュレーション年数は1～50で指定してください。")
+  private int years = 35;
+  @Schema(description = "試行回数", example = "10000")
+  @Min(value = 100, message = "試行回数は100～100000で指定してください。")
+  @Max(value = 100000, message = "試行回数は100～100000で指定してください。")
+  private int paths = 10000;
+  @Schema(description = "平均空室率（物件・年ごとに0～平均空室率の2倍の範囲で変動します）", example = "0.05")
+  @DecimalMin(value = "0.0", message = "平均空室率は0～0.5で指定してください。")
+  @DecimalMax(value = "0.5", message = "平均空室率は0～0.5で指定してください。")
+  private double vacancyRate = 0.05;
+  @Schema(description = "家賃の平均下落率（毎年の家賃の下落率の平均）", example = "0.01")
+  @DecimalMin(value = "-0.1", message = "家賃の平均下落率は-0.1～0.1で指定してください。")
+  @DecimalMax(value = "0.1", message = "家賃の平均下落率は-0.1～0.1で指定してください。")
+  private double rentDeclineRate = 0.01;
+  @Schema(description = "家賃の変動率（毎年の家賃の下落率の標準偏差）", example = "0.02")
+  @DecimalMin(value = "0.0", message = "家賃の変動率は0～0.5で指定してください。")
+  @DecimalMax(value = "0.5", message = "家賃の変動率は0～0.5で指定してください。")
+  private double rentVolatility = 0.02;
+  @Schema(description = "利息の平均増加率（金利変動による毎年の利息の増加率の平均）", example = "0.0")
+  @DecimalMin(value = "-0.5", message = "利息の平均増加率は-0.5～0.5で指定してください。")
+  @DecimalMax(value = "0.5", message = "利息の平均増加率は-0.5～0.5で指定してください。")
+  private double interestChangeRate = 0.0;
+  @Schema(description = "利息の変動率（金利変動による毎年の利息の増加率の標準偏差）", example = "0.05")
+  @DecimalMin(value = "0.0", message = "利息の変動率は0～1で指定してください。")
+  @DecimalMax(value = "1.0", message = "利息の変動率は0～1で指定してください。")
+  private double interestVolatility = 0.05;
+  @Schema(description = "ローンの残りの返済年数（この年数の経過後はローン返済が無くなります）", example = "35")
+  @Min(value = 0, message = "ローンの残りの返済年数は0～50で指定してください。")
+  @Max(value = 50, message = "ローンの残りの返済年数は0～50で指定してください。")
+  private int loanYears = 35;
+  @Schema(description = "乱数のシード（同じシードを指定すると同じ結果になります。未指定の場合はランダムに決定します）", example = "12345")
+  private Long seed;
+
+}
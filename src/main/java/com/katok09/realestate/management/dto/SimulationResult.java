@@ -0,0 +1,32 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "キャッシュフローシミュレーションの結果")
+public class SimulationResult {
+
+  @Schema(description = "シミュレーションした物件数", example = "2")
+  private int propertyCount;
+  @Schema(description = "試行回数", example = "10000")
+  private int paths;
+  @Schema(description = "乱数のシード（同じパラメーターとシードで再実行すると同じ結果になります）", example = "12345")
+  private long seed;
+  @Schema(description = "最終年の累計キャッシュフローがマイナスとなる試行の割合", example = "0.02")
+  private double lossProbability;
+  @Schema(description = "年ごとの年間キャッシュフローのパーセンタイル")
+  private List<CashFlowBand> annualCashFlow;
+  @Schema(description = "年ごとの累計キャッシュフローのパーセンタイル")
+  private List<CashFlowBand> cumulativeCashFlow;
+  @Schema(description = "シミュレーションの処理時間（ミリ秒）", example = "120")
+  private long elapsedMillis;
+
+}
@@ -0,0 +1,43 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "利回りランキングの1物件分の情報")
+public class YieldRank {
+
+  @Schema(description = "順位（1始まり）", example = "1")
+  private int rank;
+  @Schema(description = "プロジェクトID", example = "3")
+  private int projectId;
+  @Schema(description = "プロジェクト名", example = "ABCアパート計画")
+  private String projectName;
+  @Schema(description = "建物種別", example = "アパート")
+  private String buildingType;
+  @Schema(description = "建物構造", example = "木造")
+  private String buildingStructure;
+  @Schema(description = "取得価格（土地価格と建物価格の合計）", example = "150000")
+  private long totalPrice;
+  @Schema(description = "月収入", example = "30000")
+  private int monthlyRent;
+  @Schema(description = "月経費（ローン返済を除く）", example = "2500")
+  private int monthlyOperatingExpenses;
+  @Schema(description = "ローン月返済（元金と利息）", example = "0")
+  private int monthlyDebtService;
+  @Schema(description = "土地面積", example = "100.5")
+  private double parcelSize;
+  @Schema(description = "建物面積", example = "80.2")
+  private double buildingSize;
+  @Schema(description = "表面利回り（%）", example = "240.0")
+  private double grossYield;
+  @Schema(description = "実質利回り（%） 月収入から月経費を引いた年額の取得価格に対する割合です。", example = "220.0")
+  private double netYield;
+
+}
@@ -0,0 +1,22 @@
+package com.katok09.realestate.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "利回りランキング")
+public class YieldRanking {
+
+  @Schema(description = "絞り込み条件に該当した物件数（取得価格が0円の物件は含みません）", example = "2")
+  private int matchedCount;
+  @Schema(description = "上位の物件（取得件数分）")
+  private List<YieldRank> items;
+
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -181,6 +182,69 @@ public class GlobalExceptionHandler {
     );
   }
 
+  /**
+   * ログインの同時実行数・待ち行列が上限に達した場合の例外をハンドリングします。
+   *
+   * @param e       LoginOverloadedException
+   * @param request WebRequest
+   * @return 503 Service Unavailableエラーレスポンス（Retry-Afterヘッダー付き）
+   */
+  @ExceptionHandler(LoginOverloadedException.class)
+  public ResponseEntity<Map<String, Object>> handlerLoginOverloaded(LoginOverloadedException e,
+      WebRequest request) {
+    ResponseEntity<Map<String, Object>> response = createErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "LOGIN_OVERLOADED",
+        e.getMessage(),
+        request.getDescription(false)
+    );
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(response.getBody());
+  }
+
+  /**
+   * キャッシュフローシミュレーションの同時実行数が上限に達した場合の例外をハンドリングします。
+   *
+   * @param e       SimulationOverloadedException
+   * @param request WebRequest
+   * @return 503 Service Unavailableエラーレスポンス（Retry-Afterヘッダー付き）
+   */
+  @ExceptionHandler(SimulationOverloadedException.class)
+  public ResponseEntity<Map<String, Object>> handlerSimulationOverloaded(
+      SimulationOverloadedException e, WebRequest request) {
+    ResponseEntity<Map<String, Object>> response = createErrorResponse(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "SIMULATION_OVERLOADED",
+        e.getMessage(),
+        request.getDescription(false)
+    );
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "5")
+        .body(response.getBody());
+  }
+
+  /**
+   * 一定時間内のリクエスト数が上限を超えた場合の例外をハンドリングします。
+   *
+   * @param e       RateLimitExceededException
+   * @param request WebRequest
+   * @return 429 Too Many Requestsエラーレスポンス（Retry-Afterヘッダー付き）
+   */
+  @ExceptionHandler(RateLimitExceededException.class)
+  public ResponseEntity<Map<String, Object>> handlerRateLimitExceeded(
+      RateLimitExceededException e, WebRequest request) {
+    ResponseEntity<Map<String, Object>> response = createErrorResponse(
+        HttpStatus.TOO_MANY_REQUESTS,
+        "RATE_LIMIT_EXCEEDED",
+        e.getMessage(),
+        request.getDescription(false)
+    );
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "60")
+        .body(response.getBody());
+  }
+
   /**
    * 予期しない全般的なエラー時の例外をハンドリング
    *
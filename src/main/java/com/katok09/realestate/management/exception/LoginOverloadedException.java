@@ -0,0 +1,15 @@
+package com.katok09.realestate.management.exception;
+
+/**
+ * ログイン処理の同時実行数・待ち行列が上限に達し、ログインを受け付けられない場合の例外
+ */
+public class LoginOverloadedException extends RuntimeException {
+
+  public LoginOverloadedException(String message) {
+    super(message);
+  }
+
+  public LoginOverloadedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,11 @@
+package com.katok09.realestate.management.exception;
+
+/**
+ * 一定時間内のリクエスト数が上限を超えた場合の例外
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  public RateLimitExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,11 @@
+package com.katok09.realestate.management.exception;
+
+/**
+ * キャッシュフローシミュレーションの同時実行数が上限に達し、シミュレーションを受け付けられない場合の例外
+ */
+public class SimulationOverloadedException extends RuntimeException {
+
+  public SimulationOverloadedException(String message) {
+    super(message);
+  }
+}
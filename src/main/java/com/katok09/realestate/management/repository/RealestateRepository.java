@@ -5,9 +5,13 @@ import com.katok09.realestate.management.data.IncomeAndExpenses;
 import com.katok09.realestate.management.data.Parcel;
 import com.katok09.realestate.management.data.Project;
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.PortfolioAggregate;
 import com.katok09.realestate.management.dto.SearchParams;
 import java.util.List;
+import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
 
 /**
  * 不動産情報のデータアクセスを提供するリポジトリ
@@ -17,12 +21,69 @@ public interface RealestateRepository {
 
   /**
    * 不動産詳細情報のリスト取得を行います。検索パラメーターの値で絞り込みを行います。
+   * 並び替え項目、プロジェクトIDの順で並び替え、カーソルが指定されている場合はその位置以降をlimit件まで取得します。
    *
    * @param searchParams 検索パラメーター
    * @return 不動産詳細情報リスト
    */
   public List<RealestateDetail> searchRealestate(SearchParams searchParams);
 
+  /**
+   * 不動産詳細情報を1件ずつ読み込むカーソルを取得します。検索パラメーターの値で絞り込みを行います。
+   * カーソルはトランザクション内でのみ使用でき、読み込み後はクローズする必要があります。
+   *
+   * @param searchParams 検索パラメーター
+   * @return 不動産詳細情報カーソル
+   */
+  public Cursor<RealestateDetail> exportRealestate(SearchParams searchParams);
+
+  /**
+   * ユーザーの不動産収支を建物種別・建物構造ごとに集計します。論理削除済みのプロジェクトは集計しません。
+   *
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 建物種別・建物構造ごとの集計行リスト
+   */
+  public List<PortfolioAggregate> summarizeRealestate(int userId);
+
+  /**
+   * 指定されたプロジェクトの集計値を不動産収支集計テーブルに加算（減算）します。論理削除済みのプロジェクトは集計しません。
+   *
+   * @param projectIds 不動産プロジェクト情報のIDリスト
+   * @param userId     トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param sign       1：加算（登録後・更新後） -1：減算（削除前・更新前）
+   */
+  public void applySummaryDelta(List<Integer> projectIds, int userId, int sign);
+
+  /**
+   * 指定されたユーザーの不動産収支集計をプロジェクト・土地・建物・収支情報から再計算して登録します。
+   * 事前にdeleteSummaryByUserIdで集計行を削除しておく必要があります。
+   *
+   * @param userId ユーザーID
+   */
+  public void rebuildSummary(int userId);
+
+  /**
+   * 指定されたユーザーの不動産収支集計を削除します。
+   *
+   * @param userId ユーザーID
+   */
+  public void deleteSummaryByUserId(int userId);
+
+  /**
+   * 不動産収支集計の再計算対象（論理削除されていないプロジェクトまたは集計行がある）のユーザーIDを取得します。
+   *
+   * @return ユーザーIDリスト
+   */
+  public List<Integer> findSummaryUserIds();
+
+  /**
+   * キャッシュフローシミュレーション用に、ユーザーの全物件の収支情報を取得します。論理削除済みのプロジェクトは対象外です。
+   *
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 不動産収支情報リスト（プロジェクトID順）
+   */
+  public List<IncomeAndExpenses> findCashFlowInputs(int userId);
+
   /**
    * 不動産プロジェクト情報のリスト取得を行います。
    *
@@ -108,59 +169,70 @@ public interface RealestateRepository {
   public int updateIncomeAndExpenses(IncomeAndExpenses incomeAndExpenses);
 
   /**
-   * 不動産プロジェクト情報の削除を行います。
+   * 不動産プロジェクト情報の論理削除を行います。土地・建物・収支情報はプロジェクトの論理削除により検索対象外となります。
    *
-   * @param id 不動産プロジェクト情報のID
+   * @param id     不動産プロジェクト情報のID
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 削除件数
    */
   public int deleteProject(int id, int userId);
 
   /**
-   * 不動産土地情報の削除を行います。
+   * バッチ実行用のマッパーで溜めたSQLを実行します。
    *
-   * @param projectId 不動産プロジェクト情報のID
+   * @return SQLごとの実行結果（更新件数）
    */
-  public int deleteParcel(int projectId, int userId);
+  @Flush
+  public List<BatchResult> flushStatements();
 
   /**
-   * 不動産建物情報の削除を行います。
+   * 指定された複数の不動産プロジェクト情報を1回のUPDATEで論理削除します。
    *
-   * @param projectId 不動産プロジェクト情報のID
+   * @param projectIds 不動産プロジェクト情報のIDリスト
+   * @param userId     トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 削除件数
    */
-  public int deleteBuilding(int projectId, int userId);
+  public int deleteProjects(List<Integer> projectIds, int userId);
 
   /**
-   * 不動産収支情報の削除を行います。
+   * 指定されたユーザーの不動産プロジェクトを論理削除します。
    *
-   * @param projectId 不動産プロジェクト情報のID
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
    */
-  public int deleteIncomeAndExpenses(int projectId, int userId);
+  public void deleteProjectByUserId(int userId);
 
   /**
-   * 指定されたユーザーの不動産プロジェクトを削除します。。
+   * 論理削除済みの不動産プロジェクトIDをID順に取得します。
    *
-   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param limit 取得件数
+   * @return 論理削除済みの不動産プロジェクトIDリスト
    */
-  public void deleteProjectByUserId(int userId);
+  public List<Integer> findDeletedProjectIds(int limit);
 
   /**
-   * 指定されたユーザーの不動産土地情報を削除します。。
+   * 論理削除済みの不動産プロジェクト情報を物理削除します。土地・建物・収支情報は外部キー（ON DELETE CASCADE）により合わせて削除されます。
    *
-   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param projectIds 不動産プロジェクト情報のIDリスト（論理削除されていないIDは削除されません）
+   * @return 削除件数
    */
-  public void deleteParcelByUserId(int userId);
+  public int purgeProjects(List<Integer> projectIds);
 
   /**
-   * 指定されたユーザーの不動産建物情報を削除します。。
+   * 一括登録の進捗（登録済みの行番号）を取得します。
    *
-   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param userId   トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param importId 一括登録ID
+   * @return 登録済みの行番号 進捗が無い場合はnullが返ります。
    */
-  public void deleteBuildingByUserId(int userId);
+  public Integer findImportProgress(int userId, String importId);
 
   /**
-   * 指定されたユーザーの不動産収支情報を削除します。。
+   * 一括登録の進捗（登録済みの行番号）を保存します。
    *
-   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param userId        トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param importId      一括登録ID
+   * @param committedRows 登録済みの行番号
    */
-  public void deleteIncomeAndExpensesByUserId(int userId);
+  public void saveImportProgress(int userId, String importId, int committedRows);
 
 }
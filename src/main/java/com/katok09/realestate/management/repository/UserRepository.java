@@ -80,6 +80,30 @@ public interface UserRepository {
    */
   List<User> findAll();
 
+  /**
+   * 無効、アカウントロック中、または削除済みのユーザーIDを取得します。
+   *
+   * @return ユーザーIDリスト
+   */
+  List<Integer> findInactiveUserIds();
+
+  /**
+   * 指定した時刻以降にトークンを失効させたユーザーのIDとトークンバージョンを取得します。
+   *
+   * @param since 取得対象とするトークンバージョンの下限（エポックミリ秒）
+   * @return ユーザー情報リスト（IDとトークンバージョンのみ）
+   */
+  List<User> findRevokedUsers(@Param("since") long since);
+
+  /**
+   * ユーザーのトークンバージョンを更新します。現在の値以下への更新は行いません。
+   *
+   * @param id           対象のユーザーID
+   * @param tokenVersion トークンバージョン
+   * @return 更新件数
+   */
+  int updateTokenVersion(@Param("id") int id, @Param("tokenVersion") long tokenVersion);
+
   /**
    * 新規ユーザー登録をします。
    *
@@ -103,6 +127,18 @@ public interface UserRepository {
    */
   void updatePassword(@Param("id") int id, @Param("newPassword") String newPassword);
 
+  /**
+   * ログイン時にパスワードを再ハッシュ化したハッシュに置き換えます。パスワードの変更日時は更新しません。
+   * 照合後にパスワードが変更されていた場合は、変更後のパスワードを上書きしないよう更新しません。
+   *
+   * @param id              更新対象ユーザーID
+   * @param currentPassword 照合に使用したハッシュ
+   * @param newPassword     再ハッシュ化したハッシュ
+   * @return 更新件数（照合後にパスワードが変更されていた場合は0）
+   */
+  int upgradePassword(@Param("id") int id, @Param("currentPassword") String currentPassword,
+      @Param("newPassword") String newPassword);
+
   /**
    * ユーザー情報を削除します（削除フラグをtrueにし論理削除となります）
    *
@@ -112,21 +148,30 @@ public interface UserRepository {
 
   /**
    * ログイン連続失敗回数、アカウントロック期限を設定します。
+   * 最終ログイン日時が指定した値と異なる場合（失敗の記録後にログインに成功していた場合）や、ログイン連続失敗回数・
+   * アカウントロック期限が前回読み込み・反映した値と異なる場合（管理者がステータスを変更していた場合）は更新しません。
    *
    * @param id                  対象のユーザーID
    * @param loginFailedAttempts ログイン連続失敗回数
    * @param accountLockedUntil  アカウントロック期限
+   * @param expectedAttempts    前回読み込み・反映したログイン連続失敗回数
+   * @param expectedLockedUntil 前回読み込み・反映したアカウントロック期限
+   * @param lastLoginAt         失敗を記録した時点の最終ログイン日時
+   * @return 更新件数
    */
-  void updateLoginFailed(@Param("id") int id, @Param("loginFailedAttempts") int loginFailedAttempts,
-      @Param("accountLockedUntil") LocalDateTime accountLockedUntil);
+  int updateLoginFailed(@Param("id") int id, @Param("loginFailedAttempts") int loginFailedAttempts,
+      @Param("accountLockedUntil") LocalDateTime accountLockedUntil,
+      @Param("expectedAttempts") int expectedAttempts,
+      @Param("expectedLockedUntil") LocalDateTime expectedLockedUntil,
+      @Param("lastLoginAt") LocalDateTime lastLoginAt);
 
   /**
-   * 最終ログイン日時を更新します。
+   * ログイン成功時の更新をします。ログイン連続失敗回数・アカウントロック期限のリセットと最終ログイン日時の設定を1回で行います。
    *
    * @param id          対象のユーザーID
    * @param lastLoginAt 最終ログイン日時
    */
-  void updateLastLoginAt(@Param("id") int id, @Param("lastLoginAt") LocalDateTime lastLoginAt);
+  void updateLoginSucceeded(@Param("id") int id, @Param("lastLoginAt") LocalDateTime lastLoginAt);
 
   /**
    * 各ユーザーのステータス情報を更新します（管理者専用）
@@ -1,23 +1,33 @@
 package com.katok09.realestate.management.service;
 
 import com.katok09.realestate.management.data.User;
-import com.katok09.realestate.management.dto.LoginRequest;
 import com.katok09.realestate.management.repository.UserRepository;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
- * ログイン失敗時のビジネスロジックを担当するサービス
+ * ログイン成功・失敗時のアカウントロック関係のビジネスロジックを担当するサービス
+ * <p>
+ * ログイン時に読み込んだユーザー情報をもとにメモリ上で判定・計算します。ログイン失敗はLoginFailureTrackerでメモリ上に記録し、
+ * DBへは非同期にまとめて反映します（ログイン失敗ではDBを更新しません）。ログイン成功は1回のUPDATEで行い、
+ * 1文のUPDATEのためトランザクションは開始しません（開始・コミットのDB往復を省きます）。
  */
 @Service
 public class AccountLockService {
 
   private final UserRepository userRepository;
+  private final LoginFailureTracker failureTracker;
+  private final UserPrincipalCache principalCache;
+  private final TokenRevocationRegistry revocationRegistry;
 
-  public AccountLockService(UserRepository userRepository) {
+  public AccountLockService(UserRepository userRepository, LoginFailureTracker failureTracker,
+      UserPrincipalCache principalCache, TokenRevocationRegistry revocationRegistry) {
     this.userRepository = userRepository;
+    this.failureTracker = failureTracker;
+    this.principalCache = principalCache;
+    this.revocationRegistry = revocationRegistry;
   }
 
   // アカウントロックがかかるログイン連続失敗回数閾値
@@ -29,51 +39,77 @@ public class AccountLockService {
   private int accountLockDurationMinutes;
 
   /**
-   * アカウントロック期限が切れている場合のリセット処理
+   * アカウントロック中かを判定します。ロック期限が過ぎている場合はロック中ではありません。
+   * <p>
+   * DBに未反映のログイン失敗状態がある場合は、ユーザー情報のログイン連続失敗回数・アカウントロック期限にその値を設定してから判定します。
    *
-   * @param loginRequest ログインリクエストDTO
+   * @param user ログインリクエストのユーザー情報
+   * @return ロック期限が設定されていて期限前であればtrue
    */
-  @Transactional
-  public void unlockIfAccountLockExpired(LoginRequest loginRequest) {
-    User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
-    if (user != null && user.getAccountLockedUntil() != null) {
-      if (LocalDateTime.now().isAfter(user.getAccountLockedUntil())) {
-        userRepository.updateLoginFailed(user.getId(), 0, null);
-      }
+  public boolean isLocked(User user) {
+    LoginFailureTracker.State state = failureTracker.get(user.getId());
+    if (state != null) {
+      user.setLoginFailedAttempts(state.loginFailedAttempts());
+      user.setAccountLockedUntil(state.accountLockedUntil());
     }
+    return isLocked(user.getAccountLockedUntil());
   }
 
   /**
-   * アカウントロック関係の値のリセット（ログイン成功時に実行されます）
+   * ログイン成功時の処理 ログイン連続失敗回数・アカウントロック期限のリセットと最終ログイン日時の更新を1回のUPDATEで行います。
+   * メモリ上のログイン失敗状態は破棄し、反映前の失敗がリセット後に書き込まれないよう最終ログイン日時を更新します。
    *
-   * @param id トークンから抽出したユーザーID
+   * @param user ログインしたユーザー情報
    */
-  @Transactional
-  public void resetAccountLockState(int id) {
-    userRepository.updateLoginFailed(id, 0, null);
+  public void handleLoginSuccess(User user) {
+    failureTracker.reset(user.getId());
+    userRepository.updateLoginSucceeded(user.getId(), LocalDateTime.now());
+    principalCache.evict(user.getId());
   }
 
   /**
-   * ログイン失敗時の処理
+   * ログイン失敗時の処理 ログイン連続失敗回数とアカウントロック期限をメモリ上で更新します（DBへは非同期に反映されます）。
+   * <p>
+   * メモリ上の状態（無い場合は読み込み済みのユーザー情報）をもとにユーザー単位で排他的に計算し、ユーザー情報にも更新後の値を設定します。
+   * アカウントロック期限が過ぎている場合は、ログイン連続失敗回数・アカウントロック期限をリセットしてから加算します。
    *
-   * @param loginRequest ログインリクエストDTO
+   * @param user ログインリクエストのユーザー情報
    */
-  @Transactional
-  public void handleLoginFailure(LoginRequest loginRequest) {
-    User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
+  public void handleLoginFailure(User user) {
+    boolean[] locked = new boolean[1];
+    LoginFailureTracker.State state = failureTracker.recordFailure(user, current -> {
+      int loginFailedAttempts = current.loginFailedAttempts();
+      LocalDateTime accountLockedUntil = current.accountLockedUntil();
+      if (accountLockedUntil != null && !isLocked(accountLockedUntil)) {
+        loginFailedAttempts = 0;
+        accountLockedUntil = null;
+      }
 
-    if (user != null) {
       // ログイン連続失敗回数を加算します。
-      int loginFailedAttempts = user.getLoginFailedAttempts() + 1;
-      LocalDateTime accountLockedUntil = user.getAccountLockedUntil();
+      loginFailedAttempts++;
 
       // maxLoginAttemptsで指定された回数以上のログイン連続失敗回数となった場合、
       // accountLockDurationMinutesで指定された期間のアカウントロックがかかります。
       // 一度アカウントロックがかかった場合はアカウントロックがリセットされない限り再度アカウントロックがかからない仕様です。
-      if (loginFailedAttempts >= maxLoginAttempts && user.getAccountLockedUntil() == null) {
-        accountLockedUntil = LocalDateTime.now().plusMinutes(accountLockDurationMinutes);
+      locked[0] = false;
+      if (loginFailedAttempts >= maxLoginAttempts && accountLockedUntil == null) {
+        // DBへの反映条件として値を比較するため、TIMESTAMP列の精度（秒）に切り捨てます。
+        accountLockedUntil = LocalDateTime.now().plusMinutes(accountLockDurationMinutes)
+            .truncatedTo(ChronoUnit.SECONDS);
+        locked[0] = true;
       }
-      userRepository.updateLoginFailed(user.getId(), loginFailedAttempts, accountLockedUntil);
+      return current.with(loginFailedAttempts, accountLockedUntil);
+    });
+    user.setLoginFailedAttempts(state.loginFailedAttempts());
+    user.setAccountLockedUntil(state.accountLockedUntil());
+    if (locked[0]) {
+      // アカウントロックがかかった場合は、DBへの反映を待たずに発行済みトークンを失効させます。
+      principalCache.evict(user.getId());
+      revocationRegistry.revoke(user.getId());
     }
   }
+
+  private boolean isLocked(LocalDateTime accountLockedUntil) {
+    return accountLockedUntil != null && !LocalDateTime.now().isAfter(accountLockedUntil);
+  }
 }
@@ -15,9 +15,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class AdminService {
 
   private final UserRepository userRepository;
+  private final UserPrincipalCache principalCache;
+  private final TokenRevocationRegistry revocationRegistry;
+  private final LoginFailureTracker failureTracker;
 
-  public AdminService(UserRepository userRepository) {
+  public AdminService(UserRepository userRepository, UserPrincipalCache principalCache,
+      TokenRevocationRegistry revocationRegistry, LoginFailureTracker failureTracker) {
     this.userRepository = userRepository;
+    this.principalCache = principalCache;
+    this.revocationRegistry = revocationRegistry;
+    this.failureTracker = failureTracker;
   }
 
   /**
@@ -46,6 +53,11 @@ public class AdminService {
       throw new ResourceNotFoundException("ユーザーが見つかりません。");
     }
 
+    // メモリ上のログイン失敗状態が変更後のログイン連続失敗回数・アカウントロック期限を上書きしないよう破棄します。
+    failureTracker.reset(userId);
     userRepository.updateStatus(userId, statusRequest);
+    principalCache.evict(userId);
+    // ロール・有効状態の変更を発行済みトークンにも反映させるため失効させます。
+    revocationRegistry.revoke(userId);
   }
 }
@@ -6,17 +6,17 @@ import com.katok09.realestate.management.dto.LoginResponse;
 import com.katok09.realestate.management.dto.RegisterRequest;
 import com.katok09.realestate.management.dto.UpdateRequest;
 import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.exception.LoginOverloadedException;
 import com.katok09.realestate.management.exception.ResourceNotFoundException;
 import com.katok09.realestate.management.repository.UserRepository;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.LockedException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,70 +27,89 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class AuthService {
 
-  private final AuthenticationManager authenticationManager;
+  private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
   private final PasswordEncoder passwordEncoder;
+  private final PasswordVerifier passwordVerifier;
   private final JwtUtil jwtUtil;
   private final AccountLockService accountLockService;
   private final UserRepository userRepository;
   private final RealestateService realestateService;
+  private final UserPrincipalCache principalCache;
+  private final TokenRevocationRegistry revocationRegistry;
+
+  // 存在しないユーザーのログイン時に照合するダミーのパスワードハッシュ（初回使用時に生成します）
+  private volatile String dummyPassword;
 
-  public AuthService(AuthenticationManager authenticationManager, PasswordEncoder passwordEncoder,
+  public AuthService(PasswordEncoder passwordEncoder, PasswordVerifier passwordVerifier,
       JwtUtil jwtUtil, AccountLockService accountLockService, UserRepository userRepository,
-      RealestateService realestateService) {
+      RealestateService realestateService, UserPrincipalCache principalCache,
+      TokenRevocationRegistry revocationRegistry) {
 
-    this.authenticationManager = authenticationManager;
     this.passwordEncoder = passwordEncoder;
+    this.passwordVerifier = passwordVerifier;
     this.jwtUtil = jwtUtil;
     this.accountLockService = accountLockService;
     this.userRepository = userRepository;
     this.realestateService = realestateService;
+    this.principalCache = principalCache;
+    this.revocationRegistry = revocationRegistry;
   }
 
-  // アカウントロックがかかるログイン連続失敗回数閾値
-  @Value("${security.max-login-attempts}")
-  private int maxLoginAttempts;
-
-  // アカウントロックがかかる期間
-  @Value("${security.account-lock-duration}")
-  private int accountLockDurationMinutes;
-
   /**
    * ユーザー認証とJWTトークン生成
+   * <p>
+   * ユーザー情報の読み込み（SELECT）と、ログイン成功・失敗の記録（UPDATE）の2回のDB往復で処理します。
+   * アカウントロックの期限切れはメモリ上で判定し、成功時は失敗回数・ロック期限のリセットと最終ログイン日時を同じUPDATEで更新します。
+   * パスワードの照合はPasswordVerifierの専用スレッドプールで実行します。保存されているハッシュのアルゴリズム・強度が現在の設定より
+   * 古い場合は、照合したパスワードを再ハッシュ化して保存します（初回のみUPDATEが1回増えます）。
    *
    * @param loginRequest ログインリクエスト
    * @return ログインレスポンス（JWTトークンとユーザー情報）
-   * @throws BadCredentialsException 認証失敗時
+   * @throws BadCredentialsException  認証失敗時
+   * @throws LockedException          アカウントロック中の場合
+   * @throws LoginOverloadedException パスワード照合の待ち行列が上限に達している場合
    */
   public LoginResponse authenticate(LoginRequest loginRequest) {
     try {
-      // アカウントロックの期限が過ぎている場合はログイン失敗回数、アカウントロック時間をリセット
-      accountLockService.unlockIfAccountLockExpired(loginRequest);
-
-      // Spring Securityの認証マネージャーを使用してユーザー認証
-      Authentication authentication = authenticationManager.authenticate(
-          new UsernamePasswordAuthenticationToken(
-              loginRequest.getUsername(),
-              loginRequest.getPassword()
-          )
-      );
+      User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
+
+      // 存在しない（削除済みを含む）・無効なユーザーは、パスワード誤りと区別できないよう同じ時間をかけて照合した上で失敗とします。
+      if (user == null || !user.isEnabled()) {
+        passwordVerifier.matches(loginRequest.getPassword(), dummyPassword());
+        if (user != null) {
+          accountLockService.handleLoginFailure(user);
+        }
+        throw new BadCredentialsException("ユーザー名またはパスワードが間違っています。");
+      }
 
-      // 認証成功 - ユーザー情報を取得
-      UserDetailsServiceImpl.CustomUserPrincipal userPrincipal =
-          (UserDetailsServiceImpl.CustomUserPrincipal) authentication.getPrincipal();
+      if (accountLockService.isLocked(user)) {
+        accountLockService.handleLoginFailure(user);
+        long remainingSeconds = LocalDateTime.now()
+            .until(user.getAccountLockedUntil(), ChronoUnit.SECONDS);
+        throw new LockedException(
+            "アカウントがロックされています。あと"
+                + remainingSeconds + "秒後にロックが解除されます。");
+      }
 
-      User user = userPrincipal.getUser();
+      if (!passwordVerifier.matches(loginRequest.getPassword(), user.getPassword())) {
+        accountLockService.handleLoginFailure(user);
+        throw new BadCredentialsException("ユーザー名またはパスワードが間違っています。");
+      }
 
-      // ログイン失敗回数、アカウントロック時間をリセット
-      accountLockService.resetAccountLockState(user.getId());
+      if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+        upgradePassword(user, loginRequest.getPassword());
+      }
 
-      // 最終ログイン日時を更新
-      updateLastLoginTime(user.getId());
+      // ログイン失敗回数、アカウントロック時間をリセットし、最終ログイン日時を更新
+      accountLockService.handleLoginSuccess(user);
 
       // JWTトークンを生成
       String jwtToken = jwtUtil.generateToken(
           user.getUsername(),
           user.getRole(),
-          user.getId()
+          user.getId(),
+          revocationRegistry.currentVersion(user.getId())
       );
 
       // ユーザー情報をDTOに変換
@@ -104,25 +123,37 @@ public class AuthService {
 
       return new LoginResponse(jwtToken, userInfo);
 
-    } catch (LockedException e) {
-      accountLockService.handleLoginFailure(loginRequest);
-      User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
-      long remainingSeconds = (long) accountLockDurationMinutes * 60;
-      if (user != null) {
-        remainingSeconds = LocalDateTime.now()
-            .until(user.getAccountLockedUntil(), ChronoUnit.SECONDS);
-      }
-      throw new LockedException(
-          "アカウントがロックされています。あと"
-              + remainingSeconds + "秒後にロックが解除されます。");
-    } catch (BadCredentialsException e) {
-      accountLockService.handleLoginFailure(loginRequest);
-      throw new BadCredentialsException("ユーザー名またはパスワードが間違っています。");
+    } catch (LockedException | BadCredentialsException | LoginOverloadedException e) {
+      throw e;
     } catch (Exception e) {
       throw new RuntimeException("認証処理中にエラーが発生しました。", e);
     }
   }
 
+  /**
+   * 照合済みのパスワードを現在の設定で再ハッシュ化して保存します。再ハッシュ化できなかった場合も
+   * ログインは成功とし、次回のログイン時に再度試みます。
+   */
+  private void upgradePassword(User user, String rawPassword) {
+    try {
+      String upgraded = passwordVerifier.encode(rawPassword);
+      if (userRepository.upgradePassword(user.getId(), user.getPassword(), upgraded) > 0) {
+        user.setPassword(upgraded);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("パスワードの再ハッシュ化に失敗しました: userId={}", user.getId(), e);
+    }
+  }
+
+  private String dummyPassword() {
+    String password = dummyPassword;
+    if (password == null) {
+      password = passwordEncoder.encode("userNotFoundPassword");
+      dummyPassword = password;
+    }
+    return password;
+  }
+
   /**
    * 新規ユーザー登録
    *
@@ -194,16 +225,16 @@ public class AuthService {
   /**
    * JWTトークンの有効性を検証（画面遷移時等で実行されます）
    *
-   * @param token JWTトークン
+   * @param claims JwtRequestFilterで検証済みのクレーム情報
    * @return 有効な場合はユーザー情報、無効な場合はnull
    */
-  public UserInfo validateToken(String token) {
+  public UserInfo validateToken(VerifiedClaims claims) {
     try {
-      if (!jwtUtil.isTokenExpired(token)) {
+      if (claims.isExpired()) {
         return null;
       }
 
-      String username = jwtUtil.getUsernameFromToken(token);
+      String username = claims.getUsername();
       User user = userRepository.findByUsername(username).orElse(null);
 
       if (user == null || !user.isEnabled() || user.isDeleted()) {
@@ -249,16 +280,10 @@ public class AuthService {
     }
 
     userRepository.updateUser(userId, updateRequest);
-  }
-
-  /**
-   * 最終ログイン日時を更新
-   */
-  private void updateLastLoginTime(int userId) {
-    try {
-      userRepository.updateLastLoginAt(userId, LocalDateTime.now());
-    } catch (Exception e) {
-      // ログイン日時の更新に失敗してもログイン処理は継続
+    principalCache.evict(userId);
+    // ユーザー名が変更された場合、旧ユーザー名をsubjectに持つ発行済みトークンを失効させます。
+    if (!user.getUsername().equals(updateRequest.getUsername())) {
+      revocationRegistry.revoke(userId);
     }
   }
 
@@ -300,5 +325,7 @@ public class AuthService {
 
     realestateService.deleteRealestateByUserId(userId);
     userRepository.deleteUserById(userId);
+    principalCache.evict(userId);
+    revocationRegistry.revoke(userId);
   }
 }
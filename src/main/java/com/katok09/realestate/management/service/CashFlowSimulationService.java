@@ -0,0 +1,104 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import com.katok09.realestate.management.exception.SimulationOverloadedException;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import com.katok09.realestate.management.util.CashFlowSimulator;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * 不動産ポートフォリオのキャッシュフローシミュレーションを担当するサービス
+ * <p>
+ * ユーザーの全物件の収支情報（家賃・経費・ローン元金・利息）を読み込み、CashFlowSimulatorで試行を並列に計算します。
+ * シミュレーションはCPUを占有するため、並列ストリーム等が使用する共通プールとは別の専用プールで実行します。
+ * 1回のシミュレーションは専用プールの全スレッドと試行回数×年数に比例するメモリを使用するため、同時に実行する数を
+ * maxConcurrentに制限し、上限に達している場合は待たずに拒否します（503）。
+ */
+@Service
+public class CashFlowSimulationService {
+
+  private final RealestateRepository repository;
+  private final ForkJoinPool pool;
+  private final CashFlowSimulator simulator;
+  private final long maxSteps;
+  private final Semaphore permits;
+
+  public CashFlowSimulationService(RealestateRepository repository,
+      @Value("${realestate.simulation.parallelism:0}") int parallelism,
+      @Value("${realestate.simulation.max-steps:1000000000}") long maxSteps,
+      @Value("${realestate.simulation.max-concurrent:2}") int maxConcurrent) {
+    this.repository = repository;
+    this.pool = new ForkJoinPool(
+        parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.simulator = new CashFlowSimulator(pool);
+    this.maxSteps = maxSteps;
+    this.permits = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * ユーザーの全物件のキャッシュフローをシミュレーションします。論理削除済みのプロジェクトは対象外です。
+   *
+   * @param params シナリオパラメーター（シードが未指定の場合はランダムに決定して設定します）
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 年ごとの年間・累計キャッシュフローのパーセンタイル
+   * @throws IllegalArgumentException      物件数×試行回数×年数が上限を超える場合
+   * @throws SimulationOverloadedException 同時に実行しているシミュレーションの数が上限に達している場合
+   */
+  public SimulationResult simulate(SimulationParams params, int userId) {
+
+    if (!permits.tryAcquire()) {
+      throw new SimulationOverloadedException(
+          "シミュレーションが混み合っています。しばらくしてから再度お試しください。");
+    }
+    try {
+      return simulateWithPermit(params, userId);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private SimulationResult simulateWithPermit(SimulationParams params, int userId) {
+
+    List<IncomeAndExpenses> incomeAndExpenses = repository.findCashFlowInputs(userId);
+    if ((long) incomeAndExpenses.size() * params.getPaths() * params.getYears() > maxSteps) {
+      throw new IllegalArgumentException("シミュレーションの規模が上限を超えています。試行回数または年数を減らしてください。");
+    }
+    if (params.getSeed() == null) {
+      params.setSeed(ThreadLocalRandom.current().nextLong());
+    }
+
+    // 家賃は物件ごと、それ以外は全物件の合計を年額で渡します。
+    long[] annualRents = new long[incomeAndExpenses.size()];
+    double annualOperatingExpenses = 0;
+    double annualPrincipal = 0;
+    double annualInterest = 0;
+    for (int i = 0; i < annualRents.length; i++) {
+      IncomeAndExpenses item = incomeAndExpenses.get(i);
+      annualRents[i] = item.getRent() * 12L;
+      annualOperatingExpenses += (item.getMaintenanceCost() + item.getRepairFund()
+          + item.getManagementFee() + item.getTax() + item.getWaterBill() + item.getElectricBill()
+          + item.getGasBill() + item.getFireInsurance()) * 12.0;
+      annualPrincipal += item.getPrincipal() * 12.0;
+      annualInterest += item.getInterest() * 12.0;
+    }
+
+    long start = System.currentTimeMillis();
+    SimulationResult result = simulator.simulate(annualRents, annualOperatingExpenses,
+        annualPrincipal, annualInterest, params);
+    result.setElapsedMillis(System.currentTimeMillis() - start);
+    return result;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdown();
+  }
+}
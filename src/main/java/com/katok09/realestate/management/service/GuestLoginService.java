@@ -0,0 +1,126 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.dto.LoginRequest;
+import com.katok09.realestate.management.dto.LoginResponse;
+import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.exception.RateLimitExceededException;
+import com.katok09.realestate.management.util.ClientRateLimiter;
+import com.katok09.realestate.management.util.JwtUtil;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ゲストユーザーのログインを担当するサービス
+ * <p>
+ * ゲストログインはログイン処理（パスワード照合・ログイン成功の記録）を一定時間（TTL）に1回のみ行い、照合済みのユーザー情報を
+ * 保持します。TTL内のゲストログインは保持したユーザー情報からトークンを発行するため、パスワード照合（BCrypt）とDBの更新を
+ * 行いません。管理者によるステータス変更・アカウントロック時はトークンバージョンが更新されるため、保持したユーザー情報を
+ * 使用せずにログイン処理を行い、変更を即座に反映します。
+ * <p>
+ * ゲストログインは認証不要のため、クライアントのIPアドレスごとに1分あたりのリクエスト数を制限します。
+ * リバースプロキシ経由の場合は、server.forward-headers-strategyの設定によりプロキシが付与したX-Forwarded-Forの
+ * アドレスを使用します（設定しない場合はプロキシ単位の制限となります）。
+ */
+@Service
+public class GuestLoginService {
+
+  private static final String GUEST_USERNAME = "guest";
+  private static final String GUEST_PASSWORD = "guest123";
+
+  private final AuthService authService;
+  private final JwtUtil jwtUtil;
+  private final TokenRevocationRegistry revocationRegistry;
+  private final ClientRateLimiter rateLimiter;
+  private final long ttlMillis;
+
+  // 照合済みのゲストユーザー情報（未照合・期限切れの場合はログイン処理を行います）
+  private volatile ValidatedGuest validatedGuest;
+
+  private final LongAdder issuedCount = new LongAdder();
+  private final LongAdder fastPathCount = new LongAdder();
+
+  public GuestLoginService(AuthService authService, JwtUtil jwtUtil,
+      TokenRevocationRegistry revocationRegistry,
+      @Value("${security.guest.ttl-seconds:30}") long ttlSeconds,
+      @Value("${security.guest.rate-limit.per-minute:30}") int permitsPerMinute,
+      @Value("${security.guest.rate-limit.max-clients:10000}") int maxClients) {
+    this.authService = authService;
+    this.jwtUtil = jwtUtil;
+    this.revocationRegistry = revocationRegistry;
+    this.ttlMillis = ttlSeconds * 1000;
+    this.rateLimiter = new ClientRateLimiter(permitsPerMinute, 60_000L, maxClients);
+  }
+
+  /**
+   * ゲストユーザーでログインします。
+   *
+   * @param clientAddress クライアントのIPアドレス
+   * @return ログインレスポンス（JWTトークンとユーザー情報）
+   * @throws RateLimitExceededException 1分あたりのリクエスト数が上限を超えた場合
+   */
+  public LoginResponse login(String clientAddress) {
+
+    long now = System.currentTimeMillis();
+    if (!rateLimiter.tryAcquire(clientAddress, now)) {
+      throw new RateLimitExceededException("ゲストログインの回数が上限を超えました。しばらくしてから再度お試しください。");
+    }
+
+    ValidatedGuest guest = validatedGuest;
+    if (guest == null || !guest.isValid(now, revocationRegistry)) {
+      return loginWithPassword();
+    }
+    fastPathCount.increment();
+    return issue(guest);
+  }
+
+  /**
+   * 通常のログイン処理でゲストユーザーを照合し、照合済みのユーザー情報を保持します。
+   * 同時に期限切れとなった場合も照合は1回のみ行います。
+   */
+  private synchronized LoginResponse loginWithPassword() {
+    long now = System.currentTimeMillis();
+    ValidatedGuest guest = validatedGuest;
+    if (guest != null && guest.isValid(now, revocationRegistry)) {
+      fastPathCount.increment();
+      return issue(guest);
+    }
+
+    validatedGuest = null;
+    LoginResponse response = authService.authenticate(
+        new LoginRequest(GUEST_USERNAME, GUEST_PASSWORD));
+    UserInfo userInfo = response.getUserInfo();
+    validatedGuest = new ValidatedGuest(userInfo,
+        revocationRegistry.currentVersion(userInfo.getId()), now + ttlMillis);
+    issuedCount.increment();
+    return response;
+  }
+
+  private LoginResponse issue(ValidatedGuest guest) {
+    UserInfo userInfo = guest.userInfo;
+    String token = jwtUtil.generateToken(userInfo.getUsername(), userInfo.getRole(),
+        userInfo.getId(), guest.tokenVersion);
+    issuedCount.increment();
+    return new LoginResponse(token, userInfo);
+  }
+
+  public long getIssuedCount() {
+    return issuedCount.sum();
+  }
+
+  public long getFastPathCount() {
+    return fastPathCount.sum();
+  }
+
+  public long getRateLimitedCount() {
+    return rateLimiter.getRejectedCount();
+  }
+
+  private record ValidatedGuest(UserInfo userInfo, long tokenVersion, long expiresAtMillis) {
+
+    boolean isValid(long nowMillis, TokenRevocationRegistry revocationRegistry) {
+      return nowMillis < expiresAtMillis
+          && revocationRegistry.currentVersion(userInfo.getId()) == tokenVersion;
+    }
+  }
+}
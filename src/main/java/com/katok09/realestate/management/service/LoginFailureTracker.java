@@ -0,0 +1,216 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.data.User;
+import com.katok09.realestate.management.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ログイン連続失敗回数・アカウントロック期限をメモリ上で管理し、DBへ非同期にまとめて反映するトラッカー
+ * <p>
+ * ログイン失敗のたびにUPDATEを行うと、パスワードリスト攻撃等の大量のログイン失敗がそのままDBの書き込み負荷となるため、
+ * 失敗はメモリ上（ユーザーIDごとのエントリをConcurrentHashMapのビン単位で原子的に更新）で記録し、flushIntervalMillisごとに
+ * 未反映のエントリを1回のJDBCバッチ・コミットでusersテーブルに反映します。
+ * <p>
+ * 反映のUPDATEは失敗を記録した時点の最終ログイン日時と、前回読み込み・反映したログイン連続失敗回数・アカウントロック期限を
+ * 条件とし、反映前にログインに成功していた場合や管理者がステータスを変更していた場合はDBの値を上書きせずにエントリを破棄します。反映済みで一定時間（retentionMillis）失敗の無いエントリはメモリから破棄し、以降はDBの値を使用します。
+ * メモリ上の状態はインスタンスごとのため、複数インスタンスの場合は他のインスタンスの失敗が反映までの間は加算されません。
+ */
+@Component
+public class LoginFailureTracker {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoginFailureTracker.class);
+
+  private final SqlSessionTemplate batchSqlSession;
+  private final UserRepository batchRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final UserPrincipalCache principalCache;
+  private final long retentionMillis;
+
+  // ユーザーID → ログイン失敗状態
+  private final ConcurrentHashMap<Integer, State> states = new ConcurrentHashMap<>();
+
+  public LoginFailureTracker(SqlSessionFactory sqlSessionFactory,
+      PlatformTransactionManager transactionManager, UserPrincipalCache principalCache,
+      @Value("${security.login-failure.retention-seconds:60}") long retentionSeconds) {
+    this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    this.batchRepository = batchSqlSession.getMapper(UserRepository.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.principalCache = principalCache;
+    this.retentionMillis = retentionSeconds * 1000;
+  }
+
+  /**
+   * ログイン失敗状態（ログイン連続失敗回数・アカウントロック期限）
+   *
+   * @param loginFailedAttempts ログイン連続失敗回数
+   * @param accountLockedUntil  アカウントロック期限
+   * @param persistedAttempts   DBから読み込んだ、または前回反映したログイン連続失敗回数（DBへの反映条件）
+   * @param persistedLockedUntil DBから読み込んだ、または前回反映したアカウントロック期限（DBへの反映条件）
+   * @param lastLoginAt         記録開始時の最終ログイン日時（DBへの反映条件）
+   * @param dirty               DBに未反映の場合はtrue
+   * @param updatedAtMillis     最後に失敗を記録した時刻
+   */
+  public record State(int loginFailedAttempts, LocalDateTime accountLockedUntil,
+      int persistedAttempts, LocalDateTime persistedLockedUntil, LocalDateTime lastLoginAt,
+      boolean dirty, long updatedAtMillis) {
+
+    /**
+     * ユーザー情報から読み込んだ、DBと同じ値の状態を返します。
+     */
+    public static State of(User user) {
+      return new State(user.getLoginFailedAttempts(), user.getAccountLockedUntil(),
+          user.getLoginFailedAttempts(), user.getAccountLockedUntil(), user.getLastLoginAt(), false,
+          System.currentTimeMillis());
+    }
+
+    /**
+     * ログイン連続失敗回数・アカウントロック期限を変更した未反映の状態を返します。
+     */
+    public State with(int loginFailedAttempts, LocalDateTime accountLockedUntil) {
+      return new State(loginFailedAttempts, accountLockedUntil, persistedAttempts,
+          persistedLockedUntil, lastLoginAt, true, System.currentTimeMillis());
+    }
+
+    private State flushed() {
+      return new State(loginFailedAttempts, accountLockedUntil, loginFailedAttempts,
+          accountLockedUntil, lastLoginAt, false, updatedAtMillis);
+    }
+
+    private State rebasedOn(State written) {
+      // リセット後に読み込み直した状態は、反映した状態と反映条件が異なるためそのままとします。
+      if (persistedAttempts != written.persistedAttempts()
+          || !Objects.equals(persistedLockedUntil, written.persistedLockedUntil())) {
+        return this;
+      }
+      return new State(loginFailedAttempts, accountLockedUntil, written.loginFailedAttempts(),
+          written.accountLockedUntil(), lastLoginAt, dirty, updatedAtMillis);
+    }
+  }
+
+  /**
+   * メモリ上のログイン失敗状態を取得します。
+   *
+   * @param userId ユーザーID
+   * @return ログイン失敗状態（メモリ上に無い場合はnull）
+   */
+  public State get(int userId) {
+    return states.get(userId);
+  }
+
+  /**
+   * ログイン失敗を記録します。メモリ上に状態が無い場合は、ログイン時に読み込んだユーザー情報の値から計算します。
+   *
+   * @param user    ログインリクエストのユーザー情報
+   * @param updater 現在の状態から記録後の状態を求める関数（ユーザー単位で排他的に呼び出されます）
+   * @return 記録後の状態
+   */
+  public State recordFailure(User user, UnaryOperator<State> updater) {
+    return states.compute(user.getId(),
+        (id, current) -> updater.apply(current != null ? current : State.of(user)));
+  }
+
+  /**
+   * ログイン成功時・管理者によるステータス変更時にメモリ上の状態を破棄します。DBのUPDATEの前に呼び出してください。
+   *
+   * @param userId ユーザーID
+   */
+  public void reset(int userId) {
+    states.remove(userId);
+  }
+
+  /**
+   * 未反映のログイン失敗状態を1回のJDBCバッチ・コミットでDBに反映し、反映済みの古いエントリを破棄します。
+   *
+   * @return 反映したユーザー数
+   */
+  @Scheduled(fixedDelayString = "${security.login-failure.flush-interval-millis:1000}")
+  public synchronized int flush() {
+    List<Map.Entry<Integer, State>> dirty = new ArrayList<>();
+    states.forEach((userId, state) -> {
+      if (state.dirty()) {
+        dirty.add(Map.entry(userId, state));
+      }
+    });
+
+    if (!dirty.isEmpty()) {
+      // 条件のSQL（アカウントロック期限・最終ログイン日時の有無）が同じUPDATEが連続するように並べ、
+      // 1種類あたり1回のJDBCバッチで実行します。
+      dirty.sort(Comparator.comparing((Map.Entry<Integer, State> entry) ->
+              entry.getValue().persistedLockedUntil() == null)
+          .thenComparing(entry -> entry.getValue().lastLoginAt() == null));
+      List<Integer> updateCounts = new ArrayList<>();
+      try {
+        transactionTemplate.executeWithoutResult(status -> {
+          for (Map.Entry<Integer, State> entry : dirty) {
+            State state = entry.getValue();
+            batchRepository.updateLoginFailed(entry.getKey(), state.loginFailedAttempts(),
+                state.accountLockedUntil(), state.persistedAttempts(),
+                state.persistedLockedUntil(), state.lastLoginAt());
+          }
+          for (BatchResult result : batchSqlSession.flushStatements()) {
+            for (int count : result.getUpdateCounts()) {
+              updateCounts.add(count);
+            }
+          }
+        });
+      } catch (RuntimeException e) {
+        logger.warn("ログイン失敗状態のDBへの反映に失敗しました: {}ユーザー", dirty.size(), e);
+        return 0;
+      }
+      for (int i = 0; i < dirty.size(); i++) {
+        Map.Entry<Integer, State> entry = dirty.get(i);
+        // 更新件数が0件の場合は、ログイン成功・管理者によるステータス変更でDBの値が変わっているため、
+        // メモリ上の状態を破棄して以降はDBの値を使用します（ドライバが件数を返さない場合は反映済みとします）。
+        boolean applied = i >= updateCounts.size() || updateCounts.get(i) != 0;
+        if (applied) {
+          // 反映中に新たな失敗が記録された場合は未反映のまま残し、次回の反映条件を今回反映した値に進めます。
+          states.computeIfPresent(entry.getKey(),
+              (userId, current) -> current == entry.getValue() ? current.flushed()
+                  : current.rebasedOn(entry.getValue()));
+        } else {
+          states.remove(entry.getKey(), entry.getValue());
+        }
+        principalCache.evict(entry.getKey());
+      }
+    }
+
+    long expiredBefore = System.currentTimeMillis() - retentionMillis;
+    states.values().removeIf(state -> !state.dirty() && state.updatedAtMillis() <= expiredBefore);
+    return dirty.size();
+  }
+
+  /**
+   * メモリ上の全てのログイン失敗状態を、DBに反映せずに破棄します。
+   */
+  public synchronized void clear() {
+    states.clear();
+  }
+
+  public int size() {
+    return states.size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+}
@@ -0,0 +1,139 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.exception.LoginOverloadedException;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * ログイン時のパスワード照合・再ハッシュ化を専用のスレッドプールで実行するサービス
+ * <p>
+ * BCryptの照合は1回あたり約100msのCPUを使用するため、ログインが集中するとリクエスト処理スレッドがCPUを使い切り、
+ * 不動産情報の検索等の他のAPIが遅延します。照合を同時実行数・待ち行列の上限を持つ専用のスレッドプールで実行することで
+ * ログインが使用するCPUを制限し、待ち行列が上限に達した場合は照合を待たずにLoginOverloadedException（503）とします。
+ * 呼び出し元のスレッドは照合の完了まで待機しますが、待機するスレッド数も同時実行数と待ち行列の上限までに制限されます。
+ */
+@Service
+public class PasswordVerifier {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder rejectedCount = new LongAdder();
+  private final LongAdder verifiedCount = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final LongAdder totalVerifyNanos = new LongAdder();
+
+  public PasswordVerifier(PasswordEncoder passwordEncoder,
+      @Value("${security.login.threads:0}") int threads,
+      @Value("${security.login.queue-capacity:32}") int queueCapacity) {
+    this.passwordEncoder = passwordEncoder;
+    // 既定はCPUコア数の半分とし、残りのCPUを他のAPIのために残します。
+    int poolSize = threads > 0 ? threads
+        : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+      Thread thread = new Thread(runnable,
+          "password-verifier-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * 専用のスレッドプールでパスワードを照合し、照合の完了まで待機します。
+   *
+   * @param rawPassword     入力されたパスワード
+   * @param encodedPassword ハッシュ化されたパスワード
+   * @return パスワードが一致する場合はtrue
+   * @throws LoginOverloadedException 照合の待ち行列が上限に達している場合
+   */
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * 専用のスレッドプールでパスワードをハッシュ化し、完了まで待機します。ログイン時の再ハッシュ化に使用します。
+   *
+   * @param rawPassword 照合済みのパスワード
+   * @return ハッシュ化されたパスワード
+   * @throws LoginOverloadedException 待ち行列が上限に達している場合
+   */
+  public String encode(CharSequence rawPassword) {
+    return execute(() -> passwordEncoder.encode(rawPassword));
+  }
+
+  private <T> T execute(Callable<T> task) {
+    long submittedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long startedAt = System.nanoTime();
+        try {
+          return task.call();
+        } finally {
+          long finishedAt = System.nanoTime();
+          totalWaitNanos.add(startedAt - submittedAt);
+          totalVerifyNanos.add(finishedAt - startedAt);
+          verifiedCount.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejectedCount.increment();
+      throw new LoginOverloadedException("ログインが混み合っています。しばらくしてから再度お試しください。", e);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("パスワードの照合が中断されました。", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("パスワードの照合に失敗しました。", e.getCause());
+    }
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  public long getVerifiedCount() {
+    return verifiedCount.sum();
+  }
+
+  public double getTotalWaitNanos() {
+    return totalWaitNanos.sum();
+  }
+
+  public double getTotalVerifyNanos() {
+    return totalVerifyNanos.sum();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,142 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.exception.ResourceNotFoundException;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 不動産情報の一括更新・一括削除を担当するサービス
+ * <p>
+ * 1件ずつの更新・削除（テーブルごとに1回ずつ、1件あたり4往復）を件数分繰り返さず、テーブルごとに1回のDB呼び出しで処理します。
+ * 削除はprojectsテーブルへの1回の「WHERE id IN (...)」の論理削除、更新はテーブルごとに1回のJDBCバッチで実行します。
+ * 全件を1つのトランザクションで処理し、1件でも本人のものでない・存在しないプロジェクトが含まれる場合は全件をロールバックします。
+ */
+@Service
+public class RealestateBulkService {
+
+  private final RealestateRepository repository;
+  private final RealestateRepository batchRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final RealestateSearchIndex searchIndex;
+  private final RealestateRankingService rankingService;
+
+  public RealestateBulkService(SqlSessionFactory sqlSessionFactory,
+      PlatformTransactionManager transactionManager, RealestateRepository repository,
+      RealestateSearchIndex searchIndex, RealestateRankingService rankingService) {
+    this.repository = repository;
+    this.batchRepository = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH)
+        .getMapper(RealestateRepository.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.searchIndex = searchIndex;
+    this.rankingService = rankingService;
+  }
+
+  /**
+   * 不動産情報の一括更新を行います。
+   *
+   * @param requests 不動産更新情報リスト
+   * @param userId   トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @throws IllegalArgumentException  プロジェクトID・ユーザーIDが一致しない、またはプロジェクトIDが重複している場合
+   * @throws ResourceNotFoundException 更新対象が存在しない（本人以外のプロジェクトを含む）場合
+   */
+  public void updateRealestate(List<RealestateDetail> requests, int userId) {
+
+    Set<Integer> projectIds = new HashSet<>();
+    for (RealestateDetail request : requests) {
+      RealestateService.validateUpdateRequest(request, userId);
+      if (!projectIds.add(request.getProject().getId())) {
+        throw new IllegalArgumentException("プロジェクトIDが重複しています。");
+      }
+    }
+
+    List<Integer> ids = List.copyOf(projectIds);
+
+    transactionTemplate.executeWithoutResult(status -> {
+      // 同じSQLのUPDATEが連続するようにテーブルごとに実行し、1テーブルあたり1回のJDBCバッチで実行します。
+      // 不動産収支集計は更新前の値を減算し、更新後の値を加算します（いずれも1回のSQLで、UPDATEと同じJDBCバッチで実行します）。
+      batchRepository.applySummaryDelta(ids, userId, -1);
+      requests.forEach(request -> batchRepository.updateProject(request.getProject()));
+      requests.forEach(request -> batchRepository.updateParcel(request.getParcel()));
+      requests.forEach(request -> batchRepository.updateBuilding(request.getBuilding()));
+      requests.forEach(request -> batchRepository.updateIncomeAndExpenses(
+          request.getIncomeAndExpenses()));
+      batchRepository.applySummaryDelta(ids, userId, 1);
+      List<BatchResult> results = batchRepository.flushStatements();
+
+      // UPDATE文はユーザーIDでも絞り込むため、本人以外のプロジェクトは更新件数が0件となります。
+      // 実行結果の件数・順序はJDBCバッチの分け方によるため、マップドステートメントIDでテーブルごとの更新件数を取得して確認します。
+      String[] statements = {"updateProject", "updateParcel", "updateBuilding",
+          "updateIncomeAndExpenses"};
+      String[] targets = {"プロジェクト", "土地情報", "建物情報", "収支情報"};
+      for (int i = 0; i < statements.length; i++) {
+        int[] updateCounts = updateCountsOf(results, statements[i], requests.size());
+        for (int j = 0; j < updateCounts.length; j++) {
+          if (updateCounts[j] == 0) {
+            throw new ResourceNotFoundException("更新対象の" + targets[i]
+                + "が存在しません。（プロジェクトID: " + requests.get(j).getProject().getId() + "）");
+          }
+        }
+      }
+
+      searchIndex.evict(userId);
+      rankingService.evict(userId);
+    });
+  }
+
+  /**
+   * JDBCバッチの実行結果から、指定されたステートメントの更新件数を取得します。
+   *
+   * @param results      JDBCバッチの実行結果
+   * @param statement    RealestateRepositoryのメソッド名
+   * @param expectedSize 実行した件数
+   * @return 実行順の更新件数
+   * @throws IllegalStateException ステートメントの実行結果が1つでない、または件数が実行した件数と一致しない場合
+   */
+  private static int[] updateCountsOf(List<BatchResult> results, String statement,
+      int expectedSize) {
+    String statementId = RealestateRepository.class.getName() + "." + statement;
+    List<BatchResult> matched = results.stream()
+        .filter(result -> statementId.equals(result.getMappedStatement().getId()))
+        .toList();
+    if (matched.size() != 1 || matched.get(0).getUpdateCounts().length != expectedSize) {
+      throw new IllegalStateException("一括更新の実行結果が取得できません。（" + statement + "）");
+    }
+    return matched.get(0).getUpdateCounts();
+  }
+
+  /**
+   * 不動産情報の一括削除を行います。
+   *
+   * @param projectIds 不動産情報のIDリスト
+   * @param userId     トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @throws ResourceNotFoundException 削除対象が存在しない（本人以外のプロジェクトを含む）場合
+   */
+  public void deleteRealestate(List<Integer> projectIds, int userId) {
+
+    List<Integer> distinctIds = projectIds.stream().distinct().toList();
+
+    transactionTemplate.executeWithoutResult(status -> {
+      // トークンから抽出したユーザーIDが設定されているプロジェクトIDのみ削除が実行されます。
+      // 削除件数が指定件数に満たない場合は本人以外・存在しないプロジェクトが含まれるため全件をロールバックします。
+      // 削除はプロジェクトの論理削除（1回のUPDATE）のみで、土地・建物・収支情報を含めた物理削除はRealestatePurgeJobが行います。
+      // 不動産収支集計は論理削除前の値を減算します。
+      repository.applySummaryDelta(distinctIds, userId, -1);
+      if (repository.deleteProjects(distinctIds, userId) != distinctIds.size()) {
+        throw new ResourceNotFoundException("削除対象のプロジェクトが存在しません。");
+      }
+
+      distinctIds.forEach(projectId -> searchIndex.remove(userId, projectId));
+      rankingService.evict(userId);
+    });
+  }
+}
@@ -0,0 +1,130 @@
+package com.katok09.realestate.management.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import com.katok09.realestate.management.util.RealestateCsvWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+/**
+ * 不動産情報のエクスポートを担当するサービス
+ * <p>
+ * 検索結果を全件リストに読み込まず、カーソルまたは一定件数ずつ読み込みながら出力先へ書き込むため、件数に関わらずメモリ使用量は一定です。
+ */
+@Service
+public class RealestateExportService {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final RealestateRepository repository;
+  private final ObjectMapper objectMapper;
+
+  public RealestateExportService(RealestateRepository repository, ObjectMapper objectMapper) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+  }
+
+  // CSVエクスポート時に1回のクエリで取得する件数
+  @Value("${realestate.export.chunk-size:500}")
+  private int chunkSize;
+
+  /**
+   * ユーザーの全ての不動産情報を改行区切りJSON（NDJSON）で出力します。1行が1件の不動産詳細情報となります。
+   *
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param out    出力先
+   * @return 出力件数
+   * @throws IOException 出力先への書き込みに失敗した場合
+   */
+  @Transactional(readOnly = true)
+  public long exportNdjson(int userId, OutputStream out) throws IOException {
+
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(userId);
+
+    long count = 0;
+    // 1件ごとのフラッシュは行わず、出力バッファが満たされた時点でクライアントへ送信します。
+    // 出力先のクローズは呼び出し元に任せます。
+    try (Cursor<RealestateDetail> cursor = repository.exportRealestate(searchParams);
+        SequenceWriter writer = objectMapper.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n")
+            .writeValues(out)) {
+      for (RealestateDetail detail : cursor) {
+        writer.write(detail);
+        count++;
+      }
+    }
+    if (count > 0) {
+      out.write('\n');
+    }
+    return count;
+  }
+
+  /**
+   * 検索条件に一致する不動産情報をCSV形式（UTF-8 BOM付き）で出力します。
+   * <p>
+   * プロジェクトID順にchunkSize件ずつキーセットで読み込み、1件ずつ書き込みます。DB接続は各クエリの間だけ使用し、
+   * クライアントへの送信中は接続プールへ返却されます。並び替え・ページング指定は無視されます。
+   *
+   * @param searchParams 不動産情報の検索パラメーター
+   * @param userId       トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param out          出力先
+   * @param gzip         trueの場合はgzip圧縮して出力します。
+   * @return 出力件数
+   * @throws IOException 出力先への書き込みに失敗した場合
+   */
+  public long exportCsv(SearchParams searchParams, int userId, OutputStream out, boolean gzip)
+      throws IOException {
+
+    searchParams.setUserId(userId);
+    searchParams.setSortByProjectName(false);
+    searchParams.setDescending(false);
+    searchParams.setCursorId(null);
+    searchParams.setCursorValue(null);
+    searchParams.setLimit(chunkSize);
+
+    // 出力先のクローズは呼び出し元に任せます。
+    OutputStream target = StreamUtils.nonClosing(out);
+    if (gzip) {
+      target = new GZIPOutputStream(target, BUFFER_SIZE);
+    }
+
+    long count = 0;
+    try (Writer writer = new BufferedWriter(
+        new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+      RealestateCsvWriter csv = new RealestateCsvWriter(writer);
+      csv.writeHeader();
+
+      List<RealestateDetail> chunk;
+      do {
+        chunk = repository.searchRealestate(searchParams);
+        for (RealestateDetail detail : chunk) {
+          csv.writeRow(detail);
+        }
+        count += chunk.size();
+        if (!chunk.isEmpty()) {
+          searchParams.setCursorId(chunk.get(chunk.size() - 1).getProject().getId());
+        }
+      } while (!chunk.isEmpty() && chunk.size() == chunkSize);
+    }
+    return count;
+  }
+}
@@ -0,0 +1,332 @@
+package com.katok09.realestate.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.ImportError;
+import com.katok09.realestate.management.dto.ImportProgress;
+import com.katok09.realestate.management.dto.ImportResult;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import com.katok09.realestate.management.util.RealestateCsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 不動産情報の一括登録を担当するサービス
+ * <p>
+ * リクエストボディ（JSON配列・改行区切りJSON・CSV）を1件ずつ読み込んで検証し、正常な行をbatchSize件ごとにJDBCバッチで登録します。
+ * 1バッチは「プロジェクト登録」「土地・建物・収支情報の登録」の順に実行し、バッチ単位でコミットします。
+ * 検証エラーの行は登録せず、登録に失敗したバッチはロールバックしてバッチ内の全行をエラーとして返します。
+ */
+@Service
+public class RealestateImportService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RealestateImportService.class);
+  private static final Pattern IMPORT_ID_PATTERN = Pattern.compile("^[A-Za-z0-9_-]{1,64}$");
+
+  private final RealestateRepository repository;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final RealestateSearchIndex searchIndex;
+  private final RealestateRankingService rankingService;
+  private final RealestateRepository batchRepository;
+  private final SqlSessionTemplate batchSqlSession;
+  private final TransactionTemplate transactionTemplate;
+
+  public RealestateImportService(SqlSessionFactory sqlSessionFactory,
+      PlatformTransactionManager transactionManager, RealestateRepository repository,
+      ObjectMapper objectMapper, Validator validator, RealestateSearchIndex searchIndex,
+      RealestateRankingService rankingService) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.searchIndex = searchIndex;
+    this.rankingService = rankingService;
+    this.batchSqlSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    this.batchRepository = batchSqlSession.getMapper(RealestateRepository.class);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  // 1回のJDBCバッチ・コミットで登録する件数
+  @Value("${realestate.import.batch-size:500}")
+  private int batchSize;
+
+  /**
+   * 不動産情報を一括登録します。各行のユーザーIDはトークンから抽出したユーザーIDで上書きされます。
+   *
+   * @param in     リクエストボディ（RealestateDetailのJSON配列、または1行1件の改行区切りJSON）
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 登録件数・エラー行・処理時間などの一括登録結果
+   * @throws IOException リクエストボディの読み込みに失敗した場合
+   */
+  public ImportResult importRealestate(InputStream in, int userId) throws IOException {
+
+    long start = System.nanoTime();
+    List<ImportError> errors = new ArrayList<>();
+    List<Row> chunk = new ArrayList<>(batchSize);
+    int total = 0;
+    int imported = 0;
+    boolean completed = true;
+
+    // JSON配列の場合は配列の要素を、改行区切りJSONの場合は各行を1件ずつ読み込みます。
+    try (MappingIterator<RealestateDetail> iterator = objectMapper
+        .readerFor(RealestateDetail.class).readValues(in)) {
+      while (true) {
+        int row = total + 1;
+        RealestateDetail detail;
+        try {
+          if (!iterator.hasNextValue()) {
+            break;
+          }
+          detail = iterator.nextValue();
+        } catch (DatabindException e) {
+          // 値の型が不正な行はスキップして次の行から読み込みを続けます。
+          total = row;
+          errors.add(new ImportError(row, "不動産情報の形式が不正です。"));
+          continue;
+        } catch (JsonProcessingException e) {
+          // JSONの構文が不正な場合は以降の行を読み込めないため、ここで打ち切ります。
+          total = row;
+          errors.add(new ImportError(row, "JSONの形式が不正なため、以降の行は読み込めませんでした。"));
+          completed = false;
+          break;
+        }
+        total = row;
+
+        String violation = validate(detail);
+        if (violation != null) {
+          errors.add(new ImportError(row, violation));
+          continue;
+        }
+
+        chunk.add(new Row(row, detail));
+        if (chunk.size() >= batchSize) {
+          if (register(chunk, userId, null, row, errors)) {
+            imported += chunk.size();
+          } else {
+            completed = false;
+          }
+          chunk.clear();
+        }
+      }
+    }
+    if (register(chunk, userId, null, total, errors)) {
+      imported += chunk.size();
+    } else {
+      completed = false;
+    }
+
+    return complete(start, userId, total, imported, 0, completed, errors);
+  }
+
+  /**
+   * CSV形式の不動産情報を一括登録します。列・見出しはCSVエクスポートと同じ形式です。
+   * <p>
+   * batchSize行ずつ読み込み、検証は複数のCPUコアで並列に行います。一括登録IDを指定した場合は各バッチのコミットと同じトランザクションで
+   * 登録済みの行番号を保存し、中断後に同じ一括登録IDで同じファイルを再度登録すると登録済みの行を読み飛ばして続きから登録します。
+   * 登録に失敗したバッチがあった場合は、以降の行を登録せずに中断します。
+   *
+   * @param in       リクエストボディ（UTF-8のCSV BOMの有無は問いません）
+   * @param userId   トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param importId 一括登録ID nullの場合は進捗を保存しません。
+   * @return 登録件数・エラー行・処理時間などの一括登録結果
+   * @throws IOException              リクエストボディの読み込みに失敗した場合
+   * @throws IllegalArgumentException CSVの見出し行が不正な場合
+   */
+  public ImportResult importCsv(InputStream in, int userId, String importId) throws IOException {
+
+    long start = System.nanoTime();
+    List<ImportError> errors = new ArrayList<>();
+    if (importId != null && !IMPORT_ID_PATTERN.matcher(importId).matches()) {
+      throw new IllegalArgumentException("一括登録IDは64文字以内の英数字・ハイフン・アンダースコアで指定してください。");
+    }
+    int resumeAfter = importId == null ? 0 : getProgress(userId, importId).getCommittedRows();
+    int total = 0;
+    int imported = 0;
+    int skipped = 0;
+    boolean completed = true;
+
+    RealestateCsvReader reader = new RealestateCsvReader(
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    reader.readHeader();
+
+    boolean endOfFile = false;
+    while (!endOfFile) {
+      // 1バッチ分の行を読み込みます。値を変換できない行はエラーとし、登録済みの行は検証せずに読み飛ばします。
+      List<Row> rows = new ArrayList<>(batchSize);
+      int readRows = 0;
+      while (readRows < batchSize) {
+        RealestateDetail detail;
+        try {
+          detail = reader.readRow();
+        } catch (IllegalArgumentException e) {
+          readRows++;
+          if (reader.getRowNumber() > resumeAfter) {
+            errors.add(new ImportError(reader.getRowNumber(), e.getMessage()));
+          }
+          continue;
+        }
+        if (detail == null) {
+          endOfFile = true;
+          break;
+        }
+        readRows++;
+        if (reader.getRowNumber() > resumeAfter) {
+          rows.add(new Row(reader.getRowNumber(), detail));
+        }
+      }
+      total = reader.getRowNumber();
+      skipped = Math.min(total, resumeAfter);
+      if (total <= resumeAfter) {
+        continue;
+      }
+
+      // Bean Validationは行ごとに独立しているため、CPUコア数に応じて並列に検証します。
+      List<String> violations = rows.parallelStream().map(row -> validate(row.detail)).toList();
+      List<Row> chunk = new ArrayList<>(rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        if (violations.get(i) == null) {
+          chunk.add(rows.get(i));
+        } else {
+          errors.add(new ImportError(rows.get(i).number, violations.get(i)));
+        }
+      }
+
+      if (!register(chunk, userId, importId, total, errors)) {
+        completed = false;
+        break;
+      }
+      imported += chunk.size();
+    }
+
+    return complete(start, userId, total, imported, skipped, completed, errors);
+  }
+
+  /**
+   * 一括登録の進捗を取得します。
+   *
+   * @param userId   トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @param importId 一括登録ID
+   * @return 一括登録の進捗 未登録の場合は登録済みの行番号が0となります。
+   */
+  public ImportProgress getProgress(int userId, String importId) {
+    Integer committedRows = repository.findImportProgress(userId, importId);
+    return new ImportProgress(importId, committedRows == null ? 0 : committedRows);
+  }
+
+  private ImportResult complete(long start, int userId, int total, int imported, int skipped,
+      boolean completed, List<ImportError> errors) {
+
+    if (imported > 0) {
+      searchIndex.evict(userId);
+      rankingService.evict(userId);
+    }
+    errors.sort(Comparator.comparingInt(ImportError::getRow));
+
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    double rowsPerSecond = elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+    return new ImportResult(total, imported, skipped, total - imported - skipped, completed,
+        elapsedMillis, rowsPerSecond, errors);
+  }
+
+  private String validate(RealestateDetail detail) {
+    if (detail == null || detail.getProject() == null || detail.getParcel() == null
+        || detail.getBuilding() == null || detail.getIncomeAndExpenses() == null) {
+      return "プロジェクト・土地・建物・収支情報を全て指定してください。";
+    }
+
+    Set<ConstraintViolation<RealestateDetail>> violations = validator.validate(detail);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(ConstraintViolation::getMessage)
+        .sorted()
+        .collect(Collectors.joining(" "));
+  }
+
+  /**
+   * 1バッチ分の不動産情報を1トランザクションで登録します。一括登録IDを指定した場合は同じトランザクションで進捗も保存します。
+   *
+   * @param rows          登録する行
+   * @param userId        トークンから抽出したユーザーID
+   * @param importId      一括登録ID（進捗を保存しない場合はnull）
+   * @param committedRows 保存する登録済みの行番号
+   * @param errors        登録に失敗した場合にエラー行を追加するリスト
+   * @return 登録に成功した場合はtrue
+   */
+  private boolean register(List<Row> rows, int userId, String importId, int committedRows,
+      List<ImportError> errors) {
+    if (rows.isEmpty() && importId == null) {
+      return true;
+    }
+
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        // 同じSQLのINSERTが連続するように種類ごとに登録し、1種類あたり1回のJDBCバッチで実行します。
+        for (Row row : rows) {
+          row.detail.getProject().setUserId(userId);
+          batchRepository.registerProject(row.detail.getProject());
+        }
+        // プロジェクトの自動採番値はバッチ実行時に各プロジェクトへ設定されます。
+        batchSqlSession.flushStatements();
+
+        for (Row row : rows) {
+          int projectId = row.detail.getProject().getId();
+          row.detail.getParcel().setProjectId(projectId);
+          row.detail.getParcel().setUserId(userId);
+          row.detail.getBuilding().setProjectId(projectId);
+          row.detail.getBuilding().setUserId(userId);
+          row.detail.getIncomeAndExpenses().setProjectId(projectId);
+          row.detail.getIncomeAndExpenses().setUserId(userId);
+        }
+        rows.forEach(row -> batchRepository.registerParcel(row.detail.getParcel()));
+        rows.forEach(row -> batchRepository.registerBuilding(row.detail.getBuilding()));
+        rows.forEach(row -> batchRepository.registerIncomeAndExpenses(
+            row.detail.getIncomeAndExpenses()));
+        if (!rows.isEmpty()) {
+          batchRepository.applySummaryDelta(
+              rows.stream().map(row -> row.detail.getProject().getId()).toList(), userId, 1);
+        }
+        if (importId != null) {
+          batchRepository.saveImportProgress(userId, importId, committedRows);
+        }
+        batchSqlSession.flushStatements();
+      });
+      return true;
+    } catch (RuntimeException e) {
+      logger.warn("不動産情報の一括登録に失敗しました: userId={}, importId={}, committedRows={}", userId,
+          importId, committedRows, e);
+      for (Row row : rows) {
+        errors.add(new ImportError(row.number, "登録に失敗しました。"));
+      }
+      return false;
+    }
+  }
+
+  private record Row(int number, RealestateDetail detail) {
+
+  }
+}
@@ -0,0 +1,67 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 論理削除済みの不動産情報を物理削除する定期実行処理
+ * <p>
+ * 利用者の削除操作はプロジェクトの論理削除（1回のUPDATE）のみとし、行の物理削除はアクセスの少ない時間帯にこの処理で行います。
+ * 1回のDELETEでbatchSize件ずつ削除して各DELETEを個別にコミットし、バッチ間に待機時間を入れることで、長時間のロック保持や
+ * レプリケーション遅延を避けます。土地・建物・収支情報は外部キー（ON DELETE CASCADE）によりプロジェクトと合わせて削除されます。
+ */
+@Component
+public class RealestatePurgeJob {
+
+  private static final Logger logger = LoggerFactory.getLogger(RealestatePurgeJob.class);
+
+  private final RealestateRepository repository;
+  private final int batchSize;
+  private final long pauseMillis;
+
+  public RealestatePurgeJob(RealestateRepository repository,
+      @Value("${realestate.purge.batch-size:500}") int batchSize,
+      @Value("${realestate.purge.pause-millis:200}") long pauseMillis) {
+    this.repository = repository;
+    this.batchSize = batchSize;
+    this.pauseMillis = pauseMillis;
+  }
+
+  /**
+   * 論理削除済みの不動産情報を全て物理削除します。realestate.purge.cronの日時（既定は毎日3時）に実行されます。
+   *
+   * @return 物理削除したプロジェクトの件数
+   */
+  @Scheduled(cron = "${realestate.purge.cron:0 0 3 * * *}")
+  public int purge() {
+    int purged = 0;
+    while (true) {
+      // トランザクションを使用せず、バッチごとのDELETEを個別にコミットします。
+      List<Integer> projectIds = repository.findDeletedProjectIds(batchSize);
+      if (projectIds.isEmpty()) {
+        break;
+      }
+      purged += repository.purgeProjects(projectIds);
+      if (projectIds.size() < batchSize) {
+        break;
+      }
+
+      try {
+        Thread.sleep(pauseMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    if (purged > 0) {
+      logger.info("論理削除済みの不動産情報を物理削除しました: {}件", purged);
+    }
+    return purged;
+  }
+}
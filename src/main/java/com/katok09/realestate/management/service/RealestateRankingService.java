@@ -0,0 +1,105 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.dto.YieldRanking;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import com.katok09.realestate.management.util.YieldSnapshot;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 利回りランキングを担当するサービス
+ * <p>
+ * ユーザーごとの不動産情報を列指向のスナップショット（YieldSnapshot）としてメモリ上に保持し、ランキングをスナップショットの
+ * 走査で計算します。スナップショットは初回のランキング取得時に不動産情報の検索と同じSQLで構築し、登録・更新・削除の
+ * コミット後に破棄して次回の取得時に再構築します。構築中に破棄された場合は構築結果を保持しません。
+ */
+@Service
+public class RealestateRankingService {
+
+  private final RealestateRepository repository;
+  private final int maxUsers;
+
+  // ユーザーID → スナップショット（構築中はsnapshotがnull）
+  private final ConcurrentHashMap<Integer, Entry> snapshots = new ConcurrentHashMap<>();
+
+  public RealestateRankingService(RealestateRepository repository,
+      @Value("${realestate.ranking.max-users:1000}") int maxUsers) {
+    this.repository = repository;
+    this.maxUsers = maxUsers;
+  }
+
+  /**
+   * ユーザーの物件を利回り順に並べたランキングを取得します。論理削除済みのプロジェクトは対象外です。
+   *
+   * @param params ランキングの取得パラメーター
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 絞り込み条件に該当した物件数と上位の物件
+   */
+  public YieldRanking rank(RankingParams params, int userId) {
+    return snapshot(userId).rank(params);
+  }
+
+  /**
+   * 指定されたユーザーのスナップショットを破棄します。トランザクション内の場合はコミット後に破棄します。
+   *
+   * @param userId ユーザーID
+   */
+  public void evict(int userId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          snapshots.remove(userId);
+        }
+      });
+    } else {
+      snapshots.remove(userId);
+    }
+  }
+
+  public int size() {
+    return snapshots.size();
+  }
+
+  private YieldSnapshot snapshot(int userId) {
+    Entry entry = snapshots.get(userId);
+    if (entry != null && entry.snapshot != null) {
+      return entry.snapshot;
+    }
+
+    // 他のリクエストが構築中の場合・保持するユーザー数が上限の場合は、構築したスナップショットを今回のみ使用します。
+    Entry created = null;
+    if (entry == null && snapshots.size() < maxUsers) {
+      created = new Entry();
+      if (snapshots.putIfAbsent(userId, created) != null) {
+        created = null;
+      }
+    }
+
+    try {
+      SearchParams searchParams = new SearchParams();
+      searchParams.setUserId(userId);
+      YieldSnapshot snapshot = YieldSnapshot.of(repository.searchRealestate(searchParams));
+      if (created != null) {
+        // 構築中に破棄された場合はマップから除去済みのため、設定しても参照されません。
+        created.snapshot = snapshot;
+      }
+      return snapshot;
+    } catch (RuntimeException e) {
+      if (created != null) {
+        snapshots.remove(userId, created);
+      }
+      throw e;
+    }
+  }
+
+  private static final class Entry {
+
+    private volatile YieldSnapshot snapshot;
+  }
+}
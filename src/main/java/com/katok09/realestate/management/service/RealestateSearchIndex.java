@@ -0,0 +1,424 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ユーザーごとの不動産情報をメモリ上の転置インデックスで検索する検索エンジン（realestate.search.index.enabled=trueの場合のみ有効）
+ * <p>
+ * プロジェクト名・土地住所は文字バイグラムの転置リスト、建物種別・建物構造は値ごと、融資有無は有無ごとのビットセットで候補を絞り込み、
+ * 最後に部分一致を確認してSQL（LIKE検索）と同じ結果を返します。
+ * 検索語とインデックスの値は、MySQLの照合順序（utf8mb4_0900_ai_ci）と同様に全角・半角、大文字・小文字、アクセント・濁点・半濁点、
+ * カタカナ・ひらがな、小書きの仮名を区別しない形に正規化して比較します。
+ * <p>
+ * インデックスが未構築（コールド）のユーザーの検索はSQLで処理し、バックグラウンドでインデックスを構築します。登録・更新は
+ * リクエストではなくDBに登録された値で検索できるよう、トランザクションのコミット後にインデックスを破棄して次回の検索時に
+ * 再構築します。削除はコミット後に反映し、構築中に削除があった場合は構築結果を破棄します。
+ * 照合順序によって並び順が変わるプロジェクト名順の検索は、SQLと結果を一致させるため常にSQLで処理します。
+ */
+@Component
+public class RealestateSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(RealestateSearchIndex.class);
+
+  // カタカナ（ァ～ヶ）と対応するひらがな（ぁ～ゖ）のコードポイントの差
+  private static final int KATAKANA_TO_HIRAGANA = 'ァ' - 'ぁ';
+  private static final String SMALL_KANA = "ぁぃぅぇぉっゃゅょゎゕゖ";
+  private static final String LARGE_KANA = "あいうえおつやゆよわかけ";
+
+  private final RealestateRepository repository;
+  private final TaskExecutor taskExecutor;
+  private final boolean enabled;
+  private final int maxUsers;
+
+  // ユーザーID → ユーザーの転置インデックス
+  private final ConcurrentHashMap<Integer, UserIndex> indexes = new ConcurrentHashMap<>();
+
+  public RealestateSearchIndex(RealestateRepository repository,
+      @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+      @Value("${realestate.search.index.enabled:false}") boolean enabled,
+      @Value("${realestate.search.index.max-users:1000}") int maxUsers) {
+    this.repository = repository;
+    this.taskExecutor = taskExecutor;
+    this.enabled = enabled;
+    this.maxUsers = maxUsers;
+  }
+
+  /**
+   * インデックスで不動産情報を検索します。SearchParamsのユーザーID・検索条件・カーソル・取得件数を使用します。
+   *
+   * @param searchParams 不動産情報の検索パラメーター（並び替え・ページング設定済み）
+   * @return 検索結果の不動産情報リスト インデックスで処理できない場合は空のOptionalが返ります。
+   */
+  public Optional<List<RealestateDetail>> search(SearchParams searchParams) {
+    if (!enabled || searchParams.isSortByProjectName()) {
+      return Optional.empty();
+    }
+
+    UserIndex index = indexes.get(searchParams.getUserId());
+    if (index == null) {
+      warmUp(searchParams.getUserId());
+      return Optional.empty();
+    }
+    return index.search(searchParams);
+  }
+
+  /**
+   * 削除した不動産情報をインデックスから除去します。トランザクション内の場合はコミット後に除去します。
+   *
+   * @param userId    トークンから抽出したユーザーID
+   * @param projectId 削除したプロジェクトID
+   */
+  public void remove(int userId, int projectId) {
+    afterCommit(userId, index -> index.remove(projectId));
+  }
+
+  /**
+   * 指定されたユーザーのインデックスを破棄します。次回の検索時に再構築されます。トランザクション内の場合はコミット後に破棄します。
+   *
+   * @param userId ユーザーID
+   */
+  public void evict(int userId) {
+    if (!enabled) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          indexes.remove(userId);
+        }
+      });
+    } else {
+      indexes.remove(userId);
+    }
+  }
+
+  public int size() {
+    return indexes.size();
+  }
+
+  private void afterCommit(int userId, Consumer<UserIndex> change) {
+    if (!enabled) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          apply(userId, change);
+        }
+      });
+    } else {
+      apply(userId, change);
+    }
+  }
+
+  private void apply(int userId, Consumer<UserIndex> change) {
+    UserIndex index = indexes.get(userId);
+    if (index == null) {
+      return;
+    }
+    // 構築中のインデックスは更新前のデータを読み込んでいる可能性があるため破棄し、次回の検索時に再構築します。
+    if (!index.apply(change)) {
+      indexes.remove(userId, index);
+    }
+  }
+
+  private void warmUp(int userId) {
+    if (indexes.size() >= maxUsers) {
+      return;
+    }
+    UserIndex index = new UserIndex();
+    if (indexes.putIfAbsent(userId, index) != null) {
+      return;
+    }
+
+    taskExecutor.execute(() -> {
+      try {
+        SearchParams searchParams = new SearchParams();
+        searchParams.setUserId(userId);
+        index.load(repository.searchRealestate(searchParams));
+      } catch (RuntimeException e) {
+        logger.warn("検索インデックスの構築に失敗しました: userId={}", userId, e);
+        indexes.remove(userId, index);
+      }
+    });
+  }
+
+  /**
+   * 照合順序で区別しない違いを除去します。NFKCで全角・半角を統一して小文字にした後、NFDで分解したアクセント・濁点・半濁点を除去し、
+   * カタカナをひらがなに、小書きの仮名を通常の仮名に置き換えます。
+   */
+  private static String normalize(String value) {
+    if (value == null) {
+      return null;
+    }
+    String decomposed = Normalizer.normalize(
+        Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT),
+        Normalizer.Form.NFD);
+    StringBuilder normalized = new StringBuilder(decomposed.length());
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK) {
+        continue;
+      }
+      if (c >= 'ァ' && c <= 'ヶ') {
+        c = (char) (c - KATAKANA_TO_HIRAGANA);
+      }
+      int small = SMALL_KANA.indexOf(c);
+      normalized.append(small >= 0 ? LARGE_KANA.charAt(small) : c);
+    }
+    return normalized.toString();
+  }
+
+  /**
+   * 1ユーザー分の転置インデックス
+   * <p>
+   * 不動産情報ごとにスロット番号を割り当て、各ビットセットはスロット番号をビット位置として保持します。
+   */
+  private static final class UserIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean ready;
+
+    private final List<RealestateDetail> details = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // プロジェクトID → スロット番号（プロジェクトID順の走査に使用）
+    private final NavigableMap<Integer, Integer> slots = new TreeMap<>();
+
+    private final Map<String, BitSet> projectNameGrams = new HashMap<>();
+    private final Map<String, BitSet> parcelAddressGrams = new HashMap<>();
+    private final Map<String, BitSet> buildingTypes = new HashMap<>();
+    private final Map<String, BitSet> buildingStructures = new HashMap<>();
+    private final BitSet financed = new BitSet();
+    private final BitSet unfinanced = new BitSet();
+
+    void load(List<RealestateDetail> list) {
+      lock.writeLock().lock();
+      try {
+        list.forEach(this::put);
+        ready = true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    boolean apply(Consumer<UserIndex> change) {
+      lock.writeLock().lock();
+      try {
+        if (!ready) {
+          return false;
+        }
+        change.accept(this);
+        return true;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    Optional<List<RealestateDetail>> search(SearchParams searchParams) {
+      lock.readLock().lock();
+      try {
+        if (!ready) {
+          return Optional.empty();
+        }
+
+        BitSet candidates = new BitSet();
+        slots.values().forEach(candidates::set);
+
+        filterByText(candidates, projectNameGrams, searchParams.getSearchProjectName(),
+            detail -> detail.getProject().getProjectName());
+        filterByText(candidates, parcelAddressGrams, searchParams.getSearchParcelAddress(),
+            detail -> detail.getParcel() == null ? null : detail.getParcel().getParcelAddress());
+        filterByValue(candidates, buildingTypes, searchParams.getSearchBuildingType());
+        filterByValue(candidates, buildingStructures, searchParams.getSearchBuildingStructure());
+        if (Boolean.TRUE.equals(searchParams.getSearchFinancing())) {
+          candidates.and(financed);
+        } else if (Boolean.FALSE.equals(searchParams.getSearchFinancing())) {
+          candidates.and(unfinanced);
+        }
+
+        NavigableMap<Integer, Integer> range = slots;
+        if (searchParams.getCursorId() != null) {
+          range = searchParams.isDescending()
+              ? slots.headMap(searchParams.getCursorId(), false)
+              : slots.tailMap(searchParams.getCursorId(), false);
+        }
+        if (searchParams.isDescending()) {
+          range = range.descendingMap();
+        }
+
+        int limit = searchParams.getLimit() == null ? Integer.MAX_VALUE : searchParams.getLimit();
+        List<RealestateDetail> result = new ArrayList<>();
+        for (int slot : range.values()) {
+          if (result.size() >= limit) {
+            break;
+          }
+          if (candidates.get(slot)) {
+            result.add(details.get(slot));
+          }
+        }
+        return Optional.of(result);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    void put(RealestateDetail detail) {
+      int projectId = detail.getProject().getId();
+      Integer slot = slots.get(projectId);
+      if (slot != null) {
+        unindex(slot);
+      } else {
+        slot = freeSlots.isEmpty() ? details.size() : freeSlots.pop();
+        if (slot == details.size()) {
+          details.add(null);
+        }
+        slots.put(projectId, slot);
+      }
+      details.set(slot, detail);
+      index(slot, detail);
+    }
+
+    void remove(int projectId) {
+      Integer slot = slots.remove(projectId);
+      if (slot != null) {
+        unindex(slot);
+        details.set(slot, null);
+        freeSlots.push(slot);
+      }
+    }
+
+    private void index(int slot, RealestateDetail detail) {
+      forEachGram(detail.getProject().getProjectName(),
+          gram -> projectNameGrams.computeIfAbsent(gram, key -> new BitSet()).set(slot));
+      if (detail.getParcel() != null) {
+        forEachGram(detail.getParcel().getParcelAddress(),
+            gram -> parcelAddressGrams.computeIfAbsent(gram, key -> new BitSet()).set(slot));
+      }
+      if (detail.getBuilding() != null) {
+        setValue(buildingTypes, detail.getBuilding().getBuildingType(), slot);
+        setValue(buildingStructures, detail.getBuilding().getBuildingStructure(), slot);
+      }
+      // 収支情報が無い場合はSQLと同様に融資有無どちらの条件にも該当しません。
+      if (detail.getIncomeAndExpenses() != null) {
+        boolean isFinanced = detail.getIncomeAndExpenses().getPrincipal() > 0
+            || detail.getIncomeAndExpenses().getInterest() > 0;
+        (isFinanced ? financed : unfinanced).set(slot);
+      }
+    }
+
+    private void unindex(int slot) {
+      RealestateDetail detail = details.get(slot);
+      forEachGram(detail.getProject().getProjectName(),
+          gram -> clear(projectNameGrams, gram, slot));
+      if (detail.getParcel() != null) {
+        forEachGram(detail.getParcel().getParcelAddress(),
+            gram -> clear(parcelAddressGrams, gram, slot));
+      }
+      if (detail.getBuilding() != null) {
+        clear(buildingTypes, normalize(detail.getBuilding().getBuildingType()), slot);
+        clear(buildingStructures, normalize(detail.getBuilding().getBuildingStructure()), slot);
+      }
+      financed.clear(slot);
+      unfinanced.clear(slot);
+    }
+
+    /**
+     * 検索語の全てのバイグラムを含む候補に絞り込んだ後、部分一致を確認します。1文字の検索語は部分一致の確認のみ行います。
+     */
+    private void filterByText(BitSet candidates, Map<String, BitSet> grams, String term,
+        Function<RealestateDetail, String> extractor) {
+      if (term == null || term.isEmpty()) {
+        return;
+      }
+      String normalizedTerm = normalize(term);
+      forEachGram(normalizedTerm, gram -> {
+        BitSet postings = grams.get(gram);
+        if (postings == null) {
+          candidates.clear();
+        } else {
+          candidates.and(postings);
+        }
+      });
+      for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+        String value = normalize(extractor.apply(details.get(slot)));
+        if (value == null || !value.contains(normalizedTerm)) {
+          candidates.clear(slot);
+        }
+      }
+    }
+
+    /**
+     * 検索語を部分一致で含む値のビットセットの和集合に絞り込みます。
+     */
+    private void filterByValue(BitSet candidates, Map<String, BitSet> values, String term) {
+      if (term == null || term.isEmpty()) {
+        return;
+      }
+      String normalizedTerm = normalize(term);
+      BitSet matched = new BitSet();
+      values.forEach((value, postings) -> {
+        if (value.contains(normalizedTerm)) {
+          matched.or(postings);
+        }
+      });
+      candidates.and(matched);
+    }
+
+    private static void forEachGram(String text, Consumer<String> action) {
+      String normalized = normalize(text);
+      if (normalized == null) {
+        return;
+      }
+      for (int i = 0; i + 2 <= normalized.length(); i++) {
+        action.accept(normalized.substring(i, i + 2));
+      }
+    }
+
+    private static void setValue(Map<String, BitSet> values, String value, int slot) {
+      if (value != null) {
+        values.computeIfAbsent(normalize(value), key -> new BitSet()).set(slot);
+      }
+    }
+
+    private static void clear(Map<String, BitSet> postings, String key, int slot) {
+      if (key == null) {
+        return;
+      }
+      BitSet bitSet = postings.get(key);
+      if (bitSet != null) {
+        bitSet.clear(slot);
+        if (bitSet.isEmpty()) {
+          postings.remove(key);
+        }
+      }
+    }
+  }
+}
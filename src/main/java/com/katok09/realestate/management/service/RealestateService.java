@@ -1,12 +1,23 @@
 package com.katok09.realestate.management.service;
 
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.PortfolioAggregate;
+import com.katok09.realestate.management.dto.PortfolioMetrics;
+import com.katok09.realestate.management.dto.PortfolioSummary;
+import com.katok09.realestate.management.dto.RealestatePage;
 import com.katok09.realestate.management.dto.SearchParams;
 import com.katok09.realestate.management.exception.ResourceNotFoundException;
 import com.katok09.realestate.management.repository.RealestateRepository;
-import com.katok09.realestate.management.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.SearchCursor;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,40 +27,101 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class RealestateService {
 
+  // 建物種別・建物構造が未入力のプロジェクトの集計区分
+  private static final String UNSPECIFIED_LABEL = "未設定";
+
   private final RealestateRepository repository;
-  private final JwtUtil jwtUtil;
+  private final RealestateSearchIndex searchIndex;
+  private final RealestateRankingService rankingService;
 
-  public RealestateService(RealestateRepository repository, JwtUtil jwtUtil) {
+  public RealestateService(RealestateRepository repository, RealestateSearchIndex searchIndex,
+      RealestateRankingService rankingService) {
     this.repository = repository;
-    this.jwtUtil = jwtUtil;
+    this.searchIndex = searchIndex;
+    this.rankingService = rankingService;
   }
 
+  // 検索時に取得件数が指定されなかった場合の1ページの件数
+  @Value("${realestate.search.default-page-size:50}")
+  private int defaultPageSize;
+
+  // 検索時の1ページの上限件数
+  @Value("${realestate.search.max-page-size:200}")
+  private int maxPageSize;
+
   /**
-   * 不動産情報の一覧表示・検索を行います。
+   * 不動産情報の一覧表示・検索を行います。結果はキーセットページングで1ページ分ずつ返します。
    *
    * @param searchParams 不動産情報の検索パラメーター
-   * @return 検索結果の不動産情報リスト
+   * @param userId       トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 検索結果の不動産情報リストと次ページ取得用カーソル
    */
-  public List<RealestateDetail> searchRealestate(SearchParams searchParams,
-      HttpServletRequest requestToken) {
+  public RealestatePage searchRealestate(SearchParams searchParams, int userId) {
 
-    String token = jwtUtil.extractTokenFromRequest(requestToken);
-    int userId = jwtUtil.getUserIdFromToken(token);
     searchParams.setUserId(userId);
 
-    return repository.searchRealestate(searchParams);
+    String sort = isBlank(searchParams.getSort()) ? "id" : searchParams.getSort();
+    String order = isBlank(searchParams.getOrder()) ? "asc" : searchParams.getOrder();
+    int pageSize = searchParams.getSize() == null
+        ? defaultPageSize
+        : Math.min(searchParams.getSize(), maxPageSize);
+
+    searchParams.setSortByProjectName(sort.equals("projectName"));
+    searchParams.setDescending(order.equals("desc"));
+    searchParams.setCursorId(null);
+    searchParams.setCursorValue(null);
+    if (!isBlank(searchParams.getCursor())) {
+      SearchCursor cursor = SearchCursor.decode(searchParams.getCursor(), sort, order);
+      searchParams.setCursorId(cursor.getProjectId());
+      searchParams.setCursorValue(cursor.getValue());
+    }
+
+    // 次ページの有無を判定するため1件多く取得します。
+    // メモリ上の検索インデックスで処理できない場合（無効・未構築など）はSQLで検索します。
+    searchParams.setLimit(pageSize + 1);
+    List<RealestateDetail> result = searchIndex.search(searchParams)
+        .orElseGet(() -> repository.searchRealestate(searchParams));
+
+    if (result.size() <= pageSize) {
+      return new RealestatePage(result, null);
+    }
+
+    List<RealestateDetail> page = result.subList(0, pageSize);
+    RealestateDetail last = page.get(pageSize - 1);
+    // プロジェクト名がNULLの行は、SQLの並び替え・比較と同じく空文字をカーソルの値とします。
+    String nextCursor = new SearchCursor(sort, order, last.getProject().getId(),
+        searchParams.isSortByProjectName()
+            ? Objects.toString(last.getProject().getProjectName(), "") : null).encode();
+
+    return new RealestatePage(page, nextCursor);
+  }
+
+  /**
+   * ユーザーの不動産収支サマリー（全体・建物種別ごと・建物構造ごとの月キャッシュフロー、利回り）を取得します。
+   * 建物種別・建物構造ごとの集計行（不動産収支集計テーブル）を合算して各集計値を求めます。
+   *
+   * @param userId トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @return 不動産収支サマリー
+   */
+  public PortfolioSummary getSummary(int userId) {
+
+    List<PortfolioAggregate> aggregates = repository.summarizeRealestate(userId);
+
+    return new PortfolioSummary(
+        toMetrics(null, aggregates),
+        groupMetrics(aggregates, PortfolioAggregate::getBuildingType),
+        groupMetrics(aggregates, PortfolioAggregate::getBuildingStructure));
   }
 
   /**
    * 不動産情報の登録を行います。
    *
    * @param request 不動産登録情報
+   * @param userId  トークンから抽出したユーザーID（ユーザーID偽装防止）
    */
   @Transactional
-  public void registerRealestate(RealestateDetail request, HttpServletRequest requestToken) {
+  public void registerRealestate(RealestateDetail request, int userId) {
 
-    String token = jwtUtil.extractTokenFromRequest(requestToken);
-    int userId = jwtUtil.getUserIdFromToken(token);
     request.getProject().setUserId(userId);
     request.getParcel().setUserId(userId);
     request.getBuilding().setUserId(userId);
@@ -65,27 +137,28 @@ public class RealestateService {
     repository.registerParcel(request.getParcel());
     repository.registerBuilding(request.getBuilding());
     repository.registerIncomeAndExpenses(request.getIncomeAndExpenses());
+
+    repository.applySummaryDelta(List.of(request.getProject().getId()), userId, 1);
+
+    // リクエストの値ではなくDBの値で検索できるよう、コミット後にインデックスを破棄して次回の検索時に再構築します。
+    searchIndex.evict(userId);
+    rankingService.evict(userId);
   }
 
   /**
    * 不動産情報の更新を行います。
    *
    * @param request 不動産更新情報
+   * @param userId  トークンから抽出したユーザーID（ユーザーID偽装防止）
    */
   @Transactional
-  public void updateRealestate(RealestateDetail request, HttpServletRequest requestToken) {
-
-    if (!isProjectIdConsistent(request)) {
-      throw new IllegalArgumentException("プロジェクトIDが一致していません。");
-    }
+  public void updateRealestate(RealestateDetail request, int userId) {
 
-    // トークンから取得したユーザーIDとrequest内の各オブジェクトのユーザーIDを照合
-    String token = jwtUtil.extractTokenFromRequest(requestToken);
-    int userId = jwtUtil.getUserIdFromToken(token);
+    validateUpdateRequest(request, userId);
 
-    if (!isUserIdConsistent(userId, request)) {
-      throw new IllegalArgumentException("ユーザーIDが一致していません。");
-    }
+    // 不動産収支集計は更新前の値を減算し、更新後の値を加算します。
+    List<Integer> projectIds = List.of(request.getProject().getId());
+    repository.applySummaryDelta(projectIds, userId, -1);
 
     if (repository.updateProject(request.getProject()) == 0) {
       throw new ResourceNotFoundException("更新対象のプロジェクトが存在しません。");
@@ -99,34 +172,33 @@ public class RealestateService {
     if (repository.updateIncomeAndExpenses(request.getIncomeAndExpenses()) == 0) {
       throw new ResourceNotFoundException("更新対象の収支情報が存在しません。");
     }
+
+    repository.applySummaryDelta(projectIds, userId, 1);
+
+    searchIndex.evict(userId);
+    rankingService.evict(userId);
   }
 
   /**
    * 不動産情報の削除を行います。
    *
-   * @param projectId    不動産情報のID
-   * @param requestToken HTTPリクエストトークン
+   * @param projectId 不動産情報のID
+   * @param userId    トークンから抽出したユーザーID（ユーザーID偽装防止）
    */
   @Transactional
-  public void deleteRealestate(int projectId, HttpServletRequest requestToken) {
-
-    String token = jwtUtil.extractTokenFromRequest(requestToken);
-    int userId = jwtUtil.getUserIdFromToken(token);
+  public void deleteRealestate(int projectId, int userId) {
 
     // トークンから抽出したユーザーIDが設定されているプロジェクトIDのみ削除が実行されます。
     // これにより本人以外のプロジェクトが削除されることを防止します。
+    // 削除はプロジェクトの論理削除（1回のUPDATE）のみで、土地・建物・収支情報を含めた物理削除はRealestatePurgeJobが行います。
+    // 不動産収支集計は論理削除前の値を減算します（本人以外のプロジェクトは減算されません）。
+    repository.applySummaryDelta(List.of(projectId), userId, -1);
     if (repository.deleteProject(projectId, userId) == 0) {
       throw new ResourceNotFoundException("削除対象のプロジェクトが存在しません。");
     }
-    if (repository.deleteParcel(projectId, userId) == 0) {
-      throw new ResourceNotFoundException("削除対象の土地情報が存在しません。");
-    }
-    if (repository.deleteBuilding(projectId, userId) == 0) {
-      throw new ResourceNotFoundException("削除対象の建物情報が存在しません。");
-    }
-    if (repository.deleteIncomeAndExpenses(projectId, userId) == 0) {
-      throw new ResourceNotFoundException("削除対象の収支情報が存在しません。");
-    }
+
+    searchIndex.remove(userId, projectId);
+    rankingService.evict(userId);
   }
 
   /**
@@ -137,24 +209,95 @@ public class RealestateService {
   @Transactional
   public void deleteRealestateByUserId(int userId) {
 
+    // 削除はプロジェクトの論理削除（1回のUPDATE）のみで、土地・建物・収支情報を含めた物理削除はRealestatePurgeJobが行います。
     repository.deleteProjectByUserId(userId);
-    repository.deleteParcelByUserId(userId);
-    repository.deleteBuildingByUserId(userId);
-    repository.deleteIncomeAndExpensesByUserId(userId);
+    repository.deleteSummaryByUserId(userId);
+
+    searchIndex.evict(userId);
+    rankingService.evict(userId);
   }
 
-  private boolean isProjectIdConsistent(RealestateDetail request) {
+  /**
+   * 更新リクエストの各オブジェクトのプロジェクトID・ユーザーIDを照合します。
+   *
+   * @param request 不動産更新情報
+   * @param userId  トークンから抽出したユーザーID（ユーザーID偽装防止）
+   * @throws IllegalArgumentException プロジェクトIDまたはユーザーIDが一致しない場合
+   */
+  static void validateUpdateRequest(RealestateDetail request, int userId) {
+    if (!isProjectIdConsistent(request)) {
+      throw new IllegalArgumentException("プロジェクトIDが一致していません。");
+    }
+
+    // トークンから取得したユーザーIDとrequest内の各オブジェクトのユーザーIDを照合
+    if (!isUserIdConsistent(userId, request)) {
+      throw new IllegalArgumentException("ユーザーIDが一致していません。");
+    }
+  }
+
+  private static boolean isProjectIdConsistent(RealestateDetail request) {
     int projectId = request.getProject().getId();
     return projectId == request.getParcel().getProjectId() &&
         projectId == request.getBuilding().getProjectId() &&
         projectId == request.getIncomeAndExpenses().getProjectId();
   }
 
-  private boolean isUserIdConsistent(int userId, RealestateDetail request) {
+  private static boolean isUserIdConsistent(int userId, RealestateDetail request) {
     return userId == request.getProject().getUserId() &&
         userId == request.getParcel().getUserId() &&
         userId == request.getBuilding().getUserId() &&
         userId == request.getIncomeAndExpenses().getUserId();
   }
 
+  private List<PortfolioMetrics> groupMetrics(List<PortfolioAggregate> aggregates,
+      Function<PortfolioAggregate, String> classifier) {
+    Map<String, List<PortfolioAggregate>> groups = aggregates.stream()
+        .collect(Collectors.groupingBy(
+            aggregate -> isBlank(classifier.apply(aggregate)) ? UNSPECIFIED_LABEL
+                : classifier.apply(aggregate),
+            TreeMap::new, Collectors.toList()));
+
+    return groups.entrySet().stream()
+        .map(entry -> toMetrics(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+
+  private PortfolioMetrics toMetrics(String label, List<PortfolioAggregate> aggregates) {
+    int projectCount = 0;
+    int financedCount = 0;
+    long totalPrice = 0;
+    long monthlyRent = 0;
+    long monthlyOperatingExpenses = 0;
+    long monthlyDebtService = 0;
+    for (PortfolioAggregate aggregate : aggregates) {
+      projectCount += aggregate.getProjectCount();
+      financedCount += aggregate.getFinancedCount();
+      totalPrice += aggregate.getTotalPrice();
+      monthlyRent += aggregate.getMonthlyRent();
+      monthlyOperatingExpenses += aggregate.getMonthlyOperatingExpenses();
+      monthlyDebtService += aggregate.getMonthlyDebtService();
+    }
+
+    long monthlyCashFlow = monthlyRent - monthlyOperatingExpenses - monthlyDebtService;
+    return new PortfolioMetrics(label, projectCount, financedCount, totalPrice, monthlyRent,
+        monthlyOperatingExpenses, monthlyDebtService, monthlyCashFlow, monthlyCashFlow * 12,
+        yieldRate(monthlyRent, totalPrice),
+        yieldRate(monthlyRent - monthlyOperatingExpenses, totalPrice));
+  }
+
+  /**
+   * 月額を年額にした額の取得価格に対する割合（%、小数点以下2桁）を求めます。取得価格が0円の場合はnullを返します。
+   */
+  private Double yieldRate(long monthlyAmount, long totalPrice) {
+    if (totalPrice == 0) {
+      return null;
+    }
+    return BigDecimal.valueOf(monthlyAmount * 12 * 100)
+        .divide(BigDecimal.valueOf(totalPrice), 2, RoundingMode.HALF_UP)
+        .doubleValue();
+  }
+
+  private boolean isBlank(String value) {
+    return value == null || value.isEmpty();
+  }
 }
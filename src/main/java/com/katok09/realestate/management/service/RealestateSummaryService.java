@@ -0,0 +1,84 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 不動産収支集計テーブルの再計算を担当するサービス
+ * <p>
+ * 不動産収支集計は登録・更新・削除時に差分更新されますが、集計ロジックの変更時や不整合の解消のため、プロジェクト・土地・建物・
+ * 収支テーブルから全ユーザー分を再計算します。ユーザーごとに1トランザクション（集計行の削除と集計結果の登録）で処理し、
+ * 複数ユーザーをparallelism件ずつ並列に再計算します。
+ */
+@Service
+public class RealestateSummaryService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RealestateSummaryService.class);
+
+  private final RealestateRepository repository;
+  private final TransactionTemplate transactionTemplate;
+  private final int parallelism;
+
+  public RealestateSummaryService(RealestateRepository repository,
+      PlatformTransactionManager transactionManager,
+      @Value("${realestate.summary.rebuild-parallelism:4}") int parallelism) {
+    this.repository = repository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * 全ユーザーの不動産収支集計を再計算します。
+   *
+   * @return 再計算したユーザー数
+   */
+  public int rebuild() {
+    long start = System.currentTimeMillis();
+    List<Integer> userIds = repository.findSummaryUserIds();
+    if (userIds.isEmpty()) {
+      return 0;
+    }
+
+    // DB接続を使い切らないよう、並列数はコネクションプールの上限より小さくします。
+    try (ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(parallelism, userIds.size()))) {
+      List<Future<?>> futures = userIds.stream()
+          .<Future<?>>map(userId -> executor.submit(() -> rebuild(userId)))
+          .toList();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("不動産収支集計の再計算が中断されました。", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("不動産収支集計の再計算に失敗しました。", e.getCause());
+    }
+
+    logger.info("不動産収支集計を再計算しました: {}ユーザー, {}ms", userIds.size(),
+        System.currentTimeMillis() - start);
+    return userIds.size();
+  }
+
+  /**
+   * 指定されたユーザーの不動産収支集計を再計算します。
+   *
+   * @param userId ユーザーID
+   */
+  public void rebuild(int userId) {
+    transactionTemplate.executeWithoutResult(status -> {
+      repository.deleteSummaryByUserId(userId);
+      repository.rebuildSummary(userId);
+    });
+  }
+}
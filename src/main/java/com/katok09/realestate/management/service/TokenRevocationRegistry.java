@@ -0,0 +1,129 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.data.User;
+import com.katok09.realestate.management.repository.UserRepository;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ユーザーごとのトークンバージョンを管理する失効レジストリ
+ * <p>
+ * トークン発行時に現在のバージョンをtokenVersionクレームとして埋め込み、クレーム信頼モードの認証時にはトークンのバージョンが
+ * 現在のバージョンより古い場合に失効済みとして扱います。無効化・アカウントロック・削除などでrevoke()が呼ばれるとバージョンが進み、
+ * それ以前に発行されたトークンは即座に使用できなくなります。
+ * <p>
+ * バージョンは失効時刻（エポックミリ秒）で表し、トークンの有効期限を過ぎたエントリは全ての旧トークンが期限切れとなるため破棄します。
+ * 失効時にはusersテーブルのtoken_versionにも保存し、起動時にはトークンの有効期限内に失効させたユーザーのバージョンを読み込み直して、
+ * ロール変更・ユーザー名変更等による失効が再起動後も有効なままとなるようにします。加えて、DBを直接変更された場合に備えて
+ * 無効・ロック中・削除済みユーザーも失効済みとして登録し直します。
+ */
+@Component
+public class TokenRevocationRegistry {
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate requiresNewTransaction;
+  private final boolean claimsTrusted;
+  private final long expirationMillis;
+
+  // ユーザーID → 現在のトークンバージョン（エントリが無いユーザーは0）
+  private final ConcurrentHashMap<Integer, Long> versions = new ConcurrentHashMap<>();
+
+  public TokenRevocationRegistry(UserRepository userRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${security.auth.claims-trusted:false}") boolean claimsTrusted,
+      @Value("${jwt.expiration}") long expirationInSeconds) {
+    this.userRepository = userRepository;
+    this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+    this.requiresNewTransaction.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.claimsTrusted = claimsTrusted;
+    this.expirationMillis = expirationInSeconds * 1000;
+  }
+
+  /**
+   * クレーム信頼モードの場合、起動時にDBに保存したトークンバージョンを読み込み、無効・ロック中・削除済みユーザーのトークンを
+   * 失効させます。
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void revokeInactiveUsers() {
+    if (!claimsTrusted) {
+      return;
+    }
+    for (User user : userRepository.findRevokedUsers(
+        System.currentTimeMillis() - expirationMillis)) {
+      versions.merge(user.getId(), user.getTokenVersion(), Math::max);
+    }
+    for (int userId : userRepository.findInactiveUserIds()) {
+      revokeNow(userId);
+    }
+  }
+
+  /**
+   * 指定されたユーザーの現在のトークンバージョンを取得します。トークン生成時に使用します。
+   *
+   * @param userId ユーザーID
+   * @return 現在のトークンバージョン
+   */
+  public long currentVersion(int userId) {
+    return versions.getOrDefault(userId, 0L);
+  }
+
+  /**
+   * 指定されたバージョンのトークンが失効済みかを検証します。
+   *
+   * @param userId       トークンから抽出したユーザーID
+   * @param tokenVersion トークンから抽出したトークンバージョン
+   * @return 失効済みであればtrue、有効であればfalseが返ります。
+   */
+  public boolean isRevoked(int userId, long tokenVersion) {
+    return tokenVersion < currentVersion(userId);
+  }
+
+  /**
+   * 指定されたユーザーに発行済みのトークンを全て失効させます。トランザクション内で呼び出された場合はコミット後にも再度失効させ、
+   * コミット前の古い情報で発行されたトークンが有効なまま残ることを防ぎます。
+   * <p>
+   * クレーム信頼モードの場合は、再起動後も失効が有効となるようトークンバージョンをDBに保存します。コミット後の再失効は
+   * 元のトランザクションが終了しているため、新しいトランザクションで保存します。
+   *
+   * @param userId 対象のユーザーID
+   */
+  public void revoke(int userId) {
+    persist(userId, revokeNow(userId));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          long version = revokeNow(userId);
+          requiresNewTransaction.executeWithoutResult(status -> persist(userId, version));
+        }
+      });
+    }
+  }
+
+  public int size() {
+    return versions.size();
+  }
+
+  private long revokeNow(int userId) {
+    long now = System.currentTimeMillis();
+    long version = versions.merge(userId, now,
+        (current, revokedAt) -> Math.max(current + 1, revokedAt));
+    versions.values().removeIf(v -> v < now - expirationMillis);
+    return version;
+  }
+
+  private void persist(int userId, long version) {
+    if (claimsTrusted) {
+      userRepository.updateTokenVersion(userId, version);
+    }
+  }
+}
@@ -21,9 +21,31 @@ import org.springframework.stereotype.Service;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final UserPrincipalCache principalCache;
 
-  public UserDetailsServiceImpl(UserRepository userRepository) {
+  public UserDetailsServiceImpl(UserRepository userRepository, UserPrincipalCache principalCache) {
     this.userRepository = userRepository;
+    this.principalCache = principalCache;
+  }
+
+  /**
+   * ユーザー名からUserDetailsを取得します（トークン認証用） 短いTTLでキャッシュされた値があればDBを検索せずに返します。
+   * ログイン時のパスワード認証では常に最新の情報が必要なため、AuthServiceがキャッシュを使用せずにユーザー情報を読み込みます。
+   *
+   * @param username ユーザー名
+   * @return ユーザー詳細情報
+   * @throws UsernameNotFoundException ユーザーが存在しない、削除済み、または無効な場合
+   */
+  public UserDetails loadUserByUsernameCached(String username) throws UsernameNotFoundException {
+    CustomUserPrincipal cached = principalCache.get(username);
+    if (cached != null) {
+      return cached;
+    }
+
+    long generation = principalCache.currentGeneration();
+    CustomUserPrincipal loaded = (CustomUserPrincipal) loadUserByUsername(username);
+    principalCache.put(loaded, generation);
+    return loaded;
   }
 
   /**
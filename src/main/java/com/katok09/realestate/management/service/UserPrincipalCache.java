@@ -0,0 +1,168 @@
+package com.katok09.realestate.management.service;
+
+import com.katok09.realestate.management.service.UserDetailsServiceImpl.CustomUserPrincipal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トークン認証時に使用するユーザー詳細情報（CustomUserPrincipal）のキャッシュ
+ * <p>
+ * 認証済みリクエストのたびにusersテーブルを検索しないよう、ユーザー名をキーに短いTTLで保持します。
+ * ユーザーのステータス、ロール、アカウントロック等を変更するサービスはevict()を呼び出し、変更を即座に反映させます。
+ */
+@Component
+public class UserPrincipalCache {
+
+  private final long ttlMillis;
+  private final int maxSize;
+
+  // ユーザー名 → キャッシュエントリ（参照順のLRU）
+  private final LinkedHashMap<String, Entry> entries;
+  // ユーザーID → ユーザー名（ユーザー名変更時もユーザーIDから破棄できるようにします）
+  private final Map<Integer, String> usernameById = new HashMap<>();
+
+  // 破棄が行われるたびに加算される世代番号 DB読み込み中に破棄された値をキャッシュしないために使います。
+  private final AtomicLong generation = new AtomicLong();
+
+  public UserPrincipalCache(@Value("${security.principal-cache.ttl-seconds:30}") long ttlSeconds,
+      @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+    this.ttlMillis = ttlSeconds * 1000;
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > UserPrincipalCache.this.maxSize) {
+          usernameById.remove(eldest.getValue().principal.getUserId());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * 現在の世代番号を取得します。DBからユーザー情報を読み込む前に取得し、put()に渡してください。
+   *
+   * @return 世代番号
+   */
+  public long currentGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * ユーザー名に対応するユーザー詳細情報を取得します。
+   *
+   * @param username ユーザー名
+   * @return TTL内のユーザー詳細情報。キャッシュに無い、または期限切れの場合はnullが返ります。
+   */
+  public CustomUserPrincipal get(String username) {
+    if (!isEnabled()) {
+      return null;
+    }
+    synchronized (entries) {
+      Entry entry = entries.get(username);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+        remove(username);
+        return null;
+      }
+      return entry.principal;
+    }
+  }
+
+  /**
+   * ユーザー詳細情報を保持します。読み込み開始後に破棄が行われていた場合は古い情報の可能性があるため保持しません。
+   *
+   * @param principal        ユーザー詳細情報
+   * @param loadedGeneration DBから読み込む前に取得した世代番号
+   */
+  public void put(CustomUserPrincipal principal, long loadedGeneration) {
+    if (!isEnabled()) {
+      return;
+    }
+    synchronized (entries) {
+      if (generation.get() != loadedGeneration) {
+        return;
+      }
+      remove(usernameById.get(principal.getUserId()));
+      entries.put(principal.getUsername(),
+          new Entry(principal, System.currentTimeMillis() + ttlMillis));
+      usernameById.put(principal.getUserId(), principal.getUsername());
+    }
+  }
+
+  /**
+   * 指定されたユーザーのキャッシュを破棄します。トランザクション内で呼び出された場合はコミット後にも再度破棄し、
+   * コミット前の古い情報が他のリクエストによりキャッシュされることを防ぎます。
+   *
+   * @param userId 対象のユーザーID
+   */
+  public void evict(int userId) {
+    evictNow(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          evictNow(userId);
+        }
+      });
+    }
+  }
+
+  /**
+   * 全てのキャッシュを破棄します。
+   */
+  public void clear() {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      entries.clear();
+      usernameById.clear();
+    }
+  }
+
+  public boolean isEnabled() {
+    return ttlMillis > 0 && maxSize > 0;
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private void evictNow(int userId) {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      remove(usernameById.get(userId));
+    }
+  }
+
+  private void remove(String username) {
+    if (username == null) {
+      return;
+    }
+    Entry removed = entries.remove(username);
+    if (removed != null) {
+      usernameById.remove(removed.principal.getUserId());
+    }
+  }
+
+  private static final class Entry {
+
+    private final CustomUserPrincipal principal;
+    private final long expiresAtMillis;
+
+    private Entry(CustomUserPrincipal principal, long expiresAtMillis) {
+      this.principal = principal;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.katok09.realestate.management.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * 実行環境のCPUでBCryptのハッシュ化時間を計測し、目標時間に収まる最大の強度（コスト）を求めます。
+ * <p>
+ * BCryptの処理時間は強度が1増えるごとに2倍になるため、短時間で計測できる強度で計測した時間から目標時間に収まる強度を求めます。
+ */
+public final class BCryptStrengthCalibrator {
+
+  // 計測に使用する強度（1回あたり数ms～数十ms）と計測回数
+  private static final int MEASURED_STRENGTH = 8;
+  private static final int MEASURE_COUNT = 3;
+
+  private BCryptStrengthCalibrator() {
+  }
+
+  /**
+   * 実行環境で計測し、1回のハッシュ化が目標時間に収まる最大の強度を返します。
+   *
+   * @param targetMillis 1回のハッシュ化の目標時間（ms）
+   * @param minStrength  強度の下限（目標時間を超える場合も下限未満にはしません）
+   * @param maxStrength  強度の上限
+   * @return BCryptの強度
+   */
+  public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MEASURED_STRENGTH);
+    // 初回はJITコンパイル前のため計測から除外し、計測回数のうち最短の時間を使用します。
+    encoder.encode("calibration");
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < MEASURE_COUNT; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return strengthFor(best / 1_000_000.0, MEASURED_STRENGTH, targetMillis, minStrength,
+        maxStrength);
+  }
+
+  /**
+   * 計測した処理時間から、目標時間に収まる最大の強度を求めます。
+   *
+   * @param measuredMillis   計測した1回のハッシュ化時間（ms）
+   * @param measuredStrength 計測に使用した強度
+   * @param targetMillis     1回のハッシュ化の目標時間（ms）
+   * @param minStrength      強度の下限
+   * @param maxStrength      強度の上限
+   * @return BCryptの強度
+   */
+  public static int strengthFor(double measuredMillis, int measuredStrength, long targetMillis,
+      int minStrength, int maxStrength) {
+    int strength = measuredStrength;
+    double millis = Math.max(measuredMillis, 0.001);
+    while (strength < maxStrength && millis * 2 <= targetMillis) {
+      millis *= 2;
+      strength++;
+    }
+    while (strength > minStrength && millis > targetMillis) {
+      millis /= 2;
+      strength--;
+    }
+    return Math.max(minStrength, Math.min(maxStrength, strength));
+  }
+}
@@ -0,0 +1,219 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.dto.CashFlowBand;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * 不動産ポートフォリオの年間キャッシュフローをモンテカルロ法でシミュレーションするエンジン
+ * <p>
+ * 試行ごとに家賃指数と利息の増減率の推移を正規乱数で生成し、物件・年ごとの空室率を一様乱数で与えて、ポートフォリオ全体の年間・累計
+ * キャッシュフローを求めます。試行をフォーク・ジョインで分割して並列に計算し、年ごとのパーセンタイルを返します。
+ * <p>
+ * 物件ごとの計算（試行数×年数×物件数回）では、家賃をlong[]（円）で受け取り、乱数も状態（long）をローカル変数で更新するだけとして、
+ * オブジェクトの生成・ボクシングを行いません。空室率は16ビットの一様乱数とし、1回の乱数（64ビット）を4物件に使い、家賃との積を
+ * 整数で加算します（浮動小数点の加算より高速なため）。空室率以外（経費・ローン返済・家賃指数・利息の増減率）は全物件共通のため
+ * 合計額で計算します。結果（試行ごとの年間・累計キャッシュフロー）は年ごとのdouble[]に格納します。
+ * 試行ごとに乱数のシードを決めるため、並列数・分割のされ方によらず同じシードからは同じ結果になります。
+ */
+public class CashFlowSimulator {
+
+  // 結果として返すパーセンタイル
+  private static final double[] PERCENTILES = {5, 25, 50, 75, 95};
+  // 1つのタスクで計算する試行数（これ以下になるまで分割します）
+  private static final int PATHS_PER_TASK = 64;
+  // 家賃と16ビットの乱数の積を整数で加算する物件数（int型の上限の家賃でもlong型の加算があふれない件数）
+  private static final int RENTS_PER_CHUNK = 1024;
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private final ForkJoinPool pool;
+
+  public CashFlowSimulator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * ポートフォリオのキャッシュフローをシミュレーションします。
+   *
+   * @param annualRents             物件ごとの年間家賃収入（円）
+   * @param annualOperatingExpenses 全物件の年間経費（ローン返済を除く）の合計
+   * @param annualPrincipal         全物件の年間ローン元金返済額の合計
+   * @param annualInterest          全物件の年間ローン利息の合計（初年度）
+   * @param params                  シナリオパラメーター（シードは設定済みであること）
+   * @return 年ごとの年間・累計キャッシュフローのパーセンタイル（処理時間は設定されません）
+   */
+  public SimulationResult simulate(long[] annualRents, double annualOperatingExpenses,
+      double annualPrincipal, double annualInterest, SimulationParams params) {
+
+    int years = params.getYears();
+    int paths = params.getPaths();
+    // 年ごとにパーセンタイルを求めるため、年ごとに全試行の値を並べて保持します。
+    double[][] annual = new double[years][paths];
+    double[][] cumulative = new double[years][paths];
+
+    Path path = new Path(annualRents, annualOperatingExpenses, annualPrincipal, annualInterest,
+        params, annual, cumulative);
+    pool.invoke(new PathTask(path, 0, paths));
+
+    int losses = 0;
+    for (double value : cumulative[years - 1]) {
+      if (value < 0) {
+        losses++;
+      }
+    }
+
+    pool.submit(() -> IntStream.range(0, years).parallel().forEach(year -> {
+      Arrays.sort(annual[year]);
+      Arrays.sort(cumulative[year]);
+    })).join();
+
+    return new SimulationResult(annualRents.length, paths, params.getSeed(),
+        (double) losses / paths, bands(annual), bands(cumulative), 0);
+  }
+
+  private static List<CashFlowBand> bands(double[][] sortedValues) {
+    List<CashFlowBand> bands = new ArrayList<>(sortedValues.length);
+    for (int year = 0; year < sortedValues.length; year++) {
+      double[] values = sortedValues[year];
+      long[] percentiles = new long[PERCENTILES.length];
+      for (int i = 0; i < PERCENTILES.length; i++) {
+        // 最近順位法（値を昇順に並べたときのceil(p/100×件数)番目の値）
+        int rank = (int) Math.ceil(PERCENTILES[i] / 100 * values.length);
+        percentiles[i] = Math.round(values[Math.max(rank - 1, 0)]);
+      }
+      bands.add(new CashFlowBand(year + 1, percentiles[0], percentiles[1], percentiles[2],
+          percentiles[3], percentiles[4]));
+    }
+    return bands;
+  }
+
+  /**
+   * SplitMix64の出力関数（連続した値から偏りの無い64ビット値を求めます）
+   */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * 試行の範囲を分割して並列に計算するタスク
+   */
+  private static class PathTask extends RecursiveAction {
+
+    private final Path path;
+    private final int start;
+    private final int end;
+
+    PathTask(Path path, int start, int end) {
+      this.path = path;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= PATHS_PER_TASK) {
+        for (int i = start; i < end; i++) {
+          path.simulate(i);
+        }
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(new PathTask(path, start, middle), new PathTask(path, middle, end));
+    }
+  }
+
+  /**
+   * 1試行分のキャッシュフローの計算
+   */
+  private static class Path {
+
+    private final long[] annualRents;
+    private final double totalAnnualRent;
+    private final double annualOperatingExpenses;
+    private final double annualPrincipal;
+    private final double annualInterest;
+    private final SimulationParams params;
+    private final double[][] annual;
+    private final double[][] cumulative;
+
+    Path(long[] annualRents, double annualOperatingExpenses, double annualPrincipal,
+        double annualInterest, SimulationParams params, double[][] annual,
+        double[][] cumulative) {
+      this.annualRents = annualRents;
+      this.totalAnnualRent = Arrays.stream(annualRents).sum();
+      this.annualOperatingExpenses = annualOperatingExpenses;
+      this.annualPrincipal = annualPrincipal;
+      this.annualInterest = annualInterest;
+      this.params = params;
+      this.annual = annual;
+      this.cumulative = cumulative;
+    }
+
+    void simulate(int pathIndex) {
+      // 家賃指数・利息の増減率（年1回ずつ）の乱数
+      SplittableRandom random = new SplittableRandom(
+          mix64(params.getSeed() + (pathIndex + 1) * GOLDEN_GAMMA));
+      // 空室率（物件・年ごと）の乱数 SplitMix64の状態（カウンター）
+      long state = random.nextLong();
+
+      long[] rents = annualRents;
+      int count = rents.length;
+      double maxVacancy = params.getVacancyRate() * 2;
+      double rentIndex = 1;
+      double interestFactor = 1;
+      double total = 0;
+
+      for (int year = 0; year < params.getYears(); year++) {
+        if (year > 0) {
+          rentIndex *= Math.max(0, 1 - params.getRentDeclineRate()
+              + params.getRentVolatility() * random.nextGaussian());
+          interestFactor *= Math.max(0, 1 + params.getInterestChangeRate()
+              + params.getInterestVolatility() * random.nextGaussian());
+        }
+
+        // 物件ごとの空室率（0～平均空室率の2倍の一様乱数）による家賃収入の減少額を求めます。
+        // 家賃×乱数（0～65535）を4系列に分けて整数で加算し、最後に65536で割って空室率の割合とします。
+        double vacant = 0;
+        for (int chunk = 0; chunk < count; chunk += RENTS_PER_CHUNK) {
+          int chunkEnd = Math.min(chunk + RENTS_PER_CHUNK, count);
+          long a = 0;
+          long b = 0;
+          long c = 0;
+          long d = 0;
+          int i = chunk;
+          for (; i + 3 < chunkEnd; i += 4) {
+            state += GOLDEN_GAMMA;
+            long bits = mix64(state);
+            a += rents[i] * (bits & 0xFFFF);
+            b += rents[i + 1] * ((bits >>> 16) & 0xFFFF);
+            c += rents[i + 2] * ((bits >>> 32) & 0xFFFF);
+            d += rents[i + 3] * (bits >>> 48);
+          }
+          for (; i < chunkEnd; i++) {
+            state += GOLDEN_GAMMA;
+            a += rents[i] * (mix64(state) & 0xFFFF);
+          }
+          vacant += a + b + c + d;
+        }
+
+        double rent = rentIndex * (totalAnnualRent - maxVacancy * vacant * 0x1.0p-16);
+        double debtService = year < params.getLoanYears()
+            ? annualPrincipal + annualInterest * interestFactor
+            : 0;
+        double cashFlow = rent - annualOperatingExpenses - debtService;
+        total += cashFlow;
+        annual[year][pathIndex] = cashFlow;
+        cumulative[year][pathIndex] = total;
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.katok09.realestate.management.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * クライアント（IPアドレス等）ごとに、一定時間（ウィンドウ）内のリクエスト数を制限するレートリミッター
+ * <p>
+ * ウィンドウの開始時刻とリクエスト数をクライアントごとに保持し、ウィンドウ内の上限を超えたリクエストを拒否します。
+ * 保持するクライアント数が上限に達した場合は、記録の古い順に数件（EVICTION_PROBES）だけ期限切れのウィンドウを探して破棄し、
+ * 見つからない場合は新しいクライアントのリクエストを拒否します（多数のアドレスからのリクエストでメモリを使い切ったり、
+ * 制限が無効になったりしないようにします）。
+ */
+public class ClientRateLimiter {
+
+  // 上限到達時に期限切れのウィンドウを探す件数（リクエストごとの処理を一定に抑えます）
+  private static final int EVICTION_PROBES = 8;
+
+  private final int permitsPerWindow;
+  private final long windowMillis;
+  private final int maxClients;
+
+  private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+  // 記録の古い順のクライアント
+  private final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+  private final LongAdder rejectedCount = new LongAdder();
+
+  public ClientRateLimiter(int permitsPerWindow, long windowMillis, int maxClients) {
+    this.permitsPerWindow = permitsPerWindow;
+    this.windowMillis = windowMillis;
+    this.maxClients = maxClients;
+  }
+
+  /**
+   * リクエストを許可するかを判定し、許可する場合はリクエスト数に加算します。
+   *
+   * @param client    クライアントの識別子
+   * @param nowMillis 現在時刻（ms）
+   * @return 許可する場合はtrue、ウィンドウ内の上限を超えている場合・記録するクライアント数が上限の場合はfalse
+   */
+  public boolean tryAcquire(String client, long nowMillis) {
+    Window window = windows.get(client);
+    if (window == null) {
+      if (windows.size() >= maxClients && !evictExpired(nowMillis)) {
+        rejectedCount.increment();
+        return false;
+      }
+      window = windows.computeIfAbsent(client, key -> {
+        order.add(key);
+        return new Window(nowMillis);
+      });
+    }
+    if (window.tryAcquire(nowMillis, windowMillis, permitsPerWindow)) {
+      return true;
+    }
+    rejectedCount.increment();
+    return false;
+  }
+
+  /**
+   * 記録の古い順に最大EVICTION_PROBES件のクライアントを調べ、期限切れのウィンドウを1件破棄します。
+   * 期限内のウィンドウ（記録後にリクエストが続いているクライアント）は末尾に戻します。
+   *
+   * @param nowMillis 現在時刻（ms）
+   * @return 破棄した場合はtrue
+   */
+  private boolean evictExpired(long nowMillis) {
+    for (int i = 0; i < EVICTION_PROBES; i++) {
+      String oldest = order.poll();
+      if (oldest == null) {
+        return false;
+      }
+      Window window = windows.get(oldest);
+      if (window == null) {
+        continue;
+      }
+      if (window.isExpired(nowMillis, windowMillis) && windows.remove(oldest, window)) {
+        return true;
+      }
+      order.add(oldest);
+    }
+    return false;
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  public int size() {
+    return windows.size();
+  }
+
+  private static final class Window {
+
+    private long startMillis;
+    private int count;
+
+    Window(long startMillis) {
+      this.startMillis = startMillis;
+    }
+
+    synchronized boolean tryAcquire(long nowMillis, long windowMillis, int permits) {
+      if (nowMillis - startMillis >= windowMillis) {
+        startMillis = nowMillis;
+        count = 0;
+      }
+      if (count >= permits) {
+        return false;
+      }
+      count++;
+      return true;
+    }
+
+    synchronized boolean isExpired(long nowMillis, long windowMillis) {
+      return nowMillis - startMillis >= windowMillis;
+    }
+  }
+}
@@ -2,12 +2,15 @@ package com.katok09.realestate.management.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,6 +32,56 @@ public class JwtUtil {
   @Value("${jwt.expiration}")
   private long expirationInSeconds;
 
+  // 検証済みトークンキャッシュの最大件数（0以下でキャッシュ無効）
+  @Value("${jwt.cache.max-size:10000}")
+  private int tokenCacheMaxSize;
+
+  // 秘密鍵とパーサーはトークンの生成・解析ごとに作り直さず、起動時（鍵のローテーション時）に1度だけ生成します。
+  private volatile SigningMaterial signingMaterial;
+
+  private volatile VerifiedTokenCache tokenCache;
+
+  /**
+   * 起動時に秘密鍵とパーサー、検証済みトークンキャッシュを生成します。
+   */
+  @PostConstruct
+  public void init() {
+    signingMaterial = new SigningMaterial(secret);
+    tokenCache = new VerifiedTokenCache(tokenCacheMaxSize);
+  }
+
+  /**
+   * 秘密鍵をローテーションします。秘密鍵とパーサーは新しい秘密鍵で再生成され、以降のトークン生成・解析に使用されます。
+   *
+   * @param newSecret 新しい秘密鍵文字列
+   */
+  public synchronized void rotateSecret(String newSecret) {
+    SigningMaterial rotated = new SigningMaterial(newSecret);
+    this.secret = newSecret;
+    this.signingMaterial = rotated;
+    // 旧秘密鍵で検証済みのトークンを使用できないようにキャッシュを破棄します。
+    getTokenCache().clear();
+  }
+
+  /**
+   * 検証済みトークンキャッシュを取得します。未生成の場合（@PostConstructを経由しない生成時）はここで生成します。
+   *
+   * @return 検証済みトークンキャッシュ
+   */
+  public VerifiedTokenCache getTokenCache() {
+    VerifiedTokenCache current = tokenCache;
+    if (current == null) {
+      synchronized (this) {
+        current = tokenCache;
+        if (current == null) {
+          current = new VerifiedTokenCache(tokenCacheMaxSize);
+          tokenCache = current;
+        }
+      }
+    }
+    return current;
+  }
+
   /**
    * トークンを生成します。
    *
@@ -38,12 +91,45 @@ public class JwtUtil {
    * @return トークン文字列
    */
   public String generateToken(String username, String role, int userId) {
+    return generateToken(username, role, userId, 0L);
+  }
+
+  /**
+   * トークンバージョンを埋め込んだトークンを生成します。
+   *
+   * @param username     ユーザー名
+   * @param role         ロール
+   * @param userId       ユーザーID
+   * @param tokenVersion 発行時点のトークンバージョン（TokenRevocationRegistryで管理されます）
+   * @return トークン文字列
+   */
+  public String generateToken(String username, String role, int userId, long tokenVersion) {
     Map<String, Object> claims = new HashMap<>();
     claims.put("role", role);
     claims.put("userId", userId);
+    claims.put("tokenVersion", tokenVersion);
     return createToken(claims, username);
   }
 
+  /**
+   * トークンの署名を検証し、クレーム情報を1度の解析でまとめて抽出します。
+   *
+   * @param token トークン
+   * @return 署名検証済みのクレーム情報
+   */
+  public VerifiedClaims parseToken(String token) {
+    Claims claims = getAllClaimsFromToken(token);
+    return new VerifiedClaims(
+        token,
+        claims.getSubject(),
+        (Integer) claims.get("userId"),
+        (String) claims.get("role"),
+        claims.getIssuedAt(),
+        claims.getExpiration(),
+        claims.get("tokenVersion") instanceof Number version ? version.longValue() : 0L
+    );
+  }
+
   /**
    * トークンからユーザーIDを抽出します。
    *
@@ -89,18 +175,23 @@ public class JwtUtil {
   }
 
   /**
-   * トークンから全てのクレームを抽出します。
+   * トークンから全てのクレームを抽出します。検証済みトークンキャッシュにある場合は署名検証を省略します。
    *
    * @param token トークン
    * @return クレーム
    */
   private Claims getAllClaimsFromToken(String token) {
+    VerifiedTokenCache cache = getTokenCache();
+    Claims cached = cache.get(token);
+    if (cached != null) {
+      return cached;
+    }
     try {
-      return Jwts.parser()
-          .verifyWith(getSigningKey())
-          .build()
+      Claims claims = getSigningMaterial().parser
           .parseSignedClaims(token)
           .getPayload();
+      cache.put(token, claims);
+      return claims;
     } catch (ExpiredJwtException e) {
       throw new RuntimeException("JWTトークンが期限切れです", e);
     } catch (UnsupportedJwtException e) {
@@ -115,13 +206,22 @@ public class JwtUtil {
   }
 
   /**
-   * 指定された値を元に秘密鍵を生成します。
+   * 生成済みの秘密鍵とパーサーを取得します。未生成の場合（@PostConstructを経由しない生成時）はここで生成します。
    *
-   * @return 秘密鍵
+   * @return 秘密鍵とパーサー
    */
-  private SecretKey getSigningKey() {
-    byte[] keyBytes = secret.getBytes();
-    return Keys.hmacShaKeyFor(keyBytes);
+  private SigningMaterial getSigningMaterial() {
+    SigningMaterial current = signingMaterial;
+    if (current == null) {
+      synchronized (this) {
+        current = signingMaterial;
+        if (current == null) {
+          current = new SigningMaterial(secret);
+          signingMaterial = current;
+        }
+      }
+    }
+    return current;
   }
 
   /**
@@ -137,7 +237,7 @@ public class JwtUtil {
         .setSubject(subject)
         .setIssuedAt(new Date(System.currentTimeMillis()))
         .setExpiration(new Date(System.currentTimeMillis() + expirationInSeconds * 1000))
-        .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+        .signWith(getSigningMaterial().key, SignatureAlgorithm.HS256)
         .compact();
   }
 
@@ -157,6 +257,19 @@ public class JwtUtil {
     }
   }
 
+  /**
+   * 解析済みのクレーム情報とユーザー詳細情報を照合し、有効なトークンか検証します。トークンの再解析は行いません。
+   *
+   * @param claims      署名検証済みのクレーム情報
+   * @param userDetails ユーザー詳細情報
+   * @return 有効なトークンであればtrue、そうでなければfalseが返ります。
+   */
+  public boolean validateToken(VerifiedClaims claims, UserDetails userDetails) {
+    return claims.getUsername() != null
+        && claims.getUsername().equals(userDetails.getUsername())
+        && !claims.isExpired();
+  }
+
   /**
    * トークンの有効期限が切れているかを検証します。
    *
@@ -214,4 +327,20 @@ public class JwtUtil {
     error.put("timestamp", System.currentTimeMillis());
     return error;
   }
+
+  /**
+   * 秘密鍵とそれを用いたパーサーの組 不変オブジェクトのためスレッド間で共有できます。
+   */
+  private static final class SigningMaterial {
+
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    private SigningMaterial(String secret) {
+      this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+      this.parser = Jwts.parser()
+          .verifyWith(key)
+          .build();
+    }
+  }
 }
@@ -0,0 +1,158 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 不動産詳細情報のCSV列定義
+ * <p>
+ * CSVエクスポート（RealestateCsvWriter）と一括登録（RealestateCsvReader）で同じ列・見出しを使用するため、見出し・値の取得・値の設定を
+ * 列ごとにまとめて定義します。見出しは各フィールドの@Schemaの説明（先頭の語句）を使用します。
+ */
+public final class RealestateCsvColumn {
+
+  public static final List<RealestateCsvColumn> COLUMNS = List.of(
+      // プロジェクトIDは登録時に自動採番されるため読み込みません。
+      column(Project.class, "id", detail -> detail.getProject().getId(), null, null),
+      column(Project.class, "projectName", detail -> detail.getProject().getProjectName(),
+          (detail, value) -> detail.getProject().setProjectName(value), RealestateCsvColumn::text),
+      column(Parcel.class, "parcelPrice", detail -> detail.getParcel().getParcelPrice(),
+          (detail, value) -> detail.getParcel().setParcelPrice(value), Long::parseLong),
+      column(Parcel.class, "parcelAddress", detail -> detail.getParcel().getParcelAddress(),
+          (detail, value) -> detail.getParcel().setParcelAddress(value), RealestateCsvColumn::text),
+      column(Parcel.class, "parcelCategory", detail -> detail.getParcel().getParcelCategory(),
+          (detail, value) -> detail.getParcel().setParcelCategory(value),
+          RealestateCsvColumn::text),
+      column(Parcel.class, "parcelSize", detail -> detail.getParcel().getParcelSize(),
+          (detail, value) -> detail.getParcel().setParcelSize(value), Double::parseDouble),
+      column(Parcel.class, "parcelRemark", detail -> detail.getParcel().getParcelRemark(),
+          (detail, value) -> detail.getParcel().setParcelRemark(value), RealestateCsvColumn::text),
+      column(Building.class, "buildingPrice", detail -> detail.getBuilding().getBuildingPrice(),
+          (detail, value) -> detail.getBuilding().setBuildingPrice(value), Long::parseLong),
+      column(Building.class, "buildingType", detail -> detail.getBuilding().getBuildingType(),
+          (detail, value) -> detail.getBuilding().setBuildingType(value),
+          RealestateCsvColumn::text),
+      column(Building.class, "buildingStructure",
+          detail -> detail.getBuilding().getBuildingStructure(),
+          (detail, value) -> detail.getBuilding().setBuildingStructure(value),
+          RealestateCsvColumn::text),
+      column(Building.class, "buildingSize", detail -> detail.getBuilding().getBuildingSize(),
+          (detail, value) -> detail.getBuilding().setBuildingSize(value), Double::parseDouble),
+      column(Building.class, "buildingDate", detail -> detail.getBuilding().getBuildingDate(),
+          (detail, value) -> detail.getBuilding().setBuildingDate(value), LocalDate::parse),
+      column(Building.class, "buildingRemark", detail -> detail.getBuilding().getBuildingRemark(),
+          (detail, value) -> detail.getBuilding().setBuildingRemark(value),
+          RealestateCsvColumn::text),
+      column(IncomeAndExpenses.class, "rent", detail -> detail.getIncomeAndExpenses().getRent(),
+          (detail, value) -> detail.getIncomeAndExpenses().setRent(value), Integer::parseInt),
+      column(IncomeAndExpenses.class, "maintenanceCost",
+          detail -> detail.getIncomeAndExpenses().getMaintenanceCost(),
+          (detail, value) -> detail.getIncomeAndExpenses().setMaintenanceCost(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "repairFund",
+          detail -> detail.getIncomeAndExpenses().getRepairFund(),
+          (detail, value) -> detail.getIncomeAndExpenses().setRepairFund(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "managementFee",
+          detail -> detail.getIncomeAndExpenses().getManagementFee(),
+          (detail, value) -> detail.getIncomeAndExpenses().setManagementFee(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "principal",
+          detail -> detail.getIncomeAndExpenses().getPrincipal(),
+          (detail, value) -> detail.getIncomeAndExpenses().setPrincipal(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "interest",
+          detail -> detail.getIncomeAndExpenses().getInterest(),
+          (detail, value) -> detail.getIncomeAndExpenses().setInterest(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "tax", detail -> detail.getIncomeAndExpenses().getTax(),
+          (detail, value) -> detail.getIncomeAndExpenses().setTax(value), Integer::parseInt),
+      column(IncomeAndExpenses.class, "waterBill",
+          detail -> detail.getIncomeAndExpenses().getWaterBill(),
+          (detail, value) -> detail.getIncomeAndExpenses().setWaterBill(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "electricBill",
+          detail -> detail.getIncomeAndExpenses().getElectricBill(),
+          (detail, value) -> detail.getIncomeAndExpenses().setElectricBill(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "gasBill",
+          detail -> detail.getIncomeAndExpenses().getGasBill(),
+          (detail, value) -> detail.getIncomeAndExpenses().setGasBill(value), Integer::parseInt),
+      column(IncomeAndExpenses.class, "fireInsurance",
+          detail -> detail.getIncomeAndExpenses().getFireInsurance(),
+          (detail, value) -> detail.getIncomeAndExpenses().setFireInsurance(value),
+          Integer::parseInt),
+      column(IncomeAndExpenses.class, "other", detail -> detail.getIncomeAndExpenses().getOther(),
+          (detail, value) -> detail.getIncomeAndExpenses().setOther(value),
+          RealestateCsvColumn::text)
+  );
+
+  private final String header;
+  private final Function<RealestateDetail, Object> getter;
+  private final BiConsumer<RealestateDetail, String> setter;
+
+  private RealestateCsvColumn(String header, Function<RealestateDetail, Object> getter,
+      BiConsumer<RealestateDetail, String> setter) {
+    this.header = header;
+    this.getter = getter;
+    this.setter = setter;
+  }
+
+  public String getHeader() {
+    return header;
+  }
+
+  public Object getValue(RealestateDetail detail) {
+    return getter.apply(detail);
+  }
+
+  /**
+   * CSVの値を不動産詳細情報に設定します。空文字の場合は設定しません（数値は0、文字列・日付はnullのままとなります）。
+   *
+   * @param detail 設定先の不動産詳細情報
+   * @param value  CSVの値
+   * @throws IllegalArgumentException 値を列の型に変換できない場合
+   */
+  public void setValue(RealestateDetail detail, String value) {
+    if (setter == null || value.isEmpty()) {
+      return;
+    }
+    try {
+      setter.accept(detail, value);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException(header + "の値が不正です。", e);
+    }
+  }
+
+  private static String text(String value) {
+    // エクスポート時に数式の無効化のため付与した先頭の'を除去します。
+    if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@".indexOf(value.charAt(1)) >= 0) {
+      return value.substring(1);
+    }
+    return value;
+  }
+
+  private static <T> RealestateCsvColumn column(Class<?> type, String fieldName,
+      Function<RealestateDetail, Object> getter, BiConsumer<RealestateDetail, T> setter,
+      Function<String, T> parser) {
+    BiConsumer<RealestateDetail, String> parsingSetter = setter == null
+        ? null
+        : (detail, value) -> setter.accept(detail, parser.apply(value));
+    try {
+      // @Schemaの説明の先頭の語句（補足説明を除いた項目名）を見出しとします。
+      String description = type.getDeclaredField(fieldName).getAnnotation(Schema.class)
+          .description();
+      return new RealestateCsvColumn(description.split(" ")[0], getter, parsingSetter);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(type.getSimpleName() + "に" + fieldName + "が存在しません", e);
+    }
+  }
+}
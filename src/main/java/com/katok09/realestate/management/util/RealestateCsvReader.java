@@ -0,0 +1,151 @@
+package com.katok09.realestate.management.util;
+
+import static com.katok09.realestate.management.util.RealestateCsvColumn.COLUMNS;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV形式の不動産詳細情報を1行ずつ読み込むリーダー
+ * <p>
+ * RealestateCsvWriterが出力する形式（BOM付き、RFC 4180形式の引用符・改行を含む値）を読み込みます。列は見出し行の見出しで判別するため、
+ * 列の並び順は問いません。未知の見出しの列とプロジェクトIDの列は読み込みません。ファイル全体を読み込まずに1行ずつ処理します。
+ */
+public class RealestateCsvReader {
+
+  private static final char BOM = '\uFEFF';
+  private static final String PROJECT_NAME_HEADER = COLUMNS.get(1).getHeader();
+
+  private final BufferedReader reader;
+  private RealestateCsvColumn[] columns;
+  private int rowNumber;
+  private boolean endOfFile;
+
+  public RealestateCsvReader(BufferedReader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * 見出し行を読み込み、列の並びを判別します。
+   *
+   * @throws IOException              読み込みに失敗した場合
+   * @throws IllegalArgumentException 見出し行が無い、またはプロジェクト名の列が無い場合
+   */
+  public void readHeader() throws IOException {
+    List<String> headers = readRecord();
+    if (headers == null) {
+      throw new IllegalArgumentException("CSVの見出し行がありません。");
+    }
+    if (!headers.isEmpty() && !headers.get(0).isEmpty() && headers.get(0).charAt(0) == BOM) {
+      headers.set(0, headers.get(0).substring(1));
+    }
+    if (!headers.contains(PROJECT_NAME_HEADER)) {
+      throw new IllegalArgumentException("CSVの見出し行に" + PROJECT_NAME_HEADER + "の列がありません。");
+    }
+
+    columns = new RealestateCsvColumn[headers.size()];
+    for (int i = 0; i < headers.size(); i++) {
+      for (RealestateCsvColumn column : COLUMNS) {
+        if (column.getHeader().equals(headers.get(i).trim())) {
+          columns[i] = column;
+        }
+      }
+    }
+  }
+
+  /**
+   * 次の1行を読み込みます。値の変換に失敗した場合もその行は読み進めるため、例外を捕捉して次の行から読み込みを続けられます。
+   *
+   * @return 不動産詳細情報 ファイルの終端に達した場合はnullが返ります。
+   * @throws IOException              読み込みに失敗した場合
+   * @throws IllegalArgumentException 値を変換できない場合
+   */
+  public RealestateDetail readRow() throws IOException {
+    List<String> record;
+    try {
+      record = readRecord();
+    } catch (IllegalArgumentException e) {
+      rowNumber++;
+      throw e;
+    }
+    if (record == null) {
+      return null;
+    }
+    rowNumber++;
+
+    RealestateDetail detail = new RealestateDetail(
+        new Project(), new Parcel(), new Building(), new IncomeAndExpenses());
+    for (int i = 0; i < columns.length && i < record.size(); i++) {
+      if (columns[i] != null) {
+        columns[i].setValue(detail, record.get(i));
+      }
+    }
+    return detail;
+  }
+
+  /**
+   * 最後に読み込んだ行の行番号（見出し行を除いて1始まり）を取得します。
+   *
+   * @return 行番号
+   */
+  public int getRowNumber() {
+    return rowNumber;
+  }
+
+  /**
+   * 1レコードを読み込みます。空行は読み飛ばします。
+   */
+  private List<String> readRecord() throws IOException {
+    while (!endOfFile) {
+      List<String> record = new ArrayList<>();
+      StringBuilder field = new StringBuilder();
+      boolean quoted = false;
+
+      while (true) {
+        int c = reader.read();
+        if (c == -1) {
+          endOfFile = true;
+          if (quoted) {
+            throw new IllegalArgumentException("引用符が閉じられていません。");
+          }
+          break;
+        }
+        if (quoted) {
+          if (c == '"') {
+            reader.mark(1);
+            if (reader.read() == '"') {
+              field.append('"');
+            } else {
+              reader.reset();
+              quoted = false;
+            }
+          } else {
+            field.append((char) c);
+          }
+        } else if (c == '"') {
+          quoted = true;
+        } else if (c == ',') {
+          record.add(field.toString());
+          field.setLength(0);
+        } else if (c == '\n') {
+          break;
+        } else if (c != '\r') {
+          field.append((char) c);
+        }
+      }
+
+      record.add(field.toString());
+      if (!(record.size() == 1 && record.get(0).isEmpty())) {
+        return record;
+      }
+    }
+    return null;
+  }
+}
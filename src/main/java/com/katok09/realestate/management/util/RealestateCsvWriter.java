@@ -0,0 +1,77 @@
+package com.katok09.realestate.management.util;
+
+import static com.katok09.realestate.management.util.RealestateCsvColumn.COLUMNS;
+
+import com.katok09.realestate.management.domain.RealestateDetail;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 不動産詳細情報をCSV形式で書き込むライター
+ * <p>
+ * Excelで文字化けせずに開けるよう先頭にBOMを出力し、改行はCRLFとします。列と見出しはRealestateCsvColumnの定義に従います。
+ * 文字列の値が数式として解釈されないよう、=、+、-、@で始まる値の先頭には'を付与します。
+ */
+public class RealestateCsvWriter {
+
+  private static final char BOM = '\uFEFF';
+  private static final String LINE_SEPARATOR = "\r\n";
+
+  private final Writer writer;
+
+  public RealestateCsvWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * BOMと見出し行を書き込みます。
+   *
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void writeHeader() throws IOException {
+    writer.write(BOM);
+    for (int i = 0; i < COLUMNS.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(escape(COLUMNS.get(i).getHeader()));
+    }
+    writer.write(LINE_SEPARATOR);
+  }
+
+  /**
+   * 不動産詳細情報を1行として書き込みます。
+   *
+   * @param detail 不動産詳細情報
+   * @throws IOException 書き込みに失敗した場合
+   */
+  public void writeRow(RealestateDetail detail) throws IOException {
+    for (int i = 0; i < COLUMNS.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      Object value = COLUMNS.get(i).getValue(detail);
+      if (value instanceof String text) {
+        writer.write(escape(neutralizeFormula(text)));
+      } else if (value != null) {
+        writer.write(value.toString());
+      }
+    }
+    writer.write(LINE_SEPARATOR);
+  }
+
+  private static String neutralizeFormula(String value) {
+    if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+      return "'" + value;
+    }
+    return value;
+  }
+
+  private static String escape(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+        && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
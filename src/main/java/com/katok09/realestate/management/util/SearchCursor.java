@@ -0,0 +1,67 @@
+package com.katok09.realestate.management.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 不動産検索のキーセットページング用カーソル
+ * <p>
+ * 前ページ最終行の並び替え項目の値とプロジェクトIDを保持し、「並び替え項目|並び順|プロジェクトID|値」をBase64URLでエンコードした文字列として
+ * クライアントとやり取りします。値がnullの場合は空文字としてエンコードし、デコード後は空文字となります（プロジェクト名順の検索は
+ * NULLを空文字として並び替えるため、NULLのプロジェクト名と空文字は同じ位置となります）。
+ * 並び替え条件が異なるリクエストで使用された場合は不正なカーソルとして扱います。
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+
+  private static final String DELIMITER = "|";
+
+  private final String sort;
+  private final String order;
+  private final int projectId;
+  private final String value;
+
+  /**
+   * カーソル文字列にエンコードします。
+   *
+   * @return カーソル文字列
+   */
+  public String encode() {
+    String raw = sort + DELIMITER + order + DELIMITER + projectId + DELIMITER
+        + (value == null ? "" : value);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * カーソル文字列をデコードします。
+   *
+   * @param cursor カーソル文字列
+   * @param sort   リクエストの並び替え項目
+   * @param order  リクエストの並び順
+   * @return デコードしたカーソル
+   * @throws IllegalArgumentException カーソルの形式が不正、または並び替え条件が一致しない場合
+   */
+  public static SearchCursor decode(String cursor, String sort, String order) {
+    String[] parts;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      parts = raw.split("\\|", 4);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("カーソルが不正です。");
+    }
+
+    if (parts.length != 4 || !parts[0].equals(sort) || !parts[1].equals(order)) {
+      throw new IllegalArgumentException("カーソルが不正です。");
+    }
+
+    try {
+      return new SearchCursor(parts[0], parts[1], Integer.parseInt(parts[2]), parts[3]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("カーソルが不正です。");
+    }
+  }
+}
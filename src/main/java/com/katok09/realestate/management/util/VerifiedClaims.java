@@ -0,0 +1,51 @@
+package com.katok09.realestate.management.util;
+
+import java.util.Date;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 署名検証済みJWTトークンのクレーム情報 JwtRequestFilterでリクエストごとに1度だけ生成され、リクエスト属性としてコントローラーへ引き渡されます。
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedClaims {
+
+  /**
+   * リクエスト属性に格納する際のキー
+   */
+  public static final String REQUEST_ATTRIBUTE = "verifiedClaims";
+
+  private final String token;
+  private final String username;
+  private final int userId;
+  private final String role;
+  private final Date issuedAt;
+  private final Date expiration;
+  // トークン発行時のトークンバージョン（クレームを持たない旧形式のトークンは0）
+  private final long tokenVersion;
+
+  public VerifiedClaims(String token, String username, int userId, String role, Date issuedAt,
+      Date expiration) {
+    this(token, username, userId, role, issuedAt, expiration, 0L);
+  }
+
+  /**
+   * トークンの有効期限が切れているかを検証します。
+   *
+   * @return 有効期限が切れていればtrue、切れていなければfalseが返ります。
+   */
+  public boolean isExpired() {
+    return expiration.before(new Date());
+  }
+
+  /**
+   * トークンの残り有効期限を分数で取得します。
+   *
+   * @return トークン残り有効期限分数
+   */
+  public long getRemainingTimeInMinutes() {
+    long remainingTime = expiration.getTime() - System.currentTimeMillis();
+    return remainingTime / (60 * 1000);
+  }
+}
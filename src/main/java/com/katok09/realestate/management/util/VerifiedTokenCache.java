@@ -0,0 +1,183 @@
+package com.katok09.realestate.management.util;
+
+import io.jsonwebtoken.Claims;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 署名検証済みトークンのクレームを保持するキャッシュ
+ * <p>
+ * キーは生トークンのSHA-256ダイジェストです。各エントリはトークンの有効期限（exp）まで保持されます。
+ * 取得はConcurrentHashMapの参照と最終参照時刻の記録のみでロックを取らず、認証済みリクエストのスレッドが互いに待たないようにします。
+ * 最大件数を超えた場合は、追加したスレッドの1つが期限切れのエントリと最終参照時刻の古いエントリ（最大件数の1割）をまとめて破棄します（近似LRU）。
+ * 最大件数が0以下の場合はキャッシュを無効とし、常にミスを返します。
+ */
+public class VerifiedTokenCache {
+
+  // 最終参照時刻を更新する間隔（同じトークンの参照が続く場合の書き込みを抑えます）
+  private static final long ACCESS_RESOLUTION_NANOS = 1_000_000L;
+
+  private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256が利用できません", e);
+    }
+  });
+
+  private final int maxSize;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder sizeEvictionCount = new LongAdder();
+  private final LongAdder expiredEvictionCount = new LongAdder();
+
+  public VerifiedTokenCache(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * トークンに対応する検証済みクレームを取得します。
+   *
+   * @param token トークン
+   * @return 有効期限内のクレーム。キャッシュに無い、または期限切れの場合はnullが返ります。
+   */
+  public Claims get(String token) {
+    if (!isEnabled() || token == null || token.isEmpty()) {
+      return null;
+    }
+    String key = digest(token);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      missCount.increment();
+      return null;
+    }
+    if (entry.expiresAtMillis <= System.currentTimeMillis()) {
+      if (entries.remove(key, entry)) {
+        expiredEvictionCount.increment();
+      }
+      missCount.increment();
+      return null;
+    }
+    long now = System.nanoTime();
+    if (now - entry.lastAccessNanos >= ACCESS_RESOLUTION_NANOS) {
+      entry.lastAccessNanos = now;
+    }
+    hitCount.increment();
+    return entry.claims;
+  }
+
+  /**
+   * 署名検証済みのクレームをトークンの有効期限まで保持します。有効期限の無いクレームは保持しません。
+   *
+   * @param token  トークン
+   * @param claims 署名検証済みのクレーム
+   */
+  public void put(String token, Claims claims) {
+    if (!isEnabled() || claims.getExpiration() == null) {
+      return;
+    }
+    String key = digest(token);
+    entries.put(key, new Entry(claims, claims.getExpiration().getTime(), System.nanoTime()));
+    if (entries.size() > maxSize) {
+      evict();
+    }
+  }
+
+  /**
+   * 期限切れのエントリを破棄し、それでも最大件数を超える場合は最終参照時刻の古い順に最大件数の9割まで破棄します。
+   * 他のスレッドが破棄中の場合は待たずに戻ります。
+   */
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      if (entries.size() <= maxSize) {
+        return;
+      }
+      long now = System.currentTimeMillis();
+      entries.forEach((key, entry) -> {
+        if (entry.expiresAtMillis <= now && entries.remove(key, entry)) {
+          expiredEvictionCount.increment();
+        }
+      });
+      if (entries.size() <= maxSize) {
+        return;
+      }
+      int excess = entries.size() - (maxSize - maxSize / 10);
+      List<Map.Entry<String, Entry>> candidates = new ArrayList<>(entries.entrySet());
+      candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccessNanos));
+      for (int i = 0; i < excess && i < candidates.size(); i++) {
+        Map.Entry<String, Entry> candidate = candidates.get(i);
+        if (entries.remove(candidate.getKey(), candidate.getValue())) {
+          sizeEvictionCount.increment();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * 全てのエントリを破棄します（秘密鍵のローテーション時に実行されます）。
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getSizeEvictionCount() {
+    return sizeEvictionCount.sum();
+  }
+
+  public long getExpiredEvictionCount() {
+    return expiredEvictionCount.sum();
+  }
+
+  private static String digest(String token) {
+    MessageDigest messageDigest = SHA256.get();
+    messageDigest.reset();
+    return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static final class Entry {
+
+    private final Claims claims;
+    private final long expiresAtMillis;
+    // 最終参照時刻（System.nanoTime）。破棄の順序にのみ使用するため、更新の競合は問題としません。
+    private volatile long lastAccessNanos;
+
+    private Entry(Claims claims, long expiresAtMillis, long lastAccessNanos) {
+      this.claims = claims;
+      this.expiresAtMillis = expiresAtMillis;
+      this.lastAccessNanos = lastAccessNanos;
+    }
+  }
+}
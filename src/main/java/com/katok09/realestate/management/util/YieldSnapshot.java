@@ -0,0 +1,283 @@
+package com.katok09.realestate.management.util;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.YieldRank;
+import com.katok09.realestate.management.dto.YieldRanking;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 1ユーザー分の不動産情報の利回り計算用スナップショット（列指向・不変）
+ * <p>
+ * 不動産情報を項目ごとのプリミティブ配列（取得価格はlong[]、家賃・経費・ローン返済はint[]、面積はdouble[]）に展開し、
+ * 表面・実質利回りは構築時に全件分を1回のループで計算して保持します。建物種別・建物構造は値ごとの番号（int[]）で保持します。
+ * ランキングは配列の走査で絞り込みながら、取得件数分のヒープ（行番号のint[]）で上位を選択するため、物件ごとのオブジェクトの
+ * 参照・利回りの再計算・全件のソートを行いません。
+ */
+public final class YieldSnapshot {
+
+  // 値の番号が無い（未入力・該当する値が無い）、絞り込み条件が未指定
+  private static final int NONE = -1;
+  private static final int ANY = -2;
+
+  private final int size;
+  private final int[] projectIds;
+  private final String[] projectNames;
+  private final long[] totalPrices;
+  private final int[] monthlyRents;
+  private final int[] monthlyOperatingExpenses;
+  private final int[] monthlyDebtServices;
+  private final double[] parcelSizes;
+  private final double[] buildingSizes;
+  // 建物種別・建物構造の番号（値の一覧の添字、未入力の場合はNONE）
+  private final int[] buildingTypes;
+  private final int[] buildingStructures;
+  private final List<String> buildingTypeValues = new ArrayList<>();
+  private final List<String> buildingStructureValues = new ArrayList<>();
+  // 利回り（%） 取得価格が0円の場合はNaN
+  private final double[] grossYields;
+  private final double[] netYields;
+
+  private YieldSnapshot(List<RealestateDetail> details) {
+    size = details.size();
+    projectIds = new int[size];
+    projectNames = new String[size];
+    totalPrices = new long[size];
+    monthlyRents = new int[size];
+    monthlyOperatingExpenses = new int[size];
+    monthlyDebtServices = new int[size];
+    parcelSizes = new double[size];
+    buildingSizes = new double[size];
+    buildingTypes = new int[size];
+    buildingStructures = new int[size];
+    grossYields = new double[size];
+    netYields = new double[size];
+
+    // 検索結果は外部結合のため、土地・建物・収支情報が無い場合は0円・未入力として扱います。
+    for (int i = 0; i < size; i++) {
+      RealestateDetail detail = details.get(i);
+      projectIds[i] = detail.getProject().getId();
+      projectNames[i] = detail.getProject().getProjectName();
+      Parcel parcel = detail.getParcel();
+      Building building = detail.getBuilding();
+      IncomeAndExpenses incomeAndExpenses = detail.getIncomeAndExpenses();
+      if (parcel != null) {
+        totalPrices[i] += parcel.getParcelPrice();
+        parcelSizes[i] = parcel.getParcelSize();
+      }
+      buildingTypes[i] = NONE;
+      buildingStructures[i] = NONE;
+      if (building != null) {
+        totalPrices[i] += building.getBuildingPrice();
+        buildingSizes[i] = building.getBuildingSize();
+        buildingTypes[i] = code(buildingTypeValues, building.getBuildingType(), true);
+        buildingStructures[i] = code(buildingStructureValues, building.getBuildingStructure(),
+            true);
+      }
+      if (incomeAndExpenses != null) {
+        monthlyRents[i] = incomeAndExpenses.getRent();
+        monthlyOperatingExpenses[i] = incomeAndExpenses.getMaintenanceCost()
+            + incomeAndExpenses.getRepairFund() + incomeAndExpenses.getManagementFee()
+            + incomeAndExpenses.getTax() + incomeAndExpenses.getWaterBill()
+            + incomeAndExpenses.getElectricBill() + incomeAndExpenses.getGasBill()
+            + incomeAndExpenses.getFireInsurance();
+        monthlyDebtServices[i] = incomeAndExpenses.getPrincipal()
+            + incomeAndExpenses.getInterest();
+      }
+    }
+
+    // 取得価格が0円の場合は0除算でNaNまたは無限大となるため、NaNに揃えてランキングの対象外とします。
+    for (int i = 0; i < size; i++) {
+      double price = totalPrices[i];
+      grossYields[i] = monthlyRents[i] * 1200.0 / price;
+      netYields[i] = (monthlyRents[i] - monthlyOperatingExpenses[i]) * 1200.0 / price;
+    }
+    for (int i = 0; i < size; i++) {
+      if (totalPrices[i] == 0) {
+        grossYields[i] = Double.NaN;
+        netYields[i] = Double.NaN;
+      }
+    }
+  }
+
+  /**
+   * 不動産情報のリストからスナップショットを構築します。
+   *
+   * @param details 1ユーザー分の不動産情報リスト（論理削除済みを含まないこと）
+   * @return スナップショット
+   */
+  public static YieldSnapshot of(List<RealestateDetail> details) {
+    return new YieldSnapshot(details);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * 絞り込み条件に該当する物件を利回り順に並べた上位を返します。利回りが同じ場合はプロジェクトID順です。
+   *
+   * @param params ランキングの取得パラメーター
+   * @return 該当件数と上位の物件（取得価格が0円の物件は対象外）
+   */
+  public YieldRanking rank(RankingParams params) {
+
+    double[] yields = params.isSortByNetYield() ? netYields : grossYields;
+    // 高い順の場合は利回りを、低い順の場合は符号を反転した値を大きい順に選択します。
+    double sign = params.isAscending() ? -1 : 1;
+    double minYield = params.getMinYield() == null ? Double.NEGATIVE_INFINITY
+        : params.getMinYield();
+    int buildingType = filterCode(buildingTypeValues, params.getBuildingType());
+    int buildingStructure = filterCode(buildingStructureValues, params.getBuildingStructure());
+    Boolean financing = params.getFinancing();
+    if (buildingType == NONE || buildingStructure == NONE) {
+      return new YieldRanking(0, List.of());
+    }
+
+    TopN top = new TopN(params.getLimit(), yields, sign);
+    int matched = 0;
+    for (int i = 0; i < size; i++) {
+      // NaN（取得価格0円）は比較が常にfalseとなり除外されます。
+      if (!(yields[i] >= minYield)
+          || (buildingType != ANY && buildingTypes[i] != buildingType)
+          || (buildingStructure != ANY && buildingStructures[i] != buildingStructure)
+          || (financing != null && (monthlyDebtServices[i] > 0) != financing)) {
+        continue;
+      }
+      matched++;
+      top.offer(i);
+    }
+
+    int[] rows = top.sorted();
+    List<YieldRank> items = new ArrayList<>(rows.length);
+    for (int rank = 0; rank < rows.length; rank++) {
+      int i = rows[rank];
+      items.add(new YieldRank(rank + 1, projectIds[i], projectNames[i],
+          value(buildingTypeValues, buildingTypes[i]),
+          value(buildingStructureValues, buildingStructures[i]), totalPrices[i], monthlyRents[i],
+          monthlyOperatingExpenses[i], monthlyDebtServices[i], parcelSizes[i], buildingSizes[i],
+          yieldRate(monthlyRents[i], totalPrices[i]),
+          yieldRate(monthlyRents[i] - monthlyOperatingExpenses[i], totalPrices[i])));
+    }
+    return new YieldRanking(matched, items);
+  }
+
+  /**
+   * 利回りを不動産収支サマリーと同じく小数点以下2桁に四捨五入します。
+   */
+  private static double yieldRate(long monthlyAmount, long totalPrice) {
+    return BigDecimal.valueOf(monthlyAmount * 12 * 100)
+        .divide(BigDecimal.valueOf(totalPrice), 2, RoundingMode.HALF_UP)
+        .doubleValue();
+  }
+
+  private static int code(List<String> values, String value, boolean register) {
+    if (value == null || value.isEmpty()) {
+      return NONE;
+    }
+    int code = values.indexOf(value);
+    if (code < 0 && register) {
+      values.add(value);
+      code = values.size() - 1;
+    }
+    return code;
+  }
+
+  /**
+   * 絞り込み条件の番号を返します。条件が未指定の場合はANY、該当する値が無い場合はNONEとなります。
+   */
+  private static int filterCode(List<String> values, String value) {
+    if (value == null || value.isEmpty()) {
+      return ANY;
+    }
+    return code(values, value, false);
+  }
+
+  private static String value(List<String> values, int code) {
+    return code == NONE ? null : values.get(code);
+  }
+
+  /**
+   * 利回りの上位n件の行番号を保持するヒープ（先頭が保持している中で最も順位が低い行）
+   */
+  private final class TopN {
+
+    private final int[] heap;
+    private final double[] yields;
+    private final double sign;
+    private int count;
+
+    TopN(int limit, double[] yields, double sign) {
+      this.heap = new int[Math.min(limit, size)];
+      this.yields = yields;
+      this.sign = sign;
+    }
+
+    void offer(int row) {
+      if (count < heap.length) {
+        heap[count] = row;
+        siftUp(count++);
+      } else if (heap.length > 0 && higher(row, heap[0])) {
+        heap[0] = row;
+        siftDown(0, count);
+      }
+    }
+
+    /**
+     * 保持している行番号を順位順に返します（ヒープは破棄されます）。
+     */
+    int[] sorted() {
+      int[] rows = new int[count];
+      for (int last = count - 1; last >= 0; last--) {
+        rows[last] = heap[0];
+        heap[0] = heap[last];
+        siftDown(0, last);
+      }
+      return rows;
+    }
+
+    private boolean higher(int a, int b) {
+      double ya = sign * yields[a];
+      double yb = sign * yields[b];
+      return ya > yb || (ya == yb && projectIds[a] < projectIds[b]);
+    }
+
+    private void siftUp(int index) {
+      int row = heap[index];
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (!higher(heap[parent], row)) {
+          break;
+        }
+        heap[index] = heap[parent];
+        index = parent;
+      }
+      heap[index] = row;
+    }
+
+    private void siftDown(int index, int end) {
+      int row = heap[index];
+      while (true) {
+        int child = index * 2 + 1;
+        if (child >= end) {
+          break;
+        }
+        if (child + 1 < end && higher(heap[child], heap[child + 1])) {
+          child++;
+        }
+        if (!higher(row, heap[child])) {
+          break;
+        }
+        heap[index] = heap[child];
+        index = child;
+      }
+      heap[index] = row;
+    }
+  }
+}
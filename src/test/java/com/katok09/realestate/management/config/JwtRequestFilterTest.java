@@ -9,13 +9,16 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.katok09.realestate.management.service.TokenRevocationRegistry;
 import com.katok09.realestate.management.service.UserDetailsServiceImpl;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Date;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +26,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -34,6 +38,8 @@ public class JwtRequestFilterTest {
   @Mock
   JwtUtil jwtUtil;
   @Mock
+  TokenRevocationRegistry revocationRegistry;
+  @Mock
   HttpServletRequest request;
   @Mock
   HttpServletResponse response;
@@ -42,10 +48,13 @@ public class JwtRequestFilterTest {
 
   private JwtRequestFilter sut;
 
+  private final VerifiedClaims dummyClaims = new VerifiedClaims("DummyToken", "DummyUser", 999,
+      "USER", new Date(), new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+
   @BeforeEach
   void before() {
     SecurityContextHolder.clearContext();
-    sut = new JwtRequestFilter(userDetailsService, jwtUtil);
+    sut = new JwtRequestFilter(userDetailsService, jwtUtil, revocationRegistry, false);
   }
 
   @Test
@@ -55,9 +64,9 @@ public class JwtRequestFilterTest {
     UserDetails userDetails = mock(UserDetails.class);
 
     when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
-    when(jwtUtil.getUsernameFromToken("DummyToken")).thenReturn("DummyUser");
-    when(userDetailsService.loadUserByUsername("DummyUser")).thenReturn(userDetails);
-    when(jwtUtil.validateToken("DummyToken", userDetails)).thenReturn(true);
+    when(jwtUtil.parseToken("DummyToken")).thenReturn(dummyClaims);
+    when(userDetailsService.loadUserByUsernameCached("DummyUser")).thenReturn(userDetails);
+    when(jwtUtil.validateToken(dummyClaims, userDetails)).thenReturn(true);
 
     sut.doFilterInternal(request, response, chain);
 
@@ -65,6 +74,8 @@ public class JwtRequestFilterTest {
     assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(
         userDetails);
     assertThat(SecurityContextHolder.getContext().getAuthentication().isAuthenticated()).isTrue();
+    verify(jwtUtil, times(1)).parseToken("DummyToken");
+    verify(request, times(1)).setAttribute(VerifiedClaims.REQUEST_ATTRIBUTE, dummyClaims);
     verify(chain, times(1)).doFilter(request, response);
   }
 
@@ -77,9 +88,9 @@ public class JwtRequestFilterTest {
     sut.doFilterInternal(request, response, chain);
 
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-    verify(jwtUtil, never()).getUsernameFromToken(anyString());
+    verify(jwtUtil, never()).parseToken(anyString());
     verify(userDetailsService, never()).loadUserByUsername(anyString());
-    verify(jwtUtil, never()).validateToken(anyString(), any(UserDetails.class));
+    verify(jwtUtil, never()).validateToken(any(VerifiedClaims.class), any(UserDetails.class));
     verify(chain, times(1)).doFilter(request, response);
   }
 
@@ -92,9 +103,9 @@ public class JwtRequestFilterTest {
     sut.doFilterInternal(request, response, chain);
 
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-    verify(jwtUtil, never()).getUsernameFromToken(anyString());
+    verify(jwtUtil, never()).parseToken(anyString());
     verify(userDetailsService, never()).loadUserByUsername(anyString());
-    verify(jwtUtil, never()).validateToken(anyString(), any(UserDetails.class));
+    verify(jwtUtil, never()).validateToken(any(VerifiedClaims.class), any(UserDetails.class));
     verify(chain, times(1)).doFilter(request, response);
   }
 
@@ -105,9 +116,9 @@ public class JwtRequestFilterTest {
     UserDetails userDetails = mock(UserDetails.class);
 
     when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
-    when(jwtUtil.getUsernameFromToken("DummyToken")).thenReturn("DummyUser");
-    when(userDetailsService.loadUserByUsername("DummyUser")).thenReturn(userDetails);
-    when(jwtUtil.validateToken("DummyToken", userDetails)).thenReturn(false);
+    when(jwtUtil.parseToken("DummyToken")).thenReturn(dummyClaims);
+    when(userDetailsService.loadUserByUsernameCached("DummyUser")).thenReturn(userDetails);
+    when(jwtUtil.validateToken(dummyClaims, userDetails)).thenReturn(false);
 
     sut.doFilterInternal(request, response, chain);
 
@@ -122,14 +133,14 @@ public class JwtRequestFilterTest {
     UserDetails userDetails = mock(UserDetails.class);
 
     when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
-    when(jwtUtil.getUsernameFromToken("DummyToken")).thenThrow(
+    when(jwtUtil.parseToken("DummyToken")).thenThrow(
         new RuntimeException("Invalid Token"));
 
     sut.doFilterInternal(request, response, chain);
 
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     verify(userDetailsService, never()).loadUserByUsername(anyString());
-    verify(jwtUtil, never()).validateToken(anyString(), any(UserDetails.class));
+    verify(jwtUtil, never()).validateToken(any(VerifiedClaims.class), any(UserDetails.class));
     verify(chain, times(1)).doFilter(request, response);
   }
 
@@ -141,13 +152,52 @@ public class JwtRequestFilterTest {
         .setAuthentication(mock(org.springframework.security.core.Authentication.class));
 
     when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
-    when(jwtUtil.getUsernameFromToken("DummyToken")).thenReturn("DummyUser");
+    when(jwtUtil.parseToken("DummyToken")).thenReturn(dummyClaims);
 
     sut.doFilterInternal(request, response, chain);
 
     assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
     verify(userDetailsService, never()).loadUserByUsername(anyString());
-    verify(jwtUtil, never()).validateToken(anyString(), any(UserDetails.class));
+    verify(jwtUtil, never()).validateToken(any(VerifiedClaims.class), any(UserDetails.class));
+    verify(chain, times(1)).doFilter(request, response);
+  }
+
+  @Test
+  void クレーム信頼モードの時DBを参照せずクレームのロールから認証情報を設定すること()
+      throws ServletException, IOException {
+
+    sut = new JwtRequestFilter(userDetailsService, jwtUtil, revocationRegistry, true);
+
+    when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
+    when(jwtUtil.parseToken("DummyToken")).thenReturn(dummyClaims);
+    when(revocationRegistry.isRevoked(999, 0L)).thenReturn(false);
+
+    sut.doFilterInternal(request, response, chain);
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(
+        "DummyUser");
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactly("ROLE_USER");
+    verify(userDetailsService, never()).loadUserByUsernameCached(anyString());
+    verify(request, times(1)).setAttribute(VerifiedClaims.REQUEST_ATTRIBUTE, dummyClaims);
+    verify(chain, times(1)).doFilter(request, response);
+  }
+
+  @Test
+  void クレーム信頼モードの時失効済みのトークンでは認証処理をしないこと()
+      throws ServletException, IOException {
+
+    sut = new JwtRequestFilter(userDetailsService, jwtUtil, revocationRegistry, true);
+
+    when(request.getHeader("Authorization")).thenReturn("Bearer DummyToken");
+    when(jwtUtil.parseToken("DummyToken")).thenReturn(dummyClaims);
+    when(revocationRegistry.isRevoked(999, 0L)).thenReturn(true);
+
+    sut.doFilterInternal(request, response, chain);
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    verify(request, never()).setAttribute(anyString(), any());
     verify(chain, times(1)).doFilter(request, response);
   }
 
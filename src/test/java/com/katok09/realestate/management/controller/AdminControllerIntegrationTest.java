@@ -6,6 +6,7 @@ import com.katok09.realestate.management.data.User;
 import com.katok09.realestate.management.dto.LoginRequest;
 import com.katok09.realestate.management.dto.LoginResponse;
 import com.katok09.realestate.management.dto.StatusRequest;
+import com.katok09.realestate.management.service.LoginFailureTracker;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class AdminControllerIntegrationTest {
@@ -29,8 +31,13 @@ public class AdminControllerIntegrationTest {
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
+  @Autowired
+  private LoginFailureTracker failureTracker;
+
   @BeforeEach
   void before() {
+    // 前のテストのログイン失敗状態を破棄してからDBを初期化します。
+    failureTracker.clear();
     jdbcTemplate.execute("DROP ALL OBJECTS");
     jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
     jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:data.sql'");
@@ -142,6 +149,17 @@ public class AdminControllerIntegrationTest {
     assertThat(filtered.isEnabled()).isFalse();
   }
 
+  @Test
+  void ログイン失敗でアカウントロックされたユーザーのロックを解除するとログインできること() {
+    // ログイン失敗状態がDBへの反映後もメモリ上に残る本番と同じ条件で確認するため、保持期間を設定します。
+    ReflectionTestUtils.setField(failureTracker, "retentionMillis", 60_000L);
+    try {
+      verifyUnlockAfterLoginFailure();
+    } finally {
+      ReflectionTestUtils.setField(failureTracker, "retentionMillis", 0L);
+    }
+  }
+
   @Test
   void 自身のステータスを変更した時400エラーが返ること() {
     String token = performLogin("admin", "password123");
@@ -339,4 +357,45 @@ public class AdminControllerIntegrationTest {
     assertThat(filtered.isEnabled()).isTrue();
   }
 
+  /**
+   * ログイン失敗でアカウントロックしたユーザー（ID:2）をADMINロールユーザーで解除し、ログインできることを検証
+   */
+  private void verifyUnlockAfterLoginFailure() {
+    for (int i = 0; i < 5; i++) {
+      restTemplate.postForEntity("/api/auth/login", new LoginRequest("user1", "DummyPassword"),
+          String.class);
+    }
+    ResponseEntity<String> locked = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), String.class);
+    assertThat(locked.getStatusCode()).isEqualTo(HttpStatus.LOCKED);
+    failureTracker.flush();
+
+    // DBへの反映後もメモリ上に残るログイン失敗状態に、未反映の失敗を記録します。
+    locked = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), String.class);
+    assertThat(locked.getStatusCode()).isEqualTo(HttpStatus.LOCKED);
+
+    // ADMINロールユーザーでアカウントロックを解除
+    StatusRequest statusRequest = new StatusRequest();
+    statusRequest.setRole("USER");
+    statusRequest.setEnabled(true);
+    statusRequest.setLoginFailedAttempts(0);
+    statusRequest.setAccountLockedUntil(null);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(performLogin("admin", "password123"));
+    ResponseEntity<String> userResponse = restTemplate.exchange(
+        "/api/admin/users/2/updateStatus", HttpMethod.PUT,
+        new HttpEntity<>(statusRequest, headers), String.class);
+    assertThat(userResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    // 解除後はメモリ上の状態で再度ロックされず、反映処理がロックを書き戻さないことを確認
+    failureTracker.flush();
+    performLogin("user1", "password123");
+    failureTracker.flush();
+    assertThat(jdbcTemplate.queryForMap("SELECT login_failed_attempts, account_locked_until"
+        + " FROM users WHERE id = 2"))
+        .containsEntry("LOGIN_FAILED_ATTEMPTS", 0)
+        .containsEntry("ACCOUNT_LOCKED_UNTIL", null);
+  }
 }
@@ -2,12 +2,14 @@ package com.katok09.realestate.management.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -15,9 +17,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.katok09.realestate.management.config.JwtRequestFilter;
 import com.katok09.realestate.management.dto.StatusRequest;
 import com.katok09.realestate.management.service.AdminService;
+import com.katok09.realestate.management.service.RealestateSummaryService;
 import com.katok09.realestate.management.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -38,6 +42,9 @@ public class AdminControllerTest {
   @MockBean
   private AdminService adminService;
 
+  @MockBean
+  private RealestateSummaryService summaryService;
+
   @MockBean
   private UserDetailsService userDetailsService;
 
@@ -69,12 +76,13 @@ public class AdminControllerTest {
     statusRequest.setLoginFailedAttempts(0);
     statusRequest.setAccountLockedUntil(null);
 
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn("DummyToken");
-    when(jwtUtil.getUserIdFromToken("DummyToken")).thenReturn(1);
+    VerifiedClaims dummyClaims = new VerifiedClaims("DummyToken", "DummyAdmin", 1, "ADMIN",
+        new Date(), new Date(System.currentTimeMillis() + 60 * 60 * 1000));
     doNothing().when(adminService).updateStatus(999, 1, statusRequest);
 
     mockMvc.perform(put("/api/admin/users/{id}/updateStatus", 999)
             .contentType("application/Json")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, dummyClaims)
             .content(
                 """
                     {
@@ -94,9 +102,8 @@ public class AdminControllerTest {
         .andExpect(jsonPath("$.login_failed_attempts").value(0))
         .andExpect(jsonPath("$.account_locked_until").doesNotExist());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(any(String.class));
-    verify(adminService, times(1)).updateStatus(anyInt(), anyInt(), any(StatusRequest.class));
+    verify(jwtUtil, never()).getUserIdFromToken(any(String.class));
+    verify(adminService, times(1)).updateStatus(eq(999), eq(1), any(StatusRequest.class));
   }
 
 
@@ -110,7 +117,6 @@ public class AdminControllerTest {
     errorResponse.put("message", "Authorization ヘッダーが見つかりません");
     errorResponse.put("timestamp", System.currentTimeMillis());
 
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(null);
     when(jwtUtil.createErrorResponse("MISSING_TOKEN", "Authorization ヘッダーが見つかりません"))
         .thenReturn(errorResponse);
 
@@ -130,9 +136,22 @@ public class AdminControllerTest {
         .andExpect(jsonPath("$.errorCode").value("MISSING_TOKEN"))
         .andExpect(jsonPath("$.message").value("Authorization ヘッダーが見つかりません"));
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
     verify(jwtUtil, never()).getUserIdFromToken(any(String.class));
     verify(adminService, never()).updateStatus(anyInt(), anyInt(), any(StatusRequest.class));
   }
 
+  @Test
+  void 不動産収支集計を再計算でき再計算したユーザー数とOKレスポンスが返ってくること() throws Exception {
+
+    when(summaryService.rebuild()).thenReturn(3);
+
+    mockMvc.perform(post("/api/admin/portfolio-summary/rebuild"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.success").value(true))
+        .andExpect(jsonPath("$.rebuiltUsers").value(3));
+
+    verify(summaryService, times(1)).rebuild();
+
+  }
+
 }
@@ -7,6 +7,10 @@ import com.katok09.realestate.management.dto.LoginResponse;
 import com.katok09.realestate.management.dto.RegisterRequest;
 import com.katok09.realestate.management.dto.UpdateRequest;
 import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.service.LoginFailureTracker;
+import com.katok09.realestate.management.service.RealestatePurgeJob;
+import com.katok09.realestate.management.service.TokenRevocationRegistry;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,8 +33,19 @@ public class AuthControllerIntegrationTest {
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
+  @Autowired
+  private RealestatePurgeJob purgeJob;
+
+  @Autowired
+  private TokenRevocationRegistry revocationRegistry;
+
+  @Autowired
+  private LoginFailureTracker failureTracker;
+
   @BeforeEach
   void before() {
+    // 前のテストのログイン失敗状態を破棄してからDBを初期化します。
+    failureTracker.clear();
     jdbcTemplate.execute("DROP ALL OBJECTS");
     jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
     jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:data.sql'");
@@ -113,6 +128,71 @@ public class AuthControllerIntegrationTest {
     assertThat(response.getBody()).contains("アカウントがロックされています。");
   }
 
+  @Test
+  void ログイン失敗でアカウントロックされロック期限切れ後のログイン成功で失敗回数とロックがリセットされること() {
+
+    for (int i = 0; i < 5; i++) {
+      restTemplate.postForEntity("/api/auth/login", new LoginRequest("user1", "DummyPassword"),
+          String.class);
+    }
+    ResponseEntity<String> locked = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), String.class);
+
+    assertThat(locked.getStatusCode()).isEqualTo(HttpStatus.LOCKED);
+    // ログイン失敗はメモリ上で記録され、DBへはまとめて反映されます。
+    failureTracker.flush();
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT login_failed_attempts FROM users WHERE username = 'user1'", Integer.class))
+        .isEqualTo(6);
+
+    // ロック期限切れ後は正しいパスワードでログインでき、失敗回数・ロック期限・最終ログイン日時が1回のUPDATEで更新されます。
+    jdbcTemplate.update("UPDATE users SET account_locked_until = DATEADD('MINUTE', -1,"
+        + " CURRENT_TIMESTAMP) WHERE username = 'user1'");
+    ResponseEntity<LoginResponse> response = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), LoginResponse.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Map<String, Object> user = jdbcTemplate.queryForMap("SELECT login_failed_attempts,"
+        + " account_locked_until, last_login_at FROM users WHERE username = 'user1'");
+    assertThat(user.get("LOGIN_FAILED_ATTEMPTS")).isEqualTo(0);
+    assertThat(user.get("ACCOUNT_LOCKED_UNTIL")).isNull();
+    assertThat(user.get("LAST_LOGIN_AT")).isNotNull();
+  }
+
+  @Test
+  void 強度の異なる従来のハッシュのユーザーがログインした時に現在の設定で再ハッシュ化され再度ログインできること() {
+
+    ResponseEntity<LoginResponse> response = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), LoginResponse.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    // テストのBCryptの強度は4のため、強度10・アルゴリズムIDの無いハッシュが置き換えられます。
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT password FROM users WHERE username = 'user1'", String.class))
+        .startsWith("{bcrypt}$2a$04$");
+
+    ResponseEntity<LoginResponse> again = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), LoginResponse.class);
+    assertThat(again.getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+
+  @Test
+  void DBへの反映前にログインに成功した場合は反映前のログイン失敗がリセットを上書きしないこと() {
+
+    restTemplate.postForEntity("/api/auth/login", new LoginRequest("user1", "DummyPassword"),
+        String.class);
+    restTemplate.postForEntity("/api/auth/login", new LoginRequest("user1", "DummyPassword"),
+        String.class);
+    ResponseEntity<LoginResponse> response = restTemplate.postForEntity("/api/auth/login",
+        new LoginRequest("user1", "password123"), LoginResponse.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    failureTracker.flush();
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT login_failed_attempts FROM users WHERE username = 'user1'", Integer.class))
+        .isZero();
+  }
+
   @Test
   void 無効なトークンで保護されたAPIにアクセスした時に401エラーが返ること() {
     HttpHeaders headers = new HttpHeaders();
@@ -157,6 +237,55 @@ public class AuthControllerIntegrationTest {
     assertThat(userResponse.getBody().getUsername()).isEqualTo("guest");
   }
 
+  @Test
+  void ゲストログインは照合済みのユーザー情報からトークンを発行し無効化後は拒否されること() {
+
+    restTemplate.postForEntity("/api/auth/guest-login", null, LoginResponse.class);
+    Map<String, Object> before = jdbcTemplate.queryForMap(
+        "SELECT id, last_login_at, updated_at FROM users WHERE username = 'guest'");
+
+    // 2回目以降はパスワード照合・DBの更新を行わずにトークンを発行します。
+    ResponseEntity<LoginResponse> response = restTemplate.postForEntity("/api/auth/guest-login",
+        null, LoginResponse.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(jdbcTemplate.queryForMap(
+        "SELECT id, last_login_at, updated_at FROM users WHERE username = 'guest'"))
+        .isEqualTo(before);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(response.getBody().getToken());
+    ResponseEntity<UserInfo> userResponse = restTemplate.exchange("/api/auth/me", HttpMethod.GET,
+        new HttpEntity<>(headers), UserInfo.class);
+    assertThat(userResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    // 管理者による無効化（トークン失効）後は照合済みのユーザー情報を使用しません。
+    jdbcTemplate.update("UPDATE users SET enabled = false WHERE username = 'guest'");
+    revocationRegistry.revoke((Integer) before.get("ID"));
+    ResponseEntity<String> disabled = restTemplate.postForEntity("/api/auth/guest-login", null,
+        String.class);
+    assertThat(disabled.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+  }
+
+  @Test
+  void プロキシ経由のゲストログインはX_Forwarded_Forのアドレスごとに制限されること() {
+
+    HttpHeaders first = new HttpHeaders();
+    first.set("X-Forwarded-For", "203.0.113.1");
+    for (int i = 0; i < 30; i++) {
+      restTemplate.postForEntity("/api/auth/guest-login", new HttpEntity<>(first), String.class);
+    }
+    ResponseEntity<String> limited = restTemplate.postForEntity("/api/auth/guest-login",
+        new HttpEntity<>(first), String.class);
+    assertThat(limited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+    // 同じプロキシ（ループバックアドレス）経由でも、別のクライアントは制限されません。
+    HttpHeaders second = new HttpHeaders();
+    second.set("X-Forwarded-For", "203.0.113.2");
+    ResponseEntity<String> other = restTemplate.postForEntity("/api/auth/guest-login",
+        new HttpEntity<>(second), String.class);
+    assertThat(other.getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+
   @Test
   void ユーザー登録が正常に行えログインが行えること() {
     RegisterRequest registerRequest = new RegisterRequest();
@@ -445,6 +574,67 @@ public class AuthControllerIntegrationTest {
     verifyDeletedUser("user1", "password123");
   }
 
+  @Test
+  void 大量の不動産情報を持つユーザーの削除は1回のUPDATEで論理削除され物理削除は定期処理で行われること() {
+    // user1（ユーザーID2）に5000件のプロジェクトと土地・建物・収支情報を追加
+    int projectCount = 5000;
+    jdbcTemplate.update("INSERT INTO projects(user_id, project_name, is_deleted)"
+        + " SELECT 2, CONCAT('大量データ', X), false FROM SYSTEM_RANGE(1, ?)", projectCount);
+    for (String table : new String[]{"parcels", "buildings", "income_and_expenses"}) {
+      jdbcTemplate.update("INSERT INTO " + table + "(project_id, user_id, is_deleted)"
+          + " SELECT id, user_id, false FROM projects WHERE project_name LIKE '大量データ%'");
+    }
+
+    LoginRequest request = new LoginRequest("user1", "password123");
+    String token = restTemplate.postForEntity("/api/auth/login", request, LoginResponse.class)
+        .getBody().getToken();
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+
+    // 削除処理中に実行されたSQLの回数（DB往復回数）と実行時間（行ロックを保持する時間）をH2のクエリ統計から取得します。
+    jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    ResponseEntity<String> response;
+    List<Map<String, Object>> statistics;
+    try {
+      response = restTemplate.exchange("/api/auth/deleteUser", HttpMethod.DELETE,
+          new HttpEntity<>(headers), String.class);
+      statistics = jdbcTemplate.queryForList("SELECT SQL_STATEMENT, EXECUTION_COUNT,"
+          + " CUMULATIVE_EXECUTION_TIME FROM INFORMATION_SCHEMA.QUERY_STATISTICS");
+    } finally {
+      jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+    }
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    List<Map<String, Object>> realestateWrites = statistics.stream()
+        .filter(row -> row.get("SQL_STATEMENT").toString().trim().toUpperCase().matches(
+            "(?s)(UPDATE|DELETE\\s+FROM)\\s+(PROJECTS|PARCELS|BUILDINGS|INCOME_AND_EXPENSES)\\b.*"))
+        .toList();
+    double writeMillis = realestateWrites.stream()
+        .mapToDouble(row -> ((Number) row.get("CUMULATIVE_EXECUTION_TIME")).doubleValue())
+        .sum();
+    assertThat(realestateWrites)
+        .as("不動産情報の削除SQL（実行時間 %.1fms）", writeMillis)
+        .singleElement()
+        .satisfies(row -> {
+          assertThat(row.get("SQL_STATEMENT").toString().trim()).startsWithIgnoringCase("UPDATE")
+              .containsIgnoringCase("projects");
+          assertThat(((Number) row.get("EXECUTION_COUNT")).intValue()).isEqualTo(1);
+        });
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM projects WHERE user_id = 2 AND is_deleted = false", Integer.class))
+        .isEqualTo(0);
+
+    // 定期処理で論理削除済みの不動産情報を物理削除（user1の既存のプロジェクト2件を含む）
+    assertThat(purgeJob.purge()).isEqualTo(projectCount + 2);
+
+    for (String table : new String[]{"projects", "parcels", "buildings", "income_and_expenses"}) {
+      assertThat(jdbcTemplate.queryForObject(
+          "SELECT COUNT(*) FROM " + table + " WHERE user_id = 2", Integer.class))
+          .as(table).isEqualTo(0);
+    }
+  }
+
   @Test
   void トークンなしでユーザー削除をした時に401エラーが返ること() {
     HttpEntity<String> entity = new HttpEntity<>(new HttpHeaders());
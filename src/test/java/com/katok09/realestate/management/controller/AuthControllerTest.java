@@ -12,6 +12,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.katok09.realestate.management.config.JwtRequestFilter;
@@ -20,9 +22,12 @@ import com.katok09.realestate.management.dto.LoginResponse;
 import com.katok09.realestate.management.dto.RegisterRequest;
 import com.katok09.realestate.management.dto.UpdateRequest;
 import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.exception.RateLimitExceededException;
 import com.katok09.realestate.management.service.AuthService;
+import com.katok09.realestate.management.service.GuestLoginService;
 import com.katok09.realestate.management.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.VerifiedClaims;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
@@ -44,6 +49,9 @@ public class AuthControllerTest {
   @MockBean
   AuthService authService;
 
+  @MockBean
+  GuestLoginService guestLoginService;
+
   @MockBean
   private UserDetailsService userDetailsService;
 
@@ -196,21 +204,26 @@ public class AuthControllerTest {
       throws Exception {
 
     LoginResponse dummyResponse = new LoginResponse("DummyToken", new UserInfo());
-    when(authService.authenticate(any(LoginRequest.class))).thenReturn(dummyResponse);
+    when(guestLoginService.login("127.0.0.1")).thenReturn(dummyResponse);
 
-    mockMvc.perform(post("/api/auth/guest-login")
-            .contentType("application/json")
-            .content(
-                """
-                      {
-                            "username":"guest",
-                            "password":"guest123"
-                      }
-                    """
-            ))
-        .andExpect(status().isOk());
+    mockMvc.perform(post("/api/auth/guest-login"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.token").value("DummyToken"));
 
-    verify(authService, times(1)).authenticate(any(LoginRequest.class));
+    verify(guestLoginService, times(1)).login("127.0.0.1");
+    verify(authService, never()).authenticate(any(LoginRequest.class));
+  }
+
+  @Test
+  void ゲストログインの回数が上限を超えた時にTooManyRequestsレスポンスが返ってくること()
+      throws Exception {
+
+    when(guestLoginService.login("127.0.0.1"))
+        .thenThrow(new RateLimitExceededException("DummyMessage"));
+
+    mockMvc.perform(post("/api/auth/guest-login"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "60"));
   }
 
   @Test
@@ -283,91 +296,78 @@ public class AuthControllerTest {
 
   @Test
   void トークン認証が成功した時にOKレスポンスが返ってくること() throws Exception {
-    String dummyToken = "DummyToken";
+    VerifiedClaims dummyClaims = createDummyClaims(999);
     UserInfo dummyUserInfo = new UserInfo(999, "DummyUser", "DummyUser", "dummy@dummy.com", "USER");
 
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(authService.validateToken(dummyToken)).thenReturn(dummyUserInfo);
-    when(jwtUtil.getRemainingTimeInMinutes(dummyToken)).thenReturn((long) 60 * 24);
+    when(authService.validateToken(dummyClaims)).thenReturn(dummyUserInfo);
 
     mockMvc.perform(get("/api/auth/validate")
             .contentType("application/json")
-            .header("Authorization", "Bearer DummyToken"))
-        .andExpect(status().isOk());
-
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(authService, times(1)).validateToken(dummyToken);
-    verify(jwtUtil, times(1)).getRemainingTimeInMinutes(dummyToken);
+            .header("Authorization", "Bearer DummyToken")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, dummyClaims))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.valid").value(true))
+        .andExpect(jsonPath("$.remainingMinutes").isNumber());
+
+    verify(authService, times(1)).validateToken(dummyClaims);
+    verify(jwtUtil, never()).getRemainingTimeInMinutes(any(String.class));
   }
 
   @Test
   void トークン認証が失敗した時にUnauthorizedレスポンスが返ってくること() throws Exception {
-    String dummyToken = "DummyToken";
+    VerifiedClaims dummyClaims = createDummyClaims(999);
     UserInfo dummyUserInfo = null;
 
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(authService.validateToken(dummyToken)).thenReturn(dummyUserInfo);
-    when(jwtUtil.getRemainingTimeInMinutes(dummyToken)).thenReturn((long) 60 * 24);
+    when(authService.validateToken(dummyClaims)).thenReturn(dummyUserInfo);
 
     mockMvc.perform(get("/api/auth/validate")
             .contentType("application/json")
-            .header("Authorization", "Bearer DummyToken"))
+            .header("Authorization", "Bearer DummyToken")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, dummyClaims))
         .andExpect(status().isUnauthorized());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(authService, times(1)).validateToken(dummyToken);
-    verify(jwtUtil, never()).getRemainingTimeInMinutes(dummyToken);
+    verify(authService, times(1)).validateToken(dummyClaims);
   }
 
   @Test
   void 自身の情報取得が成功した時にOKレスポンスが返ってくること() throws Exception {
 
-    String dummyToken = "DummyToken";
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
     when(authService.getUserInfo(dummyUserId)).thenReturn(new UserInfo());
 
     mockMvc.perform(get("/api/auth/me")
             .contentType("application/json")
-            .header("Authorization", "Bearer DummyToken"))
+            .header("Authorization", "Bearer DummyToken")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims(dummyUserId)))
         .andExpect(status().isOk());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(dummyToken);
+    verify(jwtUtil, never()).getUserIdFromToken(any(String.class));
     verify(authService, times(1)).getUserInfo(dummyUserId);
   }
 
   @Test
   void 自身の情報取得が失敗した時にUnauthorizedレスポンスが返ってくること() throws Exception {
 
-    String dummyToken = null;
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
-    when(authService.getUserInfo(dummyUserId)).thenReturn(new UserInfo());
 
+    // 検証済みクレームがリクエスト属性に無い場合
     mockMvc.perform(get("/api/auth/me")
             .contentType("application/json")
             .header("Authorization", "Bearer DummyToken"))
         .andExpect(status().isUnauthorized());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, never()).getUserIdFromToken(dummyToken);
     verify(authService, never()).getUserInfo(dummyUserId);
   }
 
   @Test
   void ユーザー情報の更新が成功した時にOKレスポンスが返ってくること() throws Exception {
 
-    String dummyToken = "DummyToken";
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
     doNothing().when(authService).updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
 
     mockMvc.perform(put("/api/auth/updateUserInfo")
             .contentType("application/json")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims(dummyUserId))
             .content(
                 """
                     {
@@ -379,8 +379,6 @@ public class AuthControllerTest {
             ))
         .andExpect(status().isOk());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(dummyToken);
     verify(authService, times(1)).updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
   }
 
@@ -388,15 +386,13 @@ public class AuthControllerTest {
   void ユーザー情報の更新時にバリデーションによる例外が発生した時にBadRequestレスポンスが返ってくること()
       throws Exception {
 
-    String dummyToken = "DummyToken";
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
     doThrow(new IllegalArgumentException("このユーザー名は既に使用されています")).when(authService)
         .updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
 
     mockMvc.perform(put("/api/auth/updateUserInfo")
             .contentType("application/json")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims(dummyUserId))
             .content(
                 """
                     {
@@ -408,8 +404,6 @@ public class AuthControllerTest {
             ))
         .andExpect(status().isBadRequest());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(dummyToken);
     verify(authService, times(1)).updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
   }
 
@@ -417,15 +411,13 @@ public class AuthControllerTest {
   void ユーザー情報の更新時にサーバー側による例外が発生した時にInternalServerErrorレスポンスが返ってくること()
       throws Exception {
 
-    String dummyToken = "DummyToken";
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
     doThrow(new RuntimeException()).when(authService)
         .updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
 
     mockMvc.perform(put("/api/auth/updateUserInfo")
             .contentType("application/json")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims(dummyUserId))
             .content(
                 """
                     {
@@ -437,8 +429,6 @@ public class AuthControllerTest {
             ))
         .andExpect(status().isInternalServerError());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(dummyToken);
     verify(authService, times(1)).updateUserInfo(eq(dummyUserId), any(UpdateRequest.class));
   }
 
@@ -459,20 +449,21 @@ public class AuthControllerTest {
   @Test
   void ユーザーの削除が成功した時にOKレスポンスが返ってくること() throws Exception {
 
-    String dummyToken = "DummyToken";
     int dummyUserId = 999;
-    when(jwtUtil.extractTokenFromRequest(any(HttpServletRequest.class))).thenReturn(dummyToken);
-    when(jwtUtil.getUserIdFromToken(dummyToken)).thenReturn(dummyUserId);
     doNothing().when(authService).deleteUser(dummyUserId);
 
     mockMvc.perform(delete("/api/auth/deleteUser")
             .contentType("application/json")
-            .header("Authorization", "Bearer DummyToken"))
+            .header("Authorization", "Bearer DummyToken")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims(dummyUserId)))
         .andExpect(status().isOk());
 
-    verify(jwtUtil, times(1)).extractTokenFromRequest(any(HttpServletRequest.class));
-    verify(jwtUtil, times(1)).getUserIdFromToken(dummyToken);
     verify(authService, times(1)).deleteUser(dummyUserId);
   }
 
+  private VerifiedClaims createDummyClaims(int userId) {
+    return new VerifiedClaims("DummyToken", "DummyUser", userId, "USER",
+        new Date(), new Date(System.currentTimeMillis() + 60 * 60 * 1000));
+  }
+
 }
@@ -2,15 +2,28 @@ package com.katok09.realestate.management.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.katok09.realestate.management.data.Building;
 import com.katok09.realestate.management.data.IncomeAndExpenses;
 import com.katok09.realestate.management.data.Parcel;
 import com.katok09.realestate.management.data.Project;
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.BulkDeleteRequest;
+import com.katok09.realestate.management.dto.BulkUpdateRequest;
+import com.katok09.realestate.management.dto.ImportResult;
 import com.katok09.realestate.management.dto.LoginRequest;
 import com.katok09.realestate.management.dto.LoginResponse;
+import com.katok09.realestate.management.dto.PortfolioMetrics;
+import com.katok09.realestate.management.dto.PortfolioSummary;
+import com.katok09.realestate.management.dto.RealestatePage;
+import com.katok09.realestate.management.dto.SimulationResult;
+import com.katok09.realestate.management.dto.YieldRank;
+import com.katok09.realestate.management.dto.YieldRanking;
 import com.katok09.realestate.management.util.JwtUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,11 +31,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -38,6 +51,9 @@ public class RealestateControllerIntegrationTest {
   @Autowired
   private JwtUtil jwtUtil;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
   private int userId;
   private int projectId;
 
@@ -101,6 +117,342 @@ public class RealestateControllerIntegrationTest {
     verifyRealestateDetail(detailList, "村上市ボロ戸建", 100000L, 50000L, 30000);
   }
 
+  @Test
+  void 次ページ用カーソルを指定して全ての不動産情報を重複なくページ単位で取得できること() {
+
+    String token = performLogin("user1", "password123");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    HttpEntity<String> entity = new HttpEntity<>(headers);
+
+    ResponseEntity<RealestatePage> firstPage = restTemplate.exchange(
+        "/api/searchRealestate?size=1", HttpMethod.GET, entity, RealestatePage.class);
+    ResponseEntity<RealestatePage> secondPage = restTemplate.exchange(
+        "/api/searchRealestate?size=1&cursor=" + firstPage.getBody().getNextCursor(),
+        HttpMethod.GET, entity, RealestatePage.class);
+
+    assertThat(firstPage.getBody().getItems()).extracting(detail -> detail.getProject().getId())
+        .containsExactly(3);
+    assertThat(firstPage.getBody().getNextCursor()).isNotNull();
+    assertThat(secondPage.getBody().getItems()).extracting(detail -> detail.getProject().getId())
+        .containsExactly(6);
+    assertThat(secondPage.getBody().getNextCursor()).isNull();
+  }
+
+  @Test
+  void プロジェクト名がNULLの不動産情報もプロジェクト名順のページ単位で重複なく取得できること() {
+
+    jdbcTemplate.update("UPDATE projects SET project_name = NULL WHERE id = 6");
+    String token = performLogin("user1", "password123");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    HttpEntity<String> entity = new HttpEntity<>(headers);
+
+    // プロジェクト名がNULLの行は空文字として並び替えられ、昇順では先頭、降順では末尾となります。
+    assertThat(fetchAllPages(entity, "asc")).containsExactly(6, 3);
+    assertThat(fetchAllPages(entity, "desc")).containsExactly(3, 6);
+  }
+
+  @Test
+  void 不正なカーソルを指定した時に400エラーが返ること() {
+
+    String token = performLogin("user1", "password123");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    HttpEntity<String> entity = new HttpEntity<>(headers);
+
+    ResponseEntity<String> response = restTemplate.exchange(
+        "/api/searchRealestate?cursor=InvalidCursor", HttpMethod.GET, entity, String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(response.getBody()).contains("カーソルが不正です。");
+  }
+
+  @Test
+  void 自身の不動産情報をNDJSON形式でエクスポートできること() throws Exception {
+
+    String token = performLogin("user1", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    HttpEntity<String> entity = new HttpEntity<>(headers);
+
+    ResponseEntity<String> response = restTemplate.exchange(
+        "/api/realestate/export", HttpMethod.GET, entity, String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getHeaders().getContentType().toString())
+        .isEqualTo("application/x-ndjson");
+
+    List<RealestateDetail> detailList = new ArrayList<>();
+    for (String line : response.getBody().split("\n")) {
+      detailList.add(objectMapper.readValue(line, RealestateDetail.class));
+    }
+    assertThat(detailList).extracting(detail -> detail.getProject().getId())
+        .containsExactly(3, 6);
+    verifyUserIdMatch(detailList);
+  }
+
+  @Test
+  void NDJSON形式で一括登録した時正常な行のみ登録されエラー行が返ること() throws Exception {
+
+    String token = performLogin("emptyProjectUser", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+    String body = objectMapper.writeValueAsString(
+        simpleCreateRealestateDetails("ImportProject1", 1000L, 2000L, 300)) + "\n"
+        // プロジェクト名は必須だが空に設定
+        + objectMapper.writeValueAsString(simpleCreateRealestateDetails("", 1000L, 2000L, 300))
+        + "\n"
+        // 月収入に数値以外を設定
+        + "{\"project\":{\"projectName\":\"Invalid\"},\"incomeAndExpenses\":{\"rent\":\"abc\"}}\n"
+        + objectMapper.writeValueAsString(
+        simpleCreateRealestateDetails("ImportProject2", 1000L, 2000L, 400)) + "\n";
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+    HttpEntity<String> entity = new HttpEntity<>(body, headers);
+
+    ResponseEntity<ImportResult> response = restTemplate.postForEntity(
+        "/api/realestate/import", entity, ImportResult.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    ImportResult result = response.getBody();
+    assertThat(result.getTotal()).isEqualTo(4);
+    assertThat(result.getImported()).isEqualTo(2);
+    assertThat(result.getFailed()).isEqualTo(2);
+    assertThat(result.getErrors()).extracting(error -> error.getRow()).containsExactly(2, 3);
+    assertThat(result.getErrors().get(0).getMessage()).contains("プロジェクト名を入力してください");
+
+    List<RealestateDetail> detailList = getRealestateDetails("emptyProjectUser", "password123", "");
+    assertThat(detailList).extracting(detail -> detail.getProject().getProjectName())
+        .containsExactly("ImportProject1", "ImportProject2");
+    verifyUserIdMatch(detailList);
+    verifyRealestateDetail(filterByProjectName(detailList, "ImportProject2"), "ImportProject2",
+        1000L, 2000L, 400);
+  }
+
+  @Test
+  void JSON配列形式で一括登録できること() throws Exception {
+
+    String token = performLogin("emptyProjectUser", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+    List<RealestateDetail> details = List.of(
+        simpleCreateRealestateDetails("ArrayProject1", 1000L, 2000L, 300),
+        simpleCreateRealestateDetails("ArrayProject2", 1000L, 2000L, 300));
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(details),
+        headers);
+
+    ResponseEntity<ImportResult> response = restTemplate.postForEntity(
+        "/api/realestate/import", entity, ImportResult.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(response.getBody().getImported()).isEqualTo(2);
+    assertThat(response.getBody().getErrors()).isEmpty();
+    assertThat(getRealestateDetails("emptyProjectUser", "password123", "")).hasSize(2);
+  }
+
+  @Test
+  void CSV形式で一括登録し一括登録IDの進捗が保存されること() {
+
+    String token = performLogin("emptyProjectUser", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+    String csv = "\uFEFFプロジェクト名,土地価格,建物価格,月収入\r\n"
+        + "CsvProject1,1000,2000,300\r\n"
+        + ",1000,2000,300\r\n"
+        + "CsvProject2,1000,2000,abc\r\n"
+        + "CsvProject3,1000,2000,400\r\n";
+
+    ResponseEntity<ImportResult> response = postCsv(token, csv, "import-1");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    ImportResult result = response.getBody();
+    assertThat(result.getTotal()).isEqualTo(4);
+    assertThat(result.getImported()).isEqualTo(2);
+    assertThat(result.getFailed()).isEqualTo(2);
+    assertThat(result.isCompleted()).isTrue();
+    assertThat(result.getErrors()).extracting(error -> error.getMessage())
+        .containsExactly("プロジェクト名を入力してください。", "月収入の値が不正です。");
+
+    List<RealestateDetail> detailList = getRealestateDetails("emptyProjectUser", "password123", "");
+    assertThat(detailList).extracting(detail -> detail.getProject().getProjectName())
+        .containsExactly("CsvProject1", "CsvProject3");
+    verifyUserIdMatch(detailList);
+    verifyRealestateDetail(filterByProjectName(detailList, "CsvProject3"), "CsvProject3",
+        1000L, 2000L, 400);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    ResponseEntity<String> progress = restTemplate.exchange(
+        "/api/realestate/import/import-1/progress", HttpMethod.GET, new HttpEntity<>(headers),
+        String.class);
+    assertThat(progress.getBody()).contains("\"committedRows\":4");
+  }
+
+  @Test
+  void 同じ一括登録IDでCSVを再度登録した時登録済みの行を読み飛ばして続きから登録されること() {
+
+    String token = performLogin("emptyProjectUser", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+    // 1行目まで登録済みで中断した状態
+    jdbcTemplate.update(
+        "INSERT INTO import_progress(user_id, import_id, committed_rows) VALUES (?, ?, ?)",
+        userId, "import-2", 1);
+    String csv = "プロジェクト名\nResumeProject1\nResumeProject2\nResumeProject3\n";
+
+    ResponseEntity<ImportResult> response = postCsv(token, csv, "import-2");
+
+    assertThat(response.getBody().getSkipped()).isEqualTo(1);
+    assertThat(response.getBody().getImported()).isEqualTo(2);
+    assertThat(getRealestateDetails("emptyProjectUser", "password123", ""))
+        .extracting(detail -> detail.getProject().getProjectName())
+        .containsExactly("ResumeProject2", "ResumeProject3");
+  }
+
+  @Test
+  void 不正な一括登録IDでCSVを登録した時400エラーが返ること() {
+
+    String token = performLogin("emptyProjectUser", "password123");
+
+    ResponseEntity<ImportResult> response = postCsv(token, "プロジェクト名\nA\n", "../id");
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  void 自身の不動産収支サマリーが取得できること() {
+
+    String token = performLogin("user1", "password123");
+
+    ResponseEntity<PortfolioSummary> response = restTemplate.exchange("/api/realestate/summary",
+        HttpMethod.GET, new HttpEntity<>(bearer(token)), PortfolioSummary.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    // user1はプロジェクトID3（取得価格15万円・月収入3万円・月経費2500円）と
+    // プロジェクトID6（取得価格170万円・月収入3万円・月経費17300円）を所有
+    PortfolioMetrics total = response.getBody().getTotal();
+    assertThat(total.getProjectCount()).isEqualTo(2);
+    assertThat(total.getTotalPrice()).isEqualTo(1850000L);
+    assertThat(total.getMonthlyRent()).isEqualTo(60000L);
+    assertThat(total.getMonthlyCashFlow()).isEqualTo(40200L);
+    assertThat(total.getGrossYield()).isEqualTo(38.92);
+    assertThat(total.getNetYield()).isEqualTo(26.08);
+    assertThat(response.getBody().getByBuildingType()).extracting(PortfolioMetrics::getLabel)
+        .containsExactly("マンション", "戸建て");
+  }
+
+  @Test
+  void 不動産の登録と更新と削除と一括登録が不動産収支サマリーに反映され再計算結果と一致すること() {
+
+    String token = performLogin("user1", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+
+    restTemplate.postForEntity("/api/registerRealestate", new HttpEntity<>(
+        simpleCreateRealestateDetails("SummaryProject", 100000L, 200000L, 20000), bearer(token)),
+        String.class);
+    // 建物種別・建物構造を未入力で更新するため、プロジェクトID3は「戸建て」から「未設定」に移ります。
+    restTemplate.exchange("/api/updateRealestate", HttpMethod.PUT, new HttpEntity<>(
+            createUpdateDetail(3, "村上市ボロ戸建", 100000L, 100000L, 40000), bearer(token)),
+        String.class);
+    restTemplate.exchange("/api/deleteRealestate/6", HttpMethod.DELETE,
+        new HttpEntity<>(bearer(token)), String.class);
+    postCsv(token, "プロジェクト名,土地価格,建物価格,月収入\r\nCsvSummary,1000,2000,300\r\n", "summary-1");
+
+    PortfolioSummary actual = restTemplate.exchange("/api/realestate/summary", HttpMethod.GET,
+        new HttpEntity<>(bearer(token)), PortfolioSummary.class).getBody();
+
+    PortfolioMetrics total = actual.getTotal();
+    assertThat(total.getProjectCount()).isEqualTo(3);
+    assertThat(total.getTotalPrice()).isEqualTo(300000L + 200000L + 3000L);
+    assertThat(total.getMonthlyRent()).isEqualTo(20000L + 40000L + 300L);
+    assertThat(total.getMonthlyOperatingExpenses()).isEqualTo(0L);
+    assertThat(actual.getByBuildingType()).extracting(PortfolioMetrics::getLabel)
+        .containsExactly("未設定");
+
+    // 集計値を壊してから管理者APIで再計算し、差分更新の結果と一致することを検証
+    jdbcTemplate.update("UPDATE portfolio_summary SET monthly_rent = 0");
+    ResponseEntity<Map> rebuildResponse = restTemplate.postForEntity(
+        "/api/admin/portfolio-summary/rebuild",
+        new HttpEntity<>(bearer(performLogin("admin", "password123"))), Map.class);
+
+    assertThat(rebuildResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(rebuildResponse.getBody().get("rebuiltUsers")).isEqualTo(3);
+    PortfolioSummary rebuilt = restTemplate.exchange("/api/realestate/summary", HttpMethod.GET,
+        new HttpEntity<>(bearer(token)), PortfolioSummary.class).getBody();
+    assertThat(rebuilt).usingRecursiveComparison().isEqualTo(actual);
+  }
+
+  @Test
+  void 自身の全物件のキャッシュフローをシミュレーションできること() {
+
+    String token = performLogin("user1", "password123");
+
+    ResponseEntity<SimulationResult> response = restTemplate.exchange(
+        "/api/realestate/simulation?years=10&paths=1000&seed=1", HttpMethod.GET,
+        new HttpEntity<>(bearer(token)), SimulationResult.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    SimulationResult result = response.getBody();
+    // user1はプロジェクトID3とID6（月収入各3万円、ローン返済なし）を所有
+    assertThat(result.getPropertyCount()).isEqualTo(2);
+    assertThat(result.getSeed()).isEqualTo(1L);
+    assertThat(result.getAnnualCashFlow()).hasSize(10);
+    // 1年目は家賃の変動が無く、空室率（0～10%）による減少のみ（年間キャッシュフロー 72万円 - 経費237,600円）
+    assertThat(result.getAnnualCashFlow().get(0).getP95()).isLessThanOrEqualTo(482400L);
+    assertThat(result.getAnnualCashFlow().get(0).getP5()).isGreaterThanOrEqualTo(482400L - 72000L);
+  }
+
+  @Test
+  void 自身の物件の利回りランキングを取得でき削除が反映されること() {
+
+    String token = performLogin("user1", "password123");
+
+    YieldRanking ranking = restTemplate.exchange("/api/realestate/ranking?sort=netYield",
+        HttpMethod.GET, new HttpEntity<>(bearer(token)), YieldRanking.class).getBody();
+
+    // プロジェクトID3（実質利回り 27,500×12÷15万円）、プロジェクトID6（12,700×12÷170万円）の順
+    assertThat(ranking.getMatchedCount()).isEqualTo(2);
+    assertThat(ranking.getItems()).extracting(YieldRank::getProjectId).containsExactly(3, 6);
+    assertThat(ranking.getItems()).extracting(YieldRank::getNetYield)
+        .containsExactly(220.0, 8.96);
+    assertThat(ranking.getItems().get(1).getGrossYield()).isEqualTo(21.18);
+
+    YieldRanking filtered = restTemplate.exchange(
+        "/api/realestate/ranking?buildingType=マンション&minYield=20", HttpMethod.GET,
+        new HttpEntity<>(bearer(token)), YieldRanking.class).getBody();
+    assertThat(filtered.getItems()).extracting(YieldRank::getProjectId).containsExactly(6);
+
+    restTemplate.exchange("/api/deleteRealestate/3", HttpMethod.DELETE,
+        new HttpEntity<>(bearer(token)), String.class);
+
+    YieldRanking deleted = restTemplate.exchange("/api/realestate/ranking", HttpMethod.GET,
+        new HttpEntity<>(bearer(token)), YieldRanking.class).getBody();
+    assertThat(deleted.getItems()).extracting(YieldRank::getProjectId).containsExactly(6);
+  }
+
+  @Test
+  void 検索条件に一致する自身の不動産情報をCSV形式でエクスポートできること() {
+
+    String token = performLogin("user1", "password123");
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    HttpEntity<String> entity = new HttpEntity<>(headers);
+
+    ResponseEntity<byte[]> response = restTemplate.exchange(
+        "/api/realestate/export/csv?searchProjectName=村上市", HttpMethod.GET, entity,
+        byte[].class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    String[] lines = new String(response.getBody(), StandardCharsets.UTF_8).split("\r\n");
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).startsWith("\uFEFFプロジェクトID,プロジェクト名,土地価格,");
+    assertThat(lines[1]).startsWith("3,村上市ボロ戸建,100000,村上市,");
+  }
+
   @Test
   void 不動産登録が正常に行われること() {
 
@@ -457,6 +809,129 @@ public class RealestateControllerIntegrationTest {
     assertThat(filteredDetail).isNotEmpty();
   }
 
+  @Test
+  void 複数の不動産情報の一括更新が正常に行われること() {
+
+    String token = performLogin("user1", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+
+    BulkUpdateRequest request = new BulkUpdateRequest(List.of(
+        createUpdateDetail(3, "ChangedProject1", 11111L, 111111L, 1111),
+        createUpdateDetail(6, "ChangedProject2", 22222L, 222222L, 2222)));
+
+    ResponseEntity<String> response = restTemplate.exchange("/api/realestate/bulk/update",
+        HttpMethod.PUT, new HttpEntity<>(request, bearer(token)), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+    List<RealestateDetail> detailList = getRealestateDetails("user1", "password123", "");
+    verifyRealestateDetail(filterByProjectId(detailList, 3), "ChangedProject1", 11111L, 111111L,
+        1111);
+    verifyRealestateDetail(filterByProjectId(detailList, 6), "ChangedProject2", 22222L, 222222L,
+        2222);
+  }
+
+  @Test
+  void 他のユーザーの不動産情報を含めて一括更新をした時に404エラーが返り全件が更新されないこと() {
+
+    String token = performLogin("user1", "password123");
+    userId = jwtUtil.getUserIdFromToken(token);
+
+    // プロジェクトID4は別ユーザー、adminのプロジェクトID
+    BulkUpdateRequest request = new BulkUpdateRequest(List.of(
+        createUpdateDetail(3, "ChangedProject1", 11111L, 111111L, 1111),
+        createUpdateDetail(4, "ChangedProject2", 22222L, 222222L, 2222)));
+
+    ResponseEntity<String> response = restTemplate.exchange("/api/realestate/bulk/update",
+        HttpMethod.PUT, new HttpEntity<>(request, bearer(token)), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(response.getBody()).contains("更新対象のプロジェクトが存在しません。（プロジェクトID: 4）");
+
+    List<RealestateDetail> detailList = getRealestateDetails("user1", "password123", "");
+    verifyRealestateDetail(filterByProjectId(detailList, 3), "村上市ボロ戸建", 100000L, 50000L,
+        30000);
+    List<RealestateDetail> adminDetailList = getRealestateDetails("admin", "password123", "");
+    verifyRealestateDetail(filterByProjectId(adminDetailList, 4), "南四日町戸建", 1000000L,
+        500000L, 50000);
+  }
+
+  @Test
+  void 複数の不動産情報の一括削除が正常に行えること() {
+
+    String token = performLogin("user1", "password123");
+
+    ResponseEntity<String> response = restTemplate.postForEntity("/api/realestate/bulk/delete",
+        new HttpEntity<>(new BulkDeleteRequest(List.of(3, 6)), bearer(token)), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(getRealestateDetails("user1", "password123", "")).isEmpty();
+    assertThat(jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM projects WHERE id IN (3, 6) AND is_deleted = true", Integer.class))
+        .isEqualTo(2);
+  }
+
+  @Test
+  void 他のユーザーの不動産情報を含めて一括削除をした時に404エラーが返り全件が削除されないこと() {
+
+    String token = performLogin("user1", "password123");
+
+    // プロジェクトID4は別ユーザー、adminのプロジェクトID
+    ResponseEntity<String> response = restTemplate.postForEntity("/api/realestate/bulk/delete",
+        new HttpEntity<>(new BulkDeleteRequest(List.of(3, 4)), bearer(token)), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    assertThat(response.getBody()).contains("削除対象のプロジェクトが存在しません。");
+
+    assertThat(filterByProjectId(getRealestateDetails("user1", "password123", ""), 3))
+        .isNotEmpty();
+    assertThat(filterByProjectId(getRealestateDetails("admin", "password123", ""), 4))
+        .isNotEmpty();
+  }
+
+  @Test
+  void 空のプロジェクトIDリストで一括削除をした時に400エラーが返ること() {
+
+    String token = performLogin("user1", "password123");
+
+    ResponseEntity<String> response = restTemplate.postForEntity("/api/realestate/bulk/delete",
+        new HttpEntity<>(new BulkDeleteRequest(List.of()), bearer(token)), String.class);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    assertThat(response.getBody()).contains("削除するプロジェクトIDを指定してください。");
+  }
+
+  private HttpHeaders bearer(String token) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    return headers;
+  }
+
+  private RealestateDetail createUpdateDetail(int projectId, String projectName, long parcelPrice,
+      long buildingPrice, int rent) {
+    RealestateDetail detail = simpleCreateRealestateDetails(projectName, parcelPrice,
+        buildingPrice, rent);
+    detail.getProject().setUserId(userId);
+    detail.getParcel().setUserId(userId);
+    detail.getBuilding().setUserId(userId);
+    detail.getIncomeAndExpenses().setUserId(userId);
+    detail.getProject().setId(projectId);
+    detail.getParcel().setProjectId(projectId);
+    detail.getBuilding().setProjectId(projectId);
+    detail.getIncomeAndExpenses().setProjectId(projectId);
+    return detail;
+  }
+
+  private ResponseEntity<ImportResult> postCsv(String token, String csv, String importId) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setBearerAuth(token);
+    headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+    HttpEntity<byte[]> entity = new HttpEntity<>(csv.getBytes(StandardCharsets.UTF_8), headers);
+
+    return restTemplate.postForEntity("/api/realestate/import/csv?importId={importId}", entity,
+        ImportResult.class, importId);
+  }
+
   /**
    * ユーザー名とパスワードから認証しトークンを取得
    *
@@ -488,13 +963,11 @@ public class RealestateControllerIntegrationTest {
     headers.setBearerAuth(token);
     HttpEntity<RealestateDetail> entity = new HttpEntity<>(headers);
 
-    ResponseEntity<List<RealestateDetail>> response = restTemplate.exchange(
-        "/api/searchRealestate?" + params, HttpMethod.GET, entity,
-        new ParameterizedTypeReference<List<RealestateDetail>>() {
-        });
+    ResponseEntity<RealestatePage> response = restTemplate.exchange(
+        "/api/searchRealestate?" + params, HttpMethod.GET, entity, RealestatePage.class);
 
     assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-    List<RealestateDetail> detailList = response.getBody();
+    List<RealestateDetail> detailList = response.getBody().getItems();
     return detailList;
   }
 
@@ -589,5 +1062,24 @@ public class RealestateControllerIntegrationTest {
     return detail;
   }
 
+  /**
+   * プロジェクト名順に1件ずつ次ページ用カーソルを指定して全ページを取得し、プロジェクトIDを取得順に返します。
+   *
+   * @param entity 認証ヘッダーを設定したリクエスト
+   * @param order  並び順
+   * @return プロジェクトIDリスト
+   */
+  private List<Integer> fetchAllPages(HttpEntity<String> entity, String order) {
+    List<Integer> projectIds = new ArrayList<>();
+    String cursor = null;
+    do {
+      String url = "/api/searchRealestate?size=1&sort=projectName&order=" + order
+          + (cursor == null ? "" : "&cursor=" + cursor);
+      RealestatePage page = restTemplate.exchange(url, HttpMethod.GET, entity,
+          RealestatePage.class).getBody();
+      page.getItems().forEach(detail -> projectIds.add(detail.getProject().getId()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+    return projectIds;
+  }
 }
-
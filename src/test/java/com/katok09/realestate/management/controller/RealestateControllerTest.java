@@ -1,31 +1,62 @@
 package com.katok09.realestate.management.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.katok09.realestate.management.config.JwtRequestFilter;
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.ImportProgress;
+import com.katok09.realestate.management.dto.ImportResult;
+import com.katok09.realestate.management.dto.PortfolioMetrics;
+import com.katok09.realestate.management.dto.PortfolioSummary;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.RealestatePage;
 import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import com.katok09.realestate.management.dto.YieldRank;
+import com.katok09.realestate.management.dto.YieldRanking;
+import com.katok09.realestate.management.service.CashFlowSimulationService;
+import com.katok09.realestate.management.service.RealestateBulkService;
+import com.katok09.realestate.management.service.RealestateExportService;
+import com.katok09.realestate.management.service.RealestateImportService;
+import com.katok09.realestate.management.service.RealestateRankingService;
 import com.katok09.realestate.management.service.RealestateService;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.VerifiedClaims;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @AutoConfigureMockMvc(addFilters = false)
 @WebMvcTest(RealestateController.class)
@@ -37,6 +68,21 @@ public class RealestateControllerTest {
   @MockBean
   private RealestateService service;
 
+  @MockBean
+  private RealestateExportService exportService;
+
+  @MockBean
+  private RealestateImportService importService;
+
+  @MockBean
+  private RealestateBulkService bulkService;
+
+  @MockBean
+  private CashFlowSimulationService simulationService;
+
+  @MockBean
+  private RealestateRankingService rankingService;
+
   @MockBean
   private UserDetailsService userDetailsService;
 
@@ -46,25 +92,270 @@ public class RealestateControllerTest {
   @Test
   void 空の不動産詳細情報を取得できること() throws Exception {
 
-    when(service.searchRealestate(any(SearchParams.class), any(HttpServletRequest.class)))
-        .thenReturn(Collections.emptyList());
+    when(service.searchRealestate(any(SearchParams.class), eq(999)))
+        .thenReturn(new RealestatePage(Collections.emptyList(), null));
 
-    mockMvc.perform(get("/api/searchRealestate"))
+    mockMvc.perform(get("/api/searchRealestate")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
         .andExpect(status().isOk())
-        .andExpect(content().json("[]"));
+        .andExpect(content().json("{\"items\":[],\"nextCursor\":null}"));
 
     verify(service, times(1)).searchRealestate(any(SearchParams.class),
-        any(HttpServletRequest.class));
+        eq(999));
+
+  }
+
+  @Test
+  void 不正な並び替え項目を指定した時400エラーが返ること() throws Exception {
+
+    mockMvc.perform(get("/api/searchRealestate")
+            .param("sort", "parcelPrice")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isBadRequest());
+
+    verify(service, never()).searchRealestate(any(SearchParams.class), anyInt());
+  }
+
+  @Test
+  void 不動産情報をNDJSON形式でエクスポートできること() throws Exception {
+
+    doAnswer(invocation -> {
+      OutputStream out = invocation.getArgument(1);
+      out.write("{\"project\":{\"id\":1}}\n".getBytes(StandardCharsets.UTF_8));
+      return 1L;
+    }).when(exportService).exportNdjson(eq(999), any(OutputStream.class));
+
+    MvcResult result = mockMvc.perform(get("/api/realestate/export")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"realestate-export.ndjson\""))
+        .andExpect(content().string("{\"project\":{\"id\":1}}\n"));
+
+    verify(exportService, times(1)).exportNdjson(eq(999), any(OutputStream.class));
+  }
+
+  @Test
+  void Accept_Encodingにgzipを含む時gzip圧縮を指定してCSVをエクスポートすること() throws Exception {
+
+    MvcResult result = mockMvc.perform(get("/api/realestate/export/csv")
+            .param("searchProjectName", "AP")
+            .header("Accept-Encoding", "gzip, deflate")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/csv;charset=UTF-8"))
+        .andExpect(header().string("Content-Encoding", "gzip"))
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"realestate-export.csv\""));
+
+    verify(exportService, times(1)).exportCsv(
+        argThat(params -> "AP".equals(params.getSearchProjectName())), eq(999),
+        any(OutputStream.class), eq(true));
+  }
+
+  @Test
+  void NDJSON形式の不動産情報を一括登録でき一括登録結果を受け取れること() throws Exception {
+
+    when(importService.importRealestate(any(InputStream.class), eq(999)))
+        .thenReturn(new ImportResult(2, 2, 0, 0, true, 10, 200.0, Collections.emptyList()));
+
+    mockMvc.perform(post("/api/realestate/import")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
+            .contentType("application/x-ndjson")
+            .content("{}\n{}\n"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"total\":2,\"imported\":2,\"failed\":0,\"errors\":[]}"));
+
+    verify(importService, times(1)).importRealestate(any(InputStream.class), eq(999));
+  }
+
+  @Test
+  void CSV形式の不動産情報を一括登録IDを指定して一括登録できること() throws Exception {
+
+    when(importService.importCsv(any(InputStream.class), eq(999), eq("import-1")))
+        .thenReturn(new ImportResult(3, 2, 1, 0, true, 10, 200.0, Collections.emptyList()));
+
+    mockMvc.perform(post("/api/realestate/import/csv")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
+            .param("importId", "import-1")
+            .contentType("text/csv")
+            .content("プロジェクト名\nA\nB\nC\n"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"total\":3,\"imported\":2,\"skipped\":1,\"completed\":true}"));
+
+    verify(importService, times(1)).importCsv(any(InputStream.class), eq(999), eq("import-1"));
+  }
+
+  @Test
+  void 一括登録の進捗を取得できること() throws Exception {
+
+    when(importService.getProgress(999, "import-1")).thenReturn(new ImportProgress("import-1", 500));
+
+    mockMvc.perform(get("/api/realestate/import/import-1/progress")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"importId\":\"import-1\",\"committedRows\":500}"));
+  }
 
+  @Test
+  void 複数の不動産情報の一括削除ができ削除成功メッセージを受け取れること() throws Exception {
+
+    mockMvc.perform(post("/api/realestate/bulk/delete")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
+            .contentType("application/json")
+            .content("{\"projectIds\": [1, 2, 3]}"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("削除成功"));
+
+    verify(bulkService, times(1)).deleteRealestate(List.of(1, 2, 3), 999);
+  }
+
+  @Test
+  void 一括削除のプロジェクトIDリストが空の時400エラーが返ること() throws Exception {
+
+    mockMvc.perform(post("/api/realestate/bulk/delete")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
+            .contentType("application/json")
+            .content("{\"projectIds\": []}"))
+        .andExpect(status().isBadRequest());
+
+    verify(bulkService, never()).deleteRealestate(anyList(), anyInt());
+  }
+
+  @Test
+  void 複数の不動産情報の一括更新ができ更新成功メッセージを受け取れること() throws Exception {
+
+    mockMvc.perform(put("/api/realestate/bulk/update")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
+            .contentType("application/json")
+            .content("""
+                {
+                    "details": [
+                        {
+                            "project": {"id": 1, "userId": 999, "projectName": "東三条AP"},
+                            "parcel": {"projectId": 1, "userId": 999},
+                            "building": {"projectId": 1, "userId": 999},
+                            "incomeAndExpenses": {"projectId": 1, "userId": 999}
+                        }
+                    ]
+                }
+                """))
+        .andExpect(status().isOk())
+        .andExpect(content().string("更新成功"));
+
+    verify(bulkService, times(1)).updateRealestate(
+        argThat(details -> details.size() == 1
+            && "東三条AP".equals(details.get(0).getProject().getProjectName())), eq(999));
+  }
+
+  @Test
+  void 不動産収支サマリーを取得できること() throws Exception {
+
+    PortfolioMetrics total = new PortfolioMetrics(null, 1, 0, 1000000L, 50000L, 5000L, 0L, 45000L,
+        540000L, 60.0, 54.0);
+    when(service.getSummary(999)).thenReturn(
+        new PortfolioSummary(total, List.of(), List.of()));
+
+    mockMvc.perform(get("/api/realestate/summary")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"total\":{\"projectCount\":1,\"monthlyCashFlow\":45000,\"grossYield\":60.0},"
+                + "\"byBuildingType\":[],\"byBuildingStructure\":[]}"));
+
+    verify(service, times(1)).getSummary(999);
+  }
+
+  @Test
+  void シナリオパラメーターを指定してキャッシュフローシミュレーションができること() throws Exception {
+
+    when(simulationService.simulate(any(SimulationParams.class), eq(999))).thenReturn(
+        new SimulationResult(2, 1000, 1L, 0.0, List.of(), List.of(), 10L));
+
+    mockMvc.perform(get("/api/realestate/simulation")
+            .param("years", "20")
+            .param("paths", "1000")
+            .param("vacancyRate", "0.1")
+            .param("seed", "1")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"propertyCount\":2,\"paths\":1000,\"seed\":1}"));
+
+    ArgumentCaptor<SimulationParams> captor = ArgumentCaptor.forClass(SimulationParams.class);
+    verify(simulationService, times(1)).simulate(captor.capture(), eq(999));
+    assertThat(captor.getValue().getYears()).isEqualTo(20);
+    assertThat(captor.getValue().getVacancyRate()).isEqualTo(0.1);
+    // 指定されなかった項目は既定値となります。
+    assertThat(captor.getValue().getLoanYears()).isEqualTo(35);
+  }
+
+  @Test
+  void 範囲外の空室率を指定してキャッシュフローシミュレーションをした時400エラーが返ること() throws Exception {
+
+    mockMvc.perform(get("/api/realestate/simulation")
+            .param("vacancyRate", "0.8")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isBadRequest());
+
+    verify(simulationService, never()).simulate(any(SimulationParams.class), anyInt());
+  }
+
+  @Test
+  void 絞り込み条件を指定して利回りランキングを取得できること() throws Exception {
+
+    when(rankingService.rank(any(RankingParams.class), eq(999))).thenReturn(
+        new YieldRanking(1, List.of(new YieldRank(1, 3, "ABCアパート計画", "アパート", "木造",
+            150000L, 30000, 2500, 0, 100.0, 80.0, 240.0, 220.0))));
+
+    mockMvc.perform(get("/api/realestate/ranking")
+            .param("sort", "netYield")
+            .param("limit", "5")
+            .param("buildingType", "アパート")
+            .param("minYield", "5.5")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"matchedCount\":1,\"items\":[{\"rank\":1,\"projectId\":3,\"netYield\":220.0}]}"));
+
+    ArgumentCaptor<RankingParams> captor = ArgumentCaptor.forClass(RankingParams.class);
+    verify(rankingService, times(1)).rank(captor.capture(), eq(999));
+    assertThat(captor.getValue().isSortByNetYield()).isTrue();
+    assertThat(captor.getValue().isAscending()).isFalse();
+    assertThat(captor.getValue().getLimit()).isEqualTo(5);
+    assertThat(captor.getValue().getBuildingType()).isEqualTo("アパート");
+    assertThat(captor.getValue().getMinYield()).isEqualTo(5.5);
+  }
+
+  @Test
+  void 不正な並び替え項目を指定して利回りランキングを取得した時400エラーが返ること() throws Exception {
+
+    mockMvc.perform(get("/api/realestate/ranking")
+            .param("sort", "cashFlow")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
+        .andExpect(status().isBadRequest());
+
+    verify(rankingService, never()).rank(any(RankingParams.class), anyInt());
   }
 
   @Test
   void 不動産詳細情報の登録ができ登録成功メッセージを受け取れること() throws Exception {
 
     doNothing().when(service)
-        .registerRealestate(any(RealestateDetail.class), any(HttpServletRequest.class));
+        .registerRealestate(any(RealestateDetail.class), eq(999));
 
     mockMvc.perform(post("/api/registerRealestate")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
             .contentType("application/json").content(
                 """
                         {
@@ -116,16 +407,17 @@ public class RealestateControllerTest {
         .andExpect(content().string("登録成功"));
 
     verify(service, times(1)).registerRealestate(any(RealestateDetail.class),
-        any(HttpServletRequest.class));
+        eq(999));
   }
 
   @Test
   void 不動産詳細情報の更新ができ更新成功メッセージを受け取れること() throws Exception {
 
     doNothing().when(service)
-        .updateRealestate(any(RealestateDetail.class), any(HttpServletRequest.class));
+        .updateRealestate(any(RealestateDetail.class), eq(999));
 
     mockMvc.perform(put("/api/updateRealestate")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims())
             .contentType("application/json").content(
                 """
                         {
@@ -184,19 +476,25 @@ public class RealestateControllerTest {
         .andExpect(content().string("更新成功"));
 
     verify(service, times(1)).updateRealestate(any(RealestateDetail.class),
-        any(HttpServletRequest.class));
+        eq(999));
   }
 
   @Test
   void 不動産詳細情報の削除ができ削除成功メッセージを受け取れること() throws Exception {
 
-    doNothing().when(service).deleteRealestate(eq(99), any(HttpServletRequest.class));
+    doNothing().when(service).deleteRealestate(eq(99), eq(999));
 
-    mockMvc.perform(delete("/api/deleteRealestate/99"))
+    mockMvc.perform(delete("/api/deleteRealestate/99")
+            .requestAttr(VerifiedClaims.REQUEST_ATTRIBUTE, createDummyClaims()))
         .andExpect(status().isOk())
         .andExpect(content().string("削除成功"));
 
-    verify(service, times(1)).deleteRealestate(eq(99), any(HttpServletRequest.class));
+    verify(service, times(1)).deleteRealestate(eq(99), eq(999));
+  }
+
+  private VerifiedClaims createDummyClaims() {
+    return new VerifiedClaims("DummyToken", "DummyUser", 999, "USER",
+        new Date(), new Date(System.currentTimeMillis() + 60 * 60 * 1000));
   }
 
 }
@@ -15,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.MethodParameter;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -200,6 +201,56 @@ public class GlobalExceptionHandlerTest {
     assertThat(body.get("timestamp")).isNotNull();
   }
 
+  @Test
+  void LoginOverloadedExceptionが適切にハンドリングされること() {
+
+    LoginOverloadedException exception = new LoginOverloadedException("DummyMessage");
+
+    ResponseEntity<Map<String, Object>> actual = sut.handlerLoginOverloaded(exception, webRequest);
+
+    assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(actual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    Map<String, Object> body = actual.getBody();
+    assertThat(body.get("error")).isEqualTo(true);
+    assertThat(body.get("status")).isEqualTo(503);
+    assertThat(body.get("errorCode")).isEqualTo("LOGIN_OVERLOADED");
+    assertThat(body.get("message")).isEqualTo("DummyMessage");
+    assertThat(body.get("path")).isEqualTo("uri=/test");
+    assertThat(body.get("timestamp")).isNotNull();
+  }
+
+  @Test
+  void SimulationOverloadedExceptionが適切にハンドリングされること() {
+
+    SimulationOverloadedException exception = new SimulationOverloadedException("DummyMessage");
+
+    ResponseEntity<Map<String, Object>> actual = sut.handlerSimulationOverloaded(exception,
+        webRequest);
+
+    assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(actual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+    Map<String, Object> body = actual.getBody();
+    assertThat(body.get("status")).isEqualTo(503);
+    assertThat(body.get("errorCode")).isEqualTo("SIMULATION_OVERLOADED");
+    assertThat(body.get("message")).isEqualTo("DummyMessage");
+  }
+
+  @Test
+  void RateLimitExceededExceptionが適切にハンドリングされること() {
+
+    RateLimitExceededException exception = new RateLimitExceededException("DummyMessage");
+
+    ResponseEntity<Map<String, Object>> actual = sut.handlerRateLimitExceeded(exception,
+        webRequest);
+
+    assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(actual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+    Map<String, Object> body = actual.getBody();
+    assertThat(body.get("status")).isEqualTo(429);
+    assertThat(body.get("errorCode")).isEqualTo("RATE_LIMIT_EXCEEDED");
+    assertThat(body.get("message")).isEqualTo("DummyMessage");
+  }
+
   @Test
   void RuntimeExceptionが適切にハンドリングされること() {
 
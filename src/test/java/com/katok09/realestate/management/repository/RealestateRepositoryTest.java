@@ -2,23 +2,41 @@ package com.katok09.realestate.management.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.katok09.realestate.management.config.MyBatisConfig;
 import com.katok09.realestate.management.data.Building;
 import com.katok09.realestate.management.data.IncomeAndExpenses;
 import com.katok09.realestate.management.data.Parcel;
 import com.katok09.realestate.management.data.Project;
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.PortfolioAggregate;
 import com.katok09.realestate.management.dto.SearchParams;
+import java.util.ArrayList;
 import java.util.List;
+import javax.sql.DataSource;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.boot.test.autoconfigure.MybatisTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @MybatisTest
+// マッパーXMLでDBごとのSQL（_databaseId）を判定するため、databaseIdの設定を読み込みます。
+@Import(MyBatisConfig.class)
 public class RealestateRepositoryTest {
 
   @Autowired
   private RealestateRepository sut;
 
+  @Autowired
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Autowired
+  private DataSource dataSource;
+
   @Test
   void 不動産詳細情報リストが全件取得できること() {
 
@@ -42,6 +60,195 @@ public class RealestateRepositoryTest {
     assertThat(actual.size()).isEqualTo(3);
   }
 
+  @Test
+  void MySQLでは2文字以上の検索語で全文検索が使用されること() {
+
+    SearchParams searchParams = new SearchParams(1, "三条", "新潟", null,
+        null, null);
+
+    String actual = renderSql("mysql", searchParams);
+
+    assertThat(actual).contains("MATCH(pj.project_name)", "MATCH(pa.parcel_address)")
+        .doesNotContain("LIKE");
+  }
+
+  @Test
+  void MySQLでも1文字の検索語ではLIKE検索が使用されること() {
+
+    SearchParams searchParams = new SearchParams(1, "町", null, null,
+        null, null);
+
+    String actual = renderSql("mysql", searchParams);
+
+    assertThat(actual).contains("pj.project_name LIKE").doesNotContain("MATCH");
+  }
+
+  @Test
+  void H2では2文字以上の検索語でもLIKE検索が使用されること() {
+
+    SearchParams searchParams = new SearchParams(1, "三条", "新潟", null,
+        null, null);
+
+    String actual = renderSql("h2", searchParams);
+
+    assertThat(actual).contains("pj.project_name LIKE", "pa.parcel_address LIKE")
+        .doesNotContain("MATCH");
+  }
+
+  @Test
+  void カーソル位置以降の不動産詳細情報がプロジェクトID順に指定件数まで取得できること() {
+
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+    searchParams.setCursorId(2);
+    searchParams.setLimit(1);
+
+    List<RealestateDetail> actual = sut.searchRealestate(searchParams);
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(4);
+  }
+
+  @Test
+  void プロジェクト名の降順でカーソル位置以降の不動産詳細情報が取得できること() {
+
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+    searchParams.setSortByProjectName(true);
+    searchParams.setDescending(true);
+    searchParams.setCursorId(1);
+    searchParams.setCursorValue("東三条AP");
+
+    List<RealestateDetail> actual = sut.searchRealestate(searchParams);
+
+    assertThat(actual).extracting(detail -> detail.getProject().getProjectName())
+        .containsExactly("寿町AP", "南四日町戸建");
+  }
+
+  @Test
+  void カーソルで不動産詳細情報をプロジェクトID順に1件ずつ取得できること() throws Exception {
+
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+
+    List<Integer> actual = new ArrayList<>();
+    try (Cursor<RealestateDetail> cursor = sut.exportRealestate(searchParams)) {
+      cursor.forEach(detail -> actual.add(detail.getProject().getId()));
+    }
+
+    assertThat(actual).containsExactly(1, 2, 4, 7);
+  }
+
+  @Test
+  void 不動産収支が建物種別と建物構造ごとに集計できること() {
+
+    // ユーザーID2はプロジェクトID3（戸建て・木造）と6（マンション・鉄筋コンクリート造）を所有
+    List<PortfolioAggregate> actual = sut.summarizeRealestate(2);
+
+    assertThat(actual).hasSize(2);
+    PortfolioAggregate house = actual.stream()
+        .filter(aggregate -> "戸建て".equals(aggregate.getBuildingType()))
+        .findFirst().orElseThrow();
+    assertThat(house.getBuildingStructure()).isEqualTo("木造");
+    assertThat(house.getProjectCount()).isEqualTo(1);
+    assertThat(house.getFinancedCount()).isEqualTo(0);
+    assertThat(house.getTotalPrice()).isEqualTo(150000L);
+    assertThat(house.getMonthlyRent()).isEqualTo(30000L);
+    assertThat(house.getMonthlyOperatingExpenses()).isEqualTo(2500L);
+    assertThat(house.getMonthlyDebtService()).isEqualTo(0L);
+  }
+
+  @Test
+  void 未入力の収支項目は0として集計されること() {
+
+    // プロジェクトID3の維持費（1500）・利息を未入力とし、元本を5000とします。
+    new JdbcTemplate(dataSource).update("UPDATE income_and_expenses SET maintenance_cost = NULL,"
+        + " principal = 5000, interest = NULL WHERE project_id = 3");
+
+    sut.deleteSummaryByUserId(2);
+    sut.rebuildSummary(2);
+
+    PortfolioAggregate house = sut.summarizeRealestate(2).stream()
+        .filter(aggregate -> "戸建て".equals(aggregate.getBuildingType()))
+        .findFirst().orElseThrow();
+    assertThat(house.getFinancedCount()).isEqualTo(1);
+    assertThat(house.getMonthlyOperatingExpenses()).isEqualTo(1000L);
+    assertThat(house.getMonthlyDebtService()).isEqualTo(5000L);
+  }
+
+  @Test
+  void 論理削除前に減算したプロジェクトは集計されないこと() {
+
+    sut.applySummaryDelta(List.of(3), 2, -1);
+    sut.deleteProject(3, 2);
+
+    assertThat(sut.summarizeRealestate(2)).extracting(PortfolioAggregate::getBuildingType)
+        .containsExactly("マンション");
+  }
+
+  @Test
+  void 登録したプロジェクトの集計値が既存の集計行に加算されること() {
+
+    Project project = new Project();
+    project.setUserId(2);
+    project.setProjectName("加算テスト戸建");
+    sut.registerProject(project);
+    Parcel parcel = new Parcel();
+    parcel.setProjectId(project.getId());
+    parcel.setUserId(2);
+    parcel.setParcelPrice(200000L);
+    Building building = new Building();
+    building.setProjectId(project.getId());
+    building.setUserId(2);
+    building.setBuildingPrice(300000L);
+    building.setBuildingType("戸建て");
+    building.setBuildingStructure("木造");
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setProjectId(project.getId());
+    incomeAndExpenses.setUserId(2);
+    incomeAndExpenses.setRent(40000);
+    incomeAndExpenses.setTax(3000);
+    incomeAndExpenses.setPrincipal(10000);
+    sut.registerParcel(parcel);
+    sut.registerBuilding(building);
+    sut.registerIncomeAndExpenses(incomeAndExpenses);
+
+    sut.applySummaryDelta(List.of(project.getId()), 2, 1);
+
+    PortfolioAggregate house = sut.summarizeRealestate(2).stream()
+        .filter(aggregate -> "戸建て".equals(aggregate.getBuildingType()))
+        .findFirst().orElseThrow();
+    assertThat(house.getProjectCount()).isEqualTo(2);
+    assertThat(house.getFinancedCount()).isEqualTo(1);
+    assertThat(house.getTotalPrice()).isEqualTo(150000L + 500000L);
+    assertThat(house.getMonthlyRent()).isEqualTo(30000L + 40000L);
+    assertThat(house.getMonthlyOperatingExpenses()).isEqualTo(2500L + 3000L);
+    assertThat(house.getMonthlyDebtService()).isEqualTo(10000L);
+  }
+
+  @Test
+  void 本人以外のプロジェクトの集計値は減算されないこと() {
+
+    // プロジェクトID1はユーザーID1の所有
+    sut.applySummaryDelta(List.of(1), 2, -1);
+
+    assertThat(sut.summarizeRealestate(1)).extracting(PortfolioAggregate::getProjectCount)
+        .containsExactlyInAnyOrder(3, 1);
+    assertThat(sut.summarizeRealestate(2)).hasSize(2);
+  }
+
+  @Test
+  void 削除した不動産収支集計がプロジェクト情報から再計算できること() {
+
+    sut.deleteSummaryByUserId(2);
+    assertThat(sut.summarizeRealestate(2)).isEmpty();
+
+    sut.rebuildSummary(2);
+
+    assertThat(sut.summarizeRealestate(2)).extracting(PortfolioAggregate::getBuildingType)
+        .containsExactlyInAnyOrder("戸建て", "マンション");
+    assertThat(sut.findSummaryUserIds()).containsExactlyInAnyOrder(1, 2, 3);
+  }
+
   @Test
   void 不動産プロジェクト情報リストが取得できること() {
 
@@ -89,6 +296,7 @@ public class RealestateRepositoryTest {
   void 不動産土地情報が登録できること() {
 
     Parcel parcel = new Parcel();
+    parcel.setProjectId(1);
     parcel.setUserId(1);
 
     sut.registerParcel(parcel);
@@ -100,6 +308,7 @@ public class RealestateRepositoryTest {
   void 不動産建物情報が登録できること() {
 
     Building building = new Building();
+    building.setProjectId(1);
     building.setUserId(1);
 
     sut.registerBuilding(building);
@@ -111,6 +320,7 @@ public class RealestateRepositoryTest {
   void 不動産収支情報が登録できること() {
 
     IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setProjectId(1);
     incomeAndExpenses.setUserId(1);
 
     sut.registerIncomeAndExpenses(incomeAndExpenses);
@@ -148,6 +358,7 @@ public class RealestateRepositoryTest {
     parcel.setProjectId(1);
     parcel.setUserId(1);
     parcel.setParcelPrice(99999999);
+    parcel.setDeleted(true);
 
     assertThat(sut.getParcels().stream()
         .filter(p -> p.getProjectId() == 1)
@@ -157,11 +368,13 @@ public class RealestateRepositoryTest {
 
     sut.updateParcel(parcel);
 
+    // 論理削除フラグはリクエストの値で変更されません。
     assertThat(sut.getParcels().stream()
         .filter(p -> p.getProjectId() == 1)
         .findFirst()
-        .orElseThrow()
-        .getParcelPrice()).isEqualTo(99999999);
+        .orElseThrow())
+        .satisfies(p -> assertThat(p.getParcelPrice()).isEqualTo(99999999))
+        .satisfies(p -> assertThat(p.isDeleted()).isFalse());
   }
 
   @Test
@@ -171,6 +384,7 @@ public class RealestateRepositoryTest {
     building.setProjectId(1);
     building.setUserId(1);
     building.setBuildingPrice(99999999);
+    building.setDeleted(true);
 
     assertThat(sut.getBuildings().stream()
         .filter(b -> b.getProjectId() == 1)
@@ -180,11 +394,13 @@ public class RealestateRepositoryTest {
 
     sut.updateBuilding(building);
 
+    // 論理削除フラグはリクエストの値で変更されません。
     assertThat(sut.getBuildings().stream()
         .filter(b -> b.getProjectId() == 1)
         .findFirst()
-        .orElseThrow()
-        .getBuildingPrice()).isEqualTo(99999999);
+        .orElseThrow())
+        .satisfies(b -> assertThat(b.getBuildingPrice()).isEqualTo(99999999))
+        .satisfies(b -> assertThat(b.isDeleted()).isFalse());
   }
 
   @Test
@@ -194,6 +410,7 @@ public class RealestateRepositoryTest {
     incomeAndExpenses.setProjectId(1);
     incomeAndExpenses.setUserId(1);
     incomeAndExpenses.setRent(99999999);
+    incomeAndExpenses.setDeleted(true);
 
     assertThat(sut.getIncomeAndExpenses().stream()
         .filter(i -> i.getProjectId() == 1)
@@ -203,75 +420,95 @@ public class RealestateRepositoryTest {
 
     sut.updateIncomeAndExpenses(incomeAndExpenses);
 
+    // 論理削除フラグはリクエストの値で変更されません。
     assertThat(sut.getIncomeAndExpenses().stream()
         .filter(i -> i.getProjectId() == 1)
         .findFirst()
-        .orElseThrow()
-        .getRent()).isEqualTo(99999999);
+        .orElseThrow())
+        .satisfies(i -> assertThat(i.getRent()).isEqualTo(99999999))
+        .satisfies(i -> assertThat(i.isDeleted()).isFalse());
   }
 
   @Test
-  void 不動産プロジェクト情報が削除できること() {
+  void 不動産プロジェクト情報が論理削除され検索対象外となること() {
 
-    assertThat(sut.getProjects().stream()
-        .anyMatch(p -> p.getId() == 1))
-        .isTrue();
-
-    sut.deleteProject(1, 1);
+    assertThat(sut.deleteProject(1, 1)).isEqualTo(1);
 
-    assertThat(sut.getProjects().stream()
-        .noneMatch(p -> p.getId() == 1))
-        .isTrue();
+    assertThat(sut.getProjects()).hasSize(8)
+        .filteredOn(p -> p.getId() == 1)
+        .singleElement()
+        .satisfies(p -> assertThat(p.isDeleted()).isTrue());
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+    assertThat(sut.searchRealestate(searchParams)).hasSize(3)
+        .noneMatch(detail -> detail.getProject().getId() == 1);
 
-    assertThat(sut.getProjects().size()).isEqualTo(7);
+    // 論理削除済みのプロジェクトは再度削除・更新できません。
+    assertThat(sut.deleteProject(1, 1)).isEqualTo(0);
+    Project project = new Project();
+    project.setId(1);
+    project.setUserId(1);
+    project.setProjectName("更新");
+    assertThat(sut.updateProject(project)).isEqualTo(0);
   }
 
   @Test
-  void 不動産土地情報が削除できること() {
-
-    assertThat(sut.getParcels().stream()
-        .anyMatch(p -> p.getProjectId() == 1))
-        .isTrue();
+  void 指定されたユーザーの不動産プロジェクトが全て論理削除されること() {
 
-    sut.deleteParcel(1, 1);
+    sut.deleteProjectByUserId(1);
 
-    assertThat(sut.getParcels().stream()
-        .noneMatch(p -> p.getProjectId() == 1))
-        .isTrue();
-
-    assertThat(sut.getParcels().size()).isEqualTo(7);
+    // ユーザーID1のプロジェクトは8件中4件です。
+    assertThat(sut.getProjects()).filteredOn(Project::isDeleted).hasSize(4)
+        .allMatch(p -> p.getUserId() == 1);
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+    assertThat(sut.searchRealestate(searchParams)).isEmpty();
   }
 
   @Test
-  void 不動産建物情報が削除できること() {
+  void 自身の複数の不動産プロジェクトが一括で論理削除できること() {
 
-    assertThat(sut.getBuildings().stream()
-        .anyMatch(b -> b.getProjectId() == 1))
-        .isTrue();
-
-    sut.deleteBuilding(1, 1);
+    // プロジェクトID3はユーザーID2のプロジェクトのため削除されません。
+    List<Integer> projectIds = List.of(1, 2, 3);
 
-    assertThat(sut.getBuildings().stream()
-        .noneMatch(b -> b.getProjectId() == 1))
-        .isTrue();
+    assertThat(sut.deleteProjects(projectIds, 1)).isEqualTo(2);
 
-    assertThat(sut.getBuildings().size()).isEqualTo(7);
+    assertThat(sut.getProjects()).filteredOn(Project::isDeleted).extracting(Project::getId)
+        .containsExactlyInAnyOrder(1, 2);
   }
 
   @Test
-  void 不動産収支情報が削除できること() {
+  void 論理削除済みの不動産プロジェクトIDがID順に指定件数まで取得できること() {
 
-    assertThat(sut.getIncomeAndExpenses().stream()
-        .anyMatch(i -> i.getProjectId() == 1))
-        .isTrue();
+    sut.deleteProjects(List.of(1, 2, 4), 1);
 
-    sut.deleteIncomeAndExpenses(1, 1);
+    assertThat(sut.findDeletedProjectIds(2)).containsExactly(1, 2);
+  }
 
-    assertThat(sut.getIncomeAndExpenses().stream()
-        .noneMatch(i -> i.getProjectId() == 1))
-        .isTrue();
+  @Test
+  void 論理削除済みの不動産情報のみが土地と建物と収支情報を含めて物理削除されること() {
 
-    assertThat(sut.getIncomeAndExpenses().size()).isEqualTo(7);
+    sut.deleteProject(1, 1);
+
+    // プロジェクトID2は論理削除されていないため削除されません。
+    assertThat(sut.purgeProjects(List.of(1, 2))).isEqualTo(1);
+
+    assertThat(sut.getProjects()).hasSize(7).noneMatch(p -> p.getId() == 1);
+    assertThat(sut.getParcels()).hasSize(7).noneMatch(p -> p.getProjectId() == 1);
+    assertThat(sut.getBuildings()).hasSize(7).noneMatch(b -> b.getProjectId() == 1);
+    assertThat(sut.getIncomeAndExpenses()).hasSize(7).noneMatch(i -> i.getProjectId() == 1);
   }
 
+  private String renderSql(String databaseId, SearchParams searchParams) {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    String original = configuration.getDatabaseId();
+    configuration.setDatabaseId(databaseId);
+    try {
+      BoundSql boundSql = configuration.getMappedStatement(
+          RealestateRepository.class.getName() + ".searchRealestate").getBoundSql(searchParams);
+      return boundSql.getSql();
+    } finally {
+      configuration.setDatabaseId(original);
+    }
+  }
 }
@@ -149,6 +149,29 @@ public class UserRepositoryTest {
     assertThat(actual.size()).isEqualTo(6);
   }
 
+  @Test
+  void 無効アカウントロック中削除済みのユーザーIDを取得できること() {
+
+    List<Integer> actual = sut.findInactiveUserIds();
+
+    assertThat(actual).containsExactlyInAnyOrder(3, 4, 7);
+  }
+
+  @Test
+  void トークンバージョンを保存し指定した時刻以降に失効させたユーザーを取得できること() {
+
+    assertThat(sut.updateTokenVersion(2, 2_000L)).isEqualTo(1);
+    assertThat(sut.updateTokenVersion(4, 1_000L)).isEqualTo(1);
+    // 現在の値以下への更新は行いません。
+    assertThat(sut.updateTokenVersion(2, 1_500L)).isZero();
+
+    List<User> actual = sut.findRevokedUsers(1_500L);
+
+    assertThat(actual).hasSize(1);
+    assertThat(actual.get(0).getId()).isEqualTo(2);
+    assertThat(actual.get(0).getTokenVersion()).isEqualTo(2_000L);
+  }
+
   @Test
   void 渡されたユーザー情報から新規ユーザー登録ができID自動採番や登録日時等を自動登録できた上でDBに反映されること() {
 
@@ -215,6 +238,20 @@ public class UserRepositoryTest {
     assertThat(actual.getPassword()).isEqualTo("ChangedPassword");
   }
 
+  @Test
+  void 照合に使用したハッシュが変更されていない時のみ再ハッシュ化したパスワードに置き換えられること() {
+
+    String current = sut.findById(2).orElseThrow().getPassword();
+
+    assertThat(sut.upgradePassword(2, "OtherHash", "UpgradedHash")).isZero();
+    assertThat(sut.findById(2).orElseThrow().getPassword()).isEqualTo(current);
+
+    assertThat(sut.upgradePassword(2, current, "UpgradedHash")).isEqualTo(1);
+    User actual = sut.findById(2).orElseThrow();
+    assertThat(actual.getPassword()).isEqualTo("UpgradedHash");
+    assertThat(actual.getPasswordChangedAt()).isNull();
+  }
+
   @Test
   void IDに紐づいたユーザーを削除できDBに反映されること() {
 
@@ -232,7 +269,7 @@ public class UserRepositoryTest {
 
     LocalDateTime accountLockedUntil = LocalDateTime.now().plusMinutes(30).withNano(0);
 
-    sut.updateLoginFailed(2, 5, accountLockedUntil);
+    assertThat(sut.updateLoginFailed(2, 5, accountLockedUntil, 0, null, null)).isEqualTo(1);
 
     User actual = sut.findById(2).orElse(null);
 
@@ -240,18 +277,49 @@ public class UserRepositoryTest {
     assertThat(actual.getLoginFailedAttempts()).isEqualTo(5);
     assertThat(actual.getAccountLockedUntil()).isEqualTo(accountLockedUntil);
 
+    // 失敗の記録後にログインに成功していた（最終ログイン日時が異なる）場合は更新しません。
+    sut.updateLoginSucceeded(2, LocalDateTime.now().withNano(0));
+    assertThat(sut.updateLoginFailed(2, 6, accountLockedUntil, 0, null, null)).isZero();
+    assertThat(sut.findById(2).orElseThrow().getLoginFailedAttempts()).isZero();
+
+  }
+
+  @Test
+  void ログイン連続失敗回数とアカウントロック期限が前回の値から変更されている場合は更新されないこと() {
+
+    LocalDateTime accountLockedUntil = LocalDateTime.now().plusMinutes(30).withNano(0);
+    assertThat(sut.updateLoginFailed(2, 5, accountLockedUntil, 0, null, null)).isEqualTo(1);
+
+    // 前回反映した値が条件と一致する場合は更新します。
+    assertThat(sut.updateLoginFailed(2, 6, accountLockedUntil, 5, accountLockedUntil, null))
+        .isEqualTo(1);
+
+    // 管理者がアカウントロックを解除していた場合は上書きしません。
+    StatusRequest statusRequest = new StatusRequest();
+    statusRequest.setRole("USER");
+    statusRequest.setEnabled(true);
+    sut.updateStatus(2, statusRequest);
+    assertThat(sut.updateLoginFailed(2, 7, accountLockedUntil, 6, accountLockedUntil, null))
+        .isZero();
+
+    User actual = sut.findById(2).orElseThrow();
+    assertThat(actual.getLoginFailedAttempts()).isZero();
+    assertThat(actual.getAccountLockedUntil()).isNull();
   }
 
   @Test
-  void IDに紐づいたユーザーの最終ログイン日時が更新できDBに反映されること() {
+  void IDに紐づいたユーザーのログイン成功時にアカウントロック情報がリセットされ最終ログイン日時が更新できDBに反映されること() {
 
     LocalDateTime lastLoginAt = LocalDateTime.now().withNano(0);
+    sut.updateLoginFailed(2, 5, lastLoginAt.plusMinutes(30), 0, null, null);
 
-    sut.updateLastLoginAt(2, lastLoginAt);
+    sut.updateLoginSucceeded(2, lastLoginAt);
 
     User actual = sut.findById(2).orElse(null);
     assertThat(actual).isNotNull();
     assertThat(actual.getLastLoginAt()).isEqualTo(lastLoginAt);
+    assertThat(actual.getLoginFailedAttempts()).isZero();
+    assertThat(actual.getAccountLockedUntil()).isNull();
   }
 
   @Test
@@ -5,22 +5,23 @@ import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.katok09.realestate.management.data.User;
-import com.katok09.realestate.management.dto.LoginRequest;
 import com.katok09.realestate.management.repository.UserRepository;
+import com.katok09.realestate.management.service.LoginFailureTracker.State;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
+import java.util.function.UnaryOperator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -31,181 +32,148 @@ public class AccountLockServiceTest {
   @Mock
   private UserRepository repository;
 
+  @Mock
+  private LoginFailureTracker failureTracker;
+
+  @Mock
+  private UserPrincipalCache principalCache;
+
+  @Mock
+  private TokenRevocationRegistry revocationRegistry;
+
   private AccountLockService sut;
 
   @BeforeEach
   void before() {
-    sut = new AccountLockService(repository);
+    sut = new AccountLockService(repository, failureTracker, principalCache, revocationRegistry);
     ReflectionTestUtils.setField(sut, "maxLoginAttempts", 5);
     ReflectionTestUtils.setField(sut, "accountLockDurationMinutes", 30);
   }
 
   @Test
-  void ログインリクエストをしたユーザーのアカウントロック期限が切れていた場合ログイン連続失敗回数とアカウントロック期限をリセットできること() {
-
-    User mockUser = new User();
-    mockUser.setId(999);
-    mockUser.setUsername("DummyUser");
-    mockUser.setDisplayName("DummyUser");
-    mockUser.setEmail("dummy@example.com");
-    mockUser.setRole("USER");
-    mockUser.setLoginFailedAttempts(999);
-    mockUser.setAccountLockedUntil(LocalDateTime.now().minusMinutes(30));
-    LoginRequest loginRequest = new LoginRequest("DummyUser", "DummyPassword");
-
-    when(repository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
-
-    ArgumentCaptor<Integer> userIdCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Integer> loginFailedAttemptsCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<LocalDateTime> accountLockedUntilCaptor = ArgumentCaptor.forClass(
-        LocalDateTime.class);
+  void ログインリクエストをしたユーザーのアカウントロック期限が切れていた場合ログイン連続失敗回数とアカウントロック期限をリセットしてから加算されること() {
 
-    doNothing().when(repository)
-        .updateLoginFailed(userIdCaptor.capture(), loginFailedAttemptsCaptor.capture(),
-            accountLockedUntilCaptor.capture());
+    User mockUser = createUser(999, LocalDateTime.now().minusMinutes(30));
+    stubRecordFailure();
 
-    sut.unlockIfAccountLockExpired(loginRequest);
+    assertThat(sut.isLocked(mockUser)).isFalse();
+    sut.handleLoginFailure(mockUser);
 
-    verify(repository, times(1)).findByUsername("DummyUser");
-    verify(repository, times(1)).updateLoginFailed(anyInt(), anyInt(), eq(null));
-    assertThat(userIdCaptor.getValue()).isEqualTo(999);
-    assertThat(loginFailedAttemptsCaptor.getValue()).isEqualTo(0);
-    assertThat(accountLockedUntilCaptor.getValue()).isNull();
+    assertThat(mockUser.getLoginFailedAttempts()).isEqualTo(1);
+    assertThat(mockUser.getAccountLockedUntil()).isNull();
+    // ログイン失敗ではDBを更新しません（LoginFailureTrackerが非同期に反映します）。
+    verifyNoInteractions(repository);
   }
 
   @Test
-  void ログインリクエストをしたユーザーのアカウントロック期限が切れていない場合ログイン連続失敗回数とアカウントロック期限をリセットされないこと() {
+  void ログインリクエストをしたユーザーのアカウントロック期限が切れていない場合ロック中と判定されること() {
 
     User mockUser = new User();
     mockUser.setId(999);
-    mockUser.setUsername("DummyUser");
-    mockUser.setDisplayName("DummyUser");
-    mockUser.setEmail("dummy@example.com");
-    mockUser.setRole("USER");
     mockUser.setLoginFailedAttempts(999);
     mockUser.setAccountLockedUntil(LocalDateTime.now().plusMinutes(30));
-    LoginRequest loginRequest = new LoginRequest("DummyUser", "DummyPassword");
 
-    when(repository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    assertThat(sut.isLocked(mockUser)).isTrue();
 
-    sut.unlockIfAccountLockExpired(loginRequest);
-
-    verify(repository, times(1)).findByUsername("DummyUser");
-    verify(repository, never()).updateLoginFailed(999, 0, null);
+    mockUser.setAccountLockedUntil(null);
+    assertThat(sut.isLocked(mockUser)).isFalse();
   }
 
   @Test
-  void 指定されたユーザーのログイン失敗情報をリセットできること() {
+  void DBに未反映のログイン失敗状態がある場合その値でロック中と判定されること() {
 
-    doNothing().when(repository).updateLoginFailed(2, 0, null);
+    User mockUser = createUser(0, null);
+    LocalDateTime accountLockedUntil = LocalDateTime.now().plusMinutes(30);
+    when(failureTracker.get(999))
+        .thenReturn(new State(5, accountLockedUntil, 0, null, null, true,
+            System.currentTimeMillis()));
 
-    sut.resetAccountLockState(2);
-
-    verify(repository, times(1)).updateLoginFailed(2, 0, null);
+    assertThat(sut.isLocked(mockUser)).isTrue();
+    assertThat(mockUser.getLoginFailedAttempts()).isEqualTo(5);
+    assertThat(mockUser.getAccountLockedUntil()).isEqualTo(accountLockedUntil);
   }
 
   @Test
-  void ログインリクエストをしたユーザーのログイン連続失敗回数が1加算されること() {
+  void ログイン成功時にログイン失敗状態を破棄してからリセットと最終ログイン日時の更新が1回で行われること() {
 
     User mockUser = new User();
-    mockUser.setId(999);
-    mockUser.setUsername("DummyUser");
-    mockUser.setDisplayName("DummyUser");
-    mockUser.setEmail("dummy@example.com");
-    mockUser.setRole("USER");
-    mockUser.setLoginFailedAttempts(0);
-    mockUser.setAccountLockedUntil(null);
-    LoginRequest loginRequest = new LoginRequest("DummyUser", "DummyPassword");
+    mockUser.setId(2);
 
-    when(repository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    sut.handleLoginSuccess(mockUser);
 
-    ArgumentCaptor<Integer> userIdCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Integer> loginFailedAttemptsCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<LocalDateTime> accountLockedUntilCaptor = ArgumentCaptor.forClass(
-        LocalDateTime.class);
+    InOrder inOrder = inOrder(failureTracker, repository);
+    inOrder.verify(failureTracker).reset(2);
+    inOrder.verify(repository).updateLoginSucceeded(eq(2), any(LocalDateTime.class));
+    verify(repository, never())
+        .updateLoginFailed(anyInt(), anyInt(), any(), anyInt(), any(), any());
+    verify(principalCache, times(1)).evict(2);
+  }
 
-    doNothing().when(repository)
-        .updateLoginFailed(userIdCaptor.capture(), loginFailedAttemptsCaptor.capture(),
-            accountLockedUntilCaptor.capture());
+  @Test
+  void ログインリクエストをしたユーザーのログイン連続失敗回数が1加算されること() {
 
-    sut.handleLoginFailure(loginRequest);
+    User mockUser = createUser(0, null);
+    stubRecordFailure();
 
-    verify(repository, times(1)).findByUsername(any(String.class));
-    verify(repository, times(1)).updateLoginFailed(anyInt(), anyInt(), eq(null));
-    assertThat(userIdCaptor.getValue()).isEqualTo(999);
-    assertThat(loginFailedAttemptsCaptor.getValue()).isEqualTo(1);
-    assertThat(accountLockedUntilCaptor.getValue()).isNull();
+    sut.handleLoginFailure(mockUser);
 
+    assertThat(mockUser.getLoginFailedAttempts()).isEqualTo(1);
+    assertThat(mockUser.getAccountLockedUntil()).isNull();
+    verify(revocationRegistry, never()).revoke(anyInt());
   }
 
   @Test
   void ログインリクエストをしたユーザーのログイン連続失敗回数が5以上となった時にアカウントロック期限が設定されること() {
 
-    User mockUser = new User();
-    mockUser.setId(999);
-    mockUser.setUsername("DummyUser");
-    mockUser.setDisplayName("DummyUser");
-    mockUser.setEmail("dummy@example.com");
-    mockUser.setRole("USER");
-    mockUser.setLoginFailedAttempts(4);
-    mockUser.setAccountLockedUntil(null);
-    LoginRequest loginRequest = new LoginRequest("DummyUser", "DummyPassword");
-
-    when(repository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
-
-    ArgumentCaptor<Integer> userIdCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Integer> loginFailedAttemptsCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<LocalDateTime> accountLockedUntilCaptor = ArgumentCaptor.forClass(
-        LocalDateTime.class);
-
-    doNothing().when(repository)
-        .updateLoginFailed(userIdCaptor.capture(), loginFailedAttemptsCaptor.capture(),
-            accountLockedUntilCaptor.capture());
+    User mockUser = createUser(4, null);
+    stubRecordFailure();
 
-    sut.handleLoginFailure(loginRequest);
+    sut.handleLoginFailure(mockUser);
 
-    verify(repository, times(1)).findByUsername(any(String.class));
-    verify(repository, times(1)).updateLoginFailed(anyInt(), anyInt(), any(LocalDateTime.class));
-    assertThat(userIdCaptor.getValue()).isEqualTo(999);
-    assertThat(loginFailedAttemptsCaptor.getValue()).isEqualTo(5);
-    assertThat(accountLockedUntilCaptor.getValue()).isCloseTo(LocalDateTime.now().plusMinutes(30),
+    assertThat(mockUser.getLoginFailedAttempts()).isEqualTo(5);
+    assertThat(mockUser.getAccountLockedUntil()).isCloseTo(LocalDateTime.now().plusMinutes(30),
         within(10, ChronoUnit.SECONDS));
-
+    // アカウントロック時はDBへの反映を待たずに発行済みトークンを失効させます。
+    verify(principalCache, times(1)).evict(999);
+    verify(revocationRegistry, times(1)).revoke(999);
+    verifyNoInteractions(repository);
   }
 
   @Test
   void アカウントロック期限が設定されているユーザーがログイン失敗した時アカウントロック期限が再設定されないこと() {
 
-    User mockUser = new User();
-    mockUser.setId(999);
-    mockUser.setUsername("DummyUser");
-    mockUser.setDisplayName("DummyUser");
-    mockUser.setEmail("dummy@example.com");
-    mockUser.setRole("USER");
-    mockUser.setLoginFailedAttempts(6);
-    mockUser.setAccountLockedUntil(LocalDateTime.now().plusMinutes(10));
-    LoginRequest loginRequest = new LoginRequest("DummyUser", "DummyPassword");
-
-    when(repository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
-
-    ArgumentCaptor<Integer> userIdCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Integer> loginFailedAttemptsCaptor = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<LocalDateTime> accountLockedUntilCaptor = ArgumentCaptor.forClass(
-        LocalDateTime.class);
-
-    doNothing().when(repository)
-        .updateLoginFailed(userIdCaptor.capture(), loginFailedAttemptsCaptor.capture(),
-            accountLockedUntilCaptor.capture());
-
-    sut.handleLoginFailure(loginRequest);
-
-    verify(repository, times(1)).findByUsername(any(String.class));
-    verify(repository, times(1)).updateLoginFailed(anyInt(), anyInt(), any(LocalDateTime.class));
-    assertThat(userIdCaptor.getValue()).isEqualTo(999);
-    assertThat(loginFailedAttemptsCaptor.getValue()).isEqualTo(7);
-    assertThat(accountLockedUntilCaptor.getValue()).isCloseTo(LocalDateTime.now().plusMinutes(10),
-        within(10, ChronoUnit.SECONDS));
+    LocalDateTime accountLockedUntil = LocalDateTime.now().plusMinutes(10);
+    User mockUser = createUser(6, accountLockedUntil);
+    stubRecordFailure();
 
+    sut.handleLoginFailure(mockUser);
+
+    assertThat(mockUser.getLoginFailedAttempts()).isEqualTo(7);
+    assertThat(mockUser.getAccountLockedUntil()).isEqualTo(accountLockedUntil);
+    verify(revocationRegistry, never()).revoke(anyInt());
+  }
+
+  private User createUser(int loginFailedAttempts, LocalDateTime accountLockedUntil) {
+    User user = new User();
+    user.setId(999);
+    user.setUsername("DummyUser");
+    user.setDisplayName("DummyUser");
+    user.setEmail("dummy@example.com");
+    user.setRole("USER");
+    user.setLoginFailedAttempts(loginFailedAttempts);
+    user.setAccountLockedUntil(accountLockedUntil);
+    return user;
   }
 
+  /**
+   * メモリ上に状態が無い場合と同じく、ユーザー情報の値に記録処理を適用した結果を返します。
+   */
+  @SuppressWarnings("unchecked")
+  private void stubRecordFailure() {
+    when(failureTracker.recordFailure(any(User.class), any())).thenAnswer(invocation -> {
+      User user = invocation.getArgument(0);
+      UnaryOperator<State> updater = invocation.getArgument(1);
+      return updater.apply(State.of(user));
+    });
+  }
 }
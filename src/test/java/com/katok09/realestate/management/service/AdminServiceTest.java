@@ -25,11 +25,20 @@ public class AdminServiceTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserPrincipalCache principalCache;
+
+  @Mock
+  private TokenRevocationRegistry revocationRegistry;
+
+  @Mock
+  private LoginFailureTracker failureTracker;
+
   private AdminService sut;
 
   @BeforeEach
   void before() {
-    sut = new AdminService(userRepository);
+    sut = new AdminService(userRepository, principalCache, revocationRegistry, failureTracker);
   }
 
   @Test
@@ -54,7 +63,10 @@ public class AdminServiceTest {
 
     sut.updateStatus(999, 1, statusRequest);
 
+    verify(failureTracker, times(1)).reset(999);
     verify(userRepository, times(1)).updateStatus(anyInt(), any(StatusRequest.class));
+    verify(principalCache, times(1)).evict(999);
+    verify(revocationRegistry, times(1)).revoke(999);
   }
 
 }
@@ -20,10 +20,13 @@ import com.katok09.realestate.management.dto.LoginResponse;
 import com.katok09.realestate.management.dto.RegisterRequest;
 import com.katok09.realestate.management.dto.UpdateRequest;
 import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.exception.LoginOverloadedException;
 import com.katok09.realestate.management.exception.ResourceNotFoundException;
 import com.katok09.realestate.management.repository.UserRepository;
 import com.katok09.realestate.management.util.JwtUtil;
+import com.katok09.realestate.management.util.VerifiedClaims;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -33,21 +36,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.LockedException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthServiceTest {
 
-  @Mock
-  private AuthenticationManager authenticationManager;
   @Mock
   private PasswordEncoder passwordEncoder;
   @Mock
+  private PasswordVerifier passwordVerifier;
+  @Mock
   private JwtUtil jwtUtil;
   @Mock
   private AccountLockService accountLockService;
@@ -55,14 +55,17 @@ public class AuthServiceTest {
   private UserRepository userRepository;
   @Mock
   private RealestateService realestateService;
+  @Mock
+  private UserPrincipalCache principalCache;
+  @Mock
+  private TokenRevocationRegistry revocationRegistry;
 
   private AuthService sut;
 
   @BeforeEach
   void before() {
-    sut = new AuthService(authenticationManager, passwordEncoder,
-        jwtUtil, accountLockService, userRepository,
-        realestateService);
+    sut = new AuthService(passwordEncoder, passwordVerifier, jwtUtil, accountLockService,
+        userRepository, realestateService, principalCache, revocationRegistry);
   }
 
   @Test
@@ -72,29 +75,24 @@ public class AuthServiceTest {
     User mockUser = new User();
     mockUser.setId(999);
     mockUser.setUsername("DummyUser");
+    mockUser.setPassword("DummyHash");
     mockUser.setDisplayName("DummyUser");
     mockUser.setEmail("dummy@example.com");
     mockUser.setRole("USER");
-    UserDetailsServiceImpl.CustomUserPrincipal mockPrincipal = new UserDetailsServiceImpl.CustomUserPrincipal(
-        mockUser);
-    Authentication mockAuthentication = mock(Authentication.class);
-
-    doNothing().when(accountLockService).unlockIfAccountLockExpired(any(LoginRequest.class));
-    when(authenticationManager.authenticate(
-        any(UsernamePasswordAuthenticationToken.class))).thenReturn(mockAuthentication);
-    when(mockAuthentication.getPrincipal()).thenReturn(mockPrincipal);
-    doNothing().when(accountLockService).resetAccountLockState(anyInt());
-    when(jwtUtil.generateToken("DummyUser", "USER", 999)).thenReturn("DummyToken");
-    doNothing().when(userRepository).updateLastLoginAt(anyInt(), any(LocalDateTime.class));
+    mockUser.setEnabled(true);
+
+    when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    when(passwordVerifier.matches("DummyPassword", "DummyHash")).thenReturn(true);
+    when(revocationRegistry.currentVersion(999)).thenReturn(123L);
+    when(jwtUtil.generateToken("DummyUser", "USER", 999, 123L)).thenReturn("DummyToken");
 
     LoginResponse actual = sut.authenticate(loginRequest);
 
-    verify(accountLockService, times(1)).unlockIfAccountLockExpired(any(LoginRequest.class));
-    verify(authenticationManager, times(1)).authenticate(
-        any(UsernamePasswordAuthenticationToken.class));
-    verify(accountLockService, times(1)).resetAccountLockState(anyInt());
-    verify(jwtUtil, times(1)).generateToken("DummyUser", "USER", 999);
-    verify(userRepository, times(1)).updateLastLoginAt(anyInt(), any(LocalDateTime.class));
+    // ユーザー情報の読み込みは1回のみで、ログイン成功の記録（1回のUPDATE）を行います。
+    verify(userRepository, times(1)).findByUsername("DummyUser");
+    verify(accountLockService, times(1)).handleLoginSuccess(mockUser);
+    verify(accountLockService, never()).handleLoginFailure(any(User.class));
+    verify(jwtUtil, times(1)).generateToken("DummyUser", "USER", 999, 123L);
 
     assertThat(actual.getToken()).isEqualTo("DummyToken");
     assertThat(actual.getUserInfo().getId()).isEqualTo(999);
@@ -103,6 +101,54 @@ public class AuthServiceTest {
     assertThat(actual.getUserInfo().getRole()).isEqualTo("USER");
   }
 
+  @Test
+  void 認証成功時に保存されているハッシュが古い場合は再ハッシュ化して保存されること() {
+
+    User mockUser = new User();
+    mockUser.setId(999);
+    mockUser.setUsername("DummyUser");
+    mockUser.setPassword("OldHash");
+    mockUser.setRole("USER");
+    mockUser.setEnabled(true);
+
+    when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    when(passwordVerifier.matches("DummyPassword", "OldHash")).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding("OldHash")).thenReturn(true);
+    when(passwordVerifier.encode("DummyPassword")).thenReturn("NewHash");
+    when(userRepository.upgradePassword(999, "OldHash", "NewHash")).thenReturn(1);
+
+    sut.authenticate(new LoginRequest("DummyUser", "DummyPassword"));
+
+    verify(userRepository, times(1)).upgradePassword(999, "OldHash", "NewHash");
+    verify(accountLockService, times(1)).handleLoginSuccess(mockUser);
+    assertThat(mockUser.getPassword()).isEqualTo("NewHash");
+  }
+
+  @Test
+  void 認証成功時に再ハッシュ化できなかった場合もログインが成功すること() {
+
+    User mockUser = new User();
+    mockUser.setId(999);
+    mockUser.setUsername("DummyUser");
+    mockUser.setPassword("OldHash");
+    mockUser.setRole("USER");
+    mockUser.setEnabled(true);
+
+    when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    when(passwordVerifier.matches("DummyPassword", "OldHash")).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding("OldHash")).thenReturn(true);
+    when(passwordVerifier.encode("DummyPassword"))
+        .thenThrow(new LoginOverloadedException("DummyMessage"));
+    when(jwtUtil.generateToken("DummyUser", "USER", 999, 0L)).thenReturn("DummyToken");
+
+    LoginResponse actual = sut.authenticate(new LoginRequest("DummyUser", "DummyPassword"));
+
+    assertThat(actual.getToken()).isEqualTo("DummyToken");
+    verify(userRepository, never()).upgradePassword(anyInt(), any(), any());
+    verify(accountLockService, times(1)).handleLoginSuccess(mockUser);
+    assertThat(mockUser.getPassword()).isEqualTo("OldHash");
+  }
+
   @Test
   void アカウントロックがかかっているユーザーが認証した時にロック解除までの秒数情報が返ってくること() {
 
@@ -113,29 +159,23 @@ public class AuthServiceTest {
     mockUser.setDisplayName("LockedUser");
     mockUser.setEmail("locked@example.com");
     mockUser.setRole("USER");
+    mockUser.setEnabled(true);
     mockUser.setAccountLockedUntil(LocalDateTime.now().plusMinutes(30));
 
-    doNothing().when(accountLockService).unlockIfAccountLockExpired(any(LoginRequest.class));
-    when(authenticationManager.authenticate(
-        any(UsernamePasswordAuthenticationToken.class))).thenThrow(
-        new LockedException("DummyLockedMessage"));
-    doNothing().when(accountLockService).handleLoginFailure(loginRequest);
     when(userRepository.findByUsername("LockedUser")).thenReturn(Optional.of(mockUser));
+    when(accountLockService.isLocked(mockUser)).thenReturn(true);
 
     LockedException actual = assertThrows(LockedException.class, () -> {
       sut.authenticate(loginRequest);
     });
 
-    verify(accountLockService, times(1)).unlockIfAccountLockExpired(any(LoginRequest.class));
-    verify(authenticationManager, times(1)).authenticate(
-        any(UsernamePasswordAuthenticationToken.class));
-    verify(accountLockService, times(1)).handleLoginFailure(loginRequest);
     verify(userRepository, times(1)).findByUsername("LockedUser");
+    verify(accountLockService, times(1)).handleLoginFailure(mockUser);
 
-    // 正常時の処理が呼ばれないことの確認
-    verify(accountLockService, never()).resetAccountLockState(anyInt());
-    verify(jwtUtil, never()).generateToken("LockedUser", "USER", 999);
-    verify(userRepository, never()).updateLastLoginAt(anyInt(), any(LocalDateTime.class));
+    // 正常時の処理が呼ばれないことの確認（ロック中はパスワードを照合しません）
+    verify(passwordVerifier, never()).matches(any(), any());
+    verify(accountLockService, never()).handleLoginSuccess(any(User.class));
+    verify(jwtUtil, never()).generateToken("LockedUser", "USER", 999, 0L);
 
     String actualMessage = actual.getMessage();
     assertTrue(actualMessage.contains("アカウントがロックされています。"));
@@ -154,31 +194,73 @@ public class AuthServiceTest {
   void 問題のあるアカウント認証情報で認証した時にエラーメッセージが返ってくること() {
 
     LoginRequest loginRequest = new LoginRequest("BadCredentialsUser", "BadCredentialsPassword");
+    User mockUser = new User();
+    mockUser.setId(999);
+    mockUser.setUsername("BadCredentialsUser");
+    mockUser.setPassword("DummyHash");
+    mockUser.setEnabled(true);
 
-    doNothing().when(accountLockService).unlockIfAccountLockExpired(any(LoginRequest.class));
-    when(authenticationManager.authenticate(
-        any(UsernamePasswordAuthenticationToken.class))).thenThrow(
-        new BadCredentialsException("DummyBadCredentialsMessage"));
-    doNothing().when(accountLockService).handleLoginFailure(loginRequest);
+    when(userRepository.findByUsername("BadCredentialsUser")).thenReturn(Optional.of(mockUser));
+    when(passwordVerifier.matches("BadCredentialsPassword", "DummyHash")).thenReturn(false);
 
     BadCredentialsException actual = assertThrows(BadCredentialsException.class, () -> {
       sut.authenticate(loginRequest);
     });
 
-    verify(accountLockService, times(1)).unlockIfAccountLockExpired(any(LoginRequest.class));
-    verify(authenticationManager, times(1)).authenticate(
-        any(UsernamePasswordAuthenticationToken.class));
-    verify(accountLockService, times(1)).handleLoginFailure(loginRequest);
+    verify(accountLockService, times(1)).handleLoginFailure(mockUser);
 
     // 正常時の処理が呼ばれないことの確認
-    verify(accountLockService, never()).resetAccountLockState(anyInt());
-    verify(jwtUtil, never()).generateToken("BadCredentialsUser", "USER", 999);
-    verify(userRepository, never()).updateLastLoginAt(anyInt(), any(LocalDateTime.class));
+    verify(accountLockService, never()).handleLoginSuccess(any(User.class));
+    verify(jwtUtil, never()).generateToken("BadCredentialsUser", "USER", 999, 0L);
 
     assertTrue(actual.getMessage().contains("ユーザー名またはパスワードが間違っています。"));
 
   }
 
+  @Test
+  void 存在しないユーザーと無効なユーザーで認証した時にダミーのパスワードと照合しエラーメッセージが返ってくること() {
+
+    User disabledUser = new User();
+    disabledUser.setId(999);
+    disabledUser.setPassword("DummyHash");
+    disabledUser.setEnabled(false);
+
+    when(userRepository.findByUsername("NotFoundUser")).thenReturn(Optional.empty());
+    when(userRepository.findByUsername("DisabledUser")).thenReturn(Optional.of(disabledUser));
+    when(passwordEncoder.encode("userNotFoundPassword")).thenReturn("NotFoundHash");
+
+    assertThrows(BadCredentialsException.class,
+        () -> sut.authenticate(new LoginRequest("NotFoundUser", "DummyPassword")));
+    assertThrows(BadCredentialsException.class,
+        () -> sut.authenticate(new LoginRequest("DisabledUser", "DummyPassword")));
+
+    // ダミーのパスワードハッシュは1回のみ生成し、無効なユーザーはログイン失敗として記録します。
+    verify(passwordEncoder, times(1)).encode("userNotFoundPassword");
+    verify(passwordVerifier, times(2)).matches("DummyPassword", "NotFoundHash");
+    verify(passwordVerifier, never()).matches("DummyPassword", "DummyHash");
+    verify(accountLockService, times(1)).handleLoginFailure(disabledUser);
+    verify(accountLockService, never()).handleLoginSuccess(any(User.class));
+  }
+
+  @Test
+  void パスワード照合の待ち行列が上限に達している時にログイン失敗として記録せず例外が発生すること() {
+
+    User mockUser = new User();
+    mockUser.setId(999);
+    mockUser.setPassword("DummyHash");
+    mockUser.setEnabled(true);
+
+    when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(mockUser));
+    when(passwordVerifier.matches("DummyPassword", "DummyHash"))
+        .thenThrow(new LoginOverloadedException("DummyMessage"));
+
+    assertThrows(LoginOverloadedException.class,
+        () -> sut.authenticate(new LoginRequest("DummyUser", "DummyPassword")));
+
+    verify(accountLockService, never()).handleLoginFailure(any(User.class));
+    verify(accountLockService, never()).handleLoginSuccess(any(User.class));
+  }
+
   @Test
   void 正常なユーザー情報を入力した時にユーザーの新規登録が実行されること() {
 
@@ -255,7 +337,9 @@ public class AuthServiceTest {
   @Test
   void トークン検証時に有効なトークンが渡された場合そのトークンに紐づけられたユーザー情報が返ってくること() {
 
-    String dummyToken = "DummyToken";
+    VerifiedClaims dummyClaims = new VerifiedClaims(
+        "DummyToken", "DummyUser", 999, "USER", new Date(),
+        new Date(System.currentTimeMillis() + 60 * 60 * 1000));
     User dummyUser = new User();
     dummyUser.setId(999);
     dummyUser.setUsername("DummyUser");
@@ -265,14 +349,10 @@ public class AuthServiceTest {
     dummyUser.setEnabled(true);
     dummyUser.setDeleted(false);
 
-    when(jwtUtil.isTokenExpired(dummyToken)).thenReturn(true);
-    when(jwtUtil.getUsernameFromToken(dummyToken)).thenReturn("DummyUser");
     when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(dummyUser));
 
-    UserInfo actual = sut.validateToken(dummyToken);
+    UserInfo actual = sut.validateToken(dummyClaims);
 
-    verify(jwtUtil, times(1)).isTokenExpired(dummyToken);
-    verify(jwtUtil, times(1)).getUsernameFromToken(dummyToken);
     verify(userRepository, times(1)).findByUsername("DummyUser");
 
     assertThat(actual).isNotNull();
@@ -287,14 +367,12 @@ public class AuthServiceTest {
   @Test
   void トークン検証時に無効なトークンが渡された場合nullが返ってくること() {
 
-    String dummyToken = "DummyToken";
-
-    when(jwtUtil.isTokenExpired(dummyToken)).thenReturn(false);
+    VerifiedClaims dummyClaims = new VerifiedClaims(
+        "DummyToken", "DummyUser", 999, "USER", new Date(System.currentTimeMillis() - 2000),
+        new Date(System.currentTimeMillis() - 1000));
 
-    UserInfo actual = sut.validateToken(dummyToken);
+    UserInfo actual = sut.validateToken(dummyClaims);
 
-    verify(jwtUtil, times(1)).isTokenExpired(dummyToken);
-    verify(jwtUtil, never()).getUsernameFromToken(dummyToken);
     verify(userRepository, never()).findByUsername("DummyUser");
 
     assertThat(actual).isNull();
@@ -304,16 +382,14 @@ public class AuthServiceTest {
   @Test
   void トークン検証時に有効なユーザーが見つからなかった場合nullが返ってくること() {
 
-    String dummyToken = "DummyToken";
+    VerifiedClaims dummyClaims = new VerifiedClaims(
+        "DummyToken", "DummyUser", 999, "USER", new Date(),
+        new Date(System.currentTimeMillis() + 60 * 60 * 1000));
 
-    when(jwtUtil.isTokenExpired(dummyToken)).thenReturn(true);
-    when(jwtUtil.getUsernameFromToken(dummyToken)).thenReturn("DummyUser");
     when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.empty());
 
-    UserInfo actual = sut.validateToken(dummyToken);
+    UserInfo actual = sut.validateToken(dummyClaims);
 
-    verify(jwtUtil, times(1)).isTokenExpired(dummyToken);
-    verify(jwtUtil, times(1)).getUsernameFromToken(dummyToken);
     verify(userRepository, times(1)).findByUsername("DummyUser");
 
     assertThat(actual).isNull();
@@ -355,6 +431,7 @@ public class AuthServiceTest {
     verify(userRepository, times(1)).existsByEmailNotSelfId("changed@example.com", 999);
     verify(passwordEncoder, times(1)).matches("CurrentPassword", "CurrentPassword");
     verify(passwordEncoder, times(1)).encode("NewPassword");
+    verify(revocationRegistry, times(1)).revoke(999);
 
     // パスワード更新処理の検証（userRepository.updatePasswordメソッドの引数の検証）
     ArgumentCaptor<Integer> userIdCaptor = ArgumentCaptor.forClass(Integer.class);
@@ -504,6 +581,7 @@ public class AuthServiceTest {
     verify(userRepository, times(1)).findById(999);
     verify(realestateService, times(1)).deleteRealestateByUserId(999);
     verify(userRepository, times(1)).deleteUserById(999);
+    verify(revocationRegistry, times(1)).revoke(999);
 
   }
 
@@ -0,0 +1,114 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import com.katok09.realestate.management.exception.SimulationOverloadedException;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CashFlowSimulationServiceTest {
+
+  @Mock
+  private RealestateRepository repository;
+
+  private CashFlowSimulationService sut;
+
+  @BeforeEach
+  void before() {
+    sut = new CashFlowSimulationService(repository, 2, 10000, 1);
+  }
+
+  @AfterEach
+  void after() {
+    sut.shutdown();
+  }
+
+  @Test
+  void 全物件の収支情報から年額のキャッシュフローをシミュレーションしシードが設定されること() {
+
+    when(repository.findCashFlowInputs(999)).thenReturn(List.of(
+        createIncomeAndExpenses(50000, 3000, 20000, 5000),
+        createIncomeAndExpenses(80000, 7000, 0, 0)));
+    SimulationParams params = new SimulationParams();
+    params.setYears(2);
+    params.setPaths(100);
+    params.setVacancyRate(0);
+    params.setRentDeclineRate(0);
+    params.setRentVolatility(0);
+    params.setInterestVolatility(0);
+
+    SimulationResult actual = sut.simulate(params, 999);
+
+    // (月収入13万円 - 月経費1万円 - ローン月返済2.5万円) × 12
+    assertThat(actual.getAnnualCashFlow().get(0).getP50()).isEqualTo(1140000L);
+    assertThat(actual.getPropertyCount()).isEqualTo(2);
+    assertThat(params.getSeed()).isNotNull();
+    assertThat(actual.getSeed()).isEqualTo(params.getSeed());
+  }
+
+  @Test
+  void 物件数と試行回数と年数の積が上限を超える時例外が発生すること() {
+
+    when(repository.findCashFlowInputs(999)).thenReturn(List.of(
+        createIncomeAndExpenses(50000, 0, 0, 0)));
+    SimulationParams params = new SimulationParams();
+    params.setYears(2);
+    params.setPaths(10000);
+
+    assertThatThrownBy(() -> sut.simulate(params, 999))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("シミュレーションの規模が上限を超えています。試行回数または年数を減らしてください。");
+  }
+
+  @Test
+  void 同時実行数の上限に達している時は待たずに例外が発生し終了後は実行できること() throws Exception {
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(repository.findCashFlowInputs(999)).thenAnswer(invocation -> {
+      started.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return List.of(createIncomeAndExpenses(50000, 0, 0, 0));
+    });
+    SimulationParams params = new SimulationParams();
+    params.setYears(1);
+    params.setPaths(10);
+
+    CompletableFuture<SimulationResult> running = CompletableFuture.supplyAsync(
+        () -> sut.simulate(params, 999));
+    started.await(10, TimeUnit.SECONDS);
+
+    assertThatThrownBy(() -> sut.simulate(params, 999))
+        .isInstanceOf(SimulationOverloadedException.class)
+        .hasMessage("シミュレーションが混み合っています。しばらくしてから再度お試しください。");
+
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS).getPropertyCount()).isEqualTo(1);
+    assertThat(sut.simulate(params, 999).getPropertyCount()).isEqualTo(1);
+  }
+
+  private IncomeAndExpenses createIncomeAndExpenses(int rent, int tax, int principal,
+      int interest) {
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setRent(rent);
+    incomeAndExpenses.setTax(tax);
+    incomeAndExpenses.setPrincipal(principal);
+    incomeAndExpenses.setInterest(interest);
+    return incomeAndExpenses;
+  }
+}
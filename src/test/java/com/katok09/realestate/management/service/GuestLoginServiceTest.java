@@ -0,0 +1,90 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.dto.LoginRequest;
+import com.katok09.realestate.management.dto.LoginResponse;
+import com.katok09.realestate.management.dto.UserInfo;
+import com.katok09.realestate.management.exception.RateLimitExceededException;
+import com.katok09.realestate.management.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class GuestLoginServiceTest {
+
+  @Mock
+  private AuthService authService;
+  @Mock
+  private JwtUtil jwtUtil;
+  @Mock
+  private TokenRevocationRegistry revocationRegistry;
+
+  private GuestLoginService sut;
+
+  private final UserInfo guest = new UserInfo(5, "guest", "ゲスト", "guest@example.com", "GUEST");
+
+  @BeforeEach
+  void before() {
+    sut = new GuestLoginService(authService, jwtUtil, revocationRegistry, 30, 3, 100);
+  }
+
+  @Test
+  void 初回はログイン処理を行い以降は照合済みのユーザー情報からトークンが発行されること() {
+
+    when(authService.authenticate(any(LoginRequest.class)))
+        .thenReturn(new LoginResponse("FirstToken", guest));
+    when(revocationRegistry.currentVersion(5)).thenReturn(2L);
+    when(jwtUtil.generateToken("guest", "GUEST", 5, 2L)).thenReturn("CachedToken");
+
+    assertThat(sut.login("10.0.0.1").getToken()).isEqualTo("FirstToken");
+    LoginResponse actual = sut.login("10.0.0.1");
+
+    assertThat(actual.getToken()).isEqualTo("CachedToken");
+    assertThat(actual.getUserInfo()).isSameAs(guest);
+    ArgumentCaptor<LoginRequest> captor = ArgumentCaptor.forClass(LoginRequest.class);
+    verify(authService, times(1)).authenticate(captor.capture());
+    assertThat(captor.getValue().getUsername()).isEqualTo("guest");
+    assertThat(sut.getIssuedCount()).isEqualTo(2);
+    assertThat(sut.getFastPathCount()).isEqualTo(1);
+  }
+
+  @Test
+  void トークンバージョンが更新された時は再度ログイン処理を行うこと() {
+
+    when(authService.authenticate(any(LoginRequest.class)))
+        .thenReturn(new LoginResponse("Token", guest));
+    when(revocationRegistry.currentVersion(5)).thenReturn(0L, 1L);
+
+    sut.login("10.0.0.1");
+    sut.login("10.0.0.1");
+
+    verify(authService, times(2)).authenticate(any(LoginRequest.class));
+  }
+
+  @Test
+  void クライアントごとの1分あたりの上限を超えた時に例外が発生すること() {
+
+    when(authService.authenticate(any(LoginRequest.class)))
+        .thenReturn(new LoginResponse("Token", guest));
+    when(jwtUtil.generateToken("guest", "GUEST", 5, 0L)).thenReturn("Token");
+
+    for (int i = 0; i < 3; i++) {
+      sut.login("10.0.0.1");
+    }
+
+    assertThatThrownBy(() -> sut.login("10.0.0.1"))
+        .isInstanceOf(RateLimitExceededException.class);
+    assertThat(sut.login("10.0.0.2").getToken()).isEqualTo("Token");
+    assertThat(sut.getRateLimitedCount()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,81 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.katok09.realestate.management.exception.LoginOverloadedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class PasswordVerifierTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  // 照合開始を通知し、releaseされるまで照合を完了しないエンコーダー
+  private final PasswordEncoder blockingEncoder = new PasswordEncoder() {
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return rawPassword.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      started.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return rawPassword.toString().equals(encodedPassword);
+    }
+  };
+
+  private PasswordVerifier sut;
+
+  @AfterEach
+  void after() {
+    release.countDown();
+    sut.shutdown();
+  }
+
+  @Test
+  void 専用のスレッドでパスワードを照合し結果と照合件数が返ること() {
+
+    release.countDown();
+    sut = new PasswordVerifier(blockingEncoder, 1, 1);
+
+    assertThat(sut.matches("password", "password")).isTrue();
+    assertThat(sut.matches("password", "other")).isFalse();
+    assertThat(sut.getVerifiedCount()).isEqualTo(2);
+    assertThat(sut.getRejectedCount()).isZero();
+  }
+
+  @Test
+  void 照合中かつ待ち行列が上限に達している時は待たずに例外が発生すること() throws Exception {
+
+    sut = new PasswordVerifier(blockingEncoder, 1, 1);
+
+    CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(
+        () -> sut.matches("password", "password"));
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(
+        () -> sut.matches("password", "password"));
+    while (sut.getQueueSize() < 1) {
+      Thread.sleep(10);
+    }
+
+    assertThatThrownBy(() -> sut.matches("password", "password"))
+        .isInstanceOf(LoginOverloadedException.class);
+    assertThat(sut.getRejectedCount()).isEqualTo(1);
+
+    // 照合中・照合待ちのログインは拒否されずに完了します。
+    release.countDown();
+    assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+  }
+}
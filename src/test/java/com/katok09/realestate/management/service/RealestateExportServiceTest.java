@@ -0,0 +1,143 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class RealestateExportServiceTest {
+
+  @Mock
+  private RealestateRepository repository;
+
+  private RealestateExportService sut;
+
+  @BeforeEach
+  void before() {
+    sut = new RealestateExportService(repository, new ObjectMapper());
+    ReflectionTestUtils.setField(sut, "chunkSize", 2);
+  }
+
+  @Test
+  void カーソルから読み込んだ不動産情報が1行1件のJSONで出力されカーソルがクローズされること()
+      throws Exception {
+
+    Cursor<RealestateDetail> cursor = createCursor(
+        List.of(createDetail(1, "ProjectA"), createDetail(2, "ProjectB")));
+    when(repository.exportRealestate(any(SearchParams.class))).thenReturn(cursor);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long actual = sut.exportNdjson(999, out);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(actual).isEqualTo(2);
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).contains("\"projectName\":\"ProjectA\"");
+    assertThat(lines[1]).contains("\"projectName\":\"ProjectB\"");
+    assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+    verify(cursor, times(1)).close();
+
+    ArgumentCaptor<SearchParams> captor = ArgumentCaptor.forClass(SearchParams.class);
+    verify(repository).exportRealestate(captor.capture());
+    assertThat(captor.getValue().getUserId()).isEqualTo(999);
+  }
+
+  @Test
+  void 不動産情報が無い時何も出力されないこと() throws Exception {
+
+    Cursor<RealestateDetail> cursor = createCursor(List.of());
+    when(repository.exportRealestate(any(SearchParams.class))).thenReturn(cursor);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long actual = sut.exportNdjson(999, out);
+
+    assertThat(actual).isEqualTo(0);
+    assertThat(out.size()).isEqualTo(0);
+  }
+
+  @Test
+  void CSV出力時に指定件数ずつプロジェクトIDのカーソル位置を進めながら全件出力されること() throws Exception {
+
+    List<Integer> cursorIds = new ArrayList<>();
+    when(repository.searchRealestate(any(SearchParams.class))).thenAnswer(invocation -> {
+      SearchParams params = invocation.getArgument(0);
+      cursorIds.add(params.getCursorId());
+      assertThat(params.getLimit()).isEqualTo(2);
+      return params.getCursorId() == null
+          ? List.of(createDetail(1, "ProjectA"), createDetail(5, "ProjectB"))
+          : List.of(createDetail(9, "ProjectC"));
+    });
+    SearchParams searchParams = new SearchParams();
+    searchParams.setSort("projectName");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long actual = sut.exportCsv(searchParams, 999, out, false);
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertThat(actual).isEqualTo(3);
+    assertThat(lines).hasSize(4);
+    assertThat(lines[0]).startsWith("\uFEFFプロジェクトID,プロジェクト名,");
+    assertThat(lines[1]).startsWith("1,ProjectA,");
+    assertThat(lines[3]).startsWith("9,ProjectC,");
+    assertThat(cursorIds).containsExactly(null, 5);
+    assertThat(searchParams.getUserId()).isEqualTo(999);
+    assertThat(searchParams.isSortByProjectName()).isFalse();
+  }
+
+  @Test
+  void CSV出力時にgzipを指定した時gzip圧縮して出力されること() throws Exception {
+
+    when(repository.searchRealestate(any(SearchParams.class)))
+        .thenReturn(List.of(createDetail(1, "ProjectA")));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    sut.exportCsv(new SearchParams(), 999, out, true);
+
+    try (GZIPInputStream in = new GZIPInputStream(
+        new ByteArrayInputStream(out.toByteArray()))) {
+      String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      assertThat(csv).startsWith("\uFEFFプロジェクトID,");
+      assertThat(csv).contains("\r\n1,ProjectA,");
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cursor<RealestateDetail> createCursor(List<RealestateDetail> details) {
+    Cursor<RealestateDetail> cursor = mock(Cursor.class);
+    when(cursor.iterator()).thenReturn(details.iterator());
+    return cursor;
+  }
+
+  private RealestateDetail createDetail(int projectId, String projectName) {
+    Project project = new Project();
+    project.setId(projectId);
+    project.setProjectName(projectName);
+    return new RealestateDetail(project, new Parcel(), new Building(), new IncomeAndExpenses());
+  }
+}
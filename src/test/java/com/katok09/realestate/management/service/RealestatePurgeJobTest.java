@@ -0,0 +1,56 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RealestatePurgeJobTest {
+
+  @Mock
+  private RealestateRepository repository;
+
+  private RealestatePurgeJob sut;
+
+  @BeforeEach
+  void before() {
+    sut = new RealestatePurgeJob(repository, 2, 0);
+  }
+
+  @Test
+  void 論理削除済みの不動産情報を指定件数ずつ物理削除すること() {
+
+    when(repository.findDeletedProjectIds(2))
+        .thenReturn(List.of(1, 2), List.of(3, 4), List.of(5));
+    when(repository.purgeProjects(anyList()))
+        .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+    int actual = sut.purge();
+
+    assertThat(actual).isEqualTo(5);
+    verify(repository, times(1)).purgeProjects(List.of(1, 2));
+    verify(repository, times(1)).purgeProjects(List.of(3, 4));
+    verify(repository, times(1)).purgeProjects(List.of(5));
+    verify(repository, times(3)).findDeletedProjectIds(2);
+  }
+
+  @Test
+  void 論理削除済みの不動産情報が無い場合は物理削除しないこと() {
+
+    when(repository.findDeletedProjectIds(2)).thenReturn(List.of());
+
+    assertThat(sut.purge()).isEqualTo(0);
+    verify(repository, never()).purgeProjects(anyList());
+  }
+}
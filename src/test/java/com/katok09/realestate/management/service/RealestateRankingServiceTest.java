@@ -0,0 +1,74 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.dto.YieldRank;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RealestateRankingServiceTest {
+
+  @Mock
+  private RealestateRepository repository;
+
+  @Test
+  void スナップショットは初回のみ構築され破棄後に再構築されること() {
+
+    RealestateRankingService sut = new RealestateRankingService(repository, 10);
+    when(repository.searchRealestate(any(SearchParams.class)))
+        .thenReturn(List.of(createDetail(1, 10000)))
+        .thenReturn(List.of(createDetail(1, 10000), createDetail(2, 20000)));
+
+    sut.rank(new RankingParams(), 999);
+    assertThat(sut.rank(new RankingParams(), 999).getItems()).hasSize(1);
+    verify(repository, times(1)).searchRealestate(any(SearchParams.class));
+    assertThat(sut.size()).isEqualTo(1);
+
+    sut.evict(999);
+
+    assertThat(sut.rank(new RankingParams(), 999).getItems()).extracting(YieldRank::getProjectId)
+        .containsExactly(2, 1);
+    verify(repository, times(2)).searchRealestate(any(SearchParams.class));
+  }
+
+  @Test
+  void 保持するユーザー数が上限の時スナップショットを保持せず毎回構築すること() {
+
+    RealestateRankingService sut = new RealestateRankingService(repository, 1);
+    when(repository.searchRealestate(any(SearchParams.class)))
+        .thenReturn(List.of(createDetail(1, 10000)));
+
+    sut.rank(new RankingParams(), 1);
+    sut.rank(new RankingParams(), 2);
+    sut.rank(new RankingParams(), 2);
+
+    assertThat(sut.size()).isEqualTo(1);
+    verify(repository, times(3)).searchRealestate(any(SearchParams.class));
+  }
+
+  private static RealestateDetail createDetail(int projectId, int rent) {
+    Project project = new Project();
+    project.setId(projectId);
+    Parcel parcel = new Parcel();
+    parcel.setParcelPrice(1000000L);
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setRent(rent);
+    return new RealestateDetail(project, parcel, new Building(), incomeAndExpenses);
+  }
+}
@@ -0,0 +1,284 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.config.MyBatisConfig;
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.repository.RealestateRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@ExtendWith(MockitoExtension.class)
+public class RealestateSearchIndexTest {
+
+  @Mock
+  private RealestateRepository repository;
+
+  private RealestateSearchIndex sut;
+
+  @BeforeEach
+  void before() {
+    // インデックスの構築は呼び出し元スレッドで同期的に実行します。
+    sut = new RealestateSearchIndex(repository, Runnable::run, true, 10);
+  }
+
+  @Test
+  void 未構築のユーザーの検索はSQLで処理しインデックスを構築すること() {
+
+    when(repository.searchRealestate(any())).thenReturn(createDetails());
+
+    Optional<List<RealestateDetail>> cold = sut.search(createSearchParams());
+    Optional<List<RealestateDetail>> warm = sut.search(createSearchParams());
+
+    assertThat(cold).isEmpty();
+    assertThat(warm).isPresent();
+    assertThat(warm.get()).hasSize(4);
+    assertThat(sut.size()).isEqualTo(1);
+  }
+
+  @Test
+  void プロジェクト名と土地住所の部分一致で検索できること() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSearchProjectName("三条");
+    searchParams.setSearchParcelAddress("燕市");
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(2);
+  }
+
+  @Test
+  void 一文字の検索語と大文字小文字の異なる検索語で検索できること() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSearchProjectName("ap");
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    searchParams.setSearchProjectName("町");
+    List<RealestateDetail> singleChar = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(1, 2);
+    assertThat(singleChar).extracting(detail -> detail.getProject().getId())
+        .containsExactly(3, 4);
+  }
+
+  @Test
+  void 全角半角とアクセントとカタカナひらがなの異なる検索語で検索できること() {
+
+    when(repository.searchRealestate(any())).thenReturn(List.of(
+        createDetail(1, "Café ｸﾞﾗﾝﾄﾞﾊｲﾂ", "新潟県三条市", "アパート", "木造", 0),
+        createDetail(2, "キャンパスＡＰ", "新潟県燕市", "アパート", "木造", 0)));
+    sut.search(createSearchParams());
+
+    assertThat(searchProjectIds("CAFE")).containsExactly(1);
+    assertThat(searchProjectIds("ぐらんど")).containsExactly(1);
+    assertThat(searchProjectIds("きやんはす")).containsExactly(2);
+    assertThat(searchProjectIds("ap")).containsExactly(2);
+  }
+
+  @Test
+  void インデックスの検索結果が照合順序の同じSQLの検索結果と一致すること() throws Exception {
+
+    // 大文字・小文字、アクセント、カタカナ・ひらがな、濁点、小書きの仮名を区別しない照合順序のDBで、同じ検索をSQLとインデックスで実行します。
+    RealestateRepository sqlRepository = createCollatedRepository();
+    RealestateSearchIndex index = new RealestateSearchIndex(sqlRepository, Runnable::run, true, 10);
+    index.search(createSearchParams());
+
+    for (String term : List.of("三条", "ap", "cafe", "CAFÉ", "ぐらんど", "くらんと", "ハイツ",
+        "キャンパス", "きやんはす", "ぱれす")) {
+      SearchParams searchParams = createSearchParams();
+      searchParams.setSearchProjectName(term);
+      List<Integer> expected = sqlRepository.searchRealestate(searchParams).stream()
+          .map(detail -> detail.getProject().getId()).toList();
+
+      assertThat(index.search(searchParams)).as(term).hasValueSatisfying(actual ->
+          assertThat(actual).extracting(detail -> detail.getProject().getId())
+              .containsExactlyElementsOf(expected));
+    }
+  }
+
+  @Test
+  void バイグラムを全て含んでも連続していない検索語には一致しないこと() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    // 「東三条AP」は「三条」「AP」を含みますが「三条町」は含みません。
+    searchParams.setSearchProjectName("三条町");
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).isEmpty();
+  }
+
+  @Test
+  void 建物種別と建物構造と融資有無で検索できること() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSearchBuildingType("戸建");
+    searchParams.setSearchBuildingStructure("木");
+    searchParams.setSearchFinancing(false);
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    searchParams.setSearchFinancing(true);
+    List<RealestateDetail> financed = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(4);
+    assertThat(financed).extracting(detail -> detail.getProject().getId()).containsExactly(3);
+  }
+
+  @Test
+  void カーソル位置以降をプロジェクトIDの降順に指定件数まで取得できること() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    searchParams.setDescending(true);
+    searchParams.setCursorId(4);
+    searchParams.setLimit(2);
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(3, 2);
+  }
+
+  @Test
+  void 削除がインデックスに反映されること() {
+
+    warmUp();
+    sut.remove(1, 2);
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSearchProjectName("ap");
+
+    List<RealestateDetail> actual = sut.search(searchParams).orElseThrow();
+
+    assertThat(actual).extracting(detail -> detail.getProject().getId()).containsExactly(1);
+  }
+
+  @Test
+  void プロジェクト名順の検索はSQLで処理されること() {
+
+    warmUp();
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSortByProjectName(true);
+
+    assertThat(sut.search(searchParams)).isEmpty();
+  }
+
+  @Test
+  void 無効の場合はインデックスを構築しないこと() {
+
+    sut = new RealestateSearchIndex(repository, Runnable::run, false, 10);
+
+    assertThat(sut.search(createSearchParams())).isEmpty();
+    verify(repository, never()).searchRealestate(any());
+    assertThat(sut.size()).isEqualTo(0);
+  }
+
+  @Test
+  void 破棄したユーザーのインデックスは次回の検索時に再構築されること() {
+
+    warmUp();
+
+    sut.evict(1);
+
+    assertThat(sut.size()).isEqualTo(0);
+    assertThat(sut.search(createSearchParams())).isEmpty();
+    assertThat(sut.search(createSearchParams())).isPresent();
+  }
+
+  private void warmUp() {
+    when(repository.searchRealestate(any())).thenReturn(createDetails());
+    sut.search(createSearchParams());
+  }
+
+  private List<Integer> searchProjectIds(String projectName) {
+    SearchParams searchParams = createSearchParams();
+    searchParams.setSearchProjectName(projectName);
+    return sut.search(searchParams).orElseThrow().stream()
+        .map(detail -> detail.getProject().getId()).toList();
+  }
+
+  /**
+   * 照合順序の強度をPRIMARY（大文字・小文字、アクセント、仮名の種類を区別しない）としたH2のDBに、
+   * テストデータと照合順序で一致を判定するプロジェクトを登録し、不動産情報リポジトリを生成します。
+   */
+  private RealestateRepository createCollatedRepository() throws Exception {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:searchIndexCollation;MODE=MySql;DB_CLOSE_DELAY=-1", "sa", "");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("DROP ALL OBJECTS");
+    jdbcTemplate.execute("SET COLLATION JAPANESE STRENGTH PRIMARY");
+    jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+    jdbcTemplate.execute("RUNSCRIPT FROM 'classpath:data.sql'");
+    jdbcTemplate.update("INSERT INTO projects (user_id, project_name, is_deleted)"
+        + " VALUES (1, 'Café Tokyo', false), (1, 'グランドハイツ', false), (1, 'きゃんぱす寮', false),"
+        + " (1, 'パレス三条', false)");
+
+    SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
+    factoryBean.setDataSource(dataSource);
+    factoryBean.setDatabaseIdProvider(new MyBatisConfig().databaseIdProvider());
+    factoryBean.setMapperLocations(
+        new PathMatchingResourcePatternResolver().getResources("classpath*:/mapper/*.xml"));
+    Configuration configuration = new Configuration();
+    configuration.setMapUnderscoreToCamelCase(true);
+    factoryBean.setConfiguration(configuration);
+    return new SqlSessionTemplate(factoryBean.getObject()).getMapper(RealestateRepository.class);
+  }
+
+  private SearchParams createSearchParams() {
+    SearchParams searchParams = new SearchParams();
+    searchParams.setUserId(1);
+    searchParams.setLimit(10);
+    return searchParams;
+  }
+
+  private List<RealestateDetail> createDetails() {
+    List<RealestateDetail> details = new ArrayList<>();
+    details.add(createDetail(1, "東三条AP", "新潟県三条市東三条", "アパート", "木造", 1000));
+    details.add(createDetail(2, "西三条AP", "新潟県燕市西三条", "アパート", "鉄骨造", 0));
+    details.add(createDetail(3, "寿町戸建", "新潟県三条市寿町", "戸建", "木造", 500));
+    details.add(createDetail(4, "南四日町戸建", "新潟県三条市南四日町", "戸建", "木造", 0));
+    return details;
+  }
+
+  private RealestateDetail createDetail(int projectId, String projectName, String parcelAddress,
+      String buildingType, String buildingStructure, int principal) {
+    Project project = new Project();
+    project.setId(projectId);
+    project.setProjectName(projectName);
+    Parcel parcel = new Parcel();
+    parcel.setParcelAddress(parcelAddress);
+    Building building = new Building();
+    building.setBuildingType(buildingType);
+    building.setBuildingStructure(buildingStructure);
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setPrincipal(principal);
+    return new RealestateDetail(project, parcel, building, incomeAndExpenses);
+  }
+}
@@ -1,8 +1,13 @@
 package com.katok09.realestate.management.service;
 
-import static org.mockito.Mockito.mock;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import com.katok09.realestate.management.data.Building;
@@ -10,15 +15,23 @@ import com.katok09.realestate.management.data.IncomeAndExpenses;
 import com.katok09.realestate.management.data.Parcel;
 import com.katok09.realestate.management.data.Project;
 import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.PortfolioAggregate;
+import com.katok09.realestate.management.dto.PortfolioMetrics;
+import com.katok09.realestate.management.dto.PortfolioSummary;
+import com.katok09.realestate.management.dto.RealestatePage;
 import com.katok09.realestate.management.dto.SearchParams;
+import com.katok09.realestate.management.exception.ResourceNotFoundException;
 import com.katok09.realestate.management.repository.RealestateRepository;
-import com.katok09.realestate.management.util.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.katok09.realestate.management.util.SearchCursor;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class RealestateServiceTest {
@@ -27,28 +40,126 @@ public class RealestateServiceTest {
   private RealestateRepository repository;
 
   @Mock
-  private JwtUtil jwtUtil;
+  private RealestateSearchIndex searchIndex;
+
+  @Mock
+  private RealestateRankingService rankingService;
 
   private RealestateService sut;
 
 
   @BeforeEach
   void before() {
-    sut = new RealestateService(repository, jwtUtil);
+    sut = new RealestateService(repository, searchIndex, rankingService);
+    ReflectionTestUtils.setField(sut, "defaultPageSize", 2);
+    ReflectionTestUtils.setField(sut, "maxPageSize", 3);
   }
 
   @Test
   void 不動産一覧_検索_リポジトリが適切に呼び出されていること() {
 
     SearchParams dummySearchParams = new SearchParams();
-    HttpServletRequest dummyRequestToken = mock(HttpServletRequest.class);
 
-    when(jwtUtil.extractTokenFromRequest(dummyRequestToken)).thenReturn("DummyToken");
-    when(jwtUtil.getUserIdFromToken("DummyToken")).thenReturn(999);
-
-    sut.searchRealestate(dummySearchParams, dummyRequestToken);
+    RealestatePage actual = sut.searchRealestate(dummySearchParams, 999);
 
     verify(repository, times(1)).searchRealestate(dummySearchParams);
+    assertThat(dummySearchParams.getUserId()).isEqualTo(999);
+    assertThat(dummySearchParams.getLimit()).isEqualTo(3);
+    assertThat(actual.getItems()).isEmpty();
+    assertThat(actual.getNextCursor()).isNull();
+  }
+
+  @Test
+  void 不動産一覧_検索_次ページがある時1ページ分の結果と次ページ用カーソルが返ること() {
+
+    SearchParams dummySearchParams = new SearchParams();
+    dummySearchParams.setSort("projectName");
+    dummySearchParams.setOrder("desc");
+    when(repository.searchRealestate(dummySearchParams)).thenReturn(List.of(
+        createDetail(3, "C"), createDetail(2, "B"), createDetail(1, "A")));
+
+    RealestatePage actual = sut.searchRealestate(dummySearchParams, 999);
+
+    assertThat(actual.getItems()).extracting(detail -> detail.getProject().getId())
+        .containsExactly(3, 2);
+    SearchCursor nextCursor = SearchCursor.decode(actual.getNextCursor(), "projectName", "desc");
+    assertThat(nextCursor.getProjectId()).isEqualTo(2);
+    assertThat(nextCursor.getValue()).isEqualTo("B");
+  }
+
+  @Test
+  void 不動産一覧_検索_カーソルを指定した時カーソル位置がリポジトリに渡されること() {
+
+    SearchParams dummySearchParams = new SearchParams();
+    dummySearchParams.setCursor(new SearchCursor("id", "asc", 7, null).encode());
+    dummySearchParams.setSize(100);
+
+    sut.searchRealestate(dummySearchParams, 999);
+
+    assertThat(dummySearchParams.getCursorId()).isEqualTo(7);
+    assertThat(dummySearchParams.isSortByProjectName()).isFalse();
+    assertThat(dummySearchParams.isDescending()).isFalse();
+    // 取得件数は上限件数（3件）に切り詰められ、次ページ判定用に1件多く取得します。
+    assertThat(dummySearchParams.getLimit()).isEqualTo(4);
+  }
+
+  @Test
+  void 不動産一覧_検索_検索インデックスで処理できた時リポジトリが呼び出されないこと() {
+
+    SearchParams dummySearchParams = new SearchParams();
+    when(searchIndex.search(dummySearchParams))
+        .thenReturn(Optional.of(List.of(createDetail(1, "A"))));
+
+    RealestatePage actual = sut.searchRealestate(dummySearchParams, 999);
+
+    verify(repository, never()).searchRealestate(any());
+    assertThat(actual.getItems()).extracting(detail -> detail.getProject().getId())
+        .containsExactly(1);
+  }
+
+  @Test
+  void 不動産一覧_検索_並び替え条件が異なるカーソルを指定した時例外が発生すること() {
+
+    SearchParams dummySearchParams = new SearchParams();
+    dummySearchParams.setSort("projectName");
+    dummySearchParams.setCursor(new SearchCursor("id", "asc", 7, null).encode());
+
+    assertThatThrownBy(() -> sut.searchRealestate(dummySearchParams, 999))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("カーソルが不正です。");
+    verify(repository, never()).searchRealestate(any(SearchParams.class));
+  }
+
+  @Test
+  void 不動産収支サマリー_集計行を合算し全体と建物種別ごとと建物構造ごとの集計値が返ること() {
+
+    when(repository.summarizeRealestate(999)).thenReturn(List.of(
+        new PortfolioAggregate("アパート", "木造", 2, 2, 10000000L, 100000L, 20000L, 50000L),
+        new PortfolioAggregate("アパート", "鉄骨造", 1, 0, 5000000L, 50000L, 10000L, 0L),
+        new PortfolioAggregate(null, "木造", 1, 0, 0L, 10000L, 1000L, 0L)));
+
+    PortfolioSummary actual = sut.getSummary(999);
+
+    PortfolioMetrics total = actual.getTotal();
+    assertThat(total.getLabel()).isNull();
+    assertThat(total.getProjectCount()).isEqualTo(4);
+    assertThat(total.getFinancedCount()).isEqualTo(2);
+    assertThat(total.getTotalPrice()).isEqualTo(15000000L);
+    assertThat(total.getMonthlyRent()).isEqualTo(160000L);
+    assertThat(total.getMonthlyCashFlow()).isEqualTo(160000L - 31000L - 50000L);
+    assertThat(total.getAnnualCashFlow()).isEqualTo((160000L - 31000L - 50000L) * 12);
+    // 表面利回り 160000×12÷15000000、実質利回り (160000-31000)×12÷15000000
+    assertThat(total.getGrossYield()).isEqualTo(12.8);
+    assertThat(total.getNetYield()).isEqualTo(10.32);
+
+    assertThat(actual.getByBuildingType()).extracting(PortfolioMetrics::getLabel)
+        .containsExactly("アパート", "未設定");
+    assertThat(actual.getByBuildingType().get(0).getProjectCount()).isEqualTo(3);
+    // 取得価格が0円の場合は利回りを求めません。
+    assertThat(actual.getByBuildingType().get(1).getGrossYield()).isNull();
+    assertThat(actual.getByBuildingStructure()).extracting(PortfolioMetrics::getLabel)
+        .containsExactly("木造", "鉄骨造");
+    assertThat(actual.getByBuildingStructure().get(0).getMonthlyRent()).isEqualTo(110000L);
   }
 
   @Test
@@ -56,17 +167,18 @@ public class RealestateServiceTest {
 
     RealestateDetail dummyRequest = new RealestateDetail(
         new Project(), new Parcel(), new Building(), new IncomeAndExpenses());
-    HttpServletRequest dummyRequestToken = mock(HttpServletRequest.class);
-
-    when(jwtUtil.extractTokenFromRequest(dummyRequestToken)).thenReturn("DummyToken");
-    when(jwtUtil.getUserIdFromToken("DummyToken")).thenReturn(999);
 
-    sut.registerRealestate(dummyRequest, dummyRequestToken);
+    sut.registerRealestate(dummyRequest, 999);
 
     verify(repository, times(1)).registerProject(dummyRequest.getProject());
     verify(repository, times(1)).registerParcel(dummyRequest.getParcel());
     verify(repository, times(1)).registerBuilding(dummyRequest.getBuilding());
     verify(repository, times(1)).registerIncomeAndExpenses(dummyRequest.getIncomeAndExpenses());
+    verify(repository, times(1)).applySummaryDelta(List.of(0), 999, 1);
+    verify(searchIndex, times(1)).evict(999);
+    verify(rankingService, times(1)).evict(999);
+    assertThat(dummyRequest.getParcel().getUserId()).isEqualTo(999);
+    assertThat(dummyRequest.getIncomeAndExpenses().getUserId()).isEqualTo(999);
   }
 
   @Test
@@ -79,42 +191,68 @@ public class RealestateServiceTest {
     dummyRequest.getBuilding().setUserId(999);
     dummyRequest.getIncomeAndExpenses().setUserId(999);
 
-    HttpServletRequest dummyRequestToken = mock(HttpServletRequest.class);
-
-    when(jwtUtil.extractTokenFromRequest(dummyRequestToken)).thenReturn("DummyToken");
-    when(jwtUtil.getUserIdFromToken("DummyToken")).thenReturn(999);
     when(repository.updateProject(dummyRequest.getProject())).thenReturn(1);
     when(repository.updateParcel(dummyRequest.getParcel())).thenReturn(1);
     when(repository.updateBuilding(dummyRequest.getBuilding())).thenReturn(1);
     when(repository.updateIncomeAndExpenses(dummyRequest.getIncomeAndExpenses())).thenReturn(1);
 
-    sut.updateRealestate(dummyRequest, dummyRequestToken);
+    sut.updateRealestate(dummyRequest, 999);
 
-    verify(repository, times(1)).updateProject(dummyRequest.getProject());
-    verify(repository, times(1)).updateParcel(dummyRequest.getParcel());
-    verify(repository, times(1)).updateBuilding(dummyRequest.getBuilding());
-    verify(repository, times(1)).updateIncomeAndExpenses(dummyRequest.getIncomeAndExpenses());
+    // 不動産収支集計は更新前に減算し、更新後に加算します。
+    InOrder inOrder = inOrder(repository);
+    inOrder.verify(repository).applySummaryDelta(List.of(0), 999, -1);
+    inOrder.verify(repository).updateProject(dummyRequest.getProject());
+    inOrder.verify(repository).updateParcel(dummyRequest.getParcel());
+    inOrder.verify(repository).updateBuilding(dummyRequest.getBuilding());
+    inOrder.verify(repository).updateIncomeAndExpenses(dummyRequest.getIncomeAndExpenses());
+    inOrder.verify(repository).applySummaryDelta(List.of(0), 999, 1);
+    verify(searchIndex, times(1)).evict(999);
   }
 
   @Test
   void 不動産削除_リポジトリが適切に呼び出されていること() {
 
     int projectId = 999;
-    HttpServletRequest dummyRequestToken = mock(HttpServletRequest.class);
 
-    when(jwtUtil.extractTokenFromRequest(dummyRequestToken)).thenReturn("DummyToken");
-    when(jwtUtil.getUserIdFromToken("DummyToken")).thenReturn(999);
     when(repository.deleteProject(projectId, 999)).thenReturn(1);
-    when(repository.deleteParcel(projectId, 999)).thenReturn(1);
-    when(repository.deleteBuilding(projectId, 999)).thenReturn(1);
-    when(repository.deleteIncomeAndExpenses(projectId, 999)).thenReturn(1);
 
-    sut.deleteRealestate(projectId, dummyRequestToken);
+    sut.deleteRealestate(projectId, 999);
+
+    // 土地・建物・収支情報は外部キーで削除されるため、DELETEはプロジェクトの1回のみです。
+    InOrder inOrder = inOrder(repository);
+    inOrder.verify(repository).applySummaryDelta(List.of(projectId), 999, -1);
+    inOrder.verify(repository).deleteProject(projectId, 999);
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  void 不動産削除_削除対象のプロジェクトが存在しない時例外が発生すること() {
+
+    when(repository.deleteProject(999, 999)).thenReturn(0);
 
-    verify(repository, times(1)).deleteProject(projectId, 999);
-    verify(repository, times(1)).deleteParcel(projectId, 999);
-    verify(repository, times(1)).deleteBuilding(projectId, 999);
-    verify(repository, times(1)).deleteIncomeAndExpenses(projectId, 999);
+    assertThatThrownBy(() -> sut.deleteRealestate(999, 999))
+        .isInstanceOf(ResourceNotFoundException.class)
+        .hasMessage("削除対象のプロジェクトが存在しません。");
+    verify(searchIndex, never()).remove(999, 999);
+    verify(rankingService, never()).evict(999);
   }
 
+  @Test
+  void ユーザーの不動産全削除_リポジトリが適切に呼び出されていること() {
+
+    sut.deleteRealestateByUserId(999);
+
+    verify(repository, times(1)).deleteProjectByUserId(999);
+    verify(repository, times(1)).deleteSummaryByUserId(999);
+    verifyNoMoreInteractions(repository);
+    verify(searchIndex, times(1)).evict(999);
+    verify(rankingService, times(1)).evict(999);
+  }
+
+  private RealestateDetail createDetail(int projectId, String projectName) {
+    Project project = new Project();
+    project.setId(projectId);
+    project.setProjectName(projectName);
+    return new RealestateDetail(project, new Parcel(), new Building(), new IncomeAndExpenses());
+  }
 }
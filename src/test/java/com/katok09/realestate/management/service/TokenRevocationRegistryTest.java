@@ -0,0 +1,137 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.katok09.realestate.management.data.User;
+import com.katok09.realestate.management.repository.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationRegistryTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void 失効させたユーザーの失効前に発行されたトークンのみ失効済みとなること() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, 86400);
+    long issuedVersion = sut.currentVersion(999);
+
+    sut.revoke(999);
+
+    assertThat(sut.isRevoked(999, issuedVersion)).isTrue();
+    assertThat(sut.isRevoked(999, sut.currentVersion(999))).isFalse();
+    assertThat(sut.isRevoked(1, 0L)).isFalse();
+    // 再起動後も失効が有効となるようDBに保存します。
+    verify(userRepository, times(1)).updateTokenVersion(999, sut.currentVersion(999));
+  }
+
+  @Test
+  void 同じユーザーを連続で失効させた時トークンバージョンが必ず進むこと() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, 86400);
+
+    sut.revoke(999);
+    long firstVersion = sut.currentVersion(999);
+    sut.revoke(999);
+
+    assertThat(sut.currentVersion(999)).isGreaterThan(firstVersion);
+    assertThat(sut.isRevoked(999, firstVersion)).isTrue();
+  }
+
+  @Test
+  void トランザクション内で失効させた時コミット後の再失効も新しいトランザクションでDBに保存されること() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, 86400);
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      sut.revoke(999);
+      long revokedVersion = sut.currentVersion(999);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+
+      assertThat(sut.currentVersion(999)).isGreaterThan(revokedVersion);
+      verify(userRepository, times(1)).updateTokenVersion(999, revokedVersion);
+      verify(userRepository, times(1)).updateTokenVersion(999, sut.currentVersion(999));
+      verify(transactionManager, times(1)).commit(any());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void トークン有効期限を過ぎた失効情報は破棄されること() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, -1);
+
+    sut.revoke(1);
+
+    assertThat(sut.size()).isEqualTo(0);
+    assertThat(sut.currentVersion(1)).isEqualTo(0L);
+  }
+
+  @Test
+  void クレーム信頼モードの時起動時に無効ロック中削除済みユーザーのトークンを失効させること() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, 86400);
+    when(userRepository.findInactiveUserIds()).thenReturn(List.of(3, 4));
+
+    sut.revokeInactiveUsers();
+
+    assertThat(sut.isRevoked(3, 0L)).isTrue();
+    assertThat(sut.isRevoked(4, 0L)).isTrue();
+    assertThat(sut.isRevoked(2, 0L)).isFalse();
+  }
+
+  @Test
+  void クレーム信頼モードの時起動時にDBに保存したトークンバージョンを読み込むこと() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        true, 86400);
+    long revokedAt = System.currentTimeMillis() - 60_000;
+    User revoked = new User();
+    revoked.setId(2);
+    revoked.setTokenVersion(revokedAt);
+    when(userRepository.findRevokedUsers(anyLong())).thenReturn(List.of(revoked));
+
+    sut.revokeInactiveUsers();
+
+    // ロール変更等で失効させたトークンは再起動後も失効済みのままとなり、失効後に発行したトークンは有効です。
+    assertThat(sut.isRevoked(2, 0L)).isTrue();
+    assertThat(sut.isRevoked(2, revokedAt)).isFalse();
+  }
+
+  @Test
+  void DB認証モードの時起動時にユーザー情報を取得しないこと() {
+
+    TokenRevocationRegistry sut = new TokenRevocationRegistry(userRepository, transactionManager,
+        false, 86400);
+
+    sut.revokeInactiveUsers();
+
+    verify(userRepository, never()).findInactiveUserIds();
+    verify(userRepository, never()).findRevokedUsers(anyLong());
+  }
+}
@@ -2,6 +2,10 @@ package com.katok09.realestate.management.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.katok09.realestate.management.data.User;
@@ -23,11 +27,14 @@ public class UserDetailsServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserPrincipalCache principalCache;
+
   private UserDetailsServiceImpl sut;
 
   @BeforeEach
   void before() {
-    sut = new UserDetailsServiceImpl(userRepository);
+    sut = new UserDetailsServiceImpl(userRepository, principalCache);
   }
 
   @Test
@@ -48,6 +55,38 @@ public class UserDetailsServiceImplTest {
     assertThat(actual).isInstanceOf(UserDetails.class);
   }
 
+  @Test
+  void トークン認証用のユーザー詳細情報がキャッシュにある時DBを検索しないこと() {
+
+    User dummyUser = new User();
+    dummyUser.setId(999);
+    dummyUser.setUsername("DummyUser");
+    CustomUserPrincipal cached = new CustomUserPrincipal(dummyUser);
+    when(principalCache.get("DummyUser")).thenReturn(cached);
+
+    UserDetails actual = sut.loadUserByUsernameCached("DummyUser");
+
+    assertThat(actual).isSameAs(cached);
+    verify(userRepository, never()).findByUsername(anyString());
+  }
+
+  @Test
+  void トークン認証用のユーザー詳細情報がキャッシュに無い時DBから取得しキャッシュに保持すること() {
+
+    User dummyUser = new User();
+    dummyUser.setId(999);
+    dummyUser.setUsername("DummyUser");
+    dummyUser.setEnabled(true);
+    when(principalCache.get("DummyUser")).thenReturn(null);
+    when(principalCache.currentGeneration()).thenReturn(5L);
+    when(userRepository.findByUsername("DummyUser")).thenReturn(Optional.of(dummyUser));
+
+    UserDetails actual = sut.loadUserByUsernameCached("DummyUser");
+
+    assertThat(actual.getUsername()).isEqualTo("DummyUser");
+    verify(principalCache, times(1)).put((CustomUserPrincipal) actual, 5L);
+  }
+
   @Test
   void 登録されてないユーザー詳細情報を取得する時エラーメッセージが返ること() {
 
@@ -0,0 +1,92 @@
+package com.katok09.realestate.management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.katok09.realestate.management.data.User;
+import com.katok09.realestate.management.service.UserDetailsServiceImpl.CustomUserPrincipal;
+import org.junit.jupiter.api.Test;
+
+public class UserPrincipalCacheTest {
+
+  @Test
+  void 保持したユーザー詳細情報をユーザー名で取得できること() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(30, 10);
+    CustomUserPrincipal principal = createPrincipal(999, "DummyUser");
+
+    sut.put(principal, sut.currentGeneration());
+
+    assertThat(sut.get("DummyUser")).isSameAs(principal);
+  }
+
+  @Test
+  void ユーザーIDを指定して破棄した時ユーザー詳細情報が取得できなくなること() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(30, 10);
+    sut.put(createPrincipal(999, "DummyUser"), sut.currentGeneration());
+
+    sut.evict(999);
+
+    assertThat(sut.get("DummyUser")).isNull();
+    assertThat(sut.size()).isEqualTo(0);
+  }
+
+  @Test
+  void DB読み込み中に破棄が行われた時読み込んだ値を保持しないこと() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(30, 10);
+    long generation = sut.currentGeneration();
+
+    sut.evict(999);
+    sut.put(createPrincipal(999, "DummyUser"), generation);
+
+    assertThat(sut.get("DummyUser")).isNull();
+  }
+
+  @Test
+  void 同じユーザーIDでユーザー名が変更された時古いユーザー名のエントリが破棄されること() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(30, 10);
+    sut.put(createPrincipal(999, "OldUser"), sut.currentGeneration());
+
+    sut.put(createPrincipal(999, "NewUser"), sut.currentGeneration());
+
+    assertThat(sut.get("OldUser")).isNull();
+    assertThat(sut.get("NewUser")).isNotNull();
+    assertThat(sut.size()).isEqualTo(1);
+  }
+
+  @Test
+  void 最大件数を超えた時最も長く参照されていないエントリが破棄されること() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(30, 2);
+    sut.put(createPrincipal(1, "User1"), sut.currentGeneration());
+    sut.put(createPrincipal(2, "User2"), sut.currentGeneration());
+    sut.get("User1");
+
+    sut.put(createPrincipal(3, "User3"), sut.currentGeneration());
+
+    assertThat(sut.get("User1")).isNotNull();
+    assertThat(sut.get("User2")).isNull();
+    assertThat(sut.get("User3")).isNotNull();
+  }
+
+  @Test
+  void TTLが0の時キャッシュが無効となること() {
+
+    UserPrincipalCache sut = new UserPrincipalCache(0, 10);
+
+    sut.put(createPrincipal(999, "DummyUser"), sut.currentGeneration());
+
+    assertThat(sut.isEnabled()).isFalse();
+    assertThat(sut.get("DummyUser")).isNull();
+  }
+
+  private CustomUserPrincipal createPrincipal(int id, String username) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername(username);
+    user.setEnabled(true);
+    return new CustomUserPrincipal(user);
+  }
+}
@@ -0,0 +1,27 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class BCryptStrengthCalibratorTest {
+
+  @Test
+  void 計測した処理時間から目標時間に収まる最大の強度が返ること() {
+
+    // 強度8で6ms → 強度9で12ms、10で24ms、11で48ms、12で96ms、13で192ms
+    assertThat(BCryptStrengthCalibrator.strengthFor(6, 8, 100, 4, 16)).isEqualTo(12);
+    assertThat(BCryptStrengthCalibrator.strengthFor(6, 8, 96, 4, 16)).isEqualTo(12);
+    assertThat(BCryptStrengthCalibrator.strengthFor(6, 8, 95, 4, 16)).isEqualTo(11);
+    // 計測に使用した強度でも目標時間を超える場合は強度を下げます。
+    assertThat(BCryptStrengthCalibrator.strengthFor(40, 8, 10, 4, 16)).isEqualTo(6);
+  }
+
+  @Test
+  void 求めた強度が下限と上限の範囲に収まること() {
+
+    assertThat(BCryptStrengthCalibrator.strengthFor(6, 8, 100, 10, 11)).isEqualTo(11);
+    assertThat(BCryptStrengthCalibrator.strengthFor(200, 8, 100, 10, 16)).isEqualTo(10);
+    assertThat(BCryptStrengthCalibrator.strengthFor(0, 8, 100, 10, 16)).isEqualTo(16);
+  }
+}
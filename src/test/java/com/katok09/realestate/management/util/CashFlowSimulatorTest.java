@@ -0,0 +1,92 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.katok09.realestate.management.dto.CashFlowBand;
+import com.katok09.realestate.management.dto.SimulationParams;
+import com.katok09.realestate.management.dto.SimulationResult;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class CashFlowSimulatorTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+  private final CashFlowSimulator sut = new CashFlowSimulator(pool);
+
+  @AfterEach
+  void after() {
+    pool.shutdown();
+  }
+
+  @Test
+  void 空室率と変動が0の時全ての試行で同じキャッシュフローとなりローン完済後は返済が無くなること() {
+
+    SimulationParams params = createParams(3, 100, 0);
+    params.setRentDeclineRate(0);
+    params.setRentVolatility(0);
+    params.setInterestVolatility(0);
+    params.setLoanYears(2);
+
+    SimulationResult actual = sut.simulate(new long[]{600000L, 600000L}, 120000, 240000, 60000,
+        params);
+
+    // 年間家賃120万円 - 経費12万円 - ローン返済30万円（3年目は完済済み）
+    assertThat(actual.getAnnualCashFlow()).extracting(CashFlowBand::getP5)
+        .containsExactly(780000L, 780000L, 1080000L);
+    assertThat(actual.getAnnualCashFlow()).extracting(CashFlowBand::getP95)
+        .containsExactly(780000L, 780000L, 1080000L);
+    assertThat(actual.getCumulativeCashFlow().get(2).getP50()).isEqualTo(2640000L);
+    assertThat(actual.getLossProbability()).isEqualTo(0.0);
+    assertThat(actual.getPropertyCount()).isEqualTo(2);
+  }
+
+  @Test
+  void 物件ごとの空室率で家賃収入が平均空室率分減少しパーセンタイルが昇順となること() {
+
+    long[] rents = new long[1001];
+    Arrays.fill(rents, 1000000L);
+    SimulationParams params = createParams(1, 1000, 0.1);
+
+    SimulationResult actual = sut.simulate(rents, 0, 0, 0, params);
+
+    CashFlowBand band = actual.getAnnualCashFlow().get(0);
+    assertThat((double) band.getP50()).isCloseTo(1001000000 * 0.9, within(1001000000 * 0.005));
+    assertThat(band.getP5()).isLessThan(band.getP25());
+    assertThat(band.getP25()).isLessThan(band.getP50());
+    assertThat(band.getP50()).isLessThan(band.getP75());
+    assertThat(band.getP75()).isLessThan(band.getP95());
+  }
+
+  @Test
+  void 同じシードでは並列数によらず同じ結果となること() {
+
+    long[] rents = {360000L, 480000L, 1200000L, 600000L, 840000L};
+    SimulationParams params = createParams(35, 500, 0.05);
+
+    SimulationResult actual = sut.simulate(rents, 200000, 300000, 100000, params);
+    ForkJoinPool singlePool = new ForkJoinPool(1);
+    SimulationResult expected = new CashFlowSimulator(singlePool)
+        .simulate(rents, 200000, 300000, 100000, params);
+    singlePool.shutdown();
+
+    assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
+    assertThat(actual.getAnnualCashFlow()).hasSize(35);
+
+    params.setSeed(2L);
+    SimulationResult otherSeed = sut.simulate(rents, 200000, 300000, 100000, params);
+    assertThat(otherSeed.getCumulativeCashFlow().get(34).getP50())
+        .isNotEqualTo(actual.getCumulativeCashFlow().get(34).getP50());
+  }
+
+  private SimulationParams createParams(int years, int paths, double vacancyRate) {
+    SimulationParams params = new SimulationParams();
+    params.setYears(years);
+    params.setPaths(paths);
+    params.setVacancyRate(vacancyRate);
+    params.setSeed(1L);
+    return params;
+  }
+}
@@ -0,0 +1,55 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class ClientRateLimiterTest {
+
+  @Test
+  void ウィンドウ内の上限を超えたリクエストが拒否され次のウィンドウで許可されること() {
+
+    ClientRateLimiter sut = new ClientRateLimiter(2, 1000, 100);
+
+    assertThat(sut.tryAcquire("10.0.0.1", 0)).isTrue();
+    assertThat(sut.tryAcquire("10.0.0.1", 500)).isTrue();
+    assertThat(sut.tryAcquire("10.0.0.1", 999)).isFalse();
+    // クライアントごとに制限します。
+    assertThat(sut.tryAcquire("10.0.0.2", 999)).isTrue();
+    assertThat(sut.tryAcquire("10.0.0.1", 1000)).isTrue();
+    assertThat(sut.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void 保持するクライアント数が上限の時は期限切れのウィンドウを破棄し無ければ新しいクライアントを拒否すること() {
+
+    ClientRateLimiter sut = new ClientRateLimiter(1, 1000, 2);
+    sut.tryAcquire("10.0.0.1", 0);
+    sut.tryAcquire("10.0.0.2", 500);
+
+    // 期限切れのウィンドウが無い場合は拒否します（制限を無効にしません）。
+    assertThat(sut.tryAcquire("10.0.0.3", 900)).isFalse();
+    assertThat(sut.size()).isEqualTo(2);
+
+    // 10.0.0.1のウィンドウが期限切れになると破棄して記録します。
+    assertThat(sut.tryAcquire("10.0.0.3", 1000)).isTrue();
+    assertThat(sut.tryAcquire("10.0.0.3", 1000)).isFalse();
+    assertThat(sut.tryAcquire("10.0.0.2", 1000)).isFalse();
+    assertThat(sut.size()).isEqualTo(2);
+    assertThat(sut.getRejectedCount()).isEqualTo(3);
+  }
+
+  @Test
+  void 記録の古いクライアントでもリクエストが続いている場合は破棄しないこと() {
+
+    ClientRateLimiter sut = new ClientRateLimiter(1, 1000, 2);
+    sut.tryAcquire("10.0.0.1", 0);
+    sut.tryAcquire("10.0.0.2", 500);
+    // 10.0.0.1のウィンドウが新しくなり、10.0.0.2のウィンドウが先に期限切れになります。
+    sut.tryAcquire("10.0.0.1", 1200);
+
+    assertThat(sut.tryAcquire("10.0.0.3", 1500)).isTrue();
+    assertThat(sut.tryAcquire("10.0.0.1", 1500)).isFalse();
+    assertThat(sut.size()).isEqualTo(2);
+  }
+}
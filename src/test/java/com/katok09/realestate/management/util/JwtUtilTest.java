@@ -1,6 +1,7 @@
 package com.katok09.realestate.management.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +38,71 @@ public class JwtUtilTest {
     assertThat(actual).isNotNull().isNotEmpty();
   }
 
+  @Test
+  void トークンを1度の解析で検証済みクレーム情報として取得できること() {
+
+    String token = sut.generateToken("DummyUser", "USER", 1);
+
+    VerifiedClaims actual = sut.parseToken(token);
+
+    assertThat(actual.getToken()).isEqualTo(token);
+    assertThat(actual.getUsername()).isEqualTo("DummyUser");
+    assertThat(actual.getUserId()).isEqualTo(1);
+    assertThat(actual.getRole()).isEqualTo("USER");
+    assertThat(actual.isExpired()).isFalse();
+    assertThat(actual.getRemainingTimeInMinutes()).isBetween(1439L, 1440L);
+  }
+
+  @Test
+  void トークンバージョンを埋め込んだトークンからトークンバージョンを抽出できること() {
+
+    VerifiedClaims versioned = sut.parseToken(
+        sut.generateToken("DummyUser", "USER", 1, 1760000000000L));
+    VerifiedClaims legacy = sut.parseToken(sut.generateToken("DummyUser", "USER", 1));
+
+    assertThat(versioned.getTokenVersion()).isEqualTo(1760000000000L);
+    assertThat(legacy.getTokenVersion()).isEqualTo(0L);
+  }
+
+  @Test
+  void 検証済みクレーム情報とユーザー情報を照らし合わせ有効なトークンか確認できること() {
+
+    VerifiedClaims claims = sut.parseToken(sut.generateToken("DummyUser", "USER", 1));
+    User user = new User();
+    user.setUsername("DummyUser");
+    User fakeUser = new User();
+    fakeUser.setUsername("FakeDummyUser");
+
+    assertThat(sut.validateToken(claims, new CustomUserPrincipal(user))).isTrue();
+    assertThat(sut.validateToken(claims, new CustomUserPrincipal(fakeUser))).isFalse();
+  }
+
+  @Test
+  void 秘密鍵をローテーションした時新しい秘密鍵でのみトークンを検証できること() {
+
+    String oldToken = sut.generateToken("DummyUser", "USER", 1);
+
+    sut.rotateSecret("9f1c2b7e4a6d8f0e3b5c7a9d1e2f4a6b8c0d2e4f6a8b0c2d4e6f8a0b2c4d6e8f");
+    String newToken = sut.generateToken("DummyUser", "USER", 1);
+
+    assertThat(sut.parseToken(newToken).getUsername()).isEqualTo("DummyUser");
+    assertThatThrownBy(() -> sut.parseToken(oldToken)).isInstanceOf(RuntimeException.class);
+  }
+
+  @Test
+  void 同じトークンの2回目以降の解析は検証済みトークンキャッシュから取得されること() {
+
+    ReflectionTestUtils.setField(sut, "tokenCacheMaxSize", 100);
+    String token = sut.generateToken("DummyUser", "USER", 1);
+
+    sut.parseToken(token);
+    VerifiedClaims actual = sut.parseToken(token);
+
+    assertThat(actual.getUsername()).isEqualTo("DummyUser");
+    assertThat(sut.getTokenCache().getMissCount()).isEqualTo(1);
+    assertThat(sut.getTokenCache().getHitCount()).isEqualTo(1);
+  }
+
   @Test
   void トークンからユーザーIDを取得できること() {
 
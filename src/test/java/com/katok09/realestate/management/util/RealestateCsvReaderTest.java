@@ -0,0 +1,102 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+public class RealestateCsvReaderTest {
+
+  @Test
+  void CSVエクスポートした不動産詳細情報を読み込めること() throws Exception {
+
+    StringWriter out = new StringWriter();
+    RealestateCsvWriter writer = new RealestateCsvWriter(out);
+    writer.writeHeader();
+    writer.writeRow(createDetail("A,\"B\"\r\nC", "=SUM(A1)"));
+    RealestateCsvReader sut = createReader(out.toString());
+
+    sut.readHeader();
+    RealestateDetail actual = sut.readRow();
+
+    assertThat(actual.getProject().getId()).isEqualTo(0);
+    assertThat(actual.getProject().getProjectName()).isEqualTo("A,\"B\"\r\nC");
+    assertThat(actual.getParcel().getParcelPrice()).isEqualTo(1000000L);
+    assertThat(actual.getParcel().getParcelSize()).isEqualTo(100.5);
+    assertThat(actual.getParcel().getParcelRemark()).isEqualTo("=SUM(A1)");
+    assertThat(actual.getBuilding().getBuildingDate()).isEqualTo(LocalDate.of(2020, 1, 1));
+    assertThat(actual.getBuilding().getBuildingRemark()).isNull();
+    assertThat(actual.getIncomeAndExpenses().getRent()).isEqualTo(100000);
+    assertThat(sut.getRowNumber()).isEqualTo(1);
+    assertThat(sut.readRow()).isNull();
+  }
+
+  @Test
+  void 見出しで列を判別し列の並び順と未知の列と空行を問わず読み込めること() throws Exception {
+
+    RealestateCsvReader sut = createReader("月収入,不明な列,プロジェクト名\n50000,x,寿町AP\n\n0,y,東三条AP\n");
+
+    sut.readHeader();
+    RealestateDetail first = sut.readRow();
+    RealestateDetail second = sut.readRow();
+
+    assertThat(first.getProject().getProjectName()).isEqualTo("寿町AP");
+    assertThat(first.getIncomeAndExpenses().getRent()).isEqualTo(50000);
+    assertThat(second.getProject().getProjectName()).isEqualTo("東三条AP");
+    assertThat(sut.getRowNumber()).isEqualTo(2);
+  }
+
+  @Test
+  void 値を変換できない行は例外が発生し次の行から読み込みを続けられること() throws Exception {
+
+    RealestateCsvReader sut = createReader("プロジェクト名,月収入\n寿町AP,abc\n東三条AP,1000\n");
+    sut.readHeader();
+
+    assertThatThrownBy(sut::readRow)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("月収入の値が不正です。");
+    assertThat(sut.getRowNumber()).isEqualTo(1);
+
+    RealestateDetail actual = sut.readRow();
+    assertThat(actual.getProject().getProjectName()).isEqualTo("東三条AP");
+    assertThat(sut.getRowNumber()).isEqualTo(2);
+  }
+
+  @Test
+  void プロジェクト名の列が無い場合は例外が発生すること() {
+
+    RealestateCsvReader sut = createReader("月収入\n1000\n");
+
+    assertThatThrownBy(sut::readHeader)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("CSVの見出し行にプロジェクト名の列がありません。");
+  }
+
+  private RealestateCsvReader createReader(String csv) {
+    return new RealestateCsvReader(new BufferedReader(new StringReader(csv)));
+  }
+
+  private RealestateDetail createDetail(String projectName, String parcelRemark) {
+    Project project = new Project();
+    project.setId(1);
+    project.setProjectName(projectName);
+    Parcel parcel = new Parcel();
+    parcel.setParcelPrice(1000000);
+    parcel.setParcelSize(100.5);
+    parcel.setParcelRemark(parcelRemark);
+    Building building = new Building();
+    building.setBuildingDate(LocalDate.of(2020, 1, 1));
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setRent(100000);
+    return new RealestateDetail(project, parcel, building, incomeAndExpenses);
+  }
+}
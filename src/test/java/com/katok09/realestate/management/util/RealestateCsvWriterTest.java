@@ -0,0 +1,75 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+public class RealestateCsvWriterTest {
+
+  @Test
+  void BOMとSchemaの説明に基づく日本語の見出し行が書き込まれること() throws Exception {
+
+    StringWriter out = new StringWriter();
+    RealestateCsvWriter sut = new RealestateCsvWriter(out);
+
+    sut.writeHeader();
+
+    assertThat(out.toString()).startsWith("\uFEFFプロジェクトID,プロジェクト名,土地価格,土地住所,");
+    assertThat(out.toString()).contains(",建物築年,建物備考,月収入,管理費,");
+    assertThat(out.toString()).endsWith(",火災保険料,備考\r\n");
+  }
+
+  @Test
+  void 不動産詳細情報が1行のCSVとして書き込まれること() throws Exception {
+
+    StringWriter out = new StringWriter();
+    RealestateCsvWriter sut = new RealestateCsvWriter(out);
+
+    sut.writeRow(createDetail("ABCアパート", "特になし"));
+
+    assertThat(out.toString()).isEqualTo(
+        "1,ABCアパート,1000000,東京都,宅地,100.5,特になし,"
+            + "2000000,アパート,木造,80.25,2020-01-01,,"
+            + "100000,0,0,0,0,0,0,0,0,0,0,\r\n");
+  }
+
+  @Test
+  void カンマや引用符を含む値がエスケープされ数式となる値の先頭に引用符が付与されること() throws Exception {
+
+    StringWriter out = new StringWriter();
+    RealestateCsvWriter sut = new RealestateCsvWriter(out);
+
+    sut.writeRow(createDetail("A,\"B\"", "=SUM(A1)"));
+
+    assertThat(out.toString()).startsWith("1,\"A,\"\"B\"\"\",");
+    assertThat(out.toString()).contains(",'=SUM(A1),");
+  }
+
+  private RealestateDetail createDetail(String projectName, String parcelRemark) {
+    Project project = new Project();
+    project.setId(1);
+    project.setProjectName(projectName);
+    Parcel parcel = new Parcel();
+    parcel.setParcelPrice(1000000);
+    parcel.setParcelAddress("東京都");
+    parcel.setParcelCategory("宅地");
+    parcel.setParcelSize(100.5);
+    parcel.setParcelRemark(parcelRemark);
+    Building building = new Building();
+    building.setBuildingPrice(2000000);
+    building.setBuildingType("アパート");
+    building.setBuildingStructure("木造");
+    building.setBuildingSize(80.25);
+    building.setBuildingDate(LocalDate.of(2020, 1, 1));
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setRent(100000);
+    return new RealestateDetail(project, parcel, building, incomeAndExpenses);
+  }
+}
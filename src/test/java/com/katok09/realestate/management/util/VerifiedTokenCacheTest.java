@@ -0,0 +1,111 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+public class VerifiedTokenCacheTest {
+
+  @Test
+  void 保持したクレームを同じトークンで取得できヒット数が加算されること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(10);
+    Claims claims = createClaims("DummyUser", 60 * 1000);
+
+    sut.put("DummyToken", claims);
+    Claims actual = sut.get("DummyToken");
+
+    assertThat(actual).isSameAs(claims);
+    assertThat(sut.getHitCount()).isEqualTo(1);
+    assertThat(sut.getMissCount()).isEqualTo(0);
+  }
+
+  @Test
+  void 保持していないトークンの時nullが返りミス数が加算されること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(10);
+
+    Claims actual = sut.get("UnknownToken");
+
+    assertThat(actual).isNull();
+    assertThat(sut.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void 有効期限切れのクレームは破棄されnullが返ること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(10);
+    sut.put("ExpiredToken", createClaims("DummyUser", -1000));
+
+    Claims actual = sut.get("ExpiredToken");
+
+    assertThat(actual).isNull();
+    assertThat(sut.size()).isEqualTo(0);
+    assertThat(sut.getExpiredEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void 最大件数を超えた時最も長く参照されていないエントリが破棄されること() throws InterruptedException {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(2);
+    sut.put("Token1", createClaims("User1", 60 * 1000));
+    sut.put("Token2", createClaims("User2", 60 * 1000));
+    // 最終参照時刻は1ms単位で更新されます。
+    Thread.sleep(2);
+    sut.get("Token1");
+
+    sut.put("Token3", createClaims("User3", 60 * 1000));
+
+    assertThat(sut.size()).isEqualTo(2);
+    assertThat(sut.getSizeEvictionCount()).isEqualTo(1);
+    assertThat(sut.get("Token1")).isNotNull();
+    assertThat(sut.get("Token2")).isNull();
+    assertThat(sut.get("Token3")).isNotNull();
+  }
+
+  @Test
+  void 最大件数を超えた時期限切れのエントリから破棄されること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(10);
+    sut.put("ExpiredToken", createClaims("User1", -1000));
+    for (int i = 0; i < 10; i++) {
+      sut.put("Token" + i, createClaims("User" + i, 60 * 1000));
+    }
+
+    assertThat(sut.size()).isEqualTo(10);
+    assertThat(sut.getExpiredEvictionCount()).isEqualTo(1);
+    assertThat(sut.getSizeEvictionCount()).isEqualTo(0);
+  }
+
+  @Test
+  void 最大件数が0の時キャッシュが無効となること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(0);
+    sut.put("DummyToken", createClaims("DummyUser", 60 * 1000));
+
+    assertThat(sut.isEnabled()).isFalse();
+    assertThat(sut.get("DummyToken")).isNull();
+    assertThat(sut.size()).isEqualTo(0);
+  }
+
+  @Test
+  void クリアした時全てのエントリが破棄されること() {
+
+    VerifiedTokenCache sut = new VerifiedTokenCache(10);
+    sut.put("DummyToken", createClaims("DummyUser", 60 * 1000));
+
+    sut.clear();
+
+    assertThat(sut.get("DummyToken")).isNull();
+  }
+
+  private Claims createClaims(String subject, long expiresInMillis) {
+    return Jwts.claims()
+        .subject(subject)
+        .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+        .build();
+  }
+}
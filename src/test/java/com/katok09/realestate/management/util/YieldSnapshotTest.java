@@ -0,0 +1,121 @@
+package com.katok09.realestate.management.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.katok09.realestate.management.data.Building;
+import com.katok09.realestate.management.data.IncomeAndExpenses;
+import com.katok09.realestate.management.data.Parcel;
+import com.katok09.realestate.management.data.Project;
+import com.katok09.realestate.management.domain.RealestateDetail;
+import com.katok09.realestate.management.dto.RankingParams;
+import com.katok09.realestate.management.dto.YieldRank;
+import com.katok09.realestate.management.dto.YieldRanking;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class YieldSnapshotTest {
+
+  @Test
+  void 利回りの高い順に上位の物件が返り同じ利回りの場合はプロジェクトID順となること() {
+
+    YieldSnapshot sut = YieldSnapshot.of(List.of(
+        createDetail(1, 1000000L, 10000, 0, 0, "アパート", "木造"),
+        createDetail(2, 1000000L, 20000, 15000, 0, "アパート", "鉄骨造"),
+        createDetail(3, 2000000L, 20000, 0, 10000, "マンション", "木造"),
+        createDetail(4, 0L, 50000, 0, 0, "アパート", "木造")));
+
+    YieldRanking actual = sut.rank(new RankingParams());
+
+    // 表面利回り ID2：24%、ID1・ID3：12%（ID4は取得価格0円のため対象外）
+    assertThat(actual.getMatchedCount()).isEqualTo(3);
+    assertThat(actual.getItems()).extracting(YieldRank::getProjectId).containsExactly(2, 1, 3);
+    assertThat(actual.getItems()).extracting(YieldRank::getRank).containsExactly(1, 2, 3);
+    YieldRank first = actual.getItems().get(0);
+    assertThat(first.getGrossYield()).isEqualTo(24.0);
+    assertThat(first.getNetYield()).isEqualTo(6.0);
+    assertThat(first.getBuildingStructure()).isEqualTo("鉄骨造");
+    assertThat(first.getMonthlyOperatingExpenses()).isEqualTo(15000);
+  }
+
+  @Test
+  void 実質利回りの低い順に絞り込み条件に該当する物件のみ取得件数分返ること() {
+
+    YieldSnapshot sut = YieldSnapshot.of(List.of(
+        createDetail(1, 1000000L, 10000, 0, 0, "アパート", "木造"),
+        createDetail(2, 1000000L, 20000, 15000, 0, "アパート", "鉄骨造"),
+        createDetail(3, 2000000L, 20000, 0, 10000, "マンション", "木造"),
+        createDetail(4, 1000000L, 30000, 0, 0, "アパート", "木造")));
+
+    RankingParams params = new RankingParams();
+    params.setSort("netYield");
+    params.setOrder("asc");
+    params.setLimit(1);
+    params.setBuildingType("アパート");
+    params.setFinancing(false);
+    params.setMinYield(10.0);
+
+    YieldRanking actual = sut.rank(params);
+
+    // アパート・融資なし・実質利回り10%以上はID1（12%）とID4（36%）
+    assertThat(actual.getMatchedCount()).isEqualTo(2);
+    assertThat(actual.getItems()).extracting(YieldRank::getProjectId).containsExactly(1);
+
+    params.setBuildingType("店舗");
+    assertThat(sut.rank(params).getMatchedCount()).isZero();
+  }
+
+  @Test
+  void 大量の物件で全件を並べ替えた結果の上位と一致すること() {
+
+    SplittableRandom random = new SplittableRandom(1);
+    List<RealestateDetail> details = new ArrayList<>();
+    for (int i = 1; i <= 5000; i++) {
+      // 利回りが同じ物件ができるよう家賃・価格の候補を少なくします。
+      details.add(createDetail(i, random.nextInt(1, 20) * 1000000L,
+          random.nextInt(1, 20) * 10000, random.nextInt(0, 5) * 1000, 0, "アパート", "木造"));
+    }
+    RankingParams params = new RankingParams();
+    params.setSort("netYield");
+    params.setLimit(100);
+
+    YieldRanking actual = YieldSnapshot.of(details).rank(params);
+
+    List<Integer> expected = details.stream()
+        .sorted(Comparator.comparingDouble((RealestateDetail detail) -> -netYield(detail))
+            .thenComparingInt(detail -> detail.getProject().getId()))
+        .limit(100)
+        .map(detail -> detail.getProject().getId())
+        .toList();
+    assertThat(actual.getMatchedCount()).isEqualTo(5000);
+    assertThat(actual.getItems()).extracting(YieldRank::getProjectId)
+        .containsExactlyElementsOf(expected);
+  }
+
+  private static double netYield(RealestateDetail detail) {
+    IncomeAndExpenses incomeAndExpenses = detail.getIncomeAndExpenses();
+    return (incomeAndExpenses.getRent() - incomeAndExpenses.getMaintenanceCost()) * 1200.0
+        / (detail.getParcel().getParcelPrice() + detail.getBuilding().getBuildingPrice());
+  }
+
+  private static RealestateDetail createDetail(int projectId, long price, int rent,
+      int maintenanceCost, int principal, String buildingType, String buildingStructure) {
+
+    Project project = new Project();
+    project.setId(projectId);
+    project.setProjectName("Project" + projectId);
+    Parcel parcel = new Parcel();
+    parcel.setParcelPrice(price / 2);
+    Building building = new Building();
+    building.setBuildingPrice(price - price / 2);
+    building.setBuildingType(buildingType);
+    building.setBuildingStructure(buildingStructure);
+    IncomeAndExpenses incomeAndExpenses = new IncomeAndExpenses();
+    incomeAndExpenses.setRent(rent);
+    incomeAndExpenses.setMaintenanceCost(maintenanceCost);
+    incomeAndExpenses.setPrincipal(principal);
+    return new RealestateDetail(project, parcel, building, incomeAndExpenses);
+  }
+}
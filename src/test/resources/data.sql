@@ -66,4 +66,23 @@ VALUES ('admin', '$2a$10$7imSMTO8x43cBc9LdoeRTOPLsNvxUaxElB9dDzEv5RhoYdY6x8ve6',
        ('guest', '$2a$10$St177xwQG11Bx1WAvt4yqurgrVfeeuFJayIo8v2Zw1wrpmkGq1.aC',
         'guest@example.com', 'ゲストユーザー', 'GUEST', true, 0, null, false),
        ('accountLockedUser', '$2a$10$7imSMTO8x43cBc9LdoeRTOPLsNvxUaxElB9dDzEv5RhoYdY6x8ve6',
-        'locked@example.com', 'アカウントロックユーザー', 'USER', true, 5, '2038-01-01T00:00:00', false);
\ No newline at end of file
+        'locked@example.com', 'アカウントロックユーザー', 'USER', true, 5, '2038-01-01T00:00:00', false);
+-- 不動産収支集計（上記の不動産情報から集計します。以降は不動産情報の登録・更新・削除時に差分更新されます）
+INSERT INTO portfolio_summary (user_id, building_type, building_structure, project_count, financed_count,
+                               total_price, monthly_rent, monthly_operating_expenses, monthly_debt_service)
+SELECT pj.user_id,
+       COALESCE(bu.building_type, ''),
+       COALESCE(bu.building_structure, ''),
+       COUNT(*),
+       COALESCE(SUM(CASE WHEN ie.principal > 0 OR ie.interest > 0 THEN 1 ELSE 0 END), 0),
+       COALESCE(SUM(COALESCE(pa.parcel_price, 0) + COALESCE(bu.building_price, 0)), 0),
+       COALESCE(SUM(ie.rent), 0),
+       COALESCE(SUM(ie.maintenance_cost + ie.repair_fund + ie.management_fee + ie.tax
+         + ie.water_bill + ie.electric_bill + ie.gas_bill + ie.fire_insurance), 0),
+       COALESCE(SUM(ie.principal + ie.interest), 0)
+FROM projects AS pj
+LEFT JOIN parcels AS pa ON pj.id = pa.project_id
+LEFT JOIN buildings AS bu ON pj.id = bu.project_id
+LEFT JOIN income_and_expenses AS ie ON pj.id = ie.project_id
+WHERE pj.is_deleted = false
+GROUP BY pj.user_id, COALESCE(bu.building_type, ''), COALESCE(bu.building_structure, '');
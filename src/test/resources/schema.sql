@@ -1,10 +1,10 @@
 CREATE TABLE IF NOT EXISTS projects(id INT PRIMARY KEY AUTO_INCREMENT, user_id INT NOT NULL, project_name VARCHAR(100),is_deleted boolean);
 
-CREATE TABLE IF NOT EXISTS parcels(id INT PRIMARY KEY AUTO_INCREMENT,project_id INT NOT NULL, user_id INT NOT NULL, parcel_price BIGINT,parcel_address VARCHAR(100),parcel_category VARCHAR(50),parcel_size DOUBLE,parcel_remark VARCHAR(100),is_deleted boolean);
+CREATE TABLE IF NOT EXISTS parcels(id INT PRIMARY KEY AUTO_INCREMENT,project_id INT NOT NULL, user_id INT NOT NULL, parcel_price BIGINT,parcel_address VARCHAR(100),parcel_category VARCHAR(50),parcel_size DOUBLE,parcel_remark VARCHAR(100),is_deleted boolean, FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE);
 
-CREATE TABLE IF NOT EXISTS buildings(id INT PRIMARY KEY AUTO_INCREMENT, project_id INT NOT NULL, user_id INT NOT NULL, building_price BIGINT, building_type VARCHAR(50), building_structure VARCHAR(50), building_size DOUBLE, building_date DATE, building_remark VARCHAR(100), is_deleted boolean);
+CREATE TABLE IF NOT EXISTS buildings(id INT PRIMARY KEY AUTO_INCREMENT, project_id INT NOT NULL, user_id INT NOT NULL, building_price BIGINT, building_type VARCHAR(50), building_structure VARCHAR(50), building_size DOUBLE, building_date DATE, building_remark VARCHAR(100), is_deleted boolean, FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE);
 
-CREATE TABLE IF NOT EXISTS income_and_expenses(id INT PRIMARY KEY AUTO_INCREMENT,project_id INT NOT NULL, user_id INT NOT NULL, rent INT, maintenance_cost INT, repair_fund INT, management_fee INT, principal INT, interest INT, tax INT, water_bill INT, electric_bill INT, gas_bill INT, fire_insurance INT, other VARCHAR(100), is_deleted boolean);
+CREATE TABLE IF NOT EXISTS income_and_expenses(id INT PRIMARY KEY AUTO_INCREMENT,project_id INT NOT NULL, user_id INT NOT NULL, rent INT, maintenance_cost INT, repair_fund INT, management_fee INT, principal INT, interest INT, tax INT, water_bill INT, electric_bill INT, gas_bill INT, fire_insurance INT, other VARCHAR(100), is_deleted boolean, FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE);
 
 CREATE TABLE IF NOT EXISTS users (
     id INT PRIMARY KEY AUTO_INCREMENT,
@@ -20,8 +20,33 @@ CREATE TABLE IF NOT EXISTS users (
     password_changed_at TIMESTAMP NULL,
     login_failed_attempts INT DEFAULT 0,
     account_locked_until TIMESTAMP DEFAULT NULL,
+    token_version BIGINT NOT NULL DEFAULT 0,
     is_deleted BOOLEAN NOT NULL DEFAULT false
     );
 
+CREATE TABLE IF NOT EXISTS import_progress (
+    user_id INT NOT NULL,
+    import_id VARCHAR(64) NOT NULL,
+    committed_rows INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, import_id)
+    );
+
+CREATE TABLE IF NOT EXISTS portfolio_summary (
+    user_id INT NOT NULL,
+    building_type VARCHAR(50) NOT NULL DEFAULT '',
+    building_structure VARCHAR(50) NOT NULL DEFAULT '',
+    project_count INT NOT NULL DEFAULT 0,
+    financed_count INT NOT NULL DEFAULT 0,
+    total_price BIGINT NOT NULL DEFAULT 0,
+    monthly_rent BIGINT NOT NULL DEFAULT 0,
+    monthly_operating_expenses BIGINT NOT NULL DEFAULT 0,
+    monthly_debt_service BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, building_type, building_structure)
+    );
+
+CREATE INDEX idx_projects_user_id_is_deleted_id ON projects(user_id, is_deleted, id);
+CREATE INDEX idx_projects_user_id_is_deleted_project_name ON projects(user_id, is_deleted, project_name, id);
+CREATE INDEX idx_projects_is_deleted_id ON projects(is_deleted, id);
 CREATE INDEX idx_users_username ON users(username);
 CREATE INDEX idx_users_email ON users(email);
\ No newline at end of file